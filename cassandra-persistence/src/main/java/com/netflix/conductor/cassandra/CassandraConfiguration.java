@@ -41,6 +41,21 @@ public interface CassandraConfiguration extends Configuration {
     String CASSANDRA_SHARD_SIZE_PROPERTY_KEY = "workflow.cassandra.shard.size";
     int CASSANDRA_SHARD_SIZE_DEFAULT_VALUE = 100;
 
+    String CASSANDRA_TASK_SHARDING_ENABLED_PROPERTY_NAME = "workflow.cassandra.task.sharding.enabled";
+    boolean CASSANDRA_TASK_SHARDING_ENABLED_DEFAULT_VALUE = false;
+
+    String CASSANDRA_TASK_SHARDING_MIGRATE_PROPERTY_NAME = "workflow.cassandra.task.sharding.migrate";
+    boolean CASSANDRA_TASK_SHARDING_MIGRATE_DEFAULT_VALUE = false;
+
+    String CASSANDRA_MAX_INFLIGHT_REQUESTS_PROPERTY_NAME = "workflow.cassandra.max.inflight.requests";
+    int CASSANDRA_MAX_INFLIGHT_REQUESTS_DEFAULT_VALUE = 64;
+
+    String CASSANDRA_PENDING_INDEX_ENABLED_PROPERTY_NAME = "workflow.cassandra.pending.index.enabled";
+    boolean CASSANDRA_PENDING_INDEX_ENABLED_DEFAULT_VALUE = false;
+
+    String CASSANDRA_PENDING_INDEX_BUCKET_HOURS_PROPERTY_NAME = "workflow.cassandra.pending.index.bucket.hours";
+    int CASSANDRA_PENDING_INDEX_BUCKET_HOURS_DEFAULT_VALUE = 24;
+
     String CASSANDRA_READ_CONSISTENCY_LEVEL = "workflow.cassandra.read.consistency.level";
     String CASSANDRA_READ_CONSISTENCY_LEVEL_DEFAULT_VALUE = "LOCAL_QUORUM";
 
@@ -67,6 +82,45 @@ public interface CassandraConfiguration extends Configuration {
         return getIntProperty(CASSANDRA_SHARD_SIZE_PROPERTY_KEY, CASSANDRA_SHARD_SIZE_DEFAULT_VALUE);
     }
 
+    /**
+     * @return true if the tasks of a workflow are spread over partitions of {@link #getShardSize()} tasks by their
+     * sequence number, instead of all being stored in the partition of the workflow
+     */
+    default boolean isTaskShardingEnabled() {
+        return getBooleanProperty(CASSANDRA_TASK_SHARDING_ENABLED_PROPERTY_NAME, CASSANDRA_TASK_SHARDING_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return true if tasks stored in a partition other than the one of their shard, such as those of workflows
+     * created before tasks were sharded, are moved to their shard when the workflow is read
+     */
+    default boolean isTaskShardingMigrationEnabled() {
+        return getBooleanProperty(CASSANDRA_TASK_SHARDING_MIGRATE_PROPERTY_NAME, CASSANDRA_TASK_SHARDING_MIGRATE_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the maximum number of asynchronous requests in flight for an operation on many rows, such as writing
+     * the task_lookup rows of the tasks created together
+     */
+    default int getMaxInflightRequests() {
+        return getIntProperty(CASSANDRA_MAX_INFLIGHT_REQUESTS_PROPERTY_NAME, CASSANDRA_MAX_INFLIGHT_REQUESTS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return true if the non terminal workflows and tasks are indexed by name, with counts of the pending workflows
+     * and in progress tasks of each name, to query them without a search index
+     */
+    default boolean isPendingIndexEnabled() {
+        return getBooleanProperty(CASSANDRA_PENDING_INDEX_ENABLED_PROPERTY_NAME, CASSANDRA_PENDING_INDEX_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the hours of creation time, or scheduled time for tasks, indexed in one partition per name
+     */
+    default int getPendingIndexBucketHours() {
+        return getIntProperty(CASSANDRA_PENDING_INDEX_BUCKET_HOURS_PROPERTY_NAME, CASSANDRA_PENDING_INDEX_BUCKET_HOURS_DEFAULT_VALUE);
+    }
+
     default String getReplicationStrategy() {
         return getProperty(CASSANDRA_REPLICATION_STRATEGY_PROPERTY_NAME, CASSANDRA_REPLICATION_STRATEGY_DEFAULT_VALUE);
     }
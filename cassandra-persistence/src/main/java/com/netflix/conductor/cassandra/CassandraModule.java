@@ -18,6 +18,7 @@ import com.google.inject.AbstractModule;
 import com.netflix.conductor.dao.EventHandlerDAO;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.dao.RateLimitingDAO;
 import com.netflix.conductor.dao.cassandra.CassandraEventHandlerDAO;
 import com.netflix.conductor.dao.cassandra.CassandraExecutionDAO;
 import com.netflix.conductor.dao.cassandra.CassandraMetadataDAO;
@@ -32,6 +33,7 @@ public class CassandraModule extends AbstractModule {
 
         bind(MetadataDAO.class).to(CassandraMetadataDAO.class);
         bind(ExecutionDAO.class).to(CassandraExecutionDAO.class);
+        bind(RateLimitingDAO.class).to(CassandraExecutionDAO.class);
         bind(EventHandlerDAO.class).to(CassandraEventHandlerDAO.class);
     }
 }
@@ -15,20 +15,29 @@
  */
 package com.netflix.conductor.dao.cassandra;
 
+import static com.netflix.conductor.util.Constants.BUCKET_KEY;
 import static com.netflix.conductor.util.Constants.DAO_NAME;
 import static com.netflix.conductor.util.Constants.ENTITY_KEY;
 import static com.netflix.conductor.util.Constants.EVENT_EXECUTION_ID_KEY;
 import static com.netflix.conductor.util.Constants.EVENT_HANDLER_KEY;
 import static com.netflix.conductor.util.Constants.EVENT_HANDLER_NAME_KEY;
 import static com.netflix.conductor.util.Constants.HANDLERS_KEY;
+import static com.netflix.conductor.util.Constants.IN_PROGRESS_KEY;
 import static com.netflix.conductor.util.Constants.MESSAGE_ID_KEY;
+import static com.netflix.conductor.util.Constants.NAME_KEY;
 import static com.netflix.conductor.util.Constants.PAYLOAD_KEY;
+import static com.netflix.conductor.util.Constants.REVISION_KEY;
 import static com.netflix.conductor.util.Constants.SHARD_ID_KEY;
 import static com.netflix.conductor.util.Constants.TABLE_EVENT_EXECUTIONS;
 import static com.netflix.conductor.util.Constants.TABLE_EVENT_HANDLERS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_BUCKETS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_COUNTS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_TASKS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_WORKFLOWS;
 import static com.netflix.conductor.util.Constants.TABLE_TASK_DEFS;
 import static com.netflix.conductor.util.Constants.TABLE_TASK_DEF_LIMIT;
 import static com.netflix.conductor.util.Constants.TABLE_TASK_LOOKUP;
+import static com.netflix.conductor.util.Constants.TABLE_TASK_RATE_LIMIT;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOWS;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEFS;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEFS_INDEX;
@@ -36,8 +45,10 @@ import static com.netflix.conductor.util.Constants.TASK_DEFINITION_KEY;
 import static com.netflix.conductor.util.Constants.TASK_DEFS_KEY;
 import static com.netflix.conductor.util.Constants.TASK_DEF_NAME_KEY;
 import static com.netflix.conductor.util.Constants.TASK_ID_KEY;
+import static com.netflix.conductor.util.Constants.TOTAL_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_PARTITIONS_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_TASKS_KEY;
+import static com.netflix.conductor.util.Constants.WINDOW_START_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_DEFINITION_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_DEF_INDEX_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_DEF_INDEX_VALUE;
@@ -48,6 +59,7 @@ import static com.netflix.conductor.util.Constants.WORKFLOW_VERSION_KEY;
 
 import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -65,9 +77,11 @@ import org.slf4j.LoggerFactory;
  * CREATE KEYSPACE IF NOT EXISTS conductor WITH replication = { 'class' : 'NetworkTopologyStrategy', 'us-east': '3'};
  * <p>
  * CREATE TABLE IF NOT EXISTS conductor.workflows ( workflow_id uuid, shard_id int, task_id text, entity text, payload
- * text, total_tasks int STATIC, total_partitions int STATIC, PRIMARY KEY((workflow_id, shard_id), entity, task_id) );
+ * text, revision bigint, total_tasks int STATIC, total_partitions int STATIC, PRIMARY KEY((workflow_id, shard_id),
+ * entity, task_id) );
  * <p>
- * CREATE TABLE IF NOT EXISTS conductor.task_lookup( task_id uuid, workflow_id uuid, PRIMARY KEY (task_id) );
+ * CREATE TABLE IF NOT EXISTS conductor.task_lookup( task_id uuid, workflow_id uuid, shard_id int, PRIMARY KEY
+ * (task_id) );
  * <p>
  * CREATE TABLE IF NOT EXISTS conductor.task_def_limit( task_def_name text, task_id uuid, workflow_id uuid, PRIMARY KEY
  * ((task_def_name), task_id_key) );
@@ -86,6 +100,21 @@ import org.slf4j.LoggerFactory;
  * <p>
  * CREATE TABLE IF NOT EXISTS conductor.event_executions( message_id text, event_handler_name text, event_execution_id
  * text, payload text, PRIMARY KEY ((message_id, event_handler_name), event_execution_id) );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.pending_workflows( workflow_def_name text, bucket bigint, workflow_id uuid,
+ * version int, PRIMARY KEY ((workflow_def_name, bucket), workflow_id) );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.pending_tasks( task_def_name text, bucket bigint, task_id uuid, workflow_id
+ * uuid, in_progress boolean, PRIMARY KEY ((task_def_name, bucket), task_id) );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.pending_buckets( entity text, name text, bucket bigint, PRIMARY KEY ((entity,
+ * name), bucket) );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.pending_counts( entity text, name text, total counter, PRIMARY KEY ((entity,
+ * name)) );
+ * <p>
+ * CREATE TABLE IF NOT EXISTS conductor.task_rate_limit( task_def_name text, window_start bigint, total counter, PRIMARY
+ * KEY ((task_def_name), window_start) );
  */
 public abstract class CassandraBaseDAO {
 
@@ -110,13 +139,20 @@ public abstract class CassandraBaseDAO {
             if (!initialized) {
                 session.execute(getCreateKeyspaceStatement());
                 session.execute(getCreateWorkflowsTableStatement());
+                addColumnIfMissing(TABLE_WORKFLOWS, REVISION_KEY, DataType.bigint());
                 session.execute(getCreateTaskLookupTableStatement());
+                addColumnIfMissing(TABLE_TASK_LOOKUP, SHARD_ID_KEY, DataType.cint());
                 session.execute(getCreateTaskDefLimitTableStatement());
                 session.execute(getCreateWorkflowDefsTableStatement());
                 session.execute(getCreateWorkflowDefsIndexTableStatement());
                 session.execute(getCreateTaskDefsTableStatement());
                 session.execute(getCreateEventHandlersTableStatement());
                 session.execute(getCreateEventExecutionsTableStatement());
+                session.execute(getCreatePendingWorkflowsTableStatement());
+                session.execute(getCreatePendingTasksTableStatement());
+                session.execute(getCreatePendingBucketsTableStatement());
+                session.execute(getCreatePendingCountsTableStatement());
+                session.execute(getCreateTaskRateLimitTableStatement());
                 LOGGER.info("CassandraDAO initialization complete! Tables created!");
                 initialized = true;
             }
@@ -144,16 +180,31 @@ public abstract class CassandraBaseDAO {
             .addClusteringColumn(ENTITY_KEY, DataType.text())
             .addClusteringColumn(TASK_ID_KEY, DataType.text())
             .addColumn(PAYLOAD_KEY, DataType.text())
+            .addColumn(REVISION_KEY, DataType.bigint())
             .addStaticColumn(TOTAL_TASKS_KEY, DataType.cint())
             .addStaticColumn(TOTAL_PARTITIONS_KEY, DataType.cint())
             .getQueryString();
     }
 
+    /**
+     * Adds a column to a table created before it was introduced.
+     */
+    private void addColumnIfMissing(String tableName, String columnName, DataType type) {
+        TableMetadata table = session.getCluster().getMetadata()
+            .getKeyspace(config.getCassandraKeyspace()).getTable(tableName);
+        if (table != null && table.getColumn(columnName) == null) {
+            LOGGER.info("Adding column {} to table {}", columnName, tableName);
+            session.execute(SchemaBuilder.alterTable(config.getCassandraKeyspace(), tableName)
+                .addColumn(columnName).type(type).getQueryString());
+        }
+    }
+
     private String getCreateTaskLookupTableStatement() {
         return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_TASK_LOOKUP)
             .ifNotExists()
             .addPartitionKey(TASK_ID_KEY, DataType.uuid())
             .addColumn(WORKFLOW_ID_KEY, DataType.uuid())
+            .addColumn(SHARD_ID_KEY, DataType.cint())
             .getQueryString();
     }
 
@@ -212,6 +263,54 @@ public abstract class CassandraBaseDAO {
             .getQueryString();
     }
 
+    private String getCreatePendingWorkflowsTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_PENDING_WORKFLOWS)
+            .ifNotExists()
+            .addPartitionKey(WORKFLOW_DEF_NAME_KEY, DataType.text())
+            .addPartitionKey(BUCKET_KEY, DataType.bigint())
+            .addClusteringColumn(WORKFLOW_ID_KEY, DataType.uuid())
+            .addColumn(WORKFLOW_VERSION_KEY, DataType.cint())
+            .getQueryString();
+    }
+
+    private String getCreatePendingTasksTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_PENDING_TASKS)
+            .ifNotExists()
+            .addPartitionKey(TASK_DEF_NAME_KEY, DataType.text())
+            .addPartitionKey(BUCKET_KEY, DataType.bigint())
+            .addClusteringColumn(TASK_ID_KEY, DataType.uuid())
+            .addColumn(WORKFLOW_ID_KEY, DataType.uuid())
+            .addColumn(IN_PROGRESS_KEY, DataType.cboolean())
+            .getQueryString();
+    }
+
+    private String getCreatePendingBucketsTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_PENDING_BUCKETS)
+            .ifNotExists()
+            .addPartitionKey(ENTITY_KEY, DataType.text())
+            .addPartitionKey(NAME_KEY, DataType.text())
+            .addClusteringColumn(BUCKET_KEY, DataType.bigint())
+            .getQueryString();
+    }
+
+    private String getCreatePendingCountsTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_PENDING_COUNTS)
+            .ifNotExists()
+            .addPartitionKey(ENTITY_KEY, DataType.text())
+            .addPartitionKey(NAME_KEY, DataType.text())
+            .addColumn(TOTAL_KEY, DataType.counter())
+            .getQueryString();
+    }
+
+    private String getCreateTaskRateLimitTableStatement() {
+        return SchemaBuilder.createTable(config.getCassandraKeyspace(), TABLE_TASK_RATE_LIMIT)
+            .ifNotExists()
+            .addPartitionKey(TASK_DEF_NAME_KEY, DataType.text())
+            .addClusteringColumn(WINDOW_START_KEY, DataType.bigint())
+            .addColumn(TOTAL_KEY, DataType.counter())
+            .getQueryString();
+    }
+
     String toJson(Object value) {
         try {
             return objectMapper.writeValueAsString(value);
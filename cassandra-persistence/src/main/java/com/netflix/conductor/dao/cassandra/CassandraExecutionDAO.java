@@ -13,22 +13,29 @@
 package com.netflix.conductor.dao.cassandra;
 
 import static com.netflix.conductor.common.metadata.tasks.Task.Status.IN_PROGRESS;
+import static com.netflix.conductor.util.Constants.BUCKET_KEY;
 import static com.netflix.conductor.util.Constants.DEFAULT_SHARD_ID;
 import static com.netflix.conductor.util.Constants.DEFAULT_TOTAL_PARTITIONS;
 import static com.netflix.conductor.util.Constants.ENTITY_KEY;
 import static com.netflix.conductor.util.Constants.ENTITY_TYPE_TASK;
 import static com.netflix.conductor.util.Constants.ENTITY_TYPE_WORKFLOW;
+import static com.netflix.conductor.util.Constants.IN_PROGRESS_KEY;
 import static com.netflix.conductor.util.Constants.PAYLOAD_KEY;
+import static com.netflix.conductor.util.Constants.SHARD_ID_KEY;
 import static com.netflix.conductor.util.Constants.TASK_ID_KEY;
+import static com.netflix.conductor.util.Constants.TOTAL_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_PARTITIONS_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_TASKS_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_ID_KEY;
+import static com.netflix.conductor.util.Constants.WORKFLOW_VERSION_KEY;
 
 import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -42,16 +49,25 @@ import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.utils.RetryUtil;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.PollDataDAO;
+import com.netflix.conductor.dao.RateLimitingDAO;
 import com.netflix.conductor.metrics.Monitors;
 import com.netflix.conductor.util.Statements;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -60,13 +76,16 @@ import org.slf4j.LoggerFactory;
 
 @Singleton
 @Trace
-public class CassandraExecutionDAO extends CassandraBaseDAO implements ExecutionDAO, PollDataDAO {
+public class CassandraExecutionDAO extends CassandraBaseDAO implements ExecutionDAO, RateLimitingDAO, PollDataDAO {
     private static final Logger LOGGER = LoggerFactory.getLogger(CassandraExecutionDAO.class);
     private static final String CLASS_NAME = CassandraExecutionDAO.class.getSimpleName();
 
     private final PreparedStatement insertWorkflowStatement;
     private final PreparedStatement insertTaskStatement;
+    private final PreparedStatement insertTaskIfNotExistsStatement;
     private final PreparedStatement insertEventExecutionStatement;
+    private final PreparedStatement insertPendingWorkflowStatement;
+    private final PreparedStatement insertPendingBucketStatement;
 
     private final PreparedStatement selectTotalStatement;
     private final PreparedStatement selectTaskStatement;
@@ -75,31 +94,68 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     private final PreparedStatement selectTaskLookupStatement;
     private final PreparedStatement selectTasksFromTaskDefLimitStatement;
     private final PreparedStatement selectEventExecutionsStatement;
+    private final PreparedStatement selectPendingWorkflowStatement;
+    private final PreparedStatement selectPendingWorkflowsStatement;
+    private final PreparedStatement selectPendingTaskStatement;
+    private final PreparedStatement selectPendingTasksStatement;
+    private final PreparedStatement selectPendingBucketsStatement;
+    private final PreparedStatement selectPendingCountStatement;
+    private final PreparedStatement selectTaskRateLimitStatement;
 
     private final PreparedStatement updateWorkflowStatement;
+    private final PreparedStatement updateWorkflowIfRevisionStatement;
+    private final PreparedStatement updateTaskIfRevisionStatement;
     private final PreparedStatement updateTotalTasksStatement;
     private final PreparedStatement updateTotalPartitionsStatement;
     private final PreparedStatement updateTaskLookupStatement;
     private final PreparedStatement updateTaskDefLimitStatement;
     private final PreparedStatement updateEventExecutionStatement;
+    private final PreparedStatement updatePendingTaskStatement;
+    private final PreparedStatement updatePendingTaskInProgressStatement;
+    private final PreparedStatement updatePendingTaskNotInProgressStatement;
+    private final PreparedStatement updatePendingCountStatement;
+    private final PreparedStatement updateTaskRateLimitStatement;
 
     private final PreparedStatement deleteWorkflowStatement;
     private final PreparedStatement deleteTaskStatement;
     private final PreparedStatement deleteTaskLookupStatement;
     private final PreparedStatement deleteTaskDefLimitStatement;
     private final PreparedStatement deleteEventExecutionStatement;
+    private final PreparedStatement deletePendingWorkflowStatement;
+    private final PreparedStatement deletePendingTaskStatement;
+    private final PreparedStatement deletePendingTaskIfInProgressStatement;
+    private final PreparedStatement deletePendingBucketStatement;
+    private final PreparedStatement deleteTaskRateLimitStatement;
 
     private final int eventExecutionsTTL;
+    private final boolean taskShardingEnabled;
+    private final boolean taskShardingMigrationEnabled;
+    private final int shardSize;
+    private final int maxInflightRequests;
+    private final boolean pendingIndexEnabled;
+    private final long pendingIndexBucketMillis;
 
     @Inject
     public CassandraExecutionDAO(Session session, ObjectMapper objectMapper, CassandraConfiguration config, Statements statements) {
         super(session, objectMapper, config);
 
         eventExecutionsTTL = config.getEventExecutionPersistenceTTL();
+        taskShardingEnabled = config.isTaskShardingEnabled();
+        taskShardingMigrationEnabled = config.isTaskShardingMigrationEnabled();
+        shardSize = Math.max(config.getShardSize(), 1);
+        maxInflightRequests = Math.max(config.getMaxInflightRequests(), 1);
+        pendingIndexEnabled = config.isPendingIndexEnabled();
+        pendingIndexBucketMillis = TimeUnit.HOURS.toMillis(Math.max(config.getPendingIndexBucketHours(), 1));
+        // conditional batches are limited to a partition, a decide could not be written at once
+        Preconditions.checkState(!(taskShardingEnabled && config.isOptimisticConcurrencyEnabled()),
+                "Task sharding cannot be enabled together with optimistic concurrency control");
 
         this.insertWorkflowStatement = session.prepare(statements.getInsertWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.insertTaskStatement = session.prepare(statements.getInsertTaskStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.insertTaskIfNotExistsStatement = session.prepare(statements.getInsertTaskIfNotExistsStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.insertEventExecutionStatement = session.prepare(statements.getInsertEventExecutionStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.insertPendingWorkflowStatement = session.prepare(statements.getInsertPendingWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.insertPendingBucketStatement = session.prepare(statements.getInsertPendingBucketStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
 
         this.selectTotalStatement = session.prepare(statements.getSelectTotalStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
         this.selectTaskStatement = session.prepare(statements.getSelectTaskStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
@@ -108,19 +164,38 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         this.selectTaskLookupStatement = session.prepare(statements.getSelectTaskFromLookupTableStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
         this.selectTasksFromTaskDefLimitStatement = session.prepare(statements.getSelectTasksFromTaskDefLimitStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
         this.selectEventExecutionsStatement = session.prepare(statements.getSelectAllEventExecutionsForMessageFromEventExecutionsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPendingWorkflowStatement = session.prepare(statements.getSelectPendingWorkflowStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPendingWorkflowsStatement = session.prepare(statements.getSelectPendingWorkflowsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPendingTaskStatement = session.prepare(statements.getSelectPendingTaskStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPendingTasksStatement = session.prepare(statements.getSelectPendingTasksStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPendingBucketsStatement = session.prepare(statements.getSelectPendingBucketsStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectPendingCountStatement = session.prepare(statements.getSelectPendingCountStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
+        this.selectTaskRateLimitStatement = session.prepare(statements.getSelectTaskRateLimitStatement()).setConsistencyLevel(config.getReadConsistencyLevel());
 
         this.updateWorkflowStatement = session.prepare(statements.getUpdateWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updateWorkflowIfRevisionStatement = session.prepare(statements.getUpdateWorkflowIfRevisionStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updateTaskIfRevisionStatement = session.prepare(statements.getUpdateTaskIfRevisionStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.updateTotalTasksStatement = session.prepare(statements.getUpdateTotalTasksStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.updateTotalPartitionsStatement = session.prepare(statements.getUpdateTotalPartitionsStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.updateTaskLookupStatement = session.prepare(statements.getUpdateTaskLookupStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.updateTaskDefLimitStatement = session.prepare(statements.getUpdateTaskDefLimitStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.updateEventExecutionStatement = session.prepare(statements.getUpdateEventExecutionStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updatePendingTaskStatement = session.prepare(statements.getUpdatePendingTaskStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updatePendingTaskInProgressStatement = session.prepare(statements.getUpdatePendingTaskInProgressStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updatePendingTaskNotInProgressStatement = session.prepare(statements.getUpdatePendingTaskNotInProgressStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updatePendingCountStatement = session.prepare(statements.getUpdatePendingCountStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.updateTaskRateLimitStatement = session.prepare(statements.getUpdateTaskRateLimitStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
 
         this.deleteWorkflowStatement = session.prepare(statements.getDeleteWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.deleteTaskStatement = session.prepare(statements.getDeleteTaskStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.deleteTaskLookupStatement = session.prepare(statements.getDeleteTaskLookupStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.deleteTaskDefLimitStatement = session.prepare(statements.getDeleteTaskDefLimitStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
         this.deleteEventExecutionStatement = session.prepare(statements.getDeleteEventExecutionsStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.deletePendingWorkflowStatement = session.prepare(statements.getDeletePendingWorkflowStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.deletePendingTaskStatement = session.prepare(statements.getDeletePendingTaskStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.deletePendingTaskIfInProgressStatement = session.prepare(statements.getDeletePendingTaskIfInProgressStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.deletePendingBucketStatement = session.prepare(statements.getDeletePendingBucketStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
+        this.deleteTaskRateLimitStatement = session.prepare(statements.getDeleteTaskRateLimitStatement()).setConsistencyLevel(config.getWriteConsistencyLevel());
     }
 
     @Override
@@ -144,8 +219,10 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     /**
      * Inserts tasks into the Cassandra datastore.
      * <b>Note:</b>
-     * Creates the task_id to workflow_id mapping in the task_lookup table first.
-     * Once this succeeds, inserts the tasks into the workflows table. Tasks belonging to the same shard are created using batch statements.
+     * Creates the task_id to workflow_id and shard_id mapping in the task_lookup table first.
+     * Once this succeeds, inserts the tasks into the workflows table. Tasks belonging to the same shard are created
+     * using an unlogged batch statement, which is applied atomically as it is limited to one partition. The lookups
+     * and the batches of different shards are executed in parallel.
      *
      * @param tasks tasks to be created
      */
@@ -154,29 +231,44 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         validateTasks(tasks);
         String workflowId = tasks.get(0).getWorkflowInstanceId();
         try {
+            UUID workflowUUID = UUID.fromString(workflowId);
             WorkflowMetadata workflowMetadata = getWorkflowMetadata(workflowId);
             int totalTasks = workflowMetadata.getTotalTasks() + tasks.size();
-            // TODO: write into multiple shards based on number of tasks
+            TreeMap<Integer, List<Task>> tasksByShard = tasks.stream()
+                    .collect(Collectors.groupingBy(this::getShardId, TreeMap::new, Collectors.toList()));
+            int totalPartitions = Math.max(Math.max(workflowMetadata.getTotalPartitions(), DEFAULT_TOTAL_PARTITIONS),
+                    tasksByShard.lastKey());
 
             // update the task_lookup table
+            List<Statement> lookupStatements = new ArrayList<>(tasks.size());
             tasks.forEach(task -> {
                 task.setScheduledTime(System.currentTimeMillis());
-                session.execute(updateTaskLookupStatement.bind(UUID.fromString(workflowId), UUID.fromString(task.getTaskId())));
+                lookupStatements.add(updateTaskLookupStatement.bind(workflowUUID, getShardId(task), UUID.fromString(task.getTaskId())));
             });
-
-            // update all the tasks in the workflow using batch
-            BatchStatement batchStatement = new BatchStatement();
-            tasks.forEach(task -> {
-                String taskPayload = toJson(task);
-                batchStatement.add(insertTaskStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID, task.getTaskId(), taskPayload));
-                recordCassandraDaoRequests("createTask", task.getTaskType(), task.getWorkflowType());
-                recordCassandraDaoPayloadSize("createTask", taskPayload.length(), task.getTaskType(), task.getWorkflowType());
+            executeAll(lookupStatements);
+
+            // update the tasks of each shard using a batch, and the total tasks and partitions for the workflow with
+            // the tasks of the first shard
+            List<Statement> statements = new ArrayList<>(tasksByShard.size() + 1);
+            Statement updateTotalPartitions = updateTotalPartitionsStatement.bind(totalPartitions, totalTasks, workflowUUID, DEFAULT_SHARD_ID);
+            tasksByShard.forEach((shardId, shardTasks) -> {
+                BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+                shardTasks.forEach(task -> {
+                    String taskPayload = toJson(task);
+                    batchStatement.add(insertTaskStatement.bind(workflowUUID, shardId, task.getTaskId(), taskPayload, revision(task.getRevision())));
+                    recordCassandraDaoRequests("createTask", task.getTaskType(), task.getWorkflowType());
+                    recordCassandraDaoPayloadSize("createTask", taskPayload.length(), task.getTaskType(), task.getWorkflowType());
+                });
+                if (shardId == DEFAULT_SHARD_ID) {
+                    batchStatement.add(updateTotalPartitions);
+                }
+                statements.add(batchStatement);
             });
-            batchStatement.add(updateTotalTasksStatement.bind(totalTasks, UUID.fromString(workflowId), DEFAULT_SHARD_ID));
-            session.execute(batchStatement);
-
-            // update the total tasks and partitions for the workflow
-            session.execute(updateTotalPartitionsStatement.bind(DEFAULT_TOTAL_PARTITIONS, totalTasks, UUID.fromString(workflowId)));
+            if (!tasksByShard.containsKey(DEFAULT_SHARD_ID)) {
+                statements.add(updateTotalPartitions);
+            }
+            executeAll(statements);
+            tasks.forEach(task -> indexTask(task, true));
 
             return tasks;
         } catch (ApplicationException e) {
@@ -192,11 +284,17 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     @Override
     public void updateTask(Task task) {
         try {
-            // TODO: calculate the shard number the task belongs to
+            int shardId = getShardId(task);
+            UUID workflowUUID = UUID.fromString(task.getWorkflowInstanceId());
             String taskPayload = toJson(task);
             recordCassandraDaoRequests("updateTask", task.getTaskType(), task.getWorkflowType());
             recordCassandraDaoPayloadSize("updateTask", taskPayload.length(), task.getTaskType(), task.getWorkflowType());
-            session.execute(insertTaskStatement.bind(UUID.fromString(task.getWorkflowInstanceId()), DEFAULT_SHARD_ID, task.getTaskId(), taskPayload));
+            session.execute(insertTaskStatement.bind(workflowUUID, shardId, task.getTaskId(), taskPayload, revision(task.getRevision())));
+            if (shardId != DEFAULT_SHARD_ID) {
+                // a task of a workflow created before tasks were sharded moves out of the first shard with this update
+                session.execute(updateTaskLookupStatement.bind(workflowUUID, shardId, UUID.fromString(task.getTaskId())));
+            }
+            indexTask(task, false);
             if (task.getTaskDefinition().isPresent() && task.getTaskDefinition().get().concurrencyLimit() > 0) {
                 updateTaskDefLimit(task, false);
             }
@@ -208,6 +306,54 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         }
     }
 
+    /**
+     * Counts the task in the window of its task definition that the current time falls in, windows being aligned to
+     * the epoch so that every server counts in the same one. Counters cannot be updated conditionally, so the count is
+     * read back after the increment and the task is limited if it went past the limit; tasks limited that way are still
+     * counted, which under contention may start fewer tasks than the limit but never more.
+     * <p>
+     * As the windows are fixed, up to twice the limit may start around the boundary between two windows.
+     */
+    @Override
+    public boolean exceedsRateLimitPerFrequency(Task task, TaskDef taskDef) {
+        int rateLimitPerFrequency = taskDef != null ? taskDef.getRateLimitPerFrequency() : task.getRateLimitPerFrequency();
+        int rateLimitFrequencyInSeconds = taskDef != null ? taskDef.getRateLimitFrequencyInSeconds()
+            : task.getRateLimitFrequencyInSeconds();
+        if (rateLimitPerFrequency <= 0 || rateLimitFrequencyInSeconds <= 0) {
+            return false;
+        }
+
+        long windowMillis = TimeUnit.SECONDS.toMillis(rateLimitFrequencyInSeconds);
+        long now = System.currentTimeMillis();
+        long windowStart = now - now % windowMillis;
+
+        try {
+            recordCassandraDaoRequests("updateTaskRateLimit", task.getTaskType(), task.getWorkflowType());
+            session.execute(updateTaskRateLimitStatement.bind(task.getTaskDefName(), windowStart));
+            recordCassandraDaoRequests("selectTaskRateLimit", task.getTaskType(), task.getWorkflowType());
+            Row row = session.execute(selectTaskRateLimitStatement.bind(task.getTaskDefName(), windowStart)).one();
+            long count = row == null ? 0 : row.getLong(TOTAL_KEY);
+            if (count > rateLimitPerFrequency) {
+                LOGGER.debug("Task: {} of {} is out of bounds of the rate limit of {} per {} seconds", task.getTaskId(),
+                    task.getTaskDefName(), rateLimitPerFrequency, rateLimitFrequencyInSeconds);
+                return true;
+            }
+
+            if (count == 1) {
+                recordCassandraDaoRequests("deleteTaskRateLimit", task.getTaskType(), task.getWorkflowType());
+                session.execute(deleteTaskRateLimitStatement.bind(task.getTaskDefName(), windowStart));
+            }
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "exceedsRateLimitPerFrequency");
+            String errorMsg = String.format("Failed to check the rate limit - %s:%s in workflow :%s",
+                task.getTaskDefName(), task.getTaskId(), task.getWorkflowInstanceId());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(Code.BACKEND_ERROR, errorMsg, e);
+        }
+        Monitors.recordTaskRateLimited(task.getTaskDefName(), rateLimitPerFrequency);
+        return false;
+    }
+
     /**
      * This is a dummy implementation and this feature is not implemented
      * for Cassandra backed Conductor
@@ -259,14 +405,12 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     @Override
     public Task getTask(String taskId) {
         try {
-            String workflowId = lookupWorkflowIdFromTaskId(taskId);
-            if (workflowId == null) {
+            Row taskLookup = selectTaskLookup(taskId);
+            if (taskLookup == null) {
                 return null;
             }
-            // TODO: implement for query against multiple shards
-
             ResultSet resultSet = session
-                .execute(selectTaskStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID, taskId));
+                .execute(selectTaskStatement.bind(taskLookup.getUUID(WORKFLOW_ID_KEY), getShardId(taskLookup), taskId));
             return Optional.ofNullable(resultSet.one())
                 .map(row -> {
                     Task task = readValue(row.getString(PAYLOAD_KEY), Task.class);
@@ -286,26 +430,77 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         }
     }
 
+    /**
+     * Reads each task from its shard in the task_lookup table, rather than the whole workflow of the first task.
+     * Tasks not found are skipped.
+     */
     @Override
     public List<Task> getTasks(List<String> taskIds) {
         Preconditions.checkNotNull(taskIds);
         Preconditions.checkArgument(taskIds.size() > 0, "Task ids list cannot be empty");
-        String workflowId = lookupWorkflowIdFromTaskId(taskIds.get(0));
-        if (workflowId == null) {
-            return null;
+        try {
+            List<Statement> lookupStatements = taskIds.stream()
+                    .map(taskId -> selectTaskLookupStatement.bind(UUID.fromString(taskId)))
+                    .collect(Collectors.toList());
+            List<ResultSet> lookups = executeAll(lookupStatements);
+
+            List<Statement> taskStatements = new ArrayList<>(taskIds.size());
+            for (int i = 0; i < taskIds.size(); i++) {
+                Row taskLookup = lookups.get(i).one();
+                if (taskLookup != null) {
+                    taskStatements.add(selectTaskStatement.bind(taskLookup.getUUID(WORKFLOW_ID_KEY), getShardId(taskLookup), taskIds.get(i)));
+                }
+            }
+            return executeAll(taskStatements).stream()
+                    .map(ResultSet::one)
+                    .filter(Objects::nonNull)
+                    .map(row -> {
+                        Task task = readValue(row.getString(PAYLOAD_KEY), Task.class);
+                        recordCassandraDaoRequests("getTask", task.getTaskType(), task.getWorkflowType());
+                        return task;
+                    })
+                    .collect(Collectors.toList());
+        } catch (IllegalArgumentException e) {
+            Monitors.error(CLASS_NAME, "getTasks");
+            String errorMsg = String.format("Invalid task ids: %s", taskIds);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(Code.INVALID_INPUT, errorMsg, e);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getTasks");
+            String errorMsg = String.format("Error getting tasks by ids: %s", taskIds);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(Code.BACKEND_ERROR, errorMsg, e);
         }
-        return getWorkflow(workflowId, true).getTasks().stream()
-                .filter(task -> taskIds.contains(task.getTaskId()))
-                .collect(Collectors.toList());
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * Reads the non terminal tasks of the task definition from the buckets of the pending_tasks table.
+     * Not supported unless the pending index is enabled.
      */
     @Override
     public List<Task> getPendingTasksForTaskType(String taskType) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        checkPendingIndexEnabled();
+        try {
+            recordCassandraDaoRequests("getPendingTasksForTaskType", taskType, "n/a");
+            List<String> taskIds = selectPending(ENTITY_TYPE_TASK, taskType,
+                    bucket -> selectPendingTasksStatement.bind(taskType, bucket)).stream()
+                    .map(row -> row.getUUID(TASK_ID_KEY).toString())
+                    .collect(Collectors.toList());
+            if (taskIds.isEmpty()) {
+                return new ArrayList<>();
+            }
+            // a task updated concurrently may be terminal by now
+            return getTasks(taskIds).stream()
+                    .filter(task -> !task.getStatus().isTerminal())
+                    .collect(Collectors.toList());
+        } catch (ApplicationException e) {
+            throw e;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getPendingTasksForTaskType");
+            String errorMsg = String.format("Failed to get pending tasks for task type: %s", taskType);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
     @Override
@@ -322,7 +517,8 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
 
             recordCassandraDaoRequests("createWorkflow", "n/a", workflow.getWorkflowName());
             recordCassandraDaoPayloadSize("createWorkflow", payload.length(), "n/a", workflow.getWorkflowName());
-            session.execute(insertWorkflowStatement.bind(UUID.fromString(workflow.getWorkflowId()), 1, "", payload, 0, 1));
+            session.execute(insertWorkflowStatement.bind(UUID.fromString(workflow.getWorkflowId()), 1, "", payload, revision(workflow.getRevision()), 0, 1));
+            indexWorkflow(workflow, true);
 
             workflow.setTasks(tasks);
             return workflow.getWorkflowId();
@@ -342,7 +538,8 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
             String payload = toJson(workflow);
             recordCassandraDaoRequests("updateWorkflow", "n/a", workflow.getWorkflowName());
             recordCassandraDaoPayloadSize("updateWorkflow", payload.length(), "n/a", workflow.getWorkflowName());
-            session.execute(updateWorkflowStatement.bind(payload, UUID.fromString(workflow.getWorkflowId())));
+            session.execute(updateWorkflowStatement.bind(payload, revision(workflow.getRevision()), UUID.fromString(workflow.getWorkflowId()), DEFAULT_SHARD_ID));
+            indexWorkflow(workflow, false);
             workflow.setTasks(tasks);
             return workflow.getWorkflowId();
         } catch (Exception e) {
@@ -353,16 +550,80 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         }
     }
 
+    /**
+     * Updates the workflow and the tasks in a conditional batch, which is applied only if the revision of each of them
+     * is the one it was read with. Conditional batches are limited to a partition, so this is not supported with task
+     * sharding.
+     */
+    @Override
+    public void compareAndSetWorkflow(Workflow workflow, List<Task> tasks) {
+        if (taskShardingEnabled) {
+            throw new UnsupportedOperationException("Optimistic concurrency control is not supported with task sharding");
+        }
+        UUID workflowId = UUID.fromString(workflow.getWorkflowId());
+        try {
+            BatchStatement batchStatement = new BatchStatement();
+
+            List<Task> workflowTasks = workflow.getTasks();
+            workflow.setTasks(new LinkedList<>());
+            long workflowRevision = workflow.getRevision();
+            workflow.setRevision(workflowRevision + 1);
+            String payload = toJson(workflow);
+            workflow.setTasks(workflowTasks);
+            recordCassandraDaoRequests("compareAndSetWorkflow", "n/a", workflow.getWorkflowName());
+            recordCassandraDaoPayloadSize("compareAndSetWorkflow", payload.length(), "n/a", workflow.getWorkflowName());
+            batchStatement.add(updateWorkflowIfRevisionStatement.bind(payload, revision(workflow.getRevision()), workflowId,
+                    DEFAULT_SHARD_ID, revision(workflowRevision)));
+
+            for (Task task : tasks) {
+                long revision = task.getRevision();
+                task.setRevision(revision + 1);
+                String taskPayload = toJson(task);
+                recordCassandraDaoPayloadSize("compareAndSetWorkflow", taskPayload.length(), task.getTaskType(), task.getWorkflowType());
+                batchStatement.add(updateTaskIfRevisionStatement.bind(taskPayload, revision(task.getRevision()), workflowId,
+                        DEFAULT_SHARD_ID, task.getTaskId(), revision(revision)));
+            }
+
+            if (!session.execute(batchStatement).wasApplied()) {
+                throw new ConcurrentUpdateException(workflow);
+            }
+            indexWorkflow(workflow, false);
+            tasks.forEach(task -> indexTask(task, false));
+        } catch (ApplicationException e) {
+            throw e;
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "compareAndSetWorkflow");
+            String errorMsg = String.format("Failed to update workflow: %s", workflow.getWorkflowId());
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(Code.BACKEND_ERROR, errorMsg, e);
+        }
+
+        tasks.stream()
+                .filter(task -> task.getTaskDefinition().isPresent() && task.getTaskDefinition().get().concurrencyLimit() > 0)
+                .forEach(task -> updateTaskDefLimit(task, false));
+    }
+
     @Override
     public boolean removeWorkflow(String workflowId) {
         Workflow workflow = getWorkflow(workflowId, true);
         boolean removed = false;
-        // TODO: calculate number of shards and iterate
         if (workflow != null) {
             try {
+                UUID workflowUUID = UUID.fromString(workflowId);
+                int lastShardId = workflow.getTasks().stream()
+                        .mapToInt(this::getShardId)
+                        .reduce(getWorkflowMetadata(workflowId).getTotalPartitions(), Math::max);
                 recordCassandraDaoRequests("removeWorkflow", "n/a", workflow.getWorkflowName());
-                ResultSet resultSet = session.execute(deleteWorkflowStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID));
+                // remove the other shards before the first, which holds the workflow
+                List<Statement> statements = new ArrayList<>();
+                for (int shardId = DEFAULT_SHARD_ID + 1; shardId <= lastShardId; shardId++) {
+                    statements.add(deleteWorkflowStatement.bind(workflowUUID, shardId));
+                }
+                executeAll(statements);
+                ResultSet resultSet = session.execute(deleteWorkflowStatement.bind(workflowUUID, DEFAULT_SHARD_ID));
                 removed = resultSet.wasApplied();
+                unindexWorkflow(workflow);
+                workflow.getTasks().forEach(this::unindexTask);
             } catch (Exception e) {
                 Monitors.error(CLASS_NAME, "removeWorkflow");
                 String errorMsg = String.format("Failed to remove workflow: %s", workflowId);
@@ -375,12 +636,22 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * Not supported unless the pending index is enabled.
      */
     @Override
     public void removeFromPendingWorkflow(String workflowType, String workflowId) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        checkPendingIndexEnabled();
+        Workflow workflow = getWorkflow(workflowId, false);
+        if (workflow != null) {
+            try {
+                unindexWorkflow(workflow);
+            } catch (Exception e) {
+                Monitors.error(CLASS_NAME, "removeFromPendingWorkflow");
+                String errorMsg = String.format("Failed to remove workflow: %s from pending workflows", workflowId);
+                LOGGER.error(errorMsg, e);
+                throw new ApplicationException(Code.BACKEND_ERROR, errorMsg, e);
+            }
+        }
     }
 
     @Override
@@ -394,8 +665,9 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         try {
             ResultSet resultSet;
             if (includeTasks) {
-                resultSet = session.execute(selectWorkflowWithTasksStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID));
-                List<Task> tasks = new ArrayList<>();
+                UUID workflowUUID = UUID.fromString(workflowId);
+                resultSet = session.execute(selectWorkflowWithTasksStatement.bind(workflowUUID, DEFAULT_SHARD_ID));
+                List<ShardedTask> shardedTasks = new ArrayList<>();
 
                 List<Row> rows = resultSet.all();
                 if (rows.size() == 0) {
@@ -408,19 +680,26 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
                         workflow = readValue(row.getString(PAYLOAD_KEY), Workflow.class);
                     } else if (ENTITY_TYPE_TASK.equals(entityKey)) {
                         Task task = readValue(row.getString(PAYLOAD_KEY), Task.class);
-                        tasks.add(task);
+                        shardedTasks.add(new ShardedTask(task, DEFAULT_SHARD_ID));
                     } else {
                         throw new ApplicationException(ApplicationException.Code.INTERNAL_ERROR, String.format("Invalid row with entityKey: %s found in datastore for workflow: %s", entityKey, workflowId));
                     }
                 }
 
                 if (workflow != null) {
+                    // tasks of workflows created before tasks were sharded are in the first shard until updated
+                    int lastShardId = shardedTasks.stream()
+                            .mapToInt(shardedTask -> getShardId(shardedTask.task))
+                            .reduce(rows.get(0).isNull(TOTAL_PARTITIONS_KEY) ? DEFAULT_TOTAL_PARTITIONS : rows.get(0).getInt(TOTAL_PARTITIONS_KEY), Math::max);
+                    shardedTasks.addAll(selectTasks(workflowUUID, DEFAULT_SHARD_ID + 1, lastShardId));
+
                     recordCassandraDaoRequests("getWorkflow", "n/a", workflow.getWorkflowName());
+                    List<Task> tasks = resolveTasks(workflowUUID, shardedTasks);
                     tasks.sort(Comparator.comparingInt(Task::getSeq));
                     workflow.setTasks(tasks);
                 }
             } else {
-                resultSet = session.execute(selectWorkflowStatement.bind(UUID.fromString(workflowId)));
+                resultSet = session.execute(selectWorkflowStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID));
                 workflow = Optional.ofNullable(resultSet.one())
                         .map(row -> {
                             Workflow wf = readValue(row.getString(PAYLOAD_KEY), Workflow.class);
@@ -446,12 +725,25 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * Reads the non terminal workflows of the workflow definition from the buckets of the pending_workflows table.
+     * Not supported unless the pending index is enabled.
      */
     @Override
     public List<String> getRunningWorkflowIds(String workflowName, int version) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        checkPendingIndexEnabled();
+        try {
+            recordCassandraDaoRequests("getRunningWorkflowIds", "n/a", workflowName);
+            return selectPending(ENTITY_TYPE_WORKFLOW, workflowName,
+                    bucket -> selectPendingWorkflowsStatement.bind(workflowName, bucket)).stream()
+                    .filter(row -> row.getInt(WORKFLOW_VERSION_KEY) == version)
+                    .map(row -> row.getUUID(WORKFLOW_ID_KEY).toString())
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getRunningWorkflowIds");
+            String errorMsg = String.format("Failed to get running workflows of: %s version: %d", workflowName, version);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(Code.BACKEND_ERROR, errorMsg, e);
+        }
     }
 
     /**
@@ -464,21 +756,23 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * Reads the counter kept along with the pending_workflows table.
+     * Not supported unless the pending index is enabled.
      */
     @Override
     public long getPendingWorkflowCount(String workflowName) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        checkPendingIndexEnabled();
+        return selectPendingCount(ENTITY_TYPE_WORKFLOW, workflowName);
     }
 
     /**
-     * This is a dummy implementation and this feature is not implemented
-     * for Cassandra backed Conductor
+     * Reads the counter kept along with the pending_tasks table.
+     * Not supported unless the pending index is enabled.
      */
     @Override
     public long getInProgressTaskCount(String taskDefName) {
-        throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO. Please use ExecutionDAOFacade instead.");
+        checkPendingIndexEnabled();
+        return selectPendingCount(ENTITY_TYPE_TASK, taskDefName);
     }
 
     /**
@@ -594,7 +888,6 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
     }
 
     private boolean removeTask(Task task) {
-        // TODO: calculate shard number based on seq and maxTasksPerShard
         try {
             // get total tasks for this workflow
             WorkflowMetadata workflowMetadata = getWorkflowMetadata(task.getWorkflowInstanceId());
@@ -605,10 +898,18 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
 
             recordCassandraDaoRequests("removeTask", task.getTaskType(), task.getWorkflowType());
             // delete task from workflows table and decrement total tasks by 1
-            BatchStatement batchStatement = new BatchStatement();
-            batchStatement.add(deleteTaskStatement.bind(UUID.fromString(task.getWorkflowInstanceId()), DEFAULT_SHARD_ID, task.getTaskId()));
-            batchStatement.add(updateTotalTasksStatement.bind(totalTasks - 1, UUID.fromString(task.getWorkflowInstanceId()), DEFAULT_SHARD_ID));
+            UUID workflowUUID = UUID.fromString(task.getWorkflowInstanceId());
+            int shardId = getShardId(task);
+            // a batch across shards is logged to be applied atomically
+            BatchStatement batchStatement = new BatchStatement(shardId == DEFAULT_SHARD_ID ? BatchStatement.Type.UNLOGGED : BatchStatement.Type.LOGGED);
+            batchStatement.add(deleteTaskStatement.bind(workflowUUID, shardId, task.getTaskId()));
+            if (shardId != DEFAULT_SHARD_ID) {
+                // the task may also be in the first shard, if its workflow was created before tasks were sharded
+                batchStatement.add(deleteTaskStatement.bind(workflowUUID, DEFAULT_SHARD_ID, task.getTaskId()));
+            }
+            batchStatement.add(updateTotalTasksStatement.bind(totalTasks - 1, workflowUUID, DEFAULT_SHARD_ID));
             ResultSet resultSet = session.execute(batchStatement);
+            unindexTask(task);
             if (task.getTaskDefinition().isPresent() && task.getTaskDefinition().get().concurrencyLimit() > 0) {
                 updateTaskDefLimit(task, true);
             }
@@ -638,6 +939,302 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         }
     }
 
+    /**
+     * @return the shard of the task, by its sequence number when tasks are sharded
+     */
+    @VisibleForTesting
+    int getShardId(Task task) {
+        if (!taskShardingEnabled || task.getSeq() <= 0) {
+            return DEFAULT_SHARD_ID;
+        }
+        return DEFAULT_SHARD_ID + (task.getSeq() - 1) / shardSize;
+    }
+
+    /**
+     * @return the shard of the task in its task_lookup row, which is the first for lookups written before tasks were
+     * sharded
+     */
+    private static int getShardId(Row taskLookup) {
+        return taskLookup.isNull(SHARD_ID_KEY) ? DEFAULT_SHARD_ID : taskLookup.getInt(SHARD_ID_KEY);
+    }
+
+    /**
+     * Executes the statements asynchronously, with at most the configured number of them in flight, each routed to a
+     * replica of its partition by the token aware load balancing policy of the driver.
+     *
+     * @return the result sets in the order of the statements, once all statements completed
+     */
+    private List<ResultSet> executeAll(List<? extends Statement> statements) {
+        List<ResultSetFuture> futures = new ArrayList<>(statements.size());
+        for (Statement statement : statements) {
+            if (futures.size() >= maxInflightRequests) {
+                futures.get(futures.size() - maxInflightRequests).getUninterruptibly();
+            }
+            futures.add(session.executeAsync(statement));
+        }
+        return futures.stream()
+                .map(ResultSetFuture::getUninterruptibly)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the tasks of the given shards of a workflow in parallel.
+     */
+    private List<ShardedTask> selectTasks(UUID workflowId, int firstShardId, int lastShardId) {
+        List<Statement> statements = new ArrayList<>();
+        for (int shardId = firstShardId; shardId <= lastShardId; shardId++) {
+            statements.add(selectWorkflowWithTasksStatement.bind(workflowId, shardId));
+        }
+        List<ResultSet> resultSets = executeAll(statements);
+        List<ShardedTask> shardedTasks = new ArrayList<>();
+        for (int i = 0; i < resultSets.size(); i++) {
+            for (Row row : resultSets.get(i)) {
+                // shards without tasks may hold a row of static columns only
+                if (ENTITY_TYPE_TASK.equals(row.getString(ENTITY_KEY))) {
+                    shardedTasks.add(new ShardedTask(readValue(row.getString(PAYLOAD_KEY), Task.class), firstShardId + i));
+                }
+            }
+        }
+        return shardedTasks;
+    }
+
+    /**
+     * A task of a workflow created before tasks were sharded is in the first shard, and also in its own shard once it
+     * is updated. The copy with the highest revision is the current one, or the copy in its own shard on a tie.
+     * <p>
+     * Tasks not (only) in their own shard are moved there if migration is enabled.
+     */
+    private List<Task> resolveTasks(UUID workflowId, List<ShardedTask> shardedTasks) {
+        Map<String, ShardedTask> currentTasks = new LinkedHashMap<>();
+        for (ShardedTask shardedTask : shardedTasks) {
+            currentTasks.merge(shardedTask.task.getTaskId(), shardedTask, (current, other) -> {
+                if (current.task.getRevision() != other.task.getRevision()) {
+                    return current.task.getRevision() > other.task.getRevision() ? current : other;
+                }
+                return current.shardId == getShardId(current.task) ? current : other;
+            });
+        }
+
+        if (taskShardingMigrationEnabled) {
+            List<ShardedTask> misplacedTasks = shardedTasks.stream()
+                    .filter(shardedTask -> shardedTask.shardId != getShardId(shardedTask.task))
+                    .collect(Collectors.toList());
+            if (!misplacedTasks.isEmpty()) {
+                migrateTasks(workflowId, shardedTasks, currentTasks.values(), misplacedTasks);
+            }
+        }
+        return currentTasks.values().stream()
+                .map(shardedTask -> shardedTask.task)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Writes the current copy of each task to its own shard before removing the copies in other shards. The copies are
+     * written conditionally on the copy read from the shard, if any, so that a copy written by an update since the
+     * workflow was read is not overwritten; that copy is then the current one, and the others can be removed as well.
+     */
+    private void migrateTasks(UUID workflowId, List<ShardedTask> shardedTasks, Collection<ShardedTask> currentTasks,
+                              List<ShardedTask> misplacedTasks) {
+        try {
+            recordCassandraDaoRequests("migrateTaskShards");
+            Map<String, Long> placedRevisions = shardedTasks.stream()
+                    .filter(shardedTask -> shardedTask.shardId == getShardId(shardedTask.task))
+                    .collect(Collectors.toMap(shardedTask -> shardedTask.task.getTaskId(),
+                            shardedTask -> shardedTask.task.getRevision()));
+            List<Statement> statements = new ArrayList<>();
+            int lastShardId = DEFAULT_SHARD_ID;
+            for (ShardedTask shardedTask : currentTasks) {
+                Task task = shardedTask.task;
+                int shardId = getShardId(task);
+                lastShardId = Math.max(lastShardId, shardId);
+                if (shardedTask.shardId != shardId) {
+                    Long placedRevision = placedRevisions.get(task.getTaskId());
+                    statements.add(placedRevision == null
+                            ? insertTaskIfNotExistsStatement.bind(workflowId, shardId, task.getTaskId(), toJson(task),
+                                    revision(task.getRevision()))
+                            : updateTaskIfRevisionStatement.bind(toJson(task), revision(task.getRevision()), workflowId,
+                                    shardId, task.getTaskId(), revision(placedRevision)));
+                    statements.add(updateTaskLookupStatement.bind(workflowId, shardId, UUID.fromString(task.getTaskId())));
+                }
+            }
+            executeAll(statements);
+
+            WorkflowMetadata workflowMetadata = getWorkflowMetadata(workflowId.toString());
+            if (lastShardId > workflowMetadata.getTotalPartitions()) {
+                session.execute(updateTotalPartitionsStatement.bind(lastShardId, workflowMetadata.getTotalTasks(), workflowId, DEFAULT_SHARD_ID));
+            }
+
+            statements.clear();
+            for (ShardedTask shardedTask : misplacedTasks) {
+                statements.add(deleteTaskStatement.bind(workflowId, shardedTask.shardId, shardedTask.task.getTaskId()));
+            }
+            executeAll(statements);
+            LOGGER.info("Moved {} tasks of workflow {} to their shards", misplacedTasks.size(), workflowId);
+        } catch (Exception e) {
+            // the workflow is read as it is, and migrated on a later read
+            Monitors.error(CLASS_NAME, "migrateTaskShards");
+            LOGGER.error("Failed to move the tasks of workflow {} to their shards", workflowId, e);
+        }
+    }
+
+    private void checkPendingIndexEnabled() {
+        if (!pendingIndexEnabled) {
+            throw new UnsupportedOperationException("This method is not implemented in CassandraExecutionDAO unless the pending index is enabled. Please use ExecutionDAOFacade instead.");
+        }
+    }
+
+    private long getBucket(long time) {
+        return time / pendingIndexBucketMillis;
+    }
+
+    /**
+     * Adds a non terminal workflow to the pending_workflows table, or removes a terminal one. The count of pending
+     * workflows only changes with the conditional insert or delete that added or removed the row, so that it stays
+     * accurate when the same workflow is indexed concurrently. A plain read first spares the conditional write when
+     * the workflow is already where it belongs, as it is for most updates.
+     *
+     * @param created true if the workflow was just created, and is known not to be indexed yet
+     */
+    private void indexWorkflow(Workflow workflow, boolean created) {
+        String workflowName = workflow.getWorkflowName();
+        if (!pendingIndexEnabled || workflowName == null) {
+            return;
+        }
+        if (workflow.getStatus().isTerminal()) {
+            if (!created) {
+                unindexWorkflow(workflow);
+            }
+            return;
+        }
+        long bucket = getBucket(workflow.getCreateTime());
+        UUID workflowId = UUID.fromString(workflow.getWorkflowId());
+        if (!created && session.execute(selectPendingWorkflowStatement.bind(workflowName, bucket, workflowId)).one() != null) {
+            return;
+        }
+        if (session.execute(insertPendingWorkflowStatement.bind(workflowName, bucket, workflowId, workflow.getWorkflowVersion())).wasApplied()) {
+            session.execute(insertPendingBucketStatement.bind(ENTITY_TYPE_WORKFLOW, workflowName, bucket));
+            session.execute(updatePendingCountStatement.bind(1L, ENTITY_TYPE_WORKFLOW, workflowName));
+        }
+    }
+
+    private void unindexWorkflow(Workflow workflow) {
+        String workflowName = workflow.getWorkflowName();
+        if (!pendingIndexEnabled || workflowName == null) {
+            return;
+        }
+        long bucket = getBucket(workflow.getCreateTime());
+        UUID workflowId = UUID.fromString(workflow.getWorkflowId());
+        if (session.execute(selectPendingWorkflowStatement.bind(workflowName, bucket, workflowId)).one() != null
+                && session.execute(deletePendingWorkflowStatement.bind(workflowName, bucket, workflowId)).wasApplied()) {
+            session.execute(updatePendingCountStatement.bind(-1L, ENTITY_TYPE_WORKFLOW, workflowName));
+        }
+    }
+
+    /**
+     * Adds a non terminal task to the pending_tasks table, or removes a terminal one. The in progress count changes
+     * only with the conditional write that marked the task in progress, or that unmarked or removed it.
+     *
+     * @param created true if the task was just created, and is known not to be indexed yet
+     */
+    private void indexTask(Task task, boolean created) {
+        if (!pendingIndexEnabled) {
+            return;
+        }
+        if (task.getStatus().isTerminal()) {
+            if (!created) {
+                unindexTask(task);
+            }
+            return;
+        }
+        String taskDefName = task.getTaskDefName();
+        long bucket = getBucket(task.getScheduledTime());
+        UUID taskId = UUID.fromString(task.getTaskId());
+        UUID workflowId = UUID.fromString(task.getWorkflowInstanceId());
+        Row row = created ? null : session.execute(selectPendingTaskStatement.bind(taskDefName, bucket, taskId)).one();
+        boolean inProgress = isInProgress(row);
+        if (task.getStatus() == IN_PROGRESS) {
+            if (!inProgress && session.execute(updatePendingTaskInProgressStatement.bind(workflowId, taskDefName, bucket, taskId)).wasApplied()) {
+                if (row == null) {
+                    session.execute(insertPendingBucketStatement.bind(ENTITY_TYPE_TASK, taskDefName, bucket));
+                }
+                session.execute(updatePendingCountStatement.bind(1L, ENTITY_TYPE_TASK, taskDefName));
+            }
+        } else if (row == null) {
+            session.execute(updatePendingTaskStatement.bind(workflowId, taskDefName, bucket, taskId));
+            session.execute(insertPendingBucketStatement.bind(ENTITY_TYPE_TASK, taskDefName, bucket));
+        } else if (inProgress && session.execute(updatePendingTaskNotInProgressStatement.bind(taskDefName, bucket, taskId)).wasApplied()) {
+            session.execute(updatePendingCountStatement.bind(-1L, ENTITY_TYPE_TASK, taskDefName));
+        }
+    }
+
+    private void unindexTask(Task task) {
+        if (!pendingIndexEnabled) {
+            return;
+        }
+        String taskDefName = task.getTaskDefName();
+        long bucket = getBucket(task.getScheduledTime());
+        UUID taskId = UUID.fromString(task.getTaskId());
+        Row row = session.execute(selectPendingTaskStatement.bind(taskDefName, bucket, taskId)).one();
+        if (row == null) {
+            return;
+        }
+        if (isInProgress(row) && session.execute(deletePendingTaskIfInProgressStatement.bind(taskDefName, bucket, taskId)).wasApplied()) {
+            session.execute(updatePendingCountStatement.bind(-1L, ENTITY_TYPE_TASK, taskDefName));
+        } else {
+            session.execute(deletePendingTaskStatement.bind(taskDefName, bucket, taskId));
+        }
+    }
+
+    private static boolean isInProgress(Row pendingTask) {
+        return pendingTask != null && !pendingTask.isNull(IN_PROGRESS_KEY) && pendingTask.getBool(IN_PROGRESS_KEY);
+    }
+
+    /**
+     * Reads the buckets of a workflow or task name in parallel. The buckets before the current one that are found
+     * empty are removed from the pending_buckets table, with a timestamp taken before they were read, so that a row
+     * written to a bucket after it was read also keeps the bucket.
+     */
+    private List<Row> selectPending(String entity, String name, Function<Long, Statement> selectBucket) {
+        long timestamp = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        List<Long> buckets = session.execute(selectPendingBucketsStatement.bind(entity, name)).all().stream()
+                .map(row -> row.getLong(BUCKET_KEY))
+                .collect(Collectors.toList());
+        List<ResultSet> resultSets = executeAll(buckets.stream().map(selectBucket).collect(Collectors.toList()));
+
+        long currentBucket = getBucket(System.currentTimeMillis());
+        List<Row> rows = new ArrayList<>();
+        List<Statement> deleteStatements = new ArrayList<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            List<Row> bucketRows = resultSets.get(i).all();
+            if (bucketRows.isEmpty() && buckets.get(i) < currentBucket) {
+                deleteStatements.add(deletePendingBucketStatement.bind(timestamp, entity, name, buckets.get(i)));
+            }
+            rows.addAll(bucketRows);
+        }
+        executeAll(deleteStatements);
+        return rows;
+    }
+
+    private long selectPendingCount(String entity, String name) {
+        try {
+            recordCassandraDaoRequests("getPendingCount");
+            Row row = session.execute(selectPendingCountStatement.bind(entity, name)).one();
+            return row == null ? 0 : row.getLong(TOTAL_KEY);
+        } catch (Exception e) {
+            Monitors.error(CLASS_NAME, "getPendingCount");
+            String errorMsg = String.format("Failed to get the pending count of %s: %s", entity, name);
+            LOGGER.error(errorMsg, e);
+            throw new ApplicationException(Code.BACKEND_ERROR, errorMsg, e);
+        }
+    }
+
+    /**
+     * Revision 0 is stored as null, the revision of rows written before revisions were introduced.
+     */
+    private static Long revision(long revision) {
+        return revision == 0 ? null : revision;
+    }
+
     @VisibleForTesting
     void validateTasks(List<Task> tasks) {
         Preconditions.checkNotNull(tasks, "Tasks object cannot be null");
@@ -660,7 +1257,7 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
 
     @VisibleForTesting
     WorkflowMetadata getWorkflowMetadata(String workflowId) {
-        ResultSet resultSet = session.execute(selectTotalStatement.bind(UUID.fromString(workflowId)));
+        ResultSet resultSet = session.execute(selectTotalStatement.bind(UUID.fromString(workflowId), DEFAULT_SHARD_ID));
         recordCassandraDaoRequests("getWorkflowMetadata");
         return Optional.ofNullable(resultSet.one())
                 .map(row -> {
@@ -673,11 +1270,17 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
 
     @VisibleForTesting
     String lookupWorkflowIdFromTaskId(String taskId) {
+        return Optional.ofNullable(selectTaskLookup(taskId))
+            .map(row -> row.getUUID(WORKFLOW_ID_KEY).toString())
+            .orElse(null);
+    }
+
+    /**
+     * @return the task_lookup row of the task with its workflow_id and shard_id, null if there is none
+     */
+    private Row selectTaskLookup(String taskId) {
         try {
-            ResultSet resultSet = session.execute(selectTaskLookupStatement.bind(UUID.fromString(taskId)));
-            return Optional.ofNullable(resultSet.one())
-                .map(row -> row.getUUID(WORKFLOW_ID_KEY).toString())
-                .orElse(null);
+            return session.execute(selectTaskLookupStatement.bind(UUID.fromString(taskId))).one();
         } catch (IllegalArgumentException iae) {
             Monitors.error(CLASS_NAME, "lookupWorkflowIdFromTaskId");
             String errorMsg = String.format("Invalid task id: %s", taskId);
@@ -691,6 +1294,16 @@ public class CassandraExecutionDAO extends CassandraBaseDAO implements Execution
         }
     }
 
+    private static class ShardedTask {
+        private final Task task;
+        private final int shardId;
+
+        private ShardedTask(Task task, int shardId) {
+            this.task = task;
+            this.shardId = shardId;
+        }
+    }
+
     @VisibleForTesting
     void updateTaskDefLimit(Task task, boolean forceRemove) {
         try {
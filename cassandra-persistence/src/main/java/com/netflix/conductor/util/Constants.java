@@ -24,12 +24,18 @@ public interface Constants {
     String TABLE_TASK_DEFS = "task_definitions";
     String TABLE_EVENT_HANDLERS = "event_handlers";
     String TABLE_EVENT_EXECUTIONS = "event_executions";
+    String TABLE_PENDING_WORKFLOWS = "pending_workflows";
+    String TABLE_PENDING_TASKS = "pending_tasks";
+    String TABLE_PENDING_BUCKETS = "pending_buckets";
+    String TABLE_PENDING_COUNTS = "pending_counts";
+    String TABLE_TASK_RATE_LIMIT = "task_rate_limit";
 
     String WORKFLOW_ID_KEY = "workflow_id";
     String SHARD_ID_KEY = "shard_id";
     String TASK_ID_KEY = "task_id";
     String ENTITY_KEY = "entity";
     String PAYLOAD_KEY = "payload";
+    String REVISION_KEY = "revision";
     String TOTAL_TASKS_KEY = "total_tasks";
     String TOTAL_PARTITIONS_KEY = "total_partitions";
     String TASK_DEF_NAME_KEY = "task_def_name";
@@ -46,6 +52,11 @@ public interface Constants {
     String EVENT_HANDLER_KEY = "event_handler";
     String MESSAGE_ID_KEY = "message_id";
     String EVENT_EXECUTION_ID_KEY = "event_execution_id";
+    String NAME_KEY = "name";
+    String BUCKET_KEY = "bucket";
+    String IN_PROGRESS_KEY = "in_progress";
+    String TOTAL_KEY = "total";
+    String WINDOW_START_KEY = "window_start";
 
     String ENTITY_TYPE_WORKFLOW = "workflow";
     String ENTITY_TYPE_TASK = "task";
@@ -14,7 +14,11 @@ package com.netflix.conductor.util;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.incr;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.ne;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.netflix.conductor.util.Constants.BUCKET_KEY;
 import static com.netflix.conductor.util.Constants.ENTITY_KEY;
 import static com.netflix.conductor.util.Constants.ENTITY_TYPE_TASK;
 import static com.netflix.conductor.util.Constants.ENTITY_TYPE_WORKFLOW;
@@ -22,14 +26,22 @@ import static com.netflix.conductor.util.Constants.EVENT_EXECUTION_ID_KEY;
 import static com.netflix.conductor.util.Constants.EVENT_HANDLER_KEY;
 import static com.netflix.conductor.util.Constants.EVENT_HANDLER_NAME_KEY;
 import static com.netflix.conductor.util.Constants.HANDLERS_KEY;
+import static com.netflix.conductor.util.Constants.IN_PROGRESS_KEY;
 import static com.netflix.conductor.util.Constants.MESSAGE_ID_KEY;
+import static com.netflix.conductor.util.Constants.NAME_KEY;
 import static com.netflix.conductor.util.Constants.PAYLOAD_KEY;
+import static com.netflix.conductor.util.Constants.REVISION_KEY;
 import static com.netflix.conductor.util.Constants.SHARD_ID_KEY;
 import static com.netflix.conductor.util.Constants.TABLE_EVENT_EXECUTIONS;
 import static com.netflix.conductor.util.Constants.TABLE_EVENT_HANDLERS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_BUCKETS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_COUNTS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_TASKS;
+import static com.netflix.conductor.util.Constants.TABLE_PENDING_WORKFLOWS;
 import static com.netflix.conductor.util.Constants.TABLE_TASK_DEFS;
 import static com.netflix.conductor.util.Constants.TABLE_TASK_DEF_LIMIT;
 import static com.netflix.conductor.util.Constants.TABLE_TASK_LOOKUP;
+import static com.netflix.conductor.util.Constants.TABLE_TASK_RATE_LIMIT;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOWS;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEFS;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEFS_INDEX;
@@ -37,8 +49,10 @@ import static com.netflix.conductor.util.Constants.TASK_DEFINITION_KEY;
 import static com.netflix.conductor.util.Constants.TASK_DEFS_KEY;
 import static com.netflix.conductor.util.Constants.TASK_DEF_NAME_KEY;
 import static com.netflix.conductor.util.Constants.TASK_ID_KEY;
+import static com.netflix.conductor.util.Constants.TOTAL_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_PARTITIONS_KEY;
 import static com.netflix.conductor.util.Constants.TOTAL_TASKS_KEY;
+import static com.netflix.conductor.util.Constants.WINDOW_START_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_DEFINITION_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_DEF_INDEX_KEY;
 import static com.netflix.conductor.util.Constants.WORKFLOW_DEF_INDEX_VALUE;
@@ -78,7 +92,10 @@ import javax.inject.Inject;
  * <ul>
  * <li> INSERT INTO conductor.workflows (workflow_id,shard_id,task_id,entity,payload,total_tasks,total_partitions) VALUES (?,?,?,'workflow',?,?,?); </li>
  * <li> INSERT INTO conductor.workflows (workflow_id,shard_id,task_id,entity,payload) VALUES (?,?,?,'task',?); </li>
+ * <li> INSERT INTO conductor.workflows (workflow_id,shard_id,task_id,entity,payload,revision) VALUES (?,?,?,'task',?,?) IF NOT EXISTS; </li>
  * <li> INSERT INTO conductor.event_executions (message_id,event_handler_name,event_execution_id,payload) VALUES (?,?,?,?) IF NOT EXISTS; </li>
+ * <li> INSERT INTO conductor.pending_workflows (workflow_def_name,bucket,workflow_id,version) VALUES (?,?,?,?) IF NOT EXISTS; </li>
+ * <li> INSERT INTO conductor.pending_buckets (entity,name,bucket) VALUES (?,?,?); </li>
  *
  * <li> SELECT total_tasks,total_partitions FROM conductor.workflows WHERE workflow_id=? AND shard_id=1; </li>
  * <li> SELECT payload FROM conductor.workflows WHERE workflow_id=? AND shard_id=? AND entity='task' AND task_id=?; </li>
@@ -87,6 +104,13 @@ import javax.inject.Inject;
  * <li> SELECT workflow_id FROM conductor.task_lookup WHERE task_id=?; </li>
  * <li> SELECT * FROM conductor.task_def_limit WHERE task_def_name=?; </li>
  * <li> SELECT * FROM conductor.event_executions WHERE message_id=? AND event_handler_name=?;</li>
+ * <li> SELECT workflow_id FROM conductor.pending_workflows WHERE workflow_def_name=? AND bucket=? AND workflow_id=?; </li>
+ * <li> SELECT workflow_id,version FROM conductor.pending_workflows WHERE workflow_def_name=? AND bucket=?; </li>
+ * <li> SELECT in_progress FROM conductor.pending_tasks WHERE task_def_name=? AND bucket=? AND task_id=?; </li>
+ * <li> SELECT task_id FROM conductor.pending_tasks WHERE task_def_name=? AND bucket=?; </li>
+ * <li> SELECT bucket FROM conductor.pending_buckets WHERE entity=? AND name=?; </li>
+ * <li> SELECT total FROM conductor.pending_counts WHERE entity=? AND name=?; </li>
+ * <li> SELECT total FROM conductor.task_rate_limit WHERE task_def_name=? AND window_start=?; </li>
  *
  * <li> UPDATE conductor.workflows SET payload=? WHERE workflow_id=? AND shard_id=1 AND entity='workflow' AND task_id=''; </li>
  * <li> UPDATE conductor.workflows SET total_tasks=? WHERE workflow_id=? AND shard_id=?; </li>
@@ -94,12 +118,22 @@ import javax.inject.Inject;
  * <li> UPDATE conductor.task_lookup SET workflow_id=? WHERE task_id=?; </li>
  * <li> UPDATE conductor.task_def_limit SET workflow_id=? WHERE task_def_name=? AND task_id=?; </li>
  * <li> UPDATE conductor.event_executions USING TTL ? SET payload=? WHERE message_id=? AND event_handler_name=? AND event_execution_id=?; </li>
+ * <li> UPDATE conductor.pending_tasks SET workflow_id=? WHERE task_def_name=? AND bucket=? AND task_id=?; </li>
+ * <li> UPDATE conductor.pending_tasks SET workflow_id=?,in_progress=true WHERE task_def_name=? AND bucket=? AND task_id=? IF in_progress!=true; </li>
+ * <li> UPDATE conductor.pending_tasks SET in_progress=false WHERE task_def_name=? AND bucket=? AND task_id=? IF in_progress=true; </li>
+ * <li> UPDATE conductor.pending_counts SET total=total+? WHERE entity=? AND name=?; </li>
+ * <li> UPDATE conductor.task_rate_limit SET total=total+1 WHERE task_def_name=? AND window_start=?; </li>
  *
  * <li> DELETE FROM conductor.workflows WHERE workflow_id=? AND shard_id=?; </li>
  * <li> DELETE FROM conductor.workflows WHERE workflow_id=? AND shard_id=? AND entity='task' AND task_id=?; </li>
  * <li> DELETE FROM conductor.task_lookup WHERE task_id=?; </li>
  * <li> DELETE FROM conductor.task_def_limit WHERE task_def_name=? AND task_id=?; </li>
  * <li> DELETE FROM conductor.event_executions WHERE message_id=? AND event_handler_name=? AND event_execution_id=?; </li>
+ * <li> DELETE FROM conductor.pending_workflows WHERE workflow_def_name=? AND bucket=? AND workflow_id=? IF EXISTS; </li>
+ * <li> DELETE FROM conductor.pending_tasks WHERE task_def_name=? AND bucket=? AND task_id=?; </li>
+ * <li> DELETE FROM conductor.pending_tasks WHERE task_def_name=? AND bucket=? AND task_id=? IF in_progress=true; </li>
+ * <li> DELETE FROM conductor.pending_buckets USING TIMESTAMP ? WHERE entity=? AND name=? AND bucket=?; </li>
+ * <li> DELETE FROM conductor.task_rate_limit WHERE task_def_name=? AND window_start<?; </li>
  * </ul>
  *
  * <em>EventHandlerDAO</em>
@@ -276,6 +310,7 @@ public class Statements {
             .value(TASK_ID_KEY, bindMarker())
             .value(ENTITY_KEY, ENTITY_TYPE_WORKFLOW)
             .value(PAYLOAD_KEY, bindMarker())
+            .value(REVISION_KEY, bindMarker())
             .value(TOTAL_TASKS_KEY, bindMarker())
             .value(TOTAL_PARTITIONS_KEY, bindMarker())
             .getQueryString();
@@ -291,6 +326,22 @@ public class Statements {
             .value(TASK_ID_KEY, bindMarker())
             .value(ENTITY_KEY, ENTITY_TYPE_TASK)
             .value(PAYLOAD_KEY, bindMarker())
+            .value(REVISION_KEY, bindMarker())
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to insert a task into the "workflows" table if it is not already there
+     */
+    public String getInsertTaskIfNotExistsStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_WORKFLOWS)
+            .value(WORKFLOW_ID_KEY, bindMarker())
+            .value(SHARD_ID_KEY, bindMarker())
+            .value(TASK_ID_KEY, bindMarker())
+            .value(ENTITY_KEY, ENTITY_TYPE_TASK)
+            .value(PAYLOAD_KEY, bindMarker())
+            .value(REVISION_KEY, bindMarker())
+            .ifNotExists()
             .getQueryString();
     }
 
@@ -307,6 +358,30 @@ public class Statements {
             .getQueryString();
     }
     
+    /**
+     * @return cql query statement to add a workflow to the "pending_workflows" table, if it is not there yet
+     */
+    public String getInsertPendingWorkflowStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_PENDING_WORKFLOWS)
+            .value(WORKFLOW_DEF_NAME_KEY, bindMarker())
+            .value(BUCKET_KEY, bindMarker())
+            .value(WORKFLOW_ID_KEY, bindMarker())
+            .value(WORKFLOW_VERSION_KEY, bindMarker())
+            .ifNotExists()
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to add a bucket of a workflow or task name to the "pending_buckets" table
+     */
+    public String getInsertPendingBucketStatement() {
+        return QueryBuilder.insertInto(keyspace, TABLE_PENDING_BUCKETS)
+            .value(ENTITY_KEY, bindMarker())
+            .value(NAME_KEY, bindMarker())
+            .value(BUCKET_KEY, bindMarker())
+            .getQueryString();
+    }
+
     // Select Statements
 
     /**
@@ -317,7 +392,7 @@ public class Statements {
         return QueryBuilder.select(TOTAL_TASKS_KEY, TOTAL_PARTITIONS_KEY)
             .from(keyspace, TABLE_WORKFLOWS)
             .where(eq(WORKFLOW_ID_KEY, bindMarker()))
-            .and(eq(SHARD_ID_KEY, 1))
+            .and(eq(SHARD_ID_KEY, bindMarker()))
             .getQueryString();
     }
 
@@ -341,7 +416,7 @@ public class Statements {
         return QueryBuilder.select(PAYLOAD_KEY)
             .from(keyspace, TABLE_WORKFLOWS)
             .where(eq(WORKFLOW_ID_KEY, bindMarker()))
-            .and(eq(SHARD_ID_KEY, 1))
+            .and(eq(SHARD_ID_KEY, bindMarker()))
             .and(eq(ENTITY_KEY, ENTITY_TYPE_WORKFLOW))
             .getQueryString();
     }
@@ -359,10 +434,11 @@ public class Statements {
     }
 
     /**
-     * @return cql query statement to retrieve the workflow_id for a particular task_id from the "task_lookup" table
+     * @return cql query statement to retrieve the workflow_id and shard_id for a particular task_id from the
+     * "task_lookup" table
      */
     public String getSelectTaskFromLookupTableStatement() {
-        return QueryBuilder.select(WORKFLOW_ID_KEY)
+        return QueryBuilder.select(WORKFLOW_ID_KEY, SHARD_ID_KEY)
             .from(keyspace, TABLE_TASK_LOOKUP)
             .where(eq(TASK_ID_KEY, bindMarker()))
             .getQueryString();
@@ -393,6 +469,86 @@ public class Statements {
             .getQueryString();
     }
 
+    /**
+     * @return cql query statement to retrieve a workflow from the "pending_workflows" table
+     */
+    public String getSelectPendingWorkflowStatement() {
+        return QueryBuilder.select(WORKFLOW_ID_KEY)
+            .from(keyspace, TABLE_PENDING_WORKFLOWS)
+            .where(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .and(eq(WORKFLOW_ID_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the workflows of a bucket from the "pending_workflows" table
+     */
+    public String getSelectPendingWorkflowsStatement() {
+        return QueryBuilder.select(WORKFLOW_ID_KEY, WORKFLOW_VERSION_KEY)
+            .from(keyspace, TABLE_PENDING_WORKFLOWS)
+            .where(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve whether a task is in progress from the "pending_tasks" table
+     */
+    public String getSelectPendingTaskStatement() {
+        return QueryBuilder.select(IN_PROGRESS_KEY)
+            .from(keyspace, TABLE_PENDING_TASKS)
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .and(eq(TASK_ID_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the task ids of a bucket from the "pending_tasks" table
+     */
+    public String getSelectPendingTasksStatement() {
+        return QueryBuilder.select(TASK_ID_KEY)
+            .from(keyspace, TABLE_PENDING_TASKS)
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the buckets of a workflow or task name from the "pending_buckets" table
+     */
+    public String getSelectPendingBucketsStatement() {
+        return QueryBuilder.select(BUCKET_KEY)
+            .from(keyspace, TABLE_PENDING_BUCKETS)
+            .where(eq(ENTITY_KEY, bindMarker()))
+            .and(eq(NAME_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the count of a workflow or task name from the "pending_counts" table
+     */
+    public String getSelectPendingCountStatement() {
+        return QueryBuilder.select(TOTAL_KEY)
+            .from(keyspace, TABLE_PENDING_COUNTS)
+            .where(eq(ENTITY_KEY, bindMarker()))
+            .and(eq(NAME_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to retrieve the tasks started in a window of a task definition from the
+     * "task_rate_limit" table
+     */
+    public String getSelectTaskRateLimitStatement() {
+        return QueryBuilder.select(TOTAL_KEY)
+            .from(keyspace, TABLE_TASK_RATE_LIMIT)
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(WINDOW_START_KEY, bindMarker()))
+            .getQueryString();
+    }
+
     // Update Statements
 
     /**
@@ -401,10 +557,41 @@ public class Statements {
     public String getUpdateWorkflowStatement() {
         return QueryBuilder.update(keyspace, TABLE_WORKFLOWS)
             .with(set(PAYLOAD_KEY, bindMarker()))
+            .and(set(REVISION_KEY, bindMarker()))
+            .where(eq(WORKFLOW_ID_KEY, bindMarker()))
+            .and(eq(SHARD_ID_KEY, bindMarker()))
+            .and(eq(ENTITY_KEY, ENTITY_TYPE_WORKFLOW))
+            .and(eq(TASK_ID_KEY, ""))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to update a workflow in the "workflows" table if its revision is the given one
+     */
+    public String getUpdateWorkflowIfRevisionStatement() {
+        return QueryBuilder.update(keyspace, TABLE_WORKFLOWS)
+            .with(set(PAYLOAD_KEY, bindMarker()))
+            .and(set(REVISION_KEY, bindMarker()))
             .where(eq(WORKFLOW_ID_KEY, bindMarker()))
-            .and(eq(SHARD_ID_KEY, 1))
+            .and(eq(SHARD_ID_KEY, bindMarker()))
             .and(eq(ENTITY_KEY, ENTITY_TYPE_WORKFLOW))
             .and(eq(TASK_ID_KEY, ""))
+            .onlyIf(eq(REVISION_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to update a task in the "workflows" table if its revision is the given one
+     */
+    public String getUpdateTaskIfRevisionStatement() {
+        return QueryBuilder.update(keyspace, TABLE_WORKFLOWS)
+            .with(set(PAYLOAD_KEY, bindMarker()))
+            .and(set(REVISION_KEY, bindMarker()))
+            .where(eq(WORKFLOW_ID_KEY, bindMarker()))
+            .and(eq(SHARD_ID_KEY, bindMarker()))
+            .and(eq(ENTITY_KEY, ENTITY_TYPE_TASK))
+            .and(eq(TASK_ID_KEY, bindMarker()))
+            .onlyIf(eq(REVISION_KEY, bindMarker()))
             .getQueryString();
     }
 
@@ -427,16 +614,17 @@ public class Statements {
             .with(set(TOTAL_PARTITIONS_KEY, bindMarker()))
             .and(set(TOTAL_TASKS_KEY, bindMarker()))
             .where(eq(WORKFLOW_ID_KEY, bindMarker()))
-            .and(eq(SHARD_ID_KEY, 1))
+            .and(eq(SHARD_ID_KEY, bindMarker()))
             .getQueryString();
     }
 
     /**
-     * @return cql query statement to add a new task_id to workflow_id mapping to the "task_lookup" table
+     * @return cql query statement to add a new task_id to workflow_id and shard_id mapping to the "task_lookup" table
      */
     public String getUpdateTaskLookupStatement() {
         return QueryBuilder.update(keyspace, TABLE_TASK_LOOKUP)
             .with(set(WORKFLOW_ID_KEY, bindMarker()))
+            .and(set(SHARD_ID_KEY, bindMarker()))
             .where(eq(TASK_ID_KEY, bindMarker()))
             .getQueryString();
     }
@@ -465,6 +653,68 @@ public class Statements {
             .getQueryString();
     }
 
+    /**
+     * @return cql query statement to add a task to the "pending_tasks" table
+     */
+    public String getUpdatePendingTaskStatement() {
+        return QueryBuilder.update(keyspace, TABLE_PENDING_TASKS)
+            .with(set(WORKFLOW_ID_KEY, bindMarker()))
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .and(eq(TASK_ID_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to mark a task in progress in the "pending_tasks" table, if it is not yet
+     */
+    public String getUpdatePendingTaskInProgressStatement() {
+        return QueryBuilder.update(keyspace, TABLE_PENDING_TASKS)
+            .with(set(WORKFLOW_ID_KEY, bindMarker()))
+            .and(set(IN_PROGRESS_KEY, true))
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .and(eq(TASK_ID_KEY, bindMarker()))
+            .onlyIf(ne(IN_PROGRESS_KEY, true))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to mark a task not in progress in the "pending_tasks" table, if it is
+     */
+    public String getUpdatePendingTaskNotInProgressStatement() {
+        return QueryBuilder.update(keyspace, TABLE_PENDING_TASKS)
+            .with(set(IN_PROGRESS_KEY, false))
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .and(eq(TASK_ID_KEY, bindMarker()))
+            .onlyIf(eq(IN_PROGRESS_KEY, true))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to add to the count of a workflow or task name in the "pending_counts" table
+     */
+    public String getUpdatePendingCountStatement() {
+        return QueryBuilder.update(keyspace, TABLE_PENDING_COUNTS)
+            .with(incr(TOTAL_KEY, bindMarker()))
+            .where(eq(ENTITY_KEY, bindMarker()))
+            .and(eq(NAME_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to count a task started in a window of its task definition in the
+     * "task_rate_limit" table
+     */
+    public String getUpdateTaskRateLimitStatement() {
+        return QueryBuilder.update(keyspace, TABLE_TASK_RATE_LIMIT)
+            .with(incr(TOTAL_KEY))
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(WINDOW_START_KEY, bindMarker()))
+            .getQueryString();
+    }
+
     // Delete statements
 
     /**
@@ -524,6 +774,70 @@ public class Statements {
             .getQueryString();
     }
 
+    /**
+     * @return cql query statement to delete a workflow from the "pending_workflows" table, if it is there
+     */
+    public String getDeletePendingWorkflowStatement() {
+        return QueryBuilder.delete()
+            .from(keyspace, TABLE_PENDING_WORKFLOWS)
+            .where(eq(WORKFLOW_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .and(eq(WORKFLOW_ID_KEY, bindMarker()))
+            .ifExists()
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete a task from the "pending_tasks" table
+     */
+    public String getDeletePendingTaskStatement() {
+        return QueryBuilder.delete()
+            .from(keyspace, TABLE_PENDING_TASKS)
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .and(eq(TASK_ID_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete a task from the "pending_tasks" table, if it is in progress
+     */
+    public String getDeletePendingTaskIfInProgressStatement() {
+        return QueryBuilder.delete()
+            .from(keyspace, TABLE_PENDING_TASKS)
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .and(eq(TASK_ID_KEY, bindMarker()))
+            .onlyIf(eq(IN_PROGRESS_KEY, true))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete a bucket of a workflow or task name from the "pending_buckets" table,
+     * unless it was written after the given timestamp
+     */
+    public String getDeletePendingBucketStatement() {
+        return QueryBuilder.delete()
+            .from(keyspace, TABLE_PENDING_BUCKETS)
+            .using(QueryBuilder.timestamp(bindMarker()))
+            .where(eq(ENTITY_KEY, bindMarker()))
+            .and(eq(NAME_KEY, bindMarker()))
+            .and(eq(BUCKET_KEY, bindMarker()))
+            .getQueryString();
+    }
+
+    /**
+     * @return cql query statement to delete the windows of a task definition before the given one from the
+     * "task_rate_limit" table
+     */
+    public String getDeleteTaskRateLimitStatement() {
+        return QueryBuilder.delete()
+            .from(keyspace, TABLE_TASK_RATE_LIMIT)
+            .where(eq(TASK_DEF_NAME_KEY, bindMarker()))
+            .and(lt(WINDOW_START_KEY, bindMarker()))
+            .getQueryString();
+    }
+
     // EventHandlerDAO
     // Insert Statements
 
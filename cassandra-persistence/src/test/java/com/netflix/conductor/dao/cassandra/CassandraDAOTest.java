@@ -14,13 +14,18 @@ package com.netflix.conductor.dao.cassandra;
 
 import static com.netflix.conductor.common.metadata.events.EventExecution.Status.COMPLETED;
 import static com.netflix.conductor.core.execution.ApplicationException.Code.INVALID_INPUT;
+import static com.netflix.conductor.util.Constants.ENTITY_KEY;
+import static com.netflix.conductor.util.Constants.ENTITY_TYPE_TASK;
 import static com.netflix.conductor.util.Constants.TABLE_EVENT_EXECUTIONS;
+import static com.netflix.conductor.util.Constants.TABLE_WORKFLOWS;
 import static com.netflix.conductor.util.Constants.TABLE_WORKFLOW_DEFS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 import com.datastax.driver.core.Session;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -35,24 +40,35 @@ import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.utils.JsonMapperProvider;
 import com.netflix.conductor.config.TestConfiguration;
 import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
 import com.netflix.conductor.core.utils.IDGenerator;
 import com.netflix.conductor.dao.cassandra.CassandraBaseDAO.WorkflowMetadata;
 import com.netflix.conductor.util.EmbeddedCassandra;
 import com.netflix.conductor.util.Statements;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class CassandraDAOTest {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(CassandraDAOTest.class);
+
     private final TestConfiguration testConfiguration = new TestConfiguration();
     private final ObjectMapper objectMapper = new JsonMapperProvider().get();
 
@@ -250,6 +266,52 @@ public class CassandraDAOTest {
         assertNull(workflow);
     }
 
+    @Test
+    public void testCompareAndSetWorkflow() {
+        String workflowId = IDGenerator.generate();
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(workflowId);
+        workflow.setInput(new HashMap<>());
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        workflow.setCreateTime(System.currentTimeMillis());
+        executionDAO.createWorkflow(workflow);
+
+        Task task = new Task();
+        task.setWorkflowInstanceId(workflowId);
+        task.setTaskType("task1");
+        task.setReferenceTaskName("task1");
+        task.setStatus(Task.Status.SCHEDULED);
+        task.setTaskId(IDGenerator.generate());
+        executionDAO.createTasks(new ArrayList<>(Arrays.asList(task)));
+
+        // a decide and a worker read the same revisions
+        Workflow decided = executionDAO.getWorkflow(workflowId, true);
+        Task stale = executionDAO.getWorkflow(workflowId, true).getTasks().get(0);
+
+        Task decidedTask = decided.getTasks().get(0);
+        decidedTask.setStatus(Status.IN_PROGRESS);
+        executionDAO.compareAndSetWorkflow(decided, Arrays.asList(decidedTask));
+        assertEquals(1, executionDAO.getWorkflow(workflowId).getRevision());
+        assertEquals(1, executionDAO.getTask(task.getTaskId()).getRevision());
+
+        stale.setStatus(Status.CANCELED);
+        try {
+            executionDAO.compareAndSetWorkflow(executionDAO.getWorkflow(workflowId, false), Arrays.asList(stale));
+            fail("Expected the update to conflict");
+        } catch (ConcurrentUpdateException e) {
+            assertEquals(Status.IN_PROGRESS, executionDAO.getTask(task.getTaskId()).getStatus());
+            assertEquals(1, executionDAO.getWorkflow(workflowId).getRevision());
+        }
+
+        // an unconditional update of the task conflicts with the revision read before it
+        Task completed = executionDAO.getTask(task.getTaskId());
+        completed.setStatus(Status.COMPLETED);
+        completed.setRevision(completed.getRevision() + 1);
+        executionDAO.updateTask(completed);
+        expectedException.expect(ConcurrentUpdateException.class);
+        executionDAO.compareAndSetWorkflow(decided, Arrays.asList(decidedTask));
+    }
+
     @Test
     public void testTasksCRUD() {
         String workflowId = IDGenerator.generate();
@@ -391,6 +453,269 @@ public class CassandraDAOTest {
         assertNull(foundId);
     }
 
+    @Test
+    public void testShardedTasks() {
+        CassandraExecutionDAO shardedExecutionDAO = getExecutionDAO(true, false);
+        String workflowId = createWorkflow(shardedExecutionDAO);
+        List<Task> tasks = newTasks(workflowId, 1, 25);
+        shardedExecutionDAO.createTasks(tasks);
+
+        // shards of 10 tasks
+        assertEquals(1, shardedExecutionDAO.getShardId(tasks.get(9)));
+        assertEquals(3, shardedExecutionDAO.getShardId(tasks.get(24)));
+        WorkflowMetadata workflowMetadata = shardedExecutionDAO.getWorkflowMetadata(workflowId);
+        assertEquals(25, workflowMetadata.getTotalTasks());
+        assertEquals(3, workflowMetadata.getTotalPartitions());
+        assertEquals(tasks, shardedExecutionDAO.getWorkflow(workflowId, true).getTasks());
+
+        Task task = tasks.get(24);
+        task.setStatus(Status.IN_PROGRESS);
+        shardedExecutionDAO.updateTask(task);
+        assertEquals(task, shardedExecutionDAO.getTask(task.getTaskId()));
+        assertEquals(tasks, shardedExecutionDAO.getWorkflow(workflowId, true).getTasks());
+
+        // conditional batches cannot span shards
+        Workflow found = shardedExecutionDAO.getWorkflow(workflowId, true);
+        try {
+            shardedExecutionDAO.compareAndSetWorkflow(found, found.getTasks());
+            fail("compare-and-set must not be supported with task sharding");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        Task last = found.getTasks().get(24);
+        assertTrue(shardedExecutionDAO.removeTask(last.getTaskId()));
+        assertNull(shardedExecutionDAO.getTask(last.getTaskId()));
+        assertEquals(24, shardedExecutionDAO.getWorkflow(workflowId, true).getTasks().size());
+
+        assertTrue(shardedExecutionDAO.removeWorkflow(workflowId));
+        assertNull(shardedExecutionDAO.getWorkflow(workflowId, true));
+        assertNull(shardedExecutionDAO.getTask(tasks.get(15).getTaskId()));
+        assertEquals(0, countTaskRows(workflowId, 2));
+    }
+
+    @Test
+    public void testMigrateTasksToShards() {
+        // a workflow created before tasks were sharded
+        String workflowId = createWorkflow(executionDAO);
+        List<Task> tasks = newTasks(workflowId, 1, 25);
+        executionDAO.createTasks(tasks);
+        assertEquals(25, countTaskRows(workflowId, 1));
+
+        // an update writes the task to its shard, the copy in the first shard is outdated
+        CassandraExecutionDAO shardedExecutionDAO = getExecutionDAO(true, false);
+        Task task = tasks.get(24);
+        task.setStatus(Status.IN_PROGRESS);
+        task.setRevision(1);
+        shardedExecutionDAO.updateTask(task);
+        assertEquals(task, shardedExecutionDAO.getTask(task.getTaskId()));
+        assertEquals(tasks, shardedExecutionDAO.getWorkflow(workflowId, true).getTasks());
+        assertEquals(25, countTaskRows(workflowId, 1));
+
+        // a server not sharding tasks yet updates the copy in the first shard, which is then the current one
+        task.setStatus(Status.COMPLETED);
+        task.setRevision(2);
+        executionDAO.updateTask(task);
+        assertEquals(tasks, shardedExecutionDAO.getWorkflow(workflowId, true).getTasks());
+
+        // the tasks are moved to their shards when the workflow is read
+        CassandraExecutionDAO migratingExecutionDAO = getExecutionDAO(true, true);
+        assertEquals(tasks, migratingExecutionDAO.getWorkflow(workflowId, true).getTasks());
+        assertEquals(10, countTaskRows(workflowId, 1));
+        assertEquals(10, countTaskRows(workflowId, 2));
+        assertEquals(5, countTaskRows(workflowId, 3));
+        assertEquals(3, migratingExecutionDAO.getWorkflowMetadata(workflowId).getTotalPartitions());
+        assertEquals(tasks, shardedExecutionDAO.getWorkflow(workflowId, true).getTasks());
+        assertEquals(tasks.get(15), shardedExecutionDAO.getTask(tasks.get(15).getTaskId()));
+
+        assertTrue(shardedExecutionDAO.removeWorkflow(workflowId));
+        assertEquals(0, countTaskRows(workflowId, 3));
+    }
+
+    /**
+     * Compares reading a workflow with all its tasks in one partition to reading its shards in parallel.
+     * <p>
+     * Only runs when {@code conductor.cassandra.benchmarks} is set. Set
+     * {@code conductor.cassandra.sharding.benchmark.tasks} to read workflows with more than the default 200 tasks.
+     */
+    @Test
+    public void testShardedWorkflowReads() {
+        assumeTrue(Boolean.getBoolean("conductor.cassandra.benchmarks"));
+        int taskCount = Integer.getInteger("conductor.cassandra.sharding.benchmark.tasks", 200);
+        int reads = 20;
+
+        long singleShardMillis = readWorkflow(executionDAO, taskCount, reads);
+        long shardedMillis = readWorkflow(getExecutionDAO(true, false), taskCount, reads);
+        LOGGER.info("{} reads of a workflow with {} tasks: {} ms from one shard, {} ms from shards of {} tasks",
+            reads, taskCount, singleShardMillis, shardedMillis, testConfiguration.getShardSize());
+    }
+
+    @Test
+    public void testGetTasksAcrossWorkflows() {
+        CassandraExecutionDAO shardedExecutionDAO = getExecutionDAO(true, false);
+        List<Task> tasks = newTasks(createWorkflow(executionDAO), 1, 2);
+        executionDAO.createTasks(tasks);
+        List<Task> shardedTasks = newTasks(createWorkflow(shardedExecutionDAO), 1, 15);
+        shardedExecutionDAO.createTasks(shardedTasks);
+
+        List<Task> found = shardedExecutionDAO.getTasks(Arrays.asList(tasks.get(1).getTaskId(),
+            IDGenerator.generate(), shardedTasks.get(14).getTaskId(), shardedTasks.get(0).getTaskId()));
+        assertEquals(Arrays.asList(tasks.get(1), shardedTasks.get(14), shardedTasks.get(0)), found);
+
+        expectedException.expect(ApplicationException.class);
+        shardedExecutionDAO.getTasks(Arrays.asList("invalid_id"));
+    }
+
+    /**
+     * Compares the latency of scheduling the tasks of a large fork with one request in flight and with the
+     * configured number of requests in flight.
+     * <p>
+     * Only runs when {@code conductor.cassandra.benchmarks} is set. Set {@code conductor.cassandra.fork.benchmark.tasks}
+     * to schedule forks of more than the default 50 tasks.
+     */
+    @Test
+    public void testCreateForkTasksLatency() {
+        assumeTrue(Boolean.getBoolean("conductor.cassandra.benchmarks"));
+        int forkTasks = Integer.getInteger("conductor.cassandra.fork.benchmark.tasks", 50);
+        int forks = 100;
+
+        TestConfiguration sequentialConfiguration = new TestConfiguration() {
+            @Override
+            public int getMaxInflightRequests() {
+                return 1;
+            }
+        };
+        CassandraExecutionDAO sequentialExecutionDAO = new CassandraExecutionDAO(session, objectMapper,
+            sequentialConfiguration, new Statements(sequentialConfiguration));
+        long[] sequentialMicros = createForks(sequentialExecutionDAO, forks, forkTasks);
+        long[] asyncMicros = createForks(executionDAO, forks, forkTasks);
+        LOGGER.info("{} forks of {} tasks: p50 {} us, p99 {} us with 1 request in flight, p50 {} us, p99 {} us with {}",
+            forks, forkTasks, percentile(sequentialMicros, 50), percentile(sequentialMicros, 99),
+            percentile(asyncMicros, 50), percentile(asyncMicros, 99), testConfiguration.getMaxInflightRequests());
+    }
+
+    @Test
+    public void testPendingIndex() {
+        TestConfiguration configuration = new TestConfiguration() {
+            @Override
+            public boolean isPendingIndexEnabled() {
+                return true;
+            }
+        };
+        CassandraExecutionDAO indexingExecutionDAO = new CassandraExecutionDAO(session, objectMapper, configuration,
+            new Statements(configuration));
+
+        WorkflowDef workflowDef = new WorkflowDef();
+        workflowDef.setName("pending_workflow_" + IDGenerator.generate());
+        workflowDef.setVersion(1);
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(IDGenerator.generate());
+        workflow.setWorkflowDefinition(workflowDef);
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        workflow.setCreateTime(System.currentTimeMillis());
+        String workflowId = indexingExecutionDAO.createWorkflow(workflow);
+        indexingExecutionDAO.updateWorkflow(workflow);
+        assertEquals(1, indexingExecutionDAO.getPendingWorkflowCount(workflowDef.getName()));
+        assertEquals(Collections.singletonList(workflowId), indexingExecutionDAO.getRunningWorkflowIds(workflowDef.getName(), 1));
+        assertTrue(indexingExecutionDAO.getRunningWorkflowIds(workflowDef.getName(), 2).isEmpty());
+
+        String taskDefName = "pending_task_" + IDGenerator.generate();
+        List<Task> tasks = newTasks(workflowId, 1, 3);
+        tasks.forEach(task -> task.setTaskDefName(taskDefName));
+        tasks.get(2).setStatus(Status.IN_PROGRESS);
+        indexingExecutionDAO.createTasks(tasks);
+        assertEquals(3, indexingExecutionDAO.getPendingTasksForTaskType(taskDefName).size());
+        assertEquals(1, indexingExecutionDAO.getInProgressTaskCount(taskDefName));
+
+        // counted once however often it is updated
+        Task task = tasks.get(0);
+        task.setStatus(Status.IN_PROGRESS);
+        indexingExecutionDAO.updateTask(task);
+        indexingExecutionDAO.updateTask(task);
+        assertEquals(2, indexingExecutionDAO.getInProgressTaskCount(taskDefName));
+
+        task.setStatus(Status.COMPLETED);
+        indexingExecutionDAO.updateTask(task);
+        tasks.get(1).setStatus(Status.SKIPPED);
+        indexingExecutionDAO.updateTask(tasks.get(1));
+        assertEquals(1, indexingExecutionDAO.getInProgressTaskCount(taskDefName));
+        assertEquals(Collections.singletonList(tasks.get(2)), indexingExecutionDAO.getPendingTasksForTaskType(taskDefName));
+
+        workflow.setStatus(Workflow.WorkflowStatus.COMPLETED);
+        indexingExecutionDAO.updateWorkflow(workflow);
+        indexingExecutionDAO.updateWorkflow(workflow);
+        assertEquals(0, indexingExecutionDAO.getPendingWorkflowCount(workflowDef.getName()));
+        assertTrue(indexingExecutionDAO.getRunningWorkflowIds(workflowDef.getName(), 1).isEmpty());
+
+        // a workflow retried once completed is pending again
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        indexingExecutionDAO.updateWorkflow(workflow);
+        assertEquals(1, indexingExecutionDAO.getPendingWorkflowCount(workflowDef.getName()));
+
+        assertTrue(indexingExecutionDAO.removeWorkflow(workflowId));
+        assertEquals(0, indexingExecutionDAO.getPendingWorkflowCount(workflowDef.getName()));
+        assertEquals(0, indexingExecutionDAO.getInProgressTaskCount(taskDefName));
+        assertTrue(indexingExecutionDAO.getPendingTasksForTaskType(taskDefName).isEmpty());
+
+        expectedException.expect(UnsupportedOperationException.class);
+        executionDAO.getPendingWorkflowCount(workflowDef.getName());
+    }
+
+    @Test
+    public void testRateLimitAcrossServers() throws Exception {
+        int servers = 3;
+        int threadsPerServer = 4;
+        int limit = 20;
+        int windows = 3;
+        Statements statements = new Statements(testConfiguration);
+        List<CassandraExecutionDAO> executionDAOs = new ArrayList<>();
+        for (int i = 0; i < servers; i++) {
+            executionDAOs.add(new CassandraExecutionDAO(session, objectMapper, testConfiguration, statements));
+        }
+
+        TaskDef taskDef = new TaskDef("rate_limited_task");
+        taskDef.setRateLimitPerFrequency(limit);
+        taskDef.setRateLimitFrequencyInSeconds(1);
+        Task task = new Task();
+        task.setTaskId(IDGenerator.generate());
+        task.setTaskDefName(taskDef.getName());
+        assertFalse(executionDAO.exceedsRateLimitPerFrequency(task, new TaskDef("unlimited_task")));
+
+        // from just after a window starts to just before the last window ends
+        long windowMillis = TimeUnit.SECONDS.toMillis(taskDef.getRateLimitFrequencyInSeconds());
+        Thread.sleep(windowMillis - System.currentTimeMillis() % windowMillis + 50);
+        long end = System.currentTimeMillis() + windows * windowMillis - 100;
+
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger limited = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(servers * threadsPerServer);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < servers * threadsPerServer; t++) {
+            CassandraExecutionDAO dao = executionDAOs.get(t % servers);
+            futures.add(executorService.submit(() -> {
+                while (System.currentTimeMillis() < end) {
+                    if (dao.exceedsRateLimitPerFrequency(task, taskDef)) {
+                        limited.incrementAndGet();
+                    } else {
+                        started.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executorService.shutdown();
+
+        LOGGER.info("{} servers checked the rate limit {} times per second, {} tasks started and {} limited",
+            servers, (started.get() + limited.get()) / windows, started.get(), limited.get());
+        // counting limited tasks too may start fewer under contention, but never more
+        assertTrue(started.get() <= limit * windows);
+        assertTrue(started.get() > 0);
+        assertTrue(limited.get() > 0);
+    }
+
     @Test
     public void testTaskDefLimitCRUD() {
         String taskDefName = "test_task_def";
@@ -585,6 +910,102 @@ public class CassandraDAOTest {
         assertEquals(0, eventExecutionList.size());
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void testShardedTasksWithOptimisticConcurrency() {
+        TestConfiguration configuration = new TestConfiguration() {
+            @Override
+            public boolean isTaskShardingEnabled() {
+                return true;
+            }
+
+            @Override
+            public boolean isOptimisticConcurrencyEnabled() {
+                return true;
+            }
+        };
+        new CassandraExecutionDAO(session, objectMapper, configuration, new Statements(configuration));
+    }
+
+    private CassandraExecutionDAO getExecutionDAO(boolean taskSharding, boolean taskShardingMigration) {
+        TestConfiguration configuration = new TestConfiguration() {
+            @Override
+            public boolean isTaskShardingEnabled() {
+                return taskSharding;
+            }
+
+            @Override
+            public boolean isTaskShardingMigrationEnabled() {
+                return taskShardingMigration;
+            }
+        };
+        return new CassandraExecutionDAO(session, objectMapper, configuration, new Statements(configuration));
+    }
+
+    private String createWorkflow(CassandraExecutionDAO executionDAO) {
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(IDGenerator.generate());
+        workflow.setInput(new HashMap<>());
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        workflow.setCreateTime(System.currentTimeMillis());
+        return executionDAO.createWorkflow(workflow);
+    }
+
+    private List<Task> newTasks(String workflowId, int firstSeq, int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int seq = firstSeq; seq < firstSeq + count; seq++) {
+            Task task = new Task();
+            task.setWorkflowInstanceId(workflowId);
+            task.setTaskType("task" + seq);
+            task.setReferenceTaskName("task" + seq);
+            task.setStatus(Task.Status.SCHEDULED);
+            task.setTaskId(IDGenerator.generate());
+            task.setSeq(seq);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private long readWorkflow(CassandraExecutionDAO executionDAO, int taskCount, int reads) {
+        String workflowId = createWorkflow(executionDAO);
+        // as scheduled by decides, and to keep batches small
+        for (int seq = 1; seq <= taskCount; seq += 10) {
+            executionDAO.createTasks(newTasks(workflowId, seq, Math.min(10, taskCount - seq + 1)));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            assertEquals(taskCount, executionDAO.getWorkflow(workflowId, true).getTasks().size());
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executionDAO.removeWorkflow(workflowId);
+        return millis;
+    }
+
+    private long[] createForks(CassandraExecutionDAO executionDAO, int forks, int forkTasks) {
+        long[] micros = new long[forks];
+        for (int i = 0; i < forks; i++) {
+            String workflowId = createWorkflow(executionDAO);
+            List<Task> tasks = newTasks(workflowId, 1, forkTasks);
+            long start = System.nanoTime();
+            executionDAO.createTasks(tasks);
+            micros[i] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            executionDAO.removeWorkflow(workflowId);
+        }
+        Arrays.sort(micros);
+        return micros;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    private int countTaskRows(String workflowId, int shardId) {
+        String table = testConfiguration.getCassandraKeyspace() + "." + TABLE_WORKFLOWS;
+        return (int) session.execute("SELECT entity FROM " + table + " WHERE workflow_id=" + workflowId
+            + " AND shard_id=" + shardId + ";").all().stream()
+            .filter(row -> ENTITY_TYPE_TASK.equals(row.getString(ENTITY_KEY)))
+            .count();
+    }
+
     private void addWorkflowDefinition(WorkflowDef workflowDef) throws Exception {
         //INSERT INTO conductor.workflow_definitions (workflow_def_name,version,workflow_definition) VALUES (?,?,?);
         String table = testConfiguration.getCassandraKeyspace() + "." + TABLE_WORKFLOW_DEFS;
@@ -103,16 +103,22 @@ public class StatementsTest {
 
     @Test
     public void testGetInsertWorkflowStatement() {
-        String statement = "INSERT INTO junit.workflows (workflow_id,shard_id,task_id,entity,payload,total_tasks,total_partitions) VALUES (?,?,?,'workflow',?,?,?);";
+        String statement = "INSERT INTO junit.workflows (workflow_id,shard_id,task_id,entity,payload,revision,total_tasks,total_partitions) VALUES (?,?,?,'workflow',?,?,?,?);";
         assertEquals(statement, statements.getInsertWorkflowStatement());
     }
 
     @Test
     public void testGetInsertTaskStatement() {
-        String statement = "INSERT INTO junit.workflows (workflow_id,shard_id,task_id,entity,payload) VALUES (?,?,?,'task',?);";
+        String statement = "INSERT INTO junit.workflows (workflow_id,shard_id,task_id,entity,payload,revision) VALUES (?,?,?,'task',?,?);";
         assertEquals(statement, statements.getInsertTaskStatement());
     }
 
+    @Test
+    public void testGetInsertTaskIfNotExistsStatement() {
+        String statement = "INSERT INTO junit.workflows (workflow_id,shard_id,task_id,entity,payload,revision) VALUES (?,?,?,'task',?,?) IF NOT EXISTS;";
+        assertEquals(statement, statements.getInsertTaskIfNotExistsStatement());
+    }
+
     @Test
     public void testGetInsertEventExecutionStatement() {
         String statement = "INSERT INTO junit.event_executions (message_id,event_handler_name,event_execution_id,payload) VALUES (?,?,?,?) IF NOT EXISTS;";
@@ -121,7 +127,7 @@ public class StatementsTest {
 
     @Test
     public void testGetSelectTotalStatement() {
-        String statement = "SELECT total_tasks,total_partitions FROM junit.workflows WHERE workflow_id=? AND shard_id=1;";
+        String statement = "SELECT total_tasks,total_partitions FROM junit.workflows WHERE workflow_id=? AND shard_id=?;";
         assertEquals(statement, statements.getSelectTotalStatement());
     }
 
@@ -133,7 +139,7 @@ public class StatementsTest {
 
     @Test
     public void testGetSelectWorkflowStatement() {
-        String statement = "SELECT payload FROM junit.workflows WHERE workflow_id=? AND shard_id=1 AND entity='workflow';";
+        String statement = "SELECT payload FROM junit.workflows WHERE workflow_id=? AND shard_id=? AND entity='workflow';";
         assertEquals(statement, statements.getSelectWorkflowStatement());
     }
 
@@ -145,7 +151,7 @@ public class StatementsTest {
 
     @Test
     public void testGetSelectTaskFromLookupTableStatement() {
-        String statement = "SELECT workflow_id FROM junit.task_lookup WHERE task_id=?;";
+        String statement = "SELECT workflow_id,shard_id FROM junit.task_lookup WHERE task_id=?;";
         assertEquals(statement, statements.getSelectTaskFromLookupTableStatement());
     }
 
@@ -163,10 +169,22 @@ public class StatementsTest {
 
     @Test
     public void testGetUpdateWorkflowStatement() {
-        String statement = "UPDATE junit.workflows SET payload=? WHERE workflow_id=? AND shard_id=1 AND entity='workflow' AND task_id='';";
+        String statement = "UPDATE junit.workflows SET payload=?,revision=? WHERE workflow_id=? AND shard_id=? AND entity='workflow' AND task_id='';";
         assertEquals(statement, statements.getUpdateWorkflowStatement());
     }
 
+    @Test
+    public void testGetUpdateWorkflowIfRevisionStatement() {
+        String statement = "UPDATE junit.workflows SET payload=?,revision=? WHERE workflow_id=? AND shard_id=? AND entity='workflow' AND task_id='' IF revision=?;";
+        assertEquals(statement, statements.getUpdateWorkflowIfRevisionStatement());
+    }
+
+    @Test
+    public void testGetUpdateTaskIfRevisionStatement() {
+        String statement = "UPDATE junit.workflows SET payload=?,revision=? WHERE workflow_id=? AND shard_id=? AND entity='task' AND task_id=? IF revision=?;";
+        assertEquals(statement, statements.getUpdateTaskIfRevisionStatement());
+    }
+
     @Test
     public void testGetUpdateTotalTasksStatement() {
         String statement = "UPDATE junit.workflows SET total_tasks=? WHERE workflow_id=? AND shard_id=?;";
@@ -175,13 +193,13 @@ public class StatementsTest {
 
     @Test
     public void testGetUpdateTotalPartitionsStatement() {
-        String statement = "UPDATE junit.workflows SET total_partitions=?,total_tasks=? WHERE workflow_id=? AND shard_id=1;";
+        String statement = "UPDATE junit.workflows SET total_partitions=?,total_tasks=? WHERE workflow_id=? AND shard_id=?;";
         assertEquals(statement, statements.getUpdateTotalPartitionsStatement());
     }
 
     @Test
     public void testGetUpdateTaskLookupStatement() {
-        String statement = "UPDATE junit.task_lookup SET workflow_id=? WHERE task_id=?;";
+        String statement = "UPDATE junit.task_lookup SET workflow_id=?,shard_id=? WHERE task_id=?;";
         assertEquals(statement, statements.getUpdateTaskLookupStatement());
     }
 
@@ -227,6 +245,120 @@ public class StatementsTest {
         assertEquals(statement, statements.getDeleteEventExecutionsStatement());
     }
 
+    @Test
+    public void testGetInsertPendingWorkflowStatement() {
+        String statement = "INSERT INTO junit.pending_workflows (workflow_def_name,bucket,workflow_id,version) VALUES (?,?,?,?) IF NOT EXISTS;";
+        assertEquals(statement, statements.getInsertPendingWorkflowStatement());
+    }
+
+    @Test
+    public void testGetInsertPendingBucketStatement() {
+        String statement = "INSERT INTO junit.pending_buckets (entity,name,bucket) VALUES (?,?,?);";
+        assertEquals(statement, statements.getInsertPendingBucketStatement());
+    }
+
+    @Test
+    public void testGetSelectPendingWorkflowStatement() {
+        String statement = "SELECT workflow_id FROM junit.pending_workflows WHERE workflow_def_name=? AND bucket=? AND workflow_id=?;";
+        assertEquals(statement, statements.getSelectPendingWorkflowStatement());
+    }
+
+    @Test
+    public void testGetSelectPendingWorkflowsStatement() {
+        String statement = "SELECT workflow_id,version FROM junit.pending_workflows WHERE workflow_def_name=? AND bucket=?;";
+        assertEquals(statement, statements.getSelectPendingWorkflowsStatement());
+    }
+
+    @Test
+    public void testGetSelectPendingTaskStatement() {
+        String statement = "SELECT in_progress FROM junit.pending_tasks WHERE task_def_name=? AND bucket=? AND task_id=?;";
+        assertEquals(statement, statements.getSelectPendingTaskStatement());
+    }
+
+    @Test
+    public void testGetSelectPendingTasksStatement() {
+        String statement = "SELECT task_id FROM junit.pending_tasks WHERE task_def_name=? AND bucket=?;";
+        assertEquals(statement, statements.getSelectPendingTasksStatement());
+    }
+
+    @Test
+    public void testGetSelectPendingBucketsStatement() {
+        String statement = "SELECT bucket FROM junit.pending_buckets WHERE entity=? AND name=?;";
+        assertEquals(statement, statements.getSelectPendingBucketsStatement());
+    }
+
+    @Test
+    public void testGetSelectPendingCountStatement() {
+        String statement = "SELECT total FROM junit.pending_counts WHERE entity=? AND name=?;";
+        assertEquals(statement, statements.getSelectPendingCountStatement());
+    }
+
+    @Test
+    public void testGetUpdatePendingTaskStatement() {
+        String statement = "UPDATE junit.pending_tasks SET workflow_id=? WHERE task_def_name=? AND bucket=? AND task_id=?;";
+        assertEquals(statement, statements.getUpdatePendingTaskStatement());
+    }
+
+    @Test
+    public void testGetUpdatePendingTaskInProgressStatement() {
+        String statement = "UPDATE junit.pending_tasks SET workflow_id=?,in_progress=true WHERE task_def_name=? AND bucket=? AND task_id=? IF in_progress!=true;";
+        assertEquals(statement, statements.getUpdatePendingTaskInProgressStatement());
+    }
+
+    @Test
+    public void testGetUpdatePendingTaskNotInProgressStatement() {
+        String statement = "UPDATE junit.pending_tasks SET in_progress=false WHERE task_def_name=? AND bucket=? AND task_id=? IF in_progress=true;";
+        assertEquals(statement, statements.getUpdatePendingTaskNotInProgressStatement());
+    }
+
+    @Test
+    public void testGetUpdatePendingCountStatement() {
+        String statement = "UPDATE junit.pending_counts SET total=total+? WHERE entity=? AND name=?;";
+        assertEquals(statement, statements.getUpdatePendingCountStatement());
+    }
+
+    @Test
+    public void testGetDeletePendingWorkflowStatement() {
+        String statement = "DELETE FROM junit.pending_workflows WHERE workflow_def_name=? AND bucket=? AND workflow_id=? IF EXISTS;";
+        assertEquals(statement, statements.getDeletePendingWorkflowStatement());
+    }
+
+    @Test
+    public void testGetDeletePendingTaskStatement() {
+        String statement = "DELETE FROM junit.pending_tasks WHERE task_def_name=? AND bucket=? AND task_id=?;";
+        assertEquals(statement, statements.getDeletePendingTaskStatement());
+    }
+
+    @Test
+    public void testGetDeletePendingTaskIfInProgressStatement() {
+        String statement = "DELETE FROM junit.pending_tasks WHERE task_def_name=? AND bucket=? AND task_id=? IF in_progress=true;";
+        assertEquals(statement, statements.getDeletePendingTaskIfInProgressStatement());
+    }
+
+    @Test
+    public void testGetDeletePendingBucketStatement() {
+        String statement = "DELETE FROM junit.pending_buckets USING TIMESTAMP ? WHERE entity=? AND name=? AND bucket=?;";
+        assertEquals(statement, statements.getDeletePendingBucketStatement());
+    }
+
+    @Test
+    public void testGetSelectTaskRateLimitStatement() {
+        String statement = "SELECT total FROM junit.task_rate_limit WHERE task_def_name=? AND window_start=?;";
+        assertEquals(statement, statements.getSelectTaskRateLimitStatement());
+    }
+
+    @Test
+    public void testGetUpdateTaskRateLimitStatement() {
+        String statement = "UPDATE junit.task_rate_limit SET total=total+1 WHERE task_def_name=? AND window_start=?;";
+        assertEquals(statement, statements.getUpdateTaskRateLimitStatement());
+    }
+
+    @Test
+    public void testGetDeleteTaskRateLimitStatement() {
+        String statement = "DELETE FROM junit.task_rate_limit WHERE task_def_name=? AND window_start<?;";
+        assertEquals(statement, statements.getDeleteTaskRateLimitStatement());
+    }
+
     @Test
     public void testGetInsertEventHandlerStatement() {
         String statement = "INSERT INTO junit.event_handlers (handlers,event_handler_name,event_handler) VALUES ('handlers',?,?);";
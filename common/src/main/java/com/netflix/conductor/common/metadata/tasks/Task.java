@@ -203,6 +203,9 @@ public class Task {
     @ProtoField(id = 41)
     private String subWorkflowId;
 
+    @ProtoField(id = 42)
+    private long revision;
+
     public Task() {
     }
 
@@ -753,6 +756,17 @@ public class Task {
         }
     }
 
+    /**
+     * @return the number of times the task was updated in the data store, compared by optimistic concurrency control
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
 
     public Task copy() {
         Task copy = new Task();
@@ -127,6 +127,9 @@ public class Workflow extends Auditable{
 	@Max(value = 99, message = "workflow priority: ${validatedValue} should be maximum {value}")
 	private int priority;
 
+	@ProtoField(id = 23)
+	private long revision;
+
 	public Workflow(){
 
 	}
@@ -418,6 +421,17 @@ public class Workflow extends Auditable{
 		this.priority = priority;
 	}
 
+	/**
+	 * @return the number of times the workflow was updated in the data store, compared by optimistic concurrency control
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	public void setRevision(long revision) {
+		this.revision = revision;
+	}
+
 	/**
      * Convenience method for accessing the workflow definition name.
      * @return the workflow definition name.
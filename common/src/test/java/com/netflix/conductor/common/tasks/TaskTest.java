@@ -98,7 +98,7 @@ public class TaskTest {
     public void testDeepCopyTask() {
         final Task task = new Task();
         // In order to avoid forgetting putting inside the copy method the newly added fields check the number of declared fields.
-        final int expectedTaskFieldsNumber = 40;
+        final int expectedTaskFieldsNumber = 41;
         final int declaredFieldsNumber = task.getClass().getDeclaredFields().length;
 
         assertEquals(expectedTaskFieldsNumber, declaredFieldsNumber);
@@ -138,9 +138,12 @@ public class TaskTest {
         task.setReasonForIncompletion("");
         task.setWorkerId("");
         task.setSubWorkflowId("");
+        task.setRevision(3);
 
         final Task copy = task.deepCopy();
         assertEquals(task, copy);
+        // copies are written as new tasks
+        assertEquals(0, copy.getRevision());
 
     }
 }
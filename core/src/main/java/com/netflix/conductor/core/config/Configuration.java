@@ -52,6 +52,12 @@ public interface Configuration {
     String SYSTEM_TASK_MAX_POLL_COUNT_PROPERTY_NAME = "workflow.system.task.queue.pollCount";
     int SYSTEM_TASK_MAX_POLL_COUNT_DEFAULT_VALUE = 1;
 
+    String SYSTEM_TASK_WORKER_FAIR_POLLING_ENABLED_PROPERTY_NAME = "workflow.system.task.worker.fair.polling.enabled";
+    boolean SYSTEM_TASK_WORKER_FAIR_POLLING_ENABLED_DEFAULT_VALUE = false;
+
+    String SYSTEM_TASK_WORKER_TENANT_WEIGHTS_PROPERTY_NAME = "workflow.system.task.worker.tenant.weights";
+    String SYSTEM_TASK_WORKER_TENANT_WEIGHTS_DEFAULT_VALUE = "";
+
     String ENVIRONMENT_PROPERTY_NAME = "environment";
     String ENVIRONMENT_DEFAULT_VALUE = "test";
 
@@ -90,6 +96,12 @@ public interface Configuration {
     String IGNORE_LOCKING_EXCEPTIONS_PROPERTY_NAME = "workflow.decider.locking.exceptions.ignore";
     boolean IGNORE_LOCKING_EXCEPTIONS_DEFAULT_VALUE = false;
 
+    String OPTIMISTIC_CONCURRENCY_ENABLED_PROPERTY_NAME = "workflow.decider.optimistic.concurrency.enabled";
+    boolean OPTIMISTIC_CONCURRENCY_ENABLED_DEFAULT_VALUE = false;
+
+    String OPTIMISTIC_CONCURRENCY_MAX_RETRIES_PROPERTY_NAME = "workflow.decider.optimistic.concurrency.max.retries";
+    int OPTIMISTIC_CONCURRENCY_MAX_RETRIES_DEFAULT_VALUE = 3;
+
     String EVENT_MESSAGE_INDEXING_ENABLED_PROPERTY_NAME = "workflow.event.message.indexing.enabled";
     boolean EVENT_MESSAGE_INDEXING_ENABLED_DEFAULT_VALUE = true;
 
@@ -120,6 +132,45 @@ public interface Configuration {
     String ELASTIC_SEARCH_DOCUMENT_TYPE_OVERRIDE_PROPERTY_NAME = "workflow.elasticsearch.document.type.override";
     String ELASTIC_SEARCH_DOCUMENT_TYPE_OVERRIDE_DEFAULT_VALUE = "";
 
+    String TASK_POLL_PREFETCH_ENABLED_PROPERTY_NAME = "task.poll.prefetch.enabled";
+    boolean TASK_POLL_PREFETCH_ENABLED_DEFAULT_VALUE = false;
+
+    String TASK_POLL_PREFETCH_MAX_SIZE_PROPERTY_NAME = "task.poll.prefetch.max.size";
+    int TASK_POLL_PREFETCH_MAX_SIZE_DEFAULT_VALUE = 100;
+
+    String TASK_POLL_PREFETCH_STALE_MS_PROPERTY_NAME = "task.poll.prefetch.stale.ms";
+    int TASK_POLL_PREFETCH_STALE_MS_DEFAULT_VALUE = 1000;
+
+    String WORKFLOW_TIERING_ENABLED_PROPERTY_NAME = "workflow.execution.tiering.enabled";
+    boolean WORKFLOW_TIERING_ENABLED_DEFAULT_VALUE = false;
+
+    String WORKFLOW_TIERING_AGE_SECONDS_PROPERTY_NAME = "workflow.execution.tiering.age.seconds";
+    int WORKFLOW_TIERING_AGE_SECONDS_DEFAULT_VALUE = 86400;
+
+    String WORKFLOW_TIERING_BATCH_SIZE_PROPERTY_NAME = "workflow.execution.tiering.batch.size";
+    int WORKFLOW_TIERING_BATCH_SIZE_DEFAULT_VALUE = 100;
+
+    String WORKFLOW_TIERING_INTERVAL_SECONDS_PROPERTY_NAME = "workflow.execution.tiering.interval.seconds";
+    int WORKFLOW_TIERING_INTERVAL_SECONDS_DEFAULT_VALUE = 60;
+
+    String POLL_DATA_AGGREGATION_ENABLED_PROPERTY_NAME = "workflow.polldata.aggregation.enabled";
+    boolean POLL_DATA_AGGREGATION_ENABLED_DEFAULT_VALUE = false;
+
+    String POLL_DATA_FLUSH_INTERVAL_MS_PROPERTY_NAME = "workflow.polldata.flush.interval.ms";
+    int POLL_DATA_FLUSH_INTERVAL_MS_DEFAULT_VALUE = 1000;
+
+    String ACTIVE_DOMAIN_CACHE_ENABLED_PROPERTY_NAME = "workflow.task.domain.cache.enabled";
+    boolean ACTIVE_DOMAIN_CACHE_ENABLED_DEFAULT_VALUE = false;
+
+    String ACTIVE_DOMAIN_CACHE_TTL_MS_PROPERTY_NAME = "workflow.task.domain.cache.ttl.ms";
+    int ACTIVE_DOMAIN_CACHE_TTL_MS_DEFAULT_VALUE = 1000;
+
+    String WORKFLOW_DEF_CACHE_ENABLED_PROPERTY_NAME = "workflow.def.cache.enabled";
+    boolean WORKFLOW_DEF_CACHE_ENABLED_DEFAULT_VALUE = false;
+
+    String WORKFLOW_DEF_CACHE_REFRESH_MS_PROPERTY_NAME = "workflow.def.cache.refresh.ms";
+    int WORKFLOW_DEF_CACHE_REFRESH_MS_DEFAULT_VALUE = 500;
+
     //TODO add constants for input/output external payload related properties.
 
     default DB getDB() {
@@ -149,6 +200,22 @@ public interface Configuration {
         return getBooleanProperty(EXECUTION_LOCK_ENABLED_PROPERTY_NAME, EXECUTION_LOCK_ENABLED_DEFAULT_VALUE);
     }
 
+    /**
+     * @return when set to true, decides run without the execution lock and write the workflow and its tasks only if
+     * they were not updated since they were read, deciding again otherwise. Default is false.
+     */
+    default boolean isOptimisticConcurrencyEnabled() {
+        return getBooleanProperty(OPTIMISTIC_CONCURRENCY_ENABLED_PROPERTY_NAME, OPTIMISTIC_CONCURRENCY_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the number of times a decide is run again after a conflicting update, before leaving the workflow to
+     * the sweeper
+     */
+    default int getOptimisticConcurrencyMaxRetries() {
+        return getIntProperty(OPTIMISTIC_CONCURRENCY_MAX_RETRIES_PROPERTY_NAME, OPTIMISTIC_CONCURRENCY_MAX_RETRIES_DEFAULT_VALUE);
+    }
+
     /**
      * @return if true(default), enables task execution log indexing
      */
@@ -205,6 +272,113 @@ public interface Configuration {
         return getIntProperty(SYSTEM_TASK_MAX_POLL_COUNT_PROPERTY_NAME, SYSTEM_TASK_MAX_POLL_COUNT_DEFAULT_VALUE);
     }
 
+    /**
+     * @return when set to true, the shared system task worker pool is divided between task domains by weight
+     */
+    default boolean isSystemTaskWorkerFairPollingEnabled() {
+        return getBooleanProperty(SYSTEM_TASK_WORKER_FAIR_POLLING_ENABLED_PROPERTY_NAME, SYSTEM_TASK_WORKER_FAIR_POLLING_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return comma separated <code>domain:weight</code> pairs used by fair polling, unlisted domains have weight 1
+     */
+    default String getSystemTaskWorkerTenantWeights() {
+        return getProperty(SYSTEM_TASK_WORKER_TENANT_WEIGHTS_PROPERTY_NAME, SYSTEM_TASK_WORKER_TENANT_WEIGHTS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return when set to true, task polls are served from a node-local buffer that pops from the queues in batches
+     */
+    default boolean isTaskPollPrefetchEnabled() {
+        return getBooleanProperty(TASK_POLL_PREFETCH_ENABLED_PROPERTY_NAME, TASK_POLL_PREFETCH_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the maximum number of task ids buffered per queue by the poll prefetch buffer
+     */
+    default int getTaskPollPrefetchMaxSize() {
+        return getIntProperty(TASK_POLL_PREFETCH_MAX_SIZE_PROPERTY_NAME, TASK_POLL_PREFETCH_MAX_SIZE_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return time in milliseconds after which an unclaimed prefetched task id is handed back to its queue
+     */
+    default int getTaskPollPrefetchStaleMs() {
+        return getIntProperty(TASK_POLL_PREFETCH_STALE_MS_PROPERTY_NAME, TASK_POLL_PREFETCH_STALE_MS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return when set to true, terminal workflows are moved from the {@link com.netflix.conductor.dao.ExecutionDAO}
+     * to the {@link com.netflix.conductor.dao.ColdExecutionDAO} once they are old enough
+     */
+    default boolean isWorkflowTieringEnabled() {
+        return getBooleanProperty(WORKFLOW_TIERING_ENABLED_PROPERTY_NAME, WORKFLOW_TIERING_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the time (in seconds) a terminal workflow stays in the execution store before it is moved to the cold store
+     */
+    default int getWorkflowTieringAgeSeconds() {
+        return getIntProperty(WORKFLOW_TIERING_AGE_SECONDS_PROPERTY_NAME, WORKFLOW_TIERING_AGE_SECONDS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the max number of workflows moved to the cold store in one batch
+     */
+    default int getWorkflowTieringBatchSize() {
+        return getIntProperty(WORKFLOW_TIERING_BATCH_SIZE_PROPERTY_NAME, WORKFLOW_TIERING_BATCH_SIZE_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the interval (in seconds) at which workflows due for the cold store are moved
+     */
+    default int getWorkflowTieringIntervalSeconds() {
+        return getIntProperty(WORKFLOW_TIERING_INTERVAL_SECONDS_PROPERTY_NAME, WORKFLOW_TIERING_INTERVAL_SECONDS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return when set to true, the last poll of each task queue is kept in memory and written to the
+     * {@link com.netflix.conductor.dao.PollDataDAO} in batches, instead of on every poll
+     */
+    default boolean isPollDataAggregationEnabled() {
+        return getBooleanProperty(POLL_DATA_AGGREGATION_ENABLED_PROPERTY_NAME, POLL_DATA_AGGREGATION_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the interval (in milliseconds) at which aggregated poll data is written
+     */
+    default int getPollDataFlushIntervalMs() {
+        return getIntProperty(POLL_DATA_FLUSH_INTERVAL_MS_PROPERTY_NAME, POLL_DATA_FLUSH_INTERVAL_MS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return when set to true, the active domain of a task type among a list of domains is cached on this node
+     */
+    default boolean isActiveDomainCacheEnabled() {
+        return getBooleanProperty(ACTIVE_DOMAIN_CACHE_ENABLED_PROPERTY_NAME, ACTIVE_DOMAIN_CACHE_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the time (in milliseconds) a resolved active domain is cached for
+     */
+    default int getActiveDomainCacheTtlMs() {
+        return getIntProperty(ACTIVE_DOMAIN_CACHE_TTL_MS_PROPERTY_NAME, ACTIVE_DOMAIN_CACHE_TTL_MS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return when set to true, workflow definitions are cached on this node until a definition changes
+     */
+    default boolean isWorkflowDefCacheEnabled() {
+        return getBooleanProperty(WORKFLOW_DEF_CACHE_ENABLED_PROPERTY_NAME, WORKFLOW_DEF_CACHE_ENABLED_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the interval (in milliseconds) at which the workflow definition cache checks for changed definitions
+     */
+    default int getWorkflowDefCacheRefreshMs() {
+        return getIntProperty(WORKFLOW_DEF_CACHE_REFRESH_MS_PROPERTY_NAME, WORKFLOW_DEF_CACHE_REFRESH_MS_DEFAULT_VALUE);
+    }
+
     /**
      * @return time frequency in seconds, at which the workflow sweeper should run to evaluate running workflows.
      */
@@ -436,6 +610,6 @@ public interface Configuration {
     }
 
     enum LOCKING_SERVER {
-        NOOP_LOCK, REDIS, ZOOKEEPER
+        NOOP_LOCK, REDIS, ZOOKEEPER, POSTGRES
     }
 }
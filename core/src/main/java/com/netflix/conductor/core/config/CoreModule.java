@@ -54,7 +54,10 @@ import com.netflix.conductor.core.execution.tasks.SubWorkflow;
 import com.netflix.conductor.core.execution.tasks.SystemTaskWorkerCoordinator;
 import com.netflix.conductor.core.execution.tasks.Terminate;
 import com.netflix.conductor.core.execution.tasks.Wait;
+import com.netflix.conductor.core.tiering.ColdExecutionDAOStub;
+import com.netflix.conductor.core.tiering.WorkflowTiering;
 import com.netflix.conductor.core.utils.JsonUtils;
+import com.netflix.conductor.dao.ColdExecutionDAO;
 import com.netflix.conductor.dao.MetadataDAO;
 import com.netflix.conductor.dao.QueueDAO;
 
@@ -96,6 +99,8 @@ public class CoreModule extends AbstractModule {
         // start processing events when instance starts
         bind(ActionProcessor.class).to(SimpleActionProcessor.class);
         bind(EventProcessor.class).to(SimpleEventProcessor.class).asEagerSingleton();
+        bind(ColdExecutionDAO.class).to(ColdExecutionDAOStub.class);//default implementation
+        bind(WorkflowTiering.class).asEagerSingleton();
     }
 
     @Provides
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.events.queue;
+
+import java.util.Objects;
+
+/**
+ * Point in time view of how far a queue is behind: its depth, how long the oldest deliverable message has been
+ * waiting, and how many messages were pushed and popped during the last interval.
+ */
+public class QueueLag {
+
+	private long size;
+
+	private long oldestDeliverableTime;
+
+	private long oldestMessageAgeMs;
+
+	private long pushes;
+
+	private long pops;
+
+	private long intervalMs;
+
+	public QueueLag() {
+
+	}
+
+	/**
+	 * @param size number of messages waiting for delivery
+	 * @param oldestDeliverableTime epoch millis at which the oldest deliverable message became deliverable, 0 when
+	 *                              no message is deliverable or the queue cannot tell
+	 * @param pushes messages pushed during the last interval
+	 * @param pops messages popped during the last interval
+	 * @param intervalMs length of the interval the push and pop counts refer to, 0 when they are not tracked
+	 */
+	public QueueLag(long size, long oldestDeliverableTime, long pushes, long pops, long intervalMs) {
+		this.size = size;
+		this.oldestDeliverableTime = oldestDeliverableTime;
+		this.oldestMessageAgeMs = oldestDeliverableTime > 0 ? Math.max(System.currentTimeMillis() - oldestDeliverableTime, 0) : 0;
+		this.pushes = pushes;
+		this.pops = pops;
+		this.intervalMs = intervalMs;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public void setSize(long size) {
+		this.size = size;
+	}
+
+	public long getOldestDeliverableTime() {
+		return oldestDeliverableTime;
+	}
+
+	public void setOldestDeliverableTime(long oldestDeliverableTime) {
+		this.oldestDeliverableTime = oldestDeliverableTime;
+	}
+
+	/**
+	 * @return how long the oldest deliverable message has been waiting when this view was taken
+	 */
+	public long getOldestMessageAgeMs() {
+		return oldestMessageAgeMs;
+	}
+
+	public void setOldestMessageAgeMs(long oldestMessageAgeMs) {
+		this.oldestMessageAgeMs = oldestMessageAgeMs;
+	}
+
+	public long getPushes() {
+		return pushes;
+	}
+
+	public void setPushes(long pushes) {
+		this.pushes = pushes;
+	}
+
+	public long getPops() {
+		return pops;
+	}
+
+	public void setPops(long pops) {
+		this.pops = pops;
+	}
+
+	public long getIntervalMs() {
+		return intervalMs;
+	}
+
+	public void setIntervalMs(long intervalMs) {
+		this.intervalMs = intervalMs;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		QueueLag queueLag = (QueueLag) o;
+		return size == queueLag.size &&
+			oldestDeliverableTime == queueLag.oldestDeliverableTime &&
+			pushes == queueLag.pushes &&
+			pops == queueLag.pops &&
+			intervalMs == queueLag.intervalMs;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(size, oldestDeliverableTime, pushes, pops, intervalMs);
+	}
+
+	@Override
+	public String toString() {
+		return "QueueLag{" +
+			"size=" + size +
+			", oldestDeliverableTime=" + oldestDeliverableTime +
+			", oldestMessageAgeMs=" + oldestMessageAgeMs +
+			", pushes=" + pushes +
+			", pops=" + pops +
+			", intervalMs=" + intervalMs +
+			'}';
+	}
+}
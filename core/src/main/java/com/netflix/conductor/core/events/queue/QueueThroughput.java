@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.events.queue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the pushes and pops a queue DAO performs on this node, reported per fixed interval.
+ * <p>
+ * Recording is a striped counter increment. Intervals are rolled lazily when the counts are read, so reading is
+ * cheap as well and the counts of an interval that was not read in time are scaled down to one interval. Metrics
+ * backends sum the per node counts into the cluster wide rate.
+ */
+public class QueueThroughput {
+
+	public static final long DEFAULT_INTERVAL_MS = 60_000;
+
+	private final long intervalMs;
+	private final LongSupplier clock;
+	private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+	public QueueThroughput() {
+		this(DEFAULT_INTERVAL_MS);
+	}
+
+	public QueueThroughput(long intervalMs) {
+		this(intervalMs, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param clock source of the current time in milliseconds
+	 */
+	QueueThroughput(long intervalMs, LongSupplier clock) {
+		this.intervalMs = Math.max(intervalMs, 1);
+		this.clock = clock;
+	}
+
+	public void recordPush(String queueName, int count) {
+		if (count > 0) {
+			counters(queueName).pushes.add(count);
+		}
+	}
+
+	public void recordPop(String queueName, int count) {
+		if (count > 0) {
+			counters(queueName).pops.add(count);
+		}
+	}
+
+	/**
+	 * @param size number of messages waiting for delivery
+	 * @param oldestDeliverableTime see {@link QueueLag#getOldestDeliverableTime()}
+	 * @return the lag of the queue, with the push and pop counts of the last complete interval
+	 */
+	public QueueLag lag(String queueName, long size, long oldestDeliverableTime) {
+		Counters queueCounters = counters(queueName);
+		long[] last = queueCounters.roll(clock.getAsLong());
+		return new QueueLag(size, oldestDeliverableTime, last[0], last[1], intervalMs);
+	}
+
+	private Counters counters(String queueName) {
+		return counters.computeIfAbsent(queueName, name -> new Counters(clock.getAsLong()));
+	}
+
+	private class Counters {
+
+		private final LongAdder pushes = new LongAdder();
+		private final LongAdder pops = new LongAdder();
+		private long windowStart;
+		private long pushesAtWindowStart;
+		private long popsAtWindowStart;
+		private long lastPushes;
+		private long lastPops;
+
+		private Counters(long now) {
+			this.windowStart = now;
+		}
+
+		private synchronized long[] roll(long now) {
+			long elapsed = now - windowStart;
+			if (elapsed >= intervalMs) {
+				long totalPushes = pushes.sum();
+				long totalPops = pops.sum();
+				lastPushes = (totalPushes - pushesAtWindowStart) * intervalMs / elapsed;
+				lastPops = (totalPops - popsAtWindowStart) * intervalMs / elapsed;
+				pushesAtWindowStart = totalPushes;
+				popsAtWindowStart = totalPops;
+				windowStart = now;
+			}
+			return new long[]{lastPushes, lastPops};
+		}
+	}
+}
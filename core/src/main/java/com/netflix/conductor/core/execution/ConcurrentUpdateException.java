@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.netflix.conductor.common.run.Workflow;
+
+/**
+ * Thrown by a compare-and-set update when the workflow or one of its tasks was updated since it was read, in which
+ * case nothing was written.
+ */
+@SuppressWarnings("serial")
+public class ConcurrentUpdateException extends ApplicationException {
+
+    private final String workflowName;
+
+    public ConcurrentUpdateException(Workflow workflow) {
+        super(Code.CONFLICT, "Workflow " + workflow.getWorkflowId() + " or one of its tasks was updated concurrently");
+        this.workflowName = workflow.getWorkflowName();
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.metrics.Monitors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Node-local prefetch buffer for task queues.
+ * <p>
+ * When enabled, a poll that cannot be served from the buffer pops a batch from the queue, hands out what the caller
+ * asked for and keeps the rest for subsequent pollers of the same queue on this node. Buffered ids are leased in the
+ * queue like any popped message; ids that are not claimed within the stale period are handed back by resetting their
+ * unack timeout, so the queue makes them visible again to every node.
+ * <p>
+ * The batch size of each queue follows its observed poll rate: it is sized to about half of what is requested within
+ * one stale period, bounded by the configured maximum.
+ */
+@Singleton
+public class TaskQueuePrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskQueuePrefetcher.class);
+
+    private final QueueDAO queueDAO;
+    private final boolean enabled;
+    private final int maxSize;
+    private final long staleMs;
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+
+    @Inject
+    public TaskQueuePrefetcher(QueueDAO queueDAO, Configuration config) {
+        this.queueDAO = queueDAO;
+        this.enabled = config.isTaskPollPrefetchEnabled();
+        this.maxSize = Math.max(config.getTaskPollPrefetchMaxSize(), 1);
+        this.staleMs = Math.max(config.getTaskPollPrefetchStaleMs(), 1);
+
+        if (enabled) {
+            long interval = Math.max(staleMs / 2, 1);
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("task-poll-prefetch-%d").setDaemon(true).build())
+                .scheduleWithFixedDelay(this::expireAll, interval, interval, TimeUnit.MILLISECONDS);
+            logger.info("Task poll prefetching enabled, max size: {}, stale after: {} ms", maxSize, staleMs);
+        }
+    }
+
+    /**
+     * Pops up to <code>count</code> task ids from the named queue, preferring ids already buffered on this node.
+     *
+     * @see QueueDAO#pop(String, int, int)
+     */
+    public List<String> pop(String queueName, int count, int timeoutInMilliSecond) {
+        if (!enabled) {
+            return queueDAO.pop(queueName, count, timeoutInMilliSecond);
+        }
+        Buffer buffer = buffers.computeIfAbsent(queueName, Buffer::new);
+        buffer.requested.addAndGet(count);
+
+        List<String> taskIds = buffer.take(count);
+        if (taskIds.size() >= count) {
+            return taskIds;
+        }
+
+        int needed = count - taskIds.size();
+        int timeout = taskIds.isEmpty() ? timeoutInMilliSecond : 0;
+        if (!buffer.fetchLock.tryLock()) {
+            // another poller is already refilling this buffer, do not queue up behind it
+            taskIds.addAll(queueDAO.pop(queueName, needed, timeout));
+            return taskIds;
+        }
+        try {
+            List<String> fetched = queueDAO.pop(queueName, Math.max(needed, buffer.batchSize), timeout);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < fetched.size(); i++) {
+                if (i < needed) {
+                    taskIds.add(fetched.get(i));
+                } else {
+                    buffer.entries.offer(new Prefetched(fetched.get(i), now));
+                }
+            }
+        } finally {
+            buffer.fetchLock.unlock();
+        }
+        return taskIds;
+    }
+
+    private void expireAll() {
+        buffers.values().forEach(buffer -> {
+            try {
+                buffer.expire();
+                buffer.adapt();
+            } catch (Exception e) {
+                logger.error("Error expiring prefetched task ids of queue: {}", buffer.queueName, e);
+            }
+        });
+    }
+
+    private void giveBack(String queueName, List<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        for (String taskId : taskIds) {
+            try {
+                queueDAO.setUnackTimeout(queueName, taskId, 0);
+            } catch (Exception e) {
+                // the message becomes visible once its regular unack timeout elapses
+                logger.warn("Unable to hand back prefetched task: {} to queue: {}", taskId, queueName, e);
+            }
+        }
+        Monitors.recordTaskPollPrefetchReturned(queueName, taskIds.size());
+    }
+
+    private class Buffer {
+
+        private final String queueName;
+        private final Queue<Prefetched> entries = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock fetchLock = new ReentrantLock();
+        private final AtomicLong requested = new AtomicLong();
+        private volatile int batchSize = 1;
+        private double requestRate;
+        private long lastAdapted = System.currentTimeMillis();
+
+        private Buffer(String queueName) {
+            this.queueName = queueName;
+        }
+
+        private List<String> take(int count) {
+            List<String> taken = new ArrayList<>(count);
+            List<String> stale = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            Prefetched prefetched;
+            while (taken.size() < count && (prefetched = entries.poll()) != null) {
+                if (now - prefetched.fetchedAt > staleMs) {
+                    stale.add(prefetched.taskId);
+                } else {
+                    taken.add(prefetched.taskId);
+                }
+            }
+            giveBack(queueName, stale);
+            return taken;
+        }
+
+        private void expire() {
+            List<String> stale = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            Prefetched prefetched;
+            // entries are in fetch order, so the stale ones are at the head
+            while ((prefetched = entries.peek()) != null && now - prefetched.fetchedAt > staleMs) {
+                if (entries.remove(prefetched)) {
+                    stale.add(prefetched.taskId);
+                }
+            }
+            giveBack(queueName, stale);
+        }
+
+        private void adapt() {
+            long now = System.currentTimeMillis();
+            long elapsed = Math.max(now - lastAdapted, 1);
+            lastAdapted = now;
+            double rate = (double) requested.getAndSet(0) / elapsed;
+            requestRate = requestRate == 0 ? rate : (requestRate + rate) / 2;
+            batchSize = (int) Math.min(maxSize, Math.max(1, Math.ceil(requestRate * staleMs / 2)));
+        }
+    }
+
+    private static class Prefetched {
+
+        private final String taskId;
+        private final long fetchedAt;
+
+        private Prefetched(String taskId, long fetchedAt) {
+            this.taskId = taskId;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
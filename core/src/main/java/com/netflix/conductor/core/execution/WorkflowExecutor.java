@@ -27,6 +27,8 @@ import static com.netflix.conductor.core.execution.ApplicationException.Code.NOT
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.netflix.conductor.annotations.Trace;
 import com.netflix.conductor.common.metadata.tasks.PollData;
 import com.netflix.conductor.common.metadata.tasks.Task;
@@ -55,6 +57,7 @@ import com.netflix.conductor.dao.MetadataDAO;
 import com.netflix.conductor.dao.QueueDAO;
 import com.netflix.conductor.metrics.Monitors;
 import com.netflix.conductor.service.ExecutionLockService;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -63,8 +66,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.inject.Inject;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -88,10 +93,14 @@ public class WorkflowExecutor {
     private WorkflowStatusListener workflowStatusListener;
 
     private int activeWorkerLastPollInSecs;
+    private final Cache<String, Optional<String>> activeDomainCache;
     private int queueTaskMessagePostponeSeconds;
     public static final String DECIDER_QUEUE = "_deciderQueue";
     private static final String className = WorkflowExecutor.class.getSimpleName();
+    private static final int ACTIVE_DOMAIN_CACHE_MAX_SIZE = 10_000;
     private final ExecutionLockService executionLockService;
+    private final boolean optimisticConcurrency;
+    private final int optimisticConcurrencyMaxRetries;
 
     @Inject
     public WorkflowExecutor(
@@ -111,9 +120,17 @@ public class WorkflowExecutor {
         this.metadataMapperService = metadataMapperService;
         this.executionDAOFacade = executionDAOFacade;
         this.activeWorkerLastPollInSecs = config.getIntProperty("tasks.active.worker.lastpoll", 10);
+        this.activeDomainCache = config.isActiveDomainCacheEnabled()
+                ? CacheBuilder.newBuilder()
+                    .expireAfterWrite(config.getActiveDomainCacheTtlMs(), TimeUnit.MILLISECONDS)
+                    .maximumSize(ACTIVE_DOMAIN_CACHE_MAX_SIZE)
+                    .build()
+                : null;
         this.queueTaskMessagePostponeSeconds = config.getIntProperty("task.queue.message.postponeSeconds", 60);
         this.workflowStatusListener = workflowStatusListener;
         this.executionLockService = executionLockService;
+        this.optimisticConcurrency = config.isOptimisticConcurrencyEnabled();
+        this.optimisticConcurrencyMaxRetries = config.getOptimisticConcurrencyMaxRetries();
     }
 
     /**
@@ -713,8 +730,7 @@ public class WorkflowExecutor {
             executionLockService.acquireLock(workflow.getWorkflowId(), 60000);
 
             List<Task> tasks = workflow.getTasks();
-            // Remove from the task queue if they were there
-            tasks.forEach(task -> queueDAO.remove(QueueUtils.getQueueName(task), task.getTaskId()));
+            List<Task> canceledTasks = new ArrayList<>();
 
             // Update non-terminal tasks' status to CANCELED
             for (Task task : tasks) {
@@ -731,7 +747,11 @@ public class WorkflowExecutor {
                                     task.getTaskId()), e);
                         }
                     }
-                    executionDAOFacade.updateTask(task);
+                    if (optimisticConcurrency) {
+                        canceledTasks.add(task);
+                    } else {
+                        executionDAOFacade.updateTask(task);
+                    }
                 }
             }
 
@@ -748,7 +768,15 @@ public class WorkflowExecutor {
 
             String workflowId = workflow.getWorkflowId();
             workflow.setReasonForIncompletion(reason);
-            executionDAOFacade.updateWorkflow(workflow);
+            if (optimisticConcurrency) {
+                // written with the workflow, so that no task is canceled if the workflow was updated concurrently
+                executionDAOFacade.compareAndSetWorkflow(workflow, canceledTasks);
+            } else {
+                executionDAOFacade.updateWorkflow(workflow);
+            }
+
+            // Remove from the task queue if they were there
+            tasks.forEach(task -> queueDAO.remove(QueueUtils.getQueueName(task), task.getTaskId()));
 
             // If the following lines, for some reason fails, the sweep will take
             // care of this again!
@@ -908,8 +936,7 @@ public class WorkflowExecutor {
             //If the task has failed update the failed task reference name in the workflow.
             //This gives the ability to look at workflow and see what tasks have failed at a high level.
             if (FAILED.equals(task.getStatus()) || FAILED_WITH_TERMINAL_ERROR.equals(task.getStatus())) {
-                workflowInstance.getFailedReferenceTaskNames().add(task.getReferenceTaskName());
-                executionDAOFacade.updateWorkflow(workflowInstance);
+                addFailedReferenceTaskName(workflowInstance, task.getReferenceTaskName());
                 LOGGER.debug("Task: {} has a {} status and the Workflow has been updated with failed task reference", task, task.getStatus());
             }
         } catch (Exception e) {
@@ -953,11 +980,12 @@ public class WorkflowExecutor {
     }
 
     public List<String> getWorkflows(String name, Integer version, Long startTime, Long endTime) {
-        List<Workflow> workflowsByType = executionDAOFacade.getWorkflowsByName(name, startTime, endTime);
-        return workflowsByType.stream()
-                .filter(workflow -> workflow.getWorkflowVersion() == version)
-                .map(Workflow::getWorkflowId)
-                .collect(Collectors.toList());
+        try (Stream<Workflow> workflowsByType = executionDAOFacade.streamWorkflowsByName(name, startTime, endTime)) {
+            return workflowsByType
+                    .filter(workflow -> workflow.getWorkflowVersion() == version)
+                    .map(Workflow::getWorkflowId)
+                    .collect(Collectors.toList());
+        }
 
     }
 
@@ -971,9 +999,41 @@ public class WorkflowExecutor {
      * @throws ApplicationException If there was an error - caller should retry in this case.
      */
     public boolean decide(String workflowId) {
+        if (optimisticConcurrency) {
+            return decideOptimistically(workflowId);
+        }
         if (!executionLockService.acquireLock(workflowId)) {
             return false;
         }
+        try {
+            return decideWorkflow(workflowId);
+        } finally {
+            executionLockService.releaseLock(workflowId);
+        }
+    }
+
+    /**
+     * Decides without the execution lock, deciding again when the workflow or one of its tasks was updated by another
+     * decide or a worker in the meantime.
+     */
+    private boolean decideOptimistically(String workflowId) {
+        for (int retries = 0; ; retries++) {
+            try {
+                return decideWorkflow(workflowId);
+            } catch (ConcurrentUpdateException e) {
+                if (retries >= optimisticConcurrencyMaxRetries) {
+                    LOGGER.info("Workflow {} is still updated concurrently after {} retries, leaving it to the sweeper",
+                            workflowId, retries);
+                    Monitors.recordWorkflowDecideRetriesExhausted(e.getWorkflowName());
+                    return false;
+                }
+                LOGGER.debug("Deciding workflow {} again after a concurrent update", workflowId);
+                Monitors.recordWorkflowDecideRetry(e.getWorkflowName());
+            }
+        }
+    }
+
+    private boolean decideWorkflow(String workflowId) {
 
         // If it is a new workflow, the tasks will be still empty even though include tasks is true
         Workflow workflow = executionDAOFacade.getWorkflowById(workflowId, true);
@@ -1035,6 +1095,16 @@ public class WorkflowExecutor {
                 }
             }
 
+            if (!outcome.tasksToBeUpdated.isEmpty() || !tasksToBeScheduled.isEmpty()) {
+                if (optimisticConcurrency) {
+                    executionDAOFacade.compareAndSetWorkflow(workflow, tasksToBeUpdated);
+                } else {
+                    executionDAOFacade.updateTasks(tasksToBeUpdated);
+                    executionDAOFacade.updateWorkflow(workflow);
+                }
+            }
+
+            // only once written, so that a decide writing nothing on a conflict leaves the tasks queued
             if (!outcome.tasksToBeUpdated.isEmpty()) {
                 for (Task task : tasksToBeUpdated) {
                     if (task.getStatus() != null && (!task.getStatus().equals(Task.Status.IN_PROGRESS)
@@ -1044,11 +1114,6 @@ public class WorkflowExecutor {
                 }
             }
 
-            if (!outcome.tasksToBeUpdated.isEmpty() || !tasksToBeScheduled.isEmpty()) {
-                executionDAOFacade.updateTasks(tasksToBeUpdated);
-                executionDAOFacade.updateWorkflow(workflow);
-            }
-
             stateChanged = scheduleTask(workflow, tasksToBeScheduled) || stateChanged;
 
             if (stateChanged) {
@@ -1059,11 +1124,11 @@ public class WorkflowExecutor {
             LOGGER.info("Execution terminated of workflow: {}", workflowId, twe);
             terminate(workflow, twe);
             return true;
+        } catch (ConcurrentUpdateException e) {
+            throw e;
         } catch (RuntimeException e) {
             LOGGER.error("Error deciding workflow: {}", workflowId, e);
             throw e;
-        } finally {
-            executionLockService.releaseLock(workflowId);
         }
         return false;
     }
@@ -1312,6 +1377,9 @@ public class WorkflowExecutor {
      *   <li> If NO_DOMAIN token is provided, return null.
      *   <li> Else, return last domain from list.
      *
+     * When the active domain cache is enabled, the result is reused for the same task type and domain list until it
+     * expires, instead of reading the poll data of each domain again.
+     *
      * @param taskType the taskType of the task for which active domain is to be found
      * @param domains  the array of domains for the task. (Must contain atleast one element).
      * @return the active domain where the task will be queued
@@ -1321,7 +1389,21 @@ public class WorkflowExecutor {
         if (domains == null || domains.length == 0) {
             return null;
         }
+        if (activeDomainCache == null) {
+            return resolveActiveDomain(taskType, domains);
+        }
 
+        String key = taskType + ":" + String.join(",", domains);
+        Optional<String> cached = activeDomainCache.getIfPresent(key);
+        Monitors.recordActiveDomainCacheLookup(taskType, cached != null);
+        if (cached == null) {
+            cached = Optional.ofNullable(resolveActiveDomain(taskType, domains));
+            activeDomainCache.put(key, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    private String resolveActiveDomain(String taskType, String[] domains) {
         return Arrays.stream(domains)
                 .filter(domain -> !domain.equalsIgnoreCase("NO_DOMAIN"))
                 .map(domain -> executionDAOFacade.getTaskPollDataByDomain(taskType, domain.trim()))
@@ -1449,6 +1531,25 @@ public class WorkflowExecutor {
         }
     }
 
+    /**
+     * Adds the reference name of a failed task to the workflow, reading the workflow again while it is updated
+     * concurrently with optimistic concurrency control enabled.
+     */
+    private void addFailedReferenceTaskName(Workflow workflow, String taskReferenceName) {
+        for (int retries = 0; ; retries++) {
+            workflow.getFailedReferenceTaskNames().add(taskReferenceName);
+            try {
+                executionDAOFacade.updateWorkflow(workflow);
+                return;
+            } catch (ConcurrentUpdateException e) {
+                if (retries >= optimisticConcurrencyMaxRetries) {
+                    throw e;
+                }
+                workflow = executionDAOFacade.getWorkflowById(workflow.getWorkflowId(), false);
+            }
+        }
+    }
+
     private void terminate(final Workflow workflow, TerminateWorkflowException tw) {
         if (!workflow.getStatus().isTerminal()) {
             workflow.setStatus(tw.workflowStatus);
@@ -44,6 +44,7 @@ class SystemTaskExecutor {
     private final WorkflowExecutor workflowExecutor;
     private final Configuration config;
     private final int maxPollCount;
+    final WeightedFairPollScheduler fairPollScheduler;
 
     ConcurrentHashMap<String, ExecutionConfig> queueExecutionConfigMap = new ConcurrentHashMap<>();
 
@@ -57,6 +58,9 @@ class SystemTaskExecutor {
         this.workflowExecutor = workflowExecutor;
         this.queueDAO = queueDAO;
         this.maxPollCount = config.getSystemTaskMaxPollCount();
+        this.fairPollScheduler = config.isSystemTaskWorkerFairPollingEnabled()
+            ? new WeightedFairPollScheduler(threadCount, maxPollCount, config.getSystemTaskWorkerTenantWeights())
+            : null;
 
         LOGGER.info("Initialized the SystemTaskExecutor with {} threads and callback time: {} seconds", threadCount,
             callbackTime);
@@ -68,6 +72,15 @@ class SystemTaskExecutor {
         SemaphoreUtil semaphoreUtil = executionConfig.getSemaphoreUtil();
         ExecutorService executorService = executionConfig.getExecutorService();
         String taskName = QueueUtils.getTaskType(queueName);
+        // isolated queues have dedicated pools, fairness only applies to the shared one
+        WeightedFairPollScheduler scheduler = executionConfig == defaultExecutionConfig ? fairPollScheduler : null;
+        int allowance = scheduler != null ? scheduler.allowance(queueName) : maxPollCount;
+
+        if (allowance <= 0) {
+            // this queue already uses its share of the pool
+            Monitors.recordSystemTaskWorkerPollingLimited(queueName);
+            return;
+        }
 
         if (!semaphoreUtil.acquireSlots(1)) {
             // no available permits, do not poll
@@ -76,14 +89,18 @@ class SystemTaskExecutor {
         }
 
         int acquiredSlots = 1;
+        // permits and scheduler in-flight counts not yet released, nor handed to a task's completion callback
+        int heldSlots = 1;
+        int heldInFlight = 0;
 
         try {
             //Since already one slot is acquired, now try if maxSlot-1 is available
-            int slotsToAcquire = Math.min(semaphoreUtil.availableSlots(), maxPollCount - 1);
+            int slotsToAcquire = Math.min(semaphoreUtil.availableSlots(), Math.min(maxPollCount, allowance) - 1);
 
             // Try to acquires remaining permits to achieve maxPollCount
             if (slotsToAcquire > 0 && semaphoreUtil.acquireSlots(slotsToAcquire)) {
                 acquiredSlots += slotsToAcquire;
+                heldSlots = acquiredSlots;
             }
             LOGGER.debug("Polling queue: {} with {} slots acquired", queueName, acquiredSlots);
 
@@ -91,11 +108,16 @@ class SystemTaskExecutor {
 
             Monitors.recordTaskPoll(queueName);
             LOGGER.debug("Polling queue:{}, got {} tasks", queueName, polledTaskIds.size());
+            if (scheduler != null) {
+                scheduler.polled(queueName, acquiredSlots, polledTaskIds.size());
+                heldInFlight = polledTaskIds.size();
+            }
 
             if (polledTaskIds.size() > 0) {
                 // Immediately release unused permits when polled no. of messages are less than acquired permits
                 if (polledTaskIds.size() < acquiredSlots) {
                     semaphoreUtil.completeProcessing(acquiredSlots - polledTaskIds.size());
+                    heldSlots = polledTaskIds.size();
                 }
 
                 for (String taskId : polledTaskIds) {
@@ -104,22 +126,46 @@ class SystemTaskExecutor {
                         Monitors.recordTaskPollCount(queueName, "", 1);
 
                         WorkflowSystemTask systemTask = SystemTaskWorkerCoordinator.taskNameWorkflowTaskMapping.get(taskName);
-                        CompletableFuture<Void> taskCompletableFuture = CompletableFuture.runAsync(() ->
-                                workflowExecutor.executeSystemTask(systemTask, taskId, callbackTime), executorService);
+                        long polledAt = System.currentTimeMillis();
+                        CompletableFuture<Void> taskCompletableFuture = CompletableFuture.runAsync(() -> {
+                            if (scheduler != null) {
+                                Monitors.recordSystemTaskWorkerTenantWait(WeightedFairPollScheduler.getTenant(queueName),
+                                    System.currentTimeMillis() - polledAt);
+                            }
+                            workflowExecutor.executeSystemTask(systemTask, taskId, callbackTime);
+                        }, executorService);
 
                         // release permit after processing is complete
-                        taskCompletableFuture.whenComplete((r, e) -> semaphoreUtil.completeProcessing(1));
+                        taskCompletableFuture.whenComplete((r, e) -> {
+                            semaphoreUtil.completeProcessing(1);
+                            if (scheduler != null) {
+                                scheduler.completed(queueName);
+                                Monitors.recordSystemTaskWorkerTenantCompleted(WeightedFairPollScheduler.getTenant(queueName));
+                            }
+                        });
                     } else {
                         semaphoreUtil.completeProcessing(1);
+                        if (scheduler != null) {
+                            scheduler.completed(queueName);
+                        }
                     }
+                    heldSlots--;
+                    heldInFlight--;
                 }
             } else {
                 // no task polled, release permit
                 semaphoreUtil.completeProcessing(acquiredSlots);
+                heldSlots = 0;
             }
         } catch (Exception e) {
-            // release the permit if exception is thrown during polling, because the thread would not be busy
-            semaphoreUtil.completeProcessing(acquiredSlots);
+            // release the permits of tasks that were not submitted (e.g. rejected by the executor), because the
+            // threads would not be busy
+            if (heldSlots > 0) {
+                semaphoreUtil.completeProcessing(heldSlots);
+            }
+            for (int i = 0; i < heldInFlight; i++) {
+                scheduler.completed(queueName);
+            }
             Monitors.recordTaskPollError(taskName, "", e.getClass().getSimpleName());
             LOGGER.error("Error polling system task in queue:{}", queueName, e);
         }
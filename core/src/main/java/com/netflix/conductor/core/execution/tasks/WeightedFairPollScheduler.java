@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution.tasks;
+
+import com.netflix.conductor.core.utils.QueueUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares the capacity of a system task worker pool between the queues polling into it.
+ * <p>
+ * Tenants are the task domains of the queues; queues without a domain belong to the {@link #DEFAULT_TENANT}.
+ * The capacity is divided between tenants in proportion to their weights and, within a tenant, equally between its
+ * queues, using max-min fairness over demand: a queue that is backlogged (its last poll got everything it asked for)
+ * may use any capacity the others do not need, while a queue that is caught up only keeps what it is running plus
+ * room for one more poll. A queue never takes slots beyond its share while others are waiting for theirs, so a noisy
+ * domain cannot starve the rest of the pool.
+ * <p>
+ * Allocations are recomputed at most every {@link #RECOMPUTE_INTERVAL_MS}, so the cost per poll stays constant
+ * regardless of the number of queues.
+ */
+class WeightedFairPollScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WeightedFairPollScheduler.class);
+
+    static final String DEFAULT_TENANT = "default";
+    static final long RECOMPUTE_INTERVAL_MS = 100;
+
+    private final int capacity;
+    private final int maxPollCount;
+    private final Map<String, Integer> tenantWeights;
+    private final Map<String, QueueState> queues = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Double> allocations = Collections.emptyMap();
+    private volatile long allocatedAt;
+
+    /**
+     * @param capacity number of slots of the pool
+     * @param maxPollCount most tasks a queue asks for in one poll
+     * @param tenantWeights comma separated <code>domain:weight</code> pairs, tenants not listed have weight 1
+     */
+    WeightedFairPollScheduler(int capacity, int maxPollCount, String tenantWeights) {
+        this.capacity = capacity;
+        this.maxPollCount = Math.max(maxPollCount, 1);
+        this.tenantWeights = parseWeights(tenantWeights);
+        LOGGER.info("Weighted fair polling enabled for {} slots with tenant weights: {}", capacity, this.tenantWeights);
+    }
+
+    static String getTenant(String queueName) {
+        return StringUtils.contains(queueName, QueueUtils.DOMAIN_SEPARATOR)
+            ? StringUtils.substringBefore(queueName, QueueUtils.DOMAIN_SEPARATOR)
+            : DEFAULT_TENANT;
+    }
+
+    /**
+     * @return how many more tasks the queue may start now
+     */
+    int allowance(String queueName) {
+        QueueState state = queues.computeIfAbsent(queueName, QueueState::new);
+        if (System.currentTimeMillis() - allocatedAt >= RECOMPUTE_INTERVAL_MS) {
+            recompute();
+        }
+        Double allocation = allocations.get(queueName);
+        if (allocation == null) {
+            // first poll of this queue since the last recompute, let it probe
+            return maxPollCount;
+        }
+        return Math.max((int) Math.ceil(allocation) - state.inFlight.get(), 0);
+    }
+
+    /**
+     * Records the outcome of a poll of the queue.
+     *
+     * @param requested number of tasks asked for
+     * @param received number of tasks popped, all of which are now in flight
+     */
+    void polled(String queueName, int requested, int received) {
+        QueueState state = queues.computeIfAbsent(queueName, QueueState::new);
+        state.inFlight.addAndGet(received);
+        state.backlogged = received >= requested;
+    }
+
+    /**
+     * Records the completion of a task of the queue.
+     */
+    void completed(String queueName) {
+        QueueState state = queues.get(queueName);
+        if (state != null) {
+            state.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of tasks of the queue in flight
+     */
+    int inFlight(String queueName) {
+        QueueState state = queues.get(queueName);
+        return state != null ? state.inFlight.get() : 0;
+    }
+
+    private synchronized void recompute() {
+        if (System.currentTimeMillis() - allocatedAt < RECOMPUTE_INTERVAL_MS) {
+            return;
+        }
+        Map<String, List<QueueState>> queuesByTenant = new HashMap<>();
+        queues.values().forEach(state -> queuesByTenant.computeIfAbsent(state.tenant, t -> new ArrayList<>()).add(state));
+
+        List<String> tenants = new ArrayList<>(queuesByTenant.keySet());
+        double[] tenantDemands = new double[tenants.size()];
+        double[] weights = new double[tenants.size()];
+        for (int i = 0; i < tenants.size(); i++) {
+            for (QueueState state : queuesByTenant.get(tenants.get(i))) {
+                tenantDemands[i] += demand(state);
+            }
+            weights[i] = tenantWeights.getOrDefault(tenants.get(i), 1);
+        }
+        double[] tenantShares = waterFill(capacity, tenantDemands, weights);
+
+        Map<String, Double> newAllocations = new HashMap<>();
+        for (int i = 0; i < tenants.size(); i++) {
+            List<QueueState> tenantQueues = queuesByTenant.get(tenants.get(i));
+            double[] demands = new double[tenantQueues.size()];
+            double[] equal = new double[tenantQueues.size()];
+            for (int j = 0; j < tenantQueues.size(); j++) {
+                demands[j] = demand(tenantQueues.get(j));
+                equal[j] = 1;
+            }
+            double[] shares = waterFill(tenantShares[i], demands, equal);
+            for (int j = 0; j < tenantQueues.size(); j++) {
+                newAllocations.put(tenantQueues.get(j).queueName, shares[j]);
+            }
+        }
+        allocations = newAllocations;
+        allocatedAt = System.currentTimeMillis();
+    }
+
+    private double demand(QueueState state) {
+        return state.backlogged ? capacity : state.inFlight.get() + maxPollCount;
+    }
+
+    /**
+     * Max-min fair division of <code>capacity</code>: demands below their weighted share are met in full and the
+     * remainder is divided again between the others.
+     */
+    static double[] waterFill(double capacity, double[] demands, double[] weights) {
+        int n = demands.length;
+        double[] shares = new double[n];
+        boolean[] settled = new boolean[n];
+        double remaining = capacity;
+        int unsettled = n;
+        while (unsettled > 0 && remaining > 0) {
+            double totalWeight = 0;
+            for (int i = 0; i < n; i++) {
+                if (!settled[i]) {
+                    totalWeight += weights[i];
+                }
+            }
+            boolean settledAny = false;
+            for (int i = 0; i < n; i++) {
+                if (!settled[i] && demands[i] <= remaining * weights[i] / totalWeight) {
+                    shares[i] = demands[i];
+                    settled[i] = true;
+                    settledAny = true;
+                }
+            }
+            if (!settledAny) {
+                for (int i = 0; i < n; i++) {
+                    if (!settled[i]) {
+                        shares[i] = remaining * weights[i] / totalWeight;
+                    }
+                }
+                break;
+            }
+            remaining = capacity;
+            unsettled = 0;
+            for (int i = 0; i < n; i++) {
+                if (settled[i]) {
+                    remaining -= shares[i];
+                } else {
+                    unsettled++;
+                }
+            }
+        }
+        return shares;
+    }
+
+    private static Map<String, Integer> parseWeights(String tenantWeights) {
+        Map<String, Integer> weights = new HashMap<>();
+        if (StringUtils.isBlank(tenantWeights)) {
+            return weights;
+        }
+        for (String pair : tenantWeights.split(",")) {
+            String tenant = StringUtils.substringBeforeLast(pair, QueueUtils.DOMAIN_SEPARATOR).trim();
+            String weight = StringUtils.substringAfterLast(pair, QueueUtils.DOMAIN_SEPARATOR).trim();
+            try {
+                weights.put(tenant, Math.max(Integer.parseInt(weight), 1));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Ignoring invalid tenant weight: {}", pair);
+            }
+        }
+        return weights;
+    }
+
+    private static class QueueState {
+
+        private final String queueName;
+        private final String tenant;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean backlogged;
+
+        private QueueState(String queueName) {
+            this.queueName = queueName;
+            this.tenant = getTenant(queueName);
+        }
+    }
+}
@@ -50,10 +50,12 @@ public class MetadataMapperService {
     public static final Logger logger = LoggerFactory.getLogger(MetadataMapperService.class);
 
     private final MetadataDAO metadataDAO;
+    private final WorkflowDefCache workflowDefCache;
 
     @Inject
-    public MetadataMapperService(MetadataDAO metadataDAO) {
+    public MetadataMapperService(MetadataDAO metadataDAO, WorkflowDefCache workflowDefCache) {
         this.metadataDAO = metadataDAO;
+        this.workflowDefCache = workflowDefCache;
     }
 
     public WorkflowDef lookupForWorkflowDefinition(String name, Integer version) {
@@ -76,13 +78,44 @@ public class MetadataMapperService {
     @VisibleForTesting
     Optional<WorkflowDef> lookupWorkflowDefinition(String workflowName, int workflowVersion) {
         Preconditions.checkArgument(StringUtils.isNotBlank(workflowName), "Workflow name must be specified when searching for a definition");
-        return metadataDAO.getWorkflowDef(workflowName, workflowVersion);
+        if (!workflowDefCache.isEnabled()) {
+            return metadataDAO.getWorkflowDef(workflowName, workflowVersion);
+        }
+        Optional<WorkflowDef> cached = workflowDefCache.get(workflowName, workflowVersion);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = workflowDefCache.getGeneration();
+        return metadataDAO.getWorkflowDef(workflowName, workflowVersion)
+                .map(def -> cacheWorkflowDefinition(def, false, generation));
     }
 
     @VisibleForTesting
     Optional<WorkflowDef> lookupLatestWorkflowDefinition(String workflowName) {
         Preconditions.checkArgument(StringUtils.isNotBlank(workflowName), "Workflow name must be specified when searching for a definition");
-        return metadataDAO.getLatestWorkflowDef(workflowName);
+        if (!workflowDefCache.isEnabled()) {
+            return metadataDAO.getLatestWorkflowDef(workflowName);
+        }
+        Optional<WorkflowDef> cached = workflowDefCache.get(workflowName, null);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = workflowDefCache.getGeneration();
+        return metadataDAO.getLatestWorkflowDef(workflowName).map(def -> cacheWorkflowDefinition(def, true, generation));
+    }
+
+    /**
+     * Resolves the task definitions of the workflow before caching it, so that workflows started from the cached
+     * definition do not read them again. Missing task definitions are left for
+     * {@link #checkNotEmptyDefinitions(WorkflowDef)} to report when the definition is used. The definition is not cached
+     * if the cache was invalidated since the given generation, read before the definition was.
+     */
+    private WorkflowDef cacheWorkflowDefinition(WorkflowDef workflowDefinition, boolean latest, long generation) {
+        workflowDefinition.collectTasks().stream()
+                .filter(this::shouldPopulateTaskDefinition)
+                .forEach(workflowTask -> workflowTask.setTaskDefinition(metadataDAO.getTaskDef(workflowTask.getName())));
+        workflowDefCache.put(workflowDefinition, latest, generation);
+        return workflowDefinition;
     }
 
     public Workflow populateWorkflowWithDefinitions(Workflow workflow) {
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.metadata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.dao.MetadataDAO;
+import com.netflix.conductor.metrics.Monitors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Node-local cache of workflow definitions, by name and version, with their task definitions resolved.
+ * <p>
+ * Cached definitions are never handed out: every lookup returns a copy, so callers may modify what they get without
+ * affecting other workflows. The whole cache is dropped when {@link MetadataDAO#getDefinitionsVersion()} changes,
+ * which is checked every {@link Configuration#getWorkflowDefCacheRefreshMs()}, so nodes pick up changes made on other
+ * nodes within that interval. The cache stays disabled for stores that do not keep a definitions version.
+ */
+@Singleton
+public class WorkflowDefCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkflowDefCache.class);
+
+    private final MetadataDAO metadataDAO;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Map<String, WorkflowDef> definitions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> latestVersions = new ConcurrentHashMap<>();
+    private volatile long version;
+    private long generation;
+
+    @Inject
+    public WorkflowDefCache(MetadataDAO metadataDAO, ObjectMapper objectMapper, Configuration config) {
+        this.metadataDAO = metadataDAO;
+        this.objectMapper = objectMapper;
+
+        boolean enabled = config.isWorkflowDefCacheEnabled();
+        if (enabled) {
+            version = metadataDAO.getDefinitionsVersion();
+            if (version < 0) {
+                LOGGER.warn("Workflow definition cache disabled, {} does not keep a definitions version",
+                    metadataDAO.getClass().getSimpleName());
+                enabled = false;
+            }
+        }
+        this.enabled = enabled;
+
+        if (enabled) {
+            long interval = Math.max(config.getWorkflowDefCacheRefreshMs(), 1);
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("workflow-def-cache-%d").setDaemon(true).build())
+                .scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+            LOGGER.info("Workflow definition cache enabled, checking for changes every {} ms", interval);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param version the version of the definition, or null for the latest version
+     * @return a copy of the cached definition, or empty if it is not cached
+     */
+    public Optional<WorkflowDef> get(String name, Integer version) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Integer effectiveVersion = version == null ? latestVersions.get(name) : version;
+        WorkflowDef cached = effectiveVersion == null ? null : definitions.get(key(name, effectiveVersion));
+        Monitors.recordWorkflowDefCacheLookup(name, cached != null);
+        return Optional.ofNullable(cached).map(this::copy);
+    }
+
+    /**
+     * @return the generation of the cached definitions, which changes whenever they are dropped; read it before
+     * reading a definition from the store, and pass it to {@link #put(WorkflowDef, boolean, long)}
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches a copy of the definition, unless the cached definitions were dropped since the given generation, in which
+     * case the definition may have been read before the change and is left out.
+     *
+     * @param latest     true if the definition was read as the latest version of the workflow
+     * @param generation the {@link #getGeneration() generation} read before the definition was read
+     */
+    public synchronized void put(WorkflowDef workflowDef, boolean latest, long generation) {
+        if (!enabled || generation != this.generation) {
+            return;
+        }
+        definitions.put(key(workflowDef.getName(), workflowDef.getVersion()), copy(workflowDef));
+        if (latest) {
+            latestVersions.put(workflowDef.getName(), workflowDef.getVersion());
+        }
+    }
+
+    /**
+     * Drops all cached definitions. Called when definitions are changed through this node, for the change to be
+     * visible on this node right away.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        latestVersions.clear();
+        definitions.clear();
+    }
+
+    private void refresh() {
+        try {
+            long current = metadataDAO.getDefinitionsVersion();
+            if (current != version) {
+                LOGGER.debug("Definitions changed from version {} to {}, dropping cached workflow definitions", version, current);
+                version = current;
+                invalidate();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error checking the definitions version", e);
+            Monitors.error(WorkflowDefCache.class.getSimpleName(), "refresh");
+        }
+    }
+
+    private WorkflowDef copy(WorkflowDef workflowDef) {
+        return objectMapper.convertValue(workflowDef, WorkflowDef.class);
+    }
+
+    private static String key(String name, int version) {
+        return name + ":" + version;
+    }
+}
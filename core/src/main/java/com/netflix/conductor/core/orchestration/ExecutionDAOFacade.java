@@ -26,6 +26,8 @@ import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.events.queue.Message;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
+import com.netflix.conductor.core.tiering.WorkflowTiering;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.IndexDAO;
 import com.netflix.conductor.dao.PollDataDAO;
@@ -39,6 +41,7 @@ import java.util.Objects;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -60,19 +63,23 @@ public class ExecutionDAOFacade {
     private final IndexDAO indexDAO;
     private final RateLimitingDAO rateLimitingDao;
     private final PollDataDAO pollDataDAO;
+    private final WorkflowTiering workflowTiering;
     private final ObjectMapper objectMapper;
     private final Configuration config;
 
     private final ScheduledThreadPoolExecutor scheduledThreadPoolExecutor;
+    private final PollDataAggregator pollDataAggregator;
 
     @Inject
     public ExecutionDAOFacade(ExecutionDAO executionDAO, QueueDAO queueDAO, IndexDAO indexDAO,
-        RateLimitingDAO rateLimitingDao, PollDataDAO pollDataDAO, ObjectMapper objectMapper, Configuration config) {
+        RateLimitingDAO rateLimitingDao, PollDataDAO pollDataDAO, WorkflowTiering workflowTiering,
+        ObjectMapper objectMapper, Configuration config) {
         this.executionDAO = executionDAO;
         this.queueDAO = queueDAO;
         this.indexDAO = indexDAO;
         this.rateLimitingDao = rateLimitingDao;
         this.pollDataDAO = pollDataDAO;
+        this.workflowTiering = workflowTiering;
         this.objectMapper = objectMapper;
         this.config = config;
         this.scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(4,
@@ -81,10 +88,16 @@ public class ExecutionDAOFacade {
             Monitors.recordDiscardedIndexingCount("delayQueue");
         });
         this.scheduledThreadPoolExecutor.setRemoveOnCancelPolicy(true);
+        this.pollDataAggregator = config.isPollDataAggregationEnabled()
+            ? new PollDataAggregator(pollDataDAO, config.getPollDataFlushIntervalMs())
+            : null;
     }
 
     @PreDestroy
     public void shutdownExecutorService() {
+        if (pollDataAggregator != null) {
+            pollDataAggregator.shutdown();
+        }
         try {
             LOGGER.info("Gracefully shutdown executor service");
             scheduledThreadPoolExecutor.shutdown();
@@ -117,6 +130,9 @@ public class ExecutionDAOFacade {
      */
     public Workflow getWorkflowById(String workflowId, boolean includeTasks) {
         Workflow workflow = executionDAO.getWorkflow(workflowId, includeTasks);
+        if (workflow == null) {
+            workflow = workflowTiering.getWorkflow(workflowId, includeTasks);
+        }
         if (workflow == null) {
             LOGGER.debug("Workflow {} not found in executionDAO, checking indexDAO", workflowId);
             String json = indexDAO.get(workflowId, RAW_JSON_FIELD);
@@ -168,8 +184,8 @@ public class ExecutionDAOFacade {
         return executionDAO.getWorkflowsByCorrelationId(correlationId, includeTasks);
     }
 
-    public List<Workflow> getWorkflowsByName(String workflowName, Long startTime, Long endTime) {
-        return executionDAO.getWorkflowsByType(workflowName, startTime, endTime);
+    public Stream<Workflow> streamWorkflowsByName(String workflowName, Long startTime, Long endTime) {
+        return executionDAO.streamWorkflowsByType(workflowName, startTime, endTime);
     }
 
     public List<Workflow> getPendingWorkflowsByName(String workflowName, int version) {
@@ -200,21 +216,63 @@ public class ExecutionDAOFacade {
         } else {
             indexDAO.indexWorkflow(workflow);
         }
-        return workflow.getWorkflowId();
     }
 
     /**
-     * Updates the given workflow in the data store
+     * Updates the given workflow in the data store. With optimistic concurrency control enabled, the workflow is
+     * written through {@link #compareAndSetWorkflow(Workflow, List)}, so that no write can reuse the revision of
+     * another.
      *
      * @param workflow the workflow tp be updated
      * @return the id of the updated workflow
+     * @throws ConcurrentUpdateException if optimistic concurrency control is enabled and the workflow was updated since
+     *                                   it was read
      */
     public String updateWorkflow(Workflow workflow) {
+        if (config.isOptimisticConcurrencyEnabled()) {
+            compareAndSetWorkflow(workflow, Collections.emptyList());
+            return workflow.getWorkflowId();
+        }
+        setUpdateTimes(workflow);
+        workflow.setRevision(workflow.getRevision() + 1);
+        executionDAO.updateWorkflow(workflow);
+        indexWorkflow(workflow);
+        return workflow.getWorkflowId();
+    }
+
+    /**
+     * Updates the tasks and then the workflow like {@link #updateTasks(List)} and {@link #updateWorkflow(Workflow)},
+     * unless the workflow or one of the tasks was updated since it was read, in which case nothing is updated.
+     *
+     * @param workflow the workflow to be updated
+     * @param tasks    the tasks of the workflow to be updated
+     * @throws ConcurrentUpdateException if the workflow or one of the tasks was updated concurrently
+     */
+    public void compareAndSetWorkflow(Workflow workflow, List<Task> tasks) {
+        tasks.forEach(this::setUpdateTimes);
+        setUpdateTimes(workflow);
+        try {
+            executionDAO.compareAndSetWorkflow(workflow, tasks);
+        } catch (ConcurrentUpdateException e) {
+            Monitors.recordWorkflowCompareAndSet(workflow.getWorkflowName(), false);
+            throw e;
+        }
+        Monitors.recordWorkflowCompareAndSet(workflow.getWorkflowName(), true);
+        if (!config.enableAsyncIndexing()) {
+            tasks.forEach(indexDAO::indexTask);
+        }
+        indexWorkflow(workflow);
+    }
+
+    private void setUpdateTimes(Workflow workflow) {
         workflow.setUpdateTime(System.currentTimeMillis());
         if (workflow.getStatus().isTerminal()) {
             workflow.setEndTime(System.currentTimeMillis());
         }
-        executionDAO.updateWorkflow(workflow);
+    }
+
+    private void indexWorkflow(Workflow workflow) {
+        workflowTiering.schedule(workflow);
         if (config.enableAsyncIndexing()) {
             if (workflow.getStatus().isTerminal() && workflow.getEndTime() - workflow.getStartTime() < config.getAsyncUpdateShortRunningWorkflowDuration() * 1000) {
                 final String workflowId = workflow.getWorkflowId();
@@ -266,6 +324,7 @@ public class ExecutionDAOFacade {
             // remove workflow from DAO
             try {
                 executionDAO.removeWorkflow(workflowId);
+                workflowTiering.removeWorkflow(workflowId);
             } catch (Exception ex) {
                 Monitors.recordDaoError("executionDao", "removeWorkflow");
                 throw ex;
@@ -287,6 +346,7 @@ public class ExecutionDAOFacade {
         try {
             Workflow workflow = getWorkflowById(workflowId, true);
             executionDAO.removeWorkflow(workflowId);
+            workflowTiering.removeWorkflow(workflowId);
             if (config.enableAsyncIndexing()) {
                 indexDAO.asyncRemoveWorkflow(workflowId);
             } else {
@@ -333,14 +393,8 @@ public class ExecutionDAOFacade {
      */
     public void updateTask(Task task) {
         try {
-            if (task.getStatus() != null) {
-                if (!task.getStatus().isTerminal() || (task.getStatus().isTerminal() && task.getUpdateTime() == 0)) {
-                    task.setUpdateTime(System.currentTimeMillis());
-                }
-                if (task.getStatus().isTerminal() && task.getEndTime() == 0) {
-                    task.setEndTime(System.currentTimeMillis());
-                }
-            }
+            setUpdateTimes(task);
+            task.setRevision(task.getRevision() + 1);
             executionDAO.updateTask(task);
             /*
              * Indexing a task for every update adds a lot of volume. That is ok but if async indexing
@@ -362,16 +416,33 @@ public class ExecutionDAOFacade {
         tasks.forEach(this::updateTask);
     }
 
+    private void setUpdateTimes(Task task) {
+        if (task.getStatus() != null) {
+            if (!task.getStatus().isTerminal() || (task.getStatus().isTerminal() && task.getUpdateTime() == 0)) {
+                task.setUpdateTime(System.currentTimeMillis());
+            }
+            if (task.getStatus().isTerminal() && task.getEndTime() == 0) {
+                task.setEndTime(System.currentTimeMillis());
+            }
+        }
+    }
+
     public void removeTask(String taskId) {
         executionDAO.removeTask(taskId);
     }
 
     public List<PollData> getTaskPollData(String taskName) {
+        if (pollDataAggregator != null) {
+            return pollDataAggregator.getPollData(taskName);
+        }
         return pollDataDAO.getPollData(taskName);
     }
 
     public PollData getTaskPollDataByDomain(String taskName, String domain) {
         try {
+            if (pollDataAggregator != null) {
+                return pollDataAggregator.getPollData(taskName, domain);
+            }
             return pollDataDAO.getPollData(taskName, domain);
         } catch (Exception e) {
             LOGGER.error("Error fetching pollData for task: '{}', domain: '{}'", taskName, domain, e);
@@ -381,7 +452,11 @@ public class ExecutionDAOFacade {
 
     public void updateTaskLastPoll(String taskName, String domain, String workerId) {
         try {
-            pollDataDAO.updateLastPollData(taskName, domain, workerId);
+            if (pollDataAggregator != null) {
+                pollDataAggregator.updateLastPollData(taskName, domain, workerId);
+            } else {
+                pollDataDAO.updateLastPollData(taskName, domain, workerId);
+            }
         } catch (Exception e) {
             LOGGER.error("Error updating PollData for task: {} in domain: {} from worker: {}", taskName, domain,
                 workerId, e);
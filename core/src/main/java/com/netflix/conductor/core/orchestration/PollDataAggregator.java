@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.orchestration;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.common.metadata.tasks.PollData;
+import com.netflix.conductor.dao.PollDataDAO;
+import com.netflix.conductor.metrics.Monitors;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Node-local buffer of the last poll of each task queue and domain.
+ * <p>
+ * Polls only replace the buffered {@link PollData}; the buffer is written to the {@link PollDataDAO} in one batch per
+ * flush interval, so the store sees at most one write per task queue and domain per interval regardless of the number
+ * of pollers. Reads merge the buffer over the stored data, so this node always sees its own latest polls.
+ */
+class PollDataAggregator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PollDataAggregator.class);
+
+    private static final String DEFAULT_DOMAIN = "DEFAULT";
+
+    private final PollDataDAO pollDataDAO;
+    private final Map<String, Map<String, PollData>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    PollDataAggregator(PollDataDAO pollDataDAO, long flushIntervalMs) {
+        this.pollDataDAO = pollDataDAO;
+        long interval = Math.max(flushIntervalMs, 1);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("poll-data-flush-%d").setDaemon(true).build());
+        this.flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        LOGGER.info("Poll data aggregation enabled, flushed every {} ms", interval);
+    }
+
+    void updateLastPollData(String taskName, String domain, String workerId) {
+        pending.computeIfAbsent(taskName, name -> new ConcurrentHashMap<>())
+            .put(domain == null ? DEFAULT_DOMAIN : domain,
+                new PollData(taskName, domain, workerId, System.currentTimeMillis()));
+    }
+
+    PollData getPollData(String taskName, String domain) {
+        Map<String, PollData> local = pending.get(taskName);
+        PollData buffered = local == null ? null : local.get(domain == null ? DEFAULT_DOMAIN : domain);
+        if (buffered != null) {
+            // polled on this node since the last flush, nothing newer can be stored yet
+            return buffered;
+        }
+        return pollDataDAO.getPollData(taskName, domain);
+    }
+
+    List<PollData> getPollData(String taskName) {
+        List<PollData> stored = pollDataDAO.getPollData(taskName);
+        Map<String, PollData> local = pending.get(taskName);
+        if (local == null || local.isEmpty()) {
+            return stored;
+        }
+        Map<String, PollData> merged = new HashMap<>();
+        stored.forEach(data -> merged.put(data.getDomain() == null ? DEFAULT_DOMAIN : data.getDomain(), data));
+        local.forEach((domain, data) -> merged.merge(domain, data,
+            (previous, buffered) -> buffered.getLastPollTime() >= previous.getLastPollTime() ? buffered : previous));
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Writes the buffered poll data. Entries replaced by a newer poll during the write stay buffered for the next flush.
+     */
+    void flush() {
+        List<PollData> batch = new ArrayList<>();
+        pending.values().forEach(domains -> batch.addAll(domains.values()));
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            pollDataDAO.updateLastPollData(batch);
+        } catch (Exception e) {
+            LOGGER.error("Error writing {} poll data entries", batch.size(), e);
+            Monitors.error(PollDataAggregator.class.getCanonicalName(), "flush");
+            return;
+        }
+        for (PollData data : batch) {
+            Map<String, PollData> domains = pending.get(data.getQueueName());
+            if (domains != null) {
+                domains.remove(data.getDomain() == null ? DEFAULT_DOMAIN : data.getDomain(), data);
+            }
+        }
+    }
+
+    void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+}
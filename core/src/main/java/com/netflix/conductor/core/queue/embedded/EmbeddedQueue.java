@@ -0,0 +1,414 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.queue.embedded;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A single named queue held in memory.
+ * <p>
+ * Messages are kept in three heaps: <em>delayed</em> (not yet visible, ordered by delivery time), <em>ready</em>
+ * (visible, ordered by priority and then delivery time) and <em>unacked</em> (popped, ordered by lease expiry).
+ * Entries are immutable; every state change stores a new entry in {@link #messages} and leaves the old one in its heap,
+ * where it is recognised as stale and skipped. Heaps are rebuilt once stale entries outnumber live ones.
+ * <p>
+ * Every mutation is appended to the {@link QueueJournal} while the queue lock is held, so the journal order of a
+ * message always matches the order in which its state changed.
+ */
+class EmbeddedQueue {
+
+    private static final int COMPACTION_SLACK = 1024;
+
+    private static final Comparator<Entry> BY_DELIVER_ON = Comparator
+        .comparingLong((Entry e) -> e.deliverOn)
+        .thenComparingLong(e -> e.seq);
+
+    private static final Comparator<Entry> BY_PRIORITY = Comparator
+        .comparingInt((Entry e) -> -e.priority)
+        .thenComparingLong(e -> e.deliverOn)
+        .thenComparingLong(e -> e.seq);
+
+    private final String name;
+    private final QueueJournal journal;
+    private final AtomicLong sequence;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private final Map<String, Entry> messages = new HashMap<>();
+    private final PriorityQueue<Entry> delayed = new PriorityQueue<>(BY_DELIVER_ON);
+    private final PriorityQueue<Entry> ready = new PriorityQueue<>(BY_PRIORITY);
+    private final PriorityQueue<Entry> unacked = new PriorityQueue<>(BY_DELIVER_ON);
+    private int unackedCount;
+
+    EmbeddedQueue(String name, QueueJournal journal, AtomicLong sequence) {
+        this.name = name;
+        this.journal = journal;
+        this.sequence = sequence;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void push(String id, String payload, int priority, long offsetMillis) {
+        lock.lock();
+        try {
+            put(new Entry(id, priority, System.currentTimeMillis() + offsetMillis, false, payload,
+                sequence.incrementAndGet()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean pushIfAbsent(String id, String payload, int priority, long offsetMillis) {
+        lock.lock();
+        try {
+            if (messages.containsKey(id)) {
+                return false;
+            }
+            put(new Entry(id, priority, System.currentTimeMillis() + offsetMillis, false, payload,
+                sequence.incrementAndGet()));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pops up to <code>count</code> visible messages, waiting up to <code>timeoutMillis</code> for at least one to
+     * become visible. Popped messages stay in the queue as un-acknowledged until acked or until the lease expires.
+     */
+    List<Entry> pop(int count, long timeoutMillis, long leaseMillis) {
+        List<Entry> popped = new ArrayList<>(Math.max(count, 0));
+        if (count <= 0) {
+            return popped;
+        }
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (true) {
+                long now = System.currentTimeMillis();
+                promote(now);
+                while (popped.size() < count) {
+                    Entry next = ready.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (!isLive(next)) {
+                        continue;
+                    }
+                    Entry leased = new Entry(next.id, next.priority, now + leaseMillis, true, next.payload, next.seq);
+                    put(leased);
+                    popped.add(leased);
+                }
+                long remaining = deadline - System.nanoTime();
+                if (!popped.isEmpty() || remaining <= 0) {
+                    return popped;
+                }
+                Entry nextDelayed = peekLive(delayed);
+                if (nextDelayed != null) {
+                    long untilVisible = TimeUnit.MILLISECONDS.toNanos(Math.max(nextDelayed.deliverOn - now, 1));
+                    remaining = Math.min(remaining, untilVisible);
+                }
+                try {
+                    available.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return popped;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean ack(String id) {
+        lock.lock();
+        try {
+            Entry entry = messages.get(id);
+            if (entry == null || !entry.unacked) {
+                return false;
+            }
+            discard(id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean remove(String id) {
+        lock.lock();
+        try {
+            return discard(id) != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the lease expiry of a popped message, or the delivery time of a queued one, to now + timeout.
+     */
+    boolean setUnackTimeout(String id, long timeoutMillis) {
+        lock.lock();
+        try {
+            Entry entry = messages.get(id);
+            if (entry == null) {
+                return false;
+            }
+            put(new Entry(id, entry.priority, System.currentTimeMillis() + timeoutMillis, entry.unacked,
+                entry.payload, entry.seq));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean resetOffsetTime(String id) {
+        lock.lock();
+        try {
+            Entry entry = messages.get(id);
+            if (entry == null || entry.unacked) {
+                return false;
+            }
+            put(new Entry(id, entry.priority, System.currentTimeMillis(), false, entry.payload, entry.seq));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Atomic equivalent of remove + push: the message is made invisible for the given offset regardless of whether
+     * it was queued, popped or absent.
+     */
+    void postpone(String id, int priority, long offsetMillis) {
+        lock.lock();
+        try {
+            Entry entry = messages.get(id);
+            String payload = entry == null ? null : entry.payload;
+            put(new Entry(id, priority, System.currentTimeMillis() + offsetMillis, false, payload,
+                sequence.incrementAndGet()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of popped messages whose lease expired and which were made visible again
+     */
+    int processUnacks() {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            int count = 0;
+            while (!unacked.isEmpty() && unacked.peek().deliverOn <= now) {
+                Entry expired = unacked.poll();
+                if (!isLive(expired)) {
+                    continue;
+                }
+                put(new Entry(expired.id, expired.priority, now, false, expired.payload, expired.seq));
+                count++;
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void flush() {
+        lock.lock();
+        try {
+            clear();
+            if (journal != null) {
+                journal.appendFlush(name);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of messages that are queued, visible or not, excluding popped ones
+     */
+    long size() {
+        lock.lock();
+        try {
+            return messages.size() - unackedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long unackedSize() {
+        lock.lock();
+        try {
+            return unackedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<Entry> entries() {
+        lock.lock();
+        try {
+            return new ArrayList<>(messages.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a journal record during recovery, without writing it back to the journal.
+     */
+    void restore(byte op, String id, Entry entry) {
+        lock.lock();
+        try {
+            switch (op) {
+                case QueueJournal.OP_PUT:
+                    store(new Entry(entry.id, entry.priority, entry.deliverOn, entry.unacked, entry.payload,
+                        sequence.incrementAndGet()));
+                    break;
+                case QueueJournal.OP_REMOVE:
+                    Entry removed = messages.remove(id);
+                    if (removed != null && removed.unacked) {
+                        unackedCount--;
+                    }
+                    break;
+                case QueueJournal.OP_FLUSH:
+                    clear();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown journal operation: " + op);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        store(entry);
+        if (journal != null) {
+            journal.appendPut(name, entry);
+        }
+    }
+
+    private Entry discard(String id) {
+        Entry removed = messages.remove(id);
+        if (removed == null) {
+            return null;
+        }
+        if (removed.unacked) {
+            unackedCount--;
+        }
+        if (journal != null) {
+            journal.appendRemove(name, id);
+        }
+        return removed;
+    }
+
+    private void store(Entry entry) {
+        Entry previous = messages.put(entry.id, entry);
+        if (previous != null && previous.unacked) {
+            unackedCount--;
+        }
+        if (entry.unacked) {
+            unackedCount++;
+            unacked.add(entry);
+        } else if (entry.deliverOn > System.currentTimeMillis()) {
+            delayed.add(entry);
+        } else {
+            ready.add(entry);
+            available.signalAll();
+        }
+        compactIfNeeded();
+    }
+
+    private void promote(long now) {
+        while (!delayed.isEmpty() && delayed.peek().deliverOn <= now) {
+            Entry entry = delayed.poll();
+            if (isLive(entry)) {
+                ready.add(entry);
+            }
+        }
+    }
+
+    private Entry peekLive(PriorityQueue<Entry> heap) {
+        while (!heap.isEmpty() && !isLive(heap.peek())) {
+            heap.poll();
+        }
+        return heap.peek();
+    }
+
+    private boolean isLive(Entry entry) {
+        return messages.get(entry.id) == entry;
+    }
+
+    private void compactIfNeeded() {
+        if (delayed.size() + ready.size() + unacked.size() <= 2 * messages.size() + COMPACTION_SLACK) {
+            return;
+        }
+        delayed.clear();
+        ready.clear();
+        unacked.clear();
+        long now = System.currentTimeMillis();
+        for (Entry entry : messages.values()) {
+            if (entry.unacked) {
+                unacked.add(entry);
+            } else if (entry.deliverOn > now) {
+                delayed.add(entry);
+            } else {
+                ready.add(entry);
+            }
+        }
+    }
+
+    private void clear() {
+        messages.clear();
+        delayed.clear();
+        ready.clear();
+        unacked.clear();
+        unackedCount = 0;
+    }
+
+    /**
+     * Immutable state of a message. For un-acknowledged messages <code>deliverOn</code> is the lease expiry.
+     */
+    static final class Entry {
+
+        final String id;
+        final int priority;
+        final long deliverOn;
+        final boolean unacked;
+        final String payload;
+        final long seq;
+
+        Entry(String id, int priority, long deliverOn, boolean unacked, String payload, long seq) {
+            this.id = id;
+            this.priority = priority;
+            this.deliverOn = deliverOn;
+            this.unacked = unacked;
+            this.payload = payload;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.queue.embedded;
+
+import com.netflix.conductor.core.config.Configuration;
+
+public interface EmbeddedQueueConfiguration extends Configuration {
+
+    String JOURNAL_DIR_PROPERTY_NAME = "workflow.queue.embedded.journal.dir";
+    String JOURNAL_DIR_DEFAULT_VALUE = "";
+
+    String JOURNAL_SEGMENT_SIZE_MB_PROPERTY_NAME = "workflow.queue.embedded.journal.segment.size.mb";
+    int JOURNAL_SEGMENT_SIZE_MB_DEFAULT_VALUE = 64;
+
+    String SNAPSHOT_INTERVAL_SECONDS_PROPERTY_NAME = "workflow.queue.embedded.snapshot.interval.seconds";
+    int SNAPSHOT_INTERVAL_SECONDS_DEFAULT_VALUE = 60;
+
+    String UNACK_TIMEOUT_MS_PROPERTY_NAME = "workflow.queue.embedded.unack.timeout.ms";
+    int UNACK_TIMEOUT_MS_DEFAULT_VALUE = 60_000;
+
+    String UNACK_PROCESS_INTERVAL_MS_PROPERTY_NAME = "workflow.queue.embedded.unack.process.interval.ms";
+    int UNACK_PROCESS_INTERVAL_MS_DEFAULT_VALUE = 1_000;
+
+    /**
+     * @return directory holding the journal segments and snapshots. When empty, the queues are kept in memory only
+     * and are lost on restart.
+     */
+    default String getJournalDir() {
+        return getProperty(JOURNAL_DIR_PROPERTY_NAME, JOURNAL_DIR_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return size in MB of each memory-mapped journal segment
+     */
+    default int getJournalSegmentSizeMB() {
+        return getIntProperty(JOURNAL_SEGMENT_SIZE_MB_PROPERTY_NAME, JOURNAL_SEGMENT_SIZE_MB_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return interval in seconds at which the queue state is snapshotted and older journal segments are discarded
+     */
+    default int getSnapshotIntervalSeconds() {
+        return getIntProperty(SNAPSHOT_INTERVAL_SECONDS_PROPERTY_NAME, SNAPSHOT_INTERVAL_SECONDS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return time in milliseconds after which a popped but un-acknowledged message is made visible again
+     */
+    default int getUnackTimeoutMs() {
+        return getIntProperty(UNACK_TIMEOUT_MS_PROPERTY_NAME, UNACK_TIMEOUT_MS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return interval in milliseconds at which expired un-acknowledged messages are returned to their queues
+     */
+    default int getUnackProcessIntervalMs() {
+        return getIntProperty(UNACK_PROCESS_INTERVAL_MS_PROPERTY_NAME, UNACK_PROCESS_INTERVAL_MS_DEFAULT_VALUE);
+    }
+}
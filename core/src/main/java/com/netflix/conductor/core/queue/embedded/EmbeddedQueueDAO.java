@@ -0,0 +1,282 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.queue.embedded;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.dao.QueueDAO;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link QueueDAO} that keeps all queues in the JVM, for single-node deployments that do not want to run Redis
+ * for queuing. Each queue is a set of priority / delay heaps guarded by its own lock, so operations on different
+ * queues only contend on appending to the journal, when one is configured.
+ * <p>
+ * When a journal directory is configured every mutation is appended to a memory-mapped {@link QueueJournal} and the
+ * full state is snapshotted periodically, so that a restart only replays the journal written since the last
+ * snapshot. Journal writes go to the page cache and survive a process crash; segments are forced to disk when they
+ * are rotated.
+ */
+@Singleton
+public class EmbeddedQueueDAO implements QueueDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedQueueDAO.class);
+
+    private final Map<String, EmbeddedQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final QueueJournal journal;
+    private final long unackTimeoutMs;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    @Inject
+    public EmbeddedQueueDAO(EmbeddedQueueConfiguration config) {
+        this(StringUtils.isBlank(config.getJournalDir()) ? null : new File(config.getJournalDir()),
+            config.getJournalSegmentSizeMB() * 1024 * 1024,
+            config.getUnackTimeoutMs(),
+            config.getUnackProcessIntervalMs(),
+            config.getSnapshotIntervalSeconds());
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    /**
+     * @param journalDir directory for the journal and snapshots, or null to keep the queues in memory only
+     * @param segmentSizeBytes size of each memory-mapped journal segment
+     * @param unackTimeoutMs default lease of popped messages
+     * @param unackProcessIntervalMs interval of the background unack processing, disabled when not positive
+     * @param snapshotIntervalSeconds interval of the background snapshots, disabled when not positive
+     */
+    public EmbeddedQueueDAO(File journalDir, int segmentSizeBytes, long unackTimeoutMs, long unackProcessIntervalMs,
+        int snapshotIntervalSeconds) {
+        this.unackTimeoutMs = unackTimeoutMs;
+        if (journalDir == null) {
+            logger.warn("No journal directory configured, embedded queues will not survive a restart");
+            this.journal = null;
+        } else {
+            this.journal = new QueueJournal(journalDir, segmentSizeBytes);
+            try {
+                journal.recover((op, queueName, messageId, entry) -> getQueue(queueName).restore(op, messageId, entry));
+            } catch (IOException e) {
+                throw new ApplicationException(Code.BACKEND_ERROR, "Unable to recover embedded queues from " + journalDir, e);
+            }
+        }
+
+        this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("embedded-queue-%d").setDaemon(true).build());
+        if (unackProcessIntervalMs > 0) {
+            scheduledExecutorService.scheduleWithFixedDelay(this::processAllUnacks,
+                unackProcessIntervalMs, unackProcessIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        if (journal != null && snapshotIntervalSeconds > 0) {
+            scheduledExecutorService.scheduleWithFixedDelay(this::snapshotQuietly,
+                snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+        logger.info("EmbeddedQueueDAO initialized with {} queues", queues.size());
+    }
+
+    @Override
+    public void push(String queueName, String id, long offsetTimeInSecond) {
+        push(queueName, id, 0, offsetTimeInSecond);
+    }
+
+    @Override
+    public void push(String queueName, String id, int priority, long offsetTimeInSecond) {
+        getQueue(queueName).push(id, null, normalize(priority), TimeUnit.SECONDS.toMillis(offsetTimeInSecond));
+    }
+
+    @Override
+    public void push(String queueName, List<Message> messages) {
+        EmbeddedQueue queue = getQueue(queueName);
+        messages.forEach(message -> queue.push(message.getId(), message.getPayload(), normalize(message.getPriority()), 0));
+    }
+
+    @Override
+    public boolean pushIfNotExists(String queueName, String id, long offsetTimeInSecond) {
+        return pushIfNotExists(queueName, id, 0, offsetTimeInSecond);
+    }
+
+    @Override
+    public boolean pushIfNotExists(String queueName, String id, int priority, long offsetTimeInSecond) {
+        return getQueue(queueName).pushIfAbsent(id, null, normalize(priority), TimeUnit.SECONDS.toMillis(offsetTimeInSecond));
+    }
+
+    @Override
+    public List<String> pop(String queueName, int count, int timeout) {
+        return pop(queueName, count, timeout, TimeUnit.MILLISECONDS.toSeconds(unackTimeoutMs));
+    }
+
+    @Override
+    public List<String> pop(String queueName, int count, int timeout, long leaseDurationSeconds) {
+        return getQueue(queueName).pop(count, timeout, leaseMillis(leaseDurationSeconds)).stream()
+            .map(entry -> entry.id)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Message> pollMessages(String queueName, int count, int timeout) {
+        return pollMessages(queueName, count, timeout, TimeUnit.MILLISECONDS.toSeconds(unackTimeoutMs));
+    }
+
+    @Override
+    public List<Message> pollMessages(String queueName, int count, int timeout, long leaseDurationSeconds) {
+        return getQueue(queueName).pop(count, timeout, leaseMillis(leaseDurationSeconds)).stream()
+            .map(entry -> new Message(entry.id, entry.payload, null, entry.priority))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public void remove(String queueName, String messageId) {
+        getQueue(queueName).remove(messageId);
+    }
+
+    @Override
+    public int getSize(String queueName) {
+        return (int) getQueue(queueName).size();
+    }
+
+    @Override
+    public boolean ack(String queueName, String messageId) {
+        return getQueue(queueName).ack(messageId);
+    }
+
+    @Override
+    public boolean setUnackTimeout(String queueName, String messageId, long unackTimeout) {
+        return getQueue(queueName).setUnackTimeout(messageId, unackTimeout);
+    }
+
+    @Override
+    public void flush(String queueName) {
+        EmbeddedQueue queue = queues.get(queueName);
+        if (queue != null) {
+            queue.flush();
+        }
+    }
+
+    @Override
+    public Map<String, Long> queuesDetail() {
+        return queues.values().stream()
+            .collect(Collectors.toMap(EmbeddedQueue::getName, EmbeddedQueue::size));
+    }
+
+    @Override
+    public Map<String, Map<String, Map<String, Long>>> queuesDetailVerbose() {
+        Map<String, Map<String, Map<String, Long>>> result = new HashMap<>();
+        // there is a single shard, reported as "a" to match the other implementations
+        queues.values().forEach(queue -> result.put(queue.getName(),
+            ImmutableMap.of("a", ImmutableMap.of("size", queue.size(), "uacked", queue.unackedSize()))));
+        return result;
+    }
+
+    @Override
+    public void processUnacks(String queueName) {
+        EmbeddedQueue queue = queues.get(queueName);
+        if (queue != null) {
+            queue.processUnacks();
+        }
+    }
+
+    @Override
+    public boolean resetOffsetTime(String queueName, String id) {
+        return getQueue(queueName).resetOffsetTime(id);
+    }
+
+    @Override
+    public boolean postpone(String queueName, String messageId, int priority, long postponeDurationInSeconds) {
+        getQueue(queueName).postpone(messageId, normalize(priority), TimeUnit.SECONDS.toMillis(postponeDurationInSeconds));
+        return true;
+    }
+
+    /**
+     * Rotates the journal and writes a snapshot of all queues, discarding the journal segments it supersedes.
+     * Snapshots are serialized, as the journal cannot write two at once.
+     */
+    public synchronized void snapshot() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        long covered = journal.rotate();
+        Map<String, List<EmbeddedQueue.Entry>> state = new HashMap<>();
+        queues.values().forEach(queue -> state.put(queue.getName(), queue.entries()));
+        journal.writeSnapshot(covered, state);
+        logger.debug("Snapshotted {} embedded queues up to journal segment {}", state.size(), covered);
+    }
+
+    /**
+     * Stops the background work, snapshots the queues and closes the journal.
+     */
+    public void close() {
+        // not interrupting a running snapshot, which would close the journal files under it
+        scheduledExecutorService.shutdown();
+        try {
+            if (!scheduledExecutorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Background work of the embedded queues did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            snapshot();
+            journal.close();
+        } catch (IOException e) {
+            logger.error("Unable to close the embedded queue journal", e);
+        }
+    }
+
+    private void processAllUnacks() {
+        try {
+            queues.values().forEach(EmbeddedQueue::processUnacks);
+        } catch (Exception e) {
+            logger.error("Error processing unacks of embedded queues", e);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            logger.error("Unable to snapshot embedded queues", e);
+        }
+    }
+
+    private EmbeddedQueue getQueue(String queueName) {
+        return queues.computeIfAbsent(queueName, name -> new EmbeddedQueue(name, journal, sequence));
+    }
+
+    private long leaseMillis(long leaseDurationSeconds) {
+        return leaseDurationSeconds > 0 ? TimeUnit.SECONDS.toMillis(leaseDurationSeconds) : unackTimeoutMs;
+    }
+
+    private static int normalize(int priority) {
+        return priority >= 0 && priority <= 99 ? priority : 0;
+    }
+}
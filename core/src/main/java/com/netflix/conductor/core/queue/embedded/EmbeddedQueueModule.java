@@ -0,0 +1,29 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.queue.embedded;
+
+import com.google.inject.AbstractModule;
+import com.netflix.conductor.dao.QueueDAO;
+
+/**
+ * Replaces the {@link QueueDAO} of the configured persistence module with the in-JVM {@link EmbeddedQueueDAO}.
+ * Meant for single-node deployments; load it through <code>conductor.additional.modules</code>.
+ */
+public class EmbeddedQueueModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bind(EmbeddedQueueConfiguration.class).to(SystemPropertiesEmbeddedQueueConfiguration.class);
+        bind(QueueDAO.class).to(EmbeddedQueueDAO.class);
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.queue.embedded;
+
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ApplicationException.Code;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of queue mutations, written to memory-mapped segment files.
+ * <p>
+ * Every record carries the full state of one message (or a removal / flush), so replaying a record that is already
+ * reflected in a snapshot is harmless. This lets a snapshot be taken without blocking writers: the current segment is
+ * rotated first, the in-memory state is copied afterwards, and the snapshot replaces all segments up to and including
+ * the rotated one. Recovery loads the newest snapshot and replays the newer segments in order.
+ * <p>
+ * Record layout: <code>int length | int crc32 | body</code>. A zero length marks the unwritten tail of a segment and
+ * a checksum mismatch marks a torn write; replay of a file stops at either.
+ */
+class QueueJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueJournal.class);
+
+    static final byte OP_PUT = 1;
+    static final byte OP_REMOVE = 2;
+    static final byte OP_FLUSH = 3;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int HEADER_SIZE = 8;
+
+    interface Replay {
+
+        void apply(byte op, String queueName, String messageId, EmbeddedQueue.Entry entry);
+    }
+
+    private final File dir;
+    private final int segmentSize;
+
+    private long segmentSeq;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+
+    QueueJournal(File dir, int segmentSize) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new ApplicationException(Code.BACKEND_ERROR, "Unable to create queue journal directory " + dir);
+        }
+    }
+
+    /**
+     * Replays the newest snapshot and all later segments, then opens a fresh segment for appends.
+     */
+    synchronized void recover(Replay replay) throws IOException {
+        long snapshotSeq = -1;
+        File[] snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (snapshots.length > 0) {
+            File latest = snapshots[snapshots.length - 1];
+            snapshotSeq = seqOf(latest, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            int records = replayFile(latest, replay);
+            logger.info("Loaded {} messages from queue snapshot {}", records, latest);
+        }
+
+        long lastSeq = snapshotSeq;
+        for (File file : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            long seq = seqOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            lastSeq = Math.max(lastSeq, seq);
+            if (seq <= snapshotSeq) {
+                // left behind by a crash between writing the snapshot and cleaning up
+                Files.deleteIfExists(file.toPath());
+                continue;
+            }
+            int records = replayFile(file, replay);
+            logger.info("Replayed {} records from queue journal {}", records, file);
+        }
+        openSegment(lastSeq + 1, segmentSize);
+    }
+
+    synchronized void appendPut(String queueName, EmbeddedQueue.Entry entry) {
+        append(encodePut(queueName, entry));
+    }
+
+    synchronized void appendRemove(String queueName, String messageId) {
+        append(encode(OP_REMOVE, queueName, messageId));
+    }
+
+    synchronized void appendFlush(String queueName) {
+        append(encode(OP_FLUSH, queueName, null));
+    }
+
+    /**
+     * Closes the current segment and starts a new one.
+     *
+     * @return the sequence number of the closed segment, i.e. the one a subsequent snapshot covers
+     */
+    synchronized long rotate() throws IOException {
+        long covered = segmentSeq;
+        openSegment(segmentSeq + 1, segmentSize);
+        return covered;
+    }
+
+    /**
+     * Writes the given state as the snapshot covering all segments up to <code>coveredSeq</code> and discards them.
+     * Must not be called concurrently with itself.
+     */
+    void writeSnapshot(long coveredSeq, Map<String, List<EmbeddedQueue.Entry>> state) throws IOException {
+        File tmp = new File(dir, SNAPSHOT_PREFIX + format(coveredSeq) + ".tmp");
+        File target = new File(dir, SNAPSHOT_PREFIX + format(coveredSeq) + SNAPSHOT_SUFFIX);
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 1 << 16))) {
+            for (Map.Entry<String, List<EmbeddedQueue.Entry>> queue : state.entrySet()) {
+                for (EmbeddedQueue.Entry entry : queue.getValue()) {
+                    byte[] body = encodePut(queue.getKey(), entry);
+                    out.writeInt(body.length);
+                    out.writeInt(checksum(body));
+                    out.write(body);
+                }
+            }
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (File file : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (seqOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX) <= coveredSeq) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        for (File file : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (seqOf(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < coveredSeq) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segmentChannel.close();
+            segment = null;
+        }
+    }
+
+    private void append(byte[] body) {
+        int needed = HEADER_SIZE + body.length;
+        try {
+            if (segment == null) {
+                throw new IOException("queue journal is closed");
+            }
+            if (segment.remaining() < needed) {
+                openSegment(segmentSeq + 1, Math.max(segmentSize, needed));
+            }
+        } catch (IOException e) {
+            throw new ApplicationException(Code.BACKEND_ERROR, "Unable to append to queue journal: " + e.getMessage(), e);
+        }
+        segment.putInt(body.length);
+        segment.putInt(checksum(body));
+        segment.put(body);
+    }
+
+    private void openSegment(long seq, int size) throws IOException {
+        if (segment != null) {
+            segment.force();
+            segmentChannel.close();
+        }
+        File file = new File(dir, SEGMENT_PREFIX + format(seq) + SEGMENT_SUFFIX);
+        segmentChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segmentSeq = seq;
+    }
+
+    private int replayFile(File file, Replay replay) throws IOException {
+        int records = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                buffer.get(body);
+                if (checksum(body) != checksum) {
+                    logger.warn("Discarding torn record at offset {} of queue journal {}",
+                        buffer.position() - length - HEADER_SIZE, file);
+                    break;
+                }
+                decode(body, replay);
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private static void decode(byte[] body, Replay replay) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte op = in.readByte();
+        String queueName = readString(in);
+        switch (op) {
+            case OP_PUT:
+                String id = readString(in);
+                int priority = in.readInt();
+                long deliverOn = in.readLong();
+                boolean unacked = in.readBoolean();
+                String payload = readString(in);
+                replay.apply(op, queueName, id, new EmbeddedQueue.Entry(id, priority, deliverOn, unacked, payload, 0));
+                break;
+            case OP_REMOVE:
+                replay.apply(op, queueName, readString(in), null);
+                break;
+            case OP_FLUSH:
+                replay.apply(op, queueName, null, null);
+                break;
+            default:
+                throw new IOException("Unknown queue journal operation: " + op);
+        }
+    }
+
+    private static byte[] encodePut(String queueName, EmbeddedQueue.Entry entry) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(OP_PUT);
+            writeString(out, queueName);
+            writeString(out, entry.id);
+            out.writeInt(entry.priority);
+            out.writeLong(entry.deliverOn);
+            out.writeBoolean(entry.unacked);
+            writeString(out, entry.payload);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encode(byte op, String queueName, String messageId) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(op);
+            writeString(out, queueName);
+            if (op == OP_REMOVE) {
+                writeString(out, messageId);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue();
+    }
+
+    private File[] list(String prefix, String suffix) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(prefix) && name.endsWith(suffix));
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files, Comparator.comparingLong(f -> seqOf(f, prefix, suffix)));
+        return files;
+    }
+
+    private static long seqOf(File file, String prefix, String suffix) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static String format(long seq) {
+        return String.format("%020d", seq);
+    }
+}
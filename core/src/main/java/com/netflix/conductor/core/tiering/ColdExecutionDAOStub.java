@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.tiering;
+
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.dao.ColdExecutionDAO;
+import java.util.List;
+
+/**
+ * Default {@link ColdExecutionDAO}, which holds no workflows and cannot store any.
+ */
+public class ColdExecutionDAOStub implements ColdExecutionDAO {
+
+    @Override
+    public void storeWorkflows(List<Workflow> workflows) {
+        throw new UnsupportedOperationException("No cold store configured, cannot store " + workflows.size() + " workflows");
+    }
+
+    @Override
+    public Workflow getWorkflow(String workflowId, boolean includeTasks) {
+        return null;
+    }
+
+    @Override
+    public boolean removeWorkflow(String workflowId) {
+        return false;
+    }
+}
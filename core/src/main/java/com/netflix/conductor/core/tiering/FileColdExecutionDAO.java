@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.tiering;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.dao.ColdExecutionDAO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ColdExecutionDAO} keeping one gzipped JSON document per workflow, with its tasks, under
+ * <code>&lt;dir&gt;/&lt;first two characters of the id&gt;/&lt;id&gt;.json.gz</code>.
+ * Documents are written to a temporary file first and moved into place, so readers never see a partial write.
+ * The directory must be shared by all the servers, since any of them may read a workflow moved by another.
+ */
+@Singleton
+public class FileColdExecutionDAO implements ColdExecutionDAO {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileColdExecutionDAO.class);
+
+    static final String DIR_PROPERTY_NAME = "workflow.execution.tiering.file.dir";
+    private static final String SUFFIX = ".json.gz";
+
+    private final ObjectMapper objectMapper;
+    private final Path root;
+
+    @Inject
+    public FileColdExecutionDAO(ObjectMapper objectMapper, Configuration config) {
+        this.objectMapper = objectMapper;
+        String dir = config.getProperty(DIR_PROPERTY_NAME, null);
+        if (StringUtils.isBlank(dir)) {
+            throw new IllegalStateException("The file cold store needs a directory shared by all the servers, set "
+                + DIR_PROPERTY_NAME);
+        }
+        this.root = Paths.get(dir);
+        LOGGER.info("Storing cold workflows in {}", root);
+    }
+
+    @Override
+    public void storeWorkflows(List<Workflow> workflows) {
+        for (Workflow workflow : workflows) {
+            Path path = path(workflow.getWorkflowId());
+            try {
+                Files.createDirectories(path.getParent());
+                Path temp = Files.createTempFile(path.getParent(), workflow.getWorkflowId(), ".tmp");
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                    objectMapper.writeValue(out, workflow);
+                } catch (IOException e) {
+                    Files.deleteIfExists(temp);
+                    throw e;
+                }
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new ApplicationException(Code.BACKEND_ERROR,
+                    "Unable to store workflow: " + workflow.getWorkflowId() + " in the cold store", e);
+            }
+        }
+    }
+
+    @Override
+    public Workflow getWorkflow(String workflowId, boolean includeTasks) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path(workflowId)))) {
+            Workflow workflow = objectMapper.readValue(in, Workflow.class);
+            if (!includeTasks) {
+                workflow.getTasks().clear();
+            }
+            return workflow;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new ApplicationException(Code.BACKEND_ERROR,
+                "Unable to read workflow: " + workflowId + " from the cold store", e);
+        }
+    }
+
+    @Override
+    public boolean removeWorkflow(String workflowId) {
+        try {
+            return Files.deleteIfExists(path(workflowId));
+        } catch (IOException e) {
+            throw new ApplicationException(Code.BACKEND_ERROR,
+                "Unable to remove workflow: " + workflowId + " from the cold store", e);
+        }
+    }
+
+    private Path path(String workflowId) {
+        if (workflowId.isEmpty() || workflowId.contains("/") || workflowId.contains("\\") || workflowId.startsWith(".")) {
+            throw new ApplicationException(Code.INVALID_INPUT, "Invalid workflow id: " + workflowId);
+        }
+        return root.resolve(workflowId.substring(0, Math.min(2, workflowId.length()))).resolve(workflowId + SUFFIX);
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.tiering;
+
+import com.google.inject.AbstractModule;
+import com.netflix.conductor.dao.ColdExecutionDAO;
+
+/**
+ * Stores workflows moved out of the execution store as compressed files on local or shared disk.
+ */
+public class FileColdExecutionModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bind(ColdExecutionDAO.class).to(FileColdExecutionDAO.class);
+    }
+}
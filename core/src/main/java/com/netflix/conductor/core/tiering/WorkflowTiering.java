@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.tiering;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.dao.ColdExecutionDAO;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.metrics.Monitors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Moves terminal workflows from the {@link ExecutionDAO} to the {@link ColdExecutionDAO} once they are older than the
+ * configured age, keeping the execution store sized to the workflows that are still in use.
+ * <p>
+ * Terminal workflows are scheduled on a delay queue when they are updated; a background thread pops the workflows
+ * that are due in batches, stores them with their tasks in the cold store and only then removes them from the
+ * execution store. Workflows that were restarted or retried in the meantime are skipped, they are scheduled again
+ * when they next reach a terminal state.
+ */
+@Singleton
+public class WorkflowTiering {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkflowTiering.class);
+
+    static final String TIERING_QUEUE = "_workflowTiering";
+
+    private final ExecutionDAO executionDAO;
+    private final ColdExecutionDAO coldExecutionDAO;
+    private final QueueDAO queueDAO;
+    private final boolean enabled;
+    private final int ageSeconds;
+    private final int batchSize;
+
+    @Inject
+    public WorkflowTiering(ExecutionDAO executionDAO, ColdExecutionDAO coldExecutionDAO, QueueDAO queueDAO,
+        Configuration config) {
+        this.executionDAO = executionDAO;
+        this.coldExecutionDAO = coldExecutionDAO;
+        this.queueDAO = queueDAO;
+        this.enabled = config.isWorkflowTieringEnabled();
+        this.ageSeconds = Math.max(config.getWorkflowTieringAgeSeconds(), 0);
+        this.batchSize = Math.max(config.getWorkflowTieringBatchSize(), 1);
+
+        if (enabled) {
+            if (coldExecutionDAO instanceof ColdExecutionDAOStub) {
+                // moved workflows would be removed from the execution store without being stored anywhere
+                throw new IllegalStateException("Workflow tiering is enabled but no cold store is configured, bind a "
+                    + ColdExecutionDAO.class.getName() + " such as the one of " + FileColdExecutionModule.class.getName());
+            }
+            int interval = Math.max(config.getWorkflowTieringIntervalSeconds(), 1);
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("workflow-tiering-%d").setDaemon(true).build())
+                .scheduleWithFixedDelay(this::moveDue, interval, interval, TimeUnit.SECONDS);
+            LOGGER.info("Workflow tiering enabled, age: {} seconds, batch size: {}", ageSeconds, batchSize);
+        }
+    }
+
+    /**
+     * Schedules a terminal workflow to be moved to the cold store once it is old enough.
+     */
+    public void schedule(Workflow workflow) {
+        if (enabled && workflow.getStatus().isTerminal()) {
+            queueDAO.push(TIERING_QUEUE, workflow.getWorkflowId(), ageSeconds);
+        }
+    }
+
+    /**
+     * @return the workflow from the cold store, or null if it is not there
+     */
+    public Workflow getWorkflow(String workflowId, boolean includeTasks) {
+        return enabled ? coldExecutionDAO.getWorkflow(workflowId, includeTasks) : null;
+    }
+
+    /**
+     * Removes the workflow from the cold store, along with any pending move.
+     */
+    public void removeWorkflow(String workflowId) {
+        if (enabled) {
+            queueDAO.remove(TIERING_QUEUE, workflowId);
+            coldExecutionDAO.removeWorkflow(workflowId);
+        }
+    }
+
+    private void moveDue() {
+        try {
+            List<String> workflowIds;
+            do {
+                workflowIds = queueDAO.pop(TIERING_QUEUE, batchSize, 100);
+                move(workflowIds);
+            } while (workflowIds.size() >= batchSize);
+        } catch (Exception e) {
+            LOGGER.error("Error moving workflows to the cold store", e);
+        }
+    }
+
+    /**
+     * Moves the given workflows, acknowledging their entries in the delay queue once done.
+     * Entries of workflows that fail to move are left unacknowledged and are retried after the unack timeout.
+     */
+    @VisibleForTesting
+    void move(List<String> workflowIds) {
+        if (workflowIds.isEmpty()) {
+            return;
+        }
+        List<Workflow> workflows = new ArrayList<>(workflowIds.size());
+        for (String workflowId : workflowIds) {
+            Workflow workflow = executionDAO.getWorkflow(workflowId, true);
+            if (workflow == null || !workflow.getStatus().isTerminal()) {
+                queueDAO.ack(TIERING_QUEUE, workflowId);
+            } else {
+                workflows.add(workflow);
+            }
+        }
+        if (workflows.isEmpty()) {
+            return;
+        }
+
+        coldExecutionDAO.storeWorkflows(workflows);
+        for (Workflow workflow : workflows) {
+            try {
+                executionDAO.removeWorkflow(workflow.getWorkflowId());
+                queueDAO.ack(TIERING_QUEUE, workflow.getWorkflowId());
+            } catch (Exception e) {
+                LOGGER.error("Error removing workflow: {} moved to the cold store", workflow.getWorkflowId(), e);
+            }
+        }
+        Monitors.recordWorkflowsMovedToColdStore(workflows.size());
+        LOGGER.debug("Moved {} workflows to the cold store", workflows.size());
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao;
+
+import com.netflix.conductor.common.run.Workflow;
+import java.util.List;
+
+/**
+ * Cold tier of the execution store: holds terminal workflows, with their tasks, after they are moved out of the
+ * {@link ExecutionDAO}. Workflows in the cold tier are read-only.
+ */
+public interface ColdExecutionDAO {
+
+    /**
+     * Stores terminal workflows, replacing any previous copy.
+     *
+     * @param workflows the workflows to be stored, including their tasks
+     */
+    void storeWorkflows(List<Workflow> workflows);
+
+    /**
+     * @param workflowId the id of the workflow
+     * @param includeTasks if true, the tasks of the workflow are included
+     * @return the workflow, or null if it is not in the cold tier
+     */
+    Workflow getWorkflow(String workflowId, boolean includeTasks);
+
+    /**
+     * @param workflowId the id of the workflow to be removed
+     * @return true if the workflow was removed
+     */
+    boolean removeWorkflow(String workflowId);
+}
@@ -19,7 +19,9 @@ import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author Viren
@@ -129,6 +131,19 @@ public interface ExecutionDAO {
 	 */
 	String updateWorkflow(Workflow workflow);
 
+	/**
+	 * Updates the given tasks of a workflow and the workflow at once, for optimistic concurrency control: nothing is
+	 * written if the {@link Workflow#getRevision() revision} in the data store of the workflow or of any of the tasks
+	 * differs from the one given. The revisions of the workflow and of the tasks are incremented when written.
+	 *
+	 * @param workflow Workflow to be updated, without its tasks being written
+	 * @param tasks Tasks of the workflow to be updated
+	 * @throws ConcurrentUpdateException if the workflow or one of the tasks was updated since it was read
+	 */
+	default void compareAndSetWorkflow(Workflow workflow, List<Task> tasks) {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support optimistic concurrency control");
+	}
+
 	/**
 	 *
 	 * @param workflowId workflow instance id
@@ -197,6 +212,19 @@ public interface ExecutionDAO {
 	 */
 	List<Workflow> getWorkflowsByType(String workflowName, Long startTime, Long endTime);
 
+	/**
+	 * Same as {@link #getWorkflowsByType(String, Long, Long)}, reading the workflows as the stream is consumed
+	 * instead of all at once. The workflows may not include their tasks.
+	 *
+	 * @param workflowName Name of the workflow
+	 * @param startTime epoch time
+	 * @param endTime epoch time
+	 * @return Stream of workflows between start and end time
+	 */
+	default Stream<Workflow> streamWorkflowsByType(String workflowName, Long startTime, Long endTime) {
+		return getWorkflowsByType(workflowName, startTime, endTime).stream();
+	}
+
 	/**
 	 * 
 	 * @param correlationId Correlation Id
@@ -85,4 +85,14 @@ public interface MetadataDAO {
      * @return List of all the workflow definitions
      */
     List<WorkflowDef> getAllWorkflowDefs();
+
+    /**
+     * Implementations that keep a version of the definitions change it whenever a task or workflow definition is
+     * created, updated or removed, so that nodes caching definitions can tell when to reload them.
+     *
+     * @return the current version of the definitions, or -1 if the store does not keep one
+     */
+    default long getDefinitionsVersion() {
+        return -1;
+    }
 }
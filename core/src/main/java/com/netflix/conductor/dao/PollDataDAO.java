@@ -32,6 +32,16 @@ public interface PollDataDAO {
      */
     void updateLastPollData(String taskDefName, String domain, String workerId);
 
+    /**
+     * Updates the {@link PollData} information of several task queues at once, keeping the given poll times.
+     * The default implementation updates them one by one, as polled now.
+     *
+     * @param pollData the most recently polled data, at most one per task queue and domain
+     */
+    default void updateLastPollData(List<PollData> pollData) {
+        pollData.forEach(data -> updateLastPollData(data.getQueueName(), data.getDomain(), data.getWorkerId()));
+    }
+
     /**
      * Retrieve the {@link PollData} for the given task in the given domain.
      *
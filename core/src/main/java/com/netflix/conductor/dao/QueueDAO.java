@@ -16,6 +16,7 @@
 package com.netflix.conductor.dao;
 
 import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.events.queue.QueueLag;
 
 import java.util.List;
 import java.util.Map;
@@ -188,4 +189,15 @@ public interface QueueDAO {
 		push(queueName, messageId, priority, postponeDurationInSeconds);
 		return true;
 	}
+
+	/**
+	 * Reports how far behind the queue is. Implementations should answer from an index or counters, as this is
+	 * sampled periodically for every task queue.
+	 * By default, only the size of the queue is reported.
+	 * @param queueName name of the queue
+	 * @return the lag of the queue
+	 */
+	default QueueLag getQueueLag(String queueName) {
+		return new QueueLag(getSize(queueName), 0, 0, 0, 0);
+	}
 }
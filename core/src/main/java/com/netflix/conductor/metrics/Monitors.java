@@ -174,10 +174,23 @@ public class Monitors {
 		getCounter(classQualifier, "task_poll_count", "taskType", taskType, "domain", domain).increment(count);
 	}
 
+	public static void recordTaskPollPrefetchReturned(String queueName, int count) {
+		getCounter(classQualifier, "task_poll_prefetch_returned", "queueName", queueName).increment(count);
+	}
+
 	public static void recordQueueDepth(String taskType, long size, String ownerApp) {
 		gauge(classQualifier, "task_queue_depth", size, "taskType", taskType, "ownerApp", ""+ownerApp);
 	}
 
+	public static void recordQueueOldestMessageAge(String taskType, long ageMs, String ownerApp) {
+		gauge(classQualifier, "task_queue_oldest_message_age", ageMs, "taskType", taskType, "ownerApp", ""+ownerApp);
+	}
+
+	public static void recordQueueThroughput(String taskType, long pushes, long pops, String ownerApp) {
+		gauge(classQualifier, "task_queue_pushes", pushes, "taskType", taskType, "ownerApp", ""+ownerApp);
+		gauge(classQualifier, "task_queue_pops", pops, "taskType", taskType, "ownerApp", ""+ownerApp);
+	}
+
 	public static void recordTaskInProgress(String taskType, long size, String ownerApp) {
 		gauge(classQualifier, "task_in_progress", size, "taskType", taskType, "ownerApp", ""+ownerApp);
 	}
@@ -306,7 +319,51 @@ public class Monitors {
 		counter(classQualifier, "acquire_lock_failure", "exceptionType", exceptionClassName);
 	}
 
+	public static void recordWorkflowCompareAndSet(String workflowType, boolean applied) {
+		counter(classQualifier, "workflow_compare_and_set", "workflowName", workflowType, "applied", "" + applied);
+	}
+
+	public static void recordWorkflowDecideRetry(String workflowType) {
+		counter(classQualifier, "workflow_decide_retry", "workflowName", workflowType);
+	}
+
+	public static void recordWorkflowDecideRetriesExhausted(String workflowType) {
+		counter(classQualifier, "workflow_decide_retries_exhausted", "workflowName", workflowType);
+	}
+
+	public static void recordAcquireLockTime(String lockType, long durationMs, boolean acquired) {
+		getTimer(classQualifier, "acquire_lock", "lockType", lockType, "acquired", "" + acquired).record(durationMs, TimeUnit.MILLISECONDS);
+	}
+
+	public static void recordAcquireLockContended(String lockType) {
+		counter(classQualifier, "acquire_lock_contended", "lockType", lockType);
+	}
+
+	public static void recordLockLeaseExpired(String lockType) {
+		counter(classQualifier, "lock_lease_expired", "lockType", lockType);
+	}
+
 	public static void recordSystemTaskWorkerPollingLimited(String queueName) {
 		counter(classQualifier, "system_task_worker_polling_limited", "queueName", queueName);
 	}
+
+	public static void recordSystemTaskWorkerTenantWait(String tenant, long waitMs) {
+		getTimer(classQualifier, "system_task_worker_tenant_wait", "tenant", tenant).record(waitMs, TimeUnit.MILLISECONDS);
+	}
+
+	public static void recordSystemTaskWorkerTenantCompleted(String tenant) {
+		counter(classQualifier, "system_task_worker_tenant_completed", "tenant", tenant);
+	}
+
+	public static void recordWorkflowsMovedToColdStore(int count) {
+		getCounter(classQualifier, "workflow_moved_to_cold_store").increment(count);
+	}
+
+	public static void recordActiveDomainCacheLookup(String taskType, boolean hit) {
+		counter(classQualifier, "active_domain_cache_lookup", "taskType", taskType, "result", hit ? "hit" : "miss");
+	}
+
+	public static void recordWorkflowDefCacheLookup(String workflowName, boolean hit) {
+		counter(classQualifier, "workflow_def_cache_lookup", "workflowName", workflowName, "result", hit ? "hit" : "miss");
+	}
 }
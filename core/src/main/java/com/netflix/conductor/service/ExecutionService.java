@@ -33,8 +33,10 @@ import com.netflix.conductor.common.utils.ExternalPayloadStorage.Operation;
 import com.netflix.conductor.common.utils.ExternalPayloadStorage.PayloadType;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.events.queue.QueueLag;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.SystemTaskType;
+import com.netflix.conductor.core.execution.TaskQueuePrefetcher;
 import com.netflix.conductor.core.execution.WorkflowExecutor;
 import com.netflix.conductor.core.orchestration.ExecutionDAOFacade;
 import com.netflix.conductor.core.utils.QueueUtils;
@@ -73,6 +75,7 @@ public class ExecutionService {
     private final ExecutionDAOFacade executionDAOFacade;
     private final MetadataDAO metadataDAO;
     private final QueueDAO queueDAO;
+	private final TaskQueuePrefetcher taskQueuePrefetcher;
 	private final ExternalPayloadStorage externalPayloadStorage;
 
     private final int taskRequeueTimeout;
@@ -88,12 +91,14 @@ public class ExecutionService {
 				ExecutionDAOFacade executionDAOFacade,
 				MetadataDAO metadataDAO,
 				QueueDAO queueDAO,
+				TaskQueuePrefetcher taskQueuePrefetcher,
 				Configuration config,
 				ExternalPayloadStorage externalPayloadStorage) {
 		this.workflowExecutor = workflowExecutor;
 		this.executionDAOFacade = executionDAOFacade;
 		this.metadataDAO = metadataDAO;
 		this.queueDAO = queueDAO;
+		this.taskQueuePrefetcher = taskQueuePrefetcher;
 		this.externalPayloadStorage = externalPayloadStorage;
 
 		this.taskRequeueTimeout = config.getIntProperty("task.requeue.timeout", 60_000);
@@ -126,7 +131,7 @@ public class ExecutionService {
 		List<String> taskIds = new LinkedList<>();
 		List<Task> tasks = new LinkedList<>();
 		try {
-			taskIds = queueDAO.pop(queueName, count, timeoutInMilliSecond);
+			taskIds = taskQueuePrefetcher.pop(queueName, count, timeoutInMilliSecond);
 		} catch (Exception e) {
 			logger.error("Error polling for task: {} from worker: {} in domain: {}, count: {}", taskType, workerId,
 				domain, count, e);
@@ -254,6 +259,14 @@ public class ExecutionService {
 		return sizes;
 	}
 
+	public Map<String, QueueLag> getTaskQueueLags(List<String> taskDefNames) {
+		Map<String, QueueLag> lags = new HashMap<>();
+		for (String taskDefName : taskDefNames) {
+			lags.put(taskDefName, queueDAO.getQueueLag(taskDefName));
+		}
+		return lags;
+	}
+
 	public void removeTaskfromQueue(String taskId) {
 		Task task = executionDAOFacade.getTaskById(taskId);
 		if (task == null) {
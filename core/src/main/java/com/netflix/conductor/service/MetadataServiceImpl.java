@@ -28,6 +28,7 @@ import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.events.EventQueues;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.metadata.WorkflowDefCache;
 import com.netflix.conductor.dao.EventHandlerDAO;
 import com.netflix.conductor.dao.MetadataDAO;
 import com.netflix.conductor.validations.ValidationContext;
@@ -44,13 +45,15 @@ public class MetadataServiceImpl implements MetadataService {
     private final MetadataDAO metadataDAO;
     private final EventHandlerDAO eventHandlerDAO;
     private final EventQueues eventQueues;
+    private final WorkflowDefCache workflowDefCache;
 
     @Inject
     public MetadataServiceImpl(MetadataDAO metadataDAO, EventHandlerDAO eventHandlerDAO, EventQueues eventQueues,
-                               Configuration configuration) {
+                               WorkflowDefCache workflowDefCache, Configuration configuration) {
         this.metadataDAO = metadataDAO;
         this.eventHandlerDAO = eventHandlerDAO;
         this.eventQueues = eventQueues;
+        this.workflowDefCache = workflowDefCache;
 
         ValidationContext.initialize(metadataDAO);
         OwnerEmailMandatoryConstraint.WorkflowTaskValidValidator.setOwnerEmailMandatory(configuration.isOwnerEmailMandatory());
@@ -69,6 +72,7 @@ public class MetadataServiceImpl implements MetadataService {
 
             metadataDAO.createTaskDef(taskDefinition);
         }
+        workflowDefCache.invalidate();
     }
 
     /*
@@ -83,6 +87,7 @@ public class MetadataServiceImpl implements MetadataService {
         taskDefinition.setUpdatedBy(WorkflowContext.get().getClientApp());
         taskDefinition.setUpdateTime(System.currentTimeMillis());
         metadataDAO.updateTaskDef(taskDefinition);
+        workflowDefCache.invalidate();
     }
 
     /**
@@ -91,6 +96,7 @@ public class MetadataServiceImpl implements MetadataService {
     @Service
     public void unregisterTaskDef(String taskType) {
         metadataDAO.removeTaskDef(taskType);
+        workflowDefCache.invalidate();
     }
 
     /**
@@ -121,6 +127,7 @@ public class MetadataServiceImpl implements MetadataService {
     public void updateWorkflowDef(WorkflowDef workflowDef) {
         workflowDef.setUpdateTime(System.currentTimeMillis());
         metadataDAO.updateWorkflowDef(workflowDef);
+        workflowDefCache.invalidate();
     }
 
     /**
@@ -132,6 +139,7 @@ public class MetadataServiceImpl implements MetadataService {
             workflowDef.setUpdateTime(System.currentTimeMillis());
             metadataDAO.updateWorkflowDef(workflowDef);
         }
+        workflowDefCache.invalidate();
     }
 
     /**
@@ -176,6 +184,7 @@ public class MetadataServiceImpl implements MetadataService {
         }
         workflowDef.setCreateTime(System.currentTimeMillis());
         metadataDAO.createWorkflowDef(workflowDef);
+        workflowDefCache.invalidate();
     }
 
     /**
@@ -185,6 +194,7 @@ public class MetadataServiceImpl implements MetadataService {
     @Service
     public void unregisterWorkflowDef(String name, Integer version) {
         metadataDAO.removeWorkflowDef(name, version);
+        workflowDefCache.invalidate();
     }
 
     /**
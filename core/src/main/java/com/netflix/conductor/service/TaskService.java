@@ -22,6 +22,7 @@ import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.run.ExternalStorageLocation;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.TaskSummary;
+import com.netflix.conductor.core.events.queue.QueueLag;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
@@ -145,6 +146,14 @@ public interface TaskService {
      */
     Map<String, Integer> getTaskQueueSizes(List<String> taskTypes);
 
+    /**
+     * Get Task type queue lags.
+     *
+     * @param taskTypes List of task types.
+     * @return map of task type as Key and queue lag as value.
+     */
+    Map<String, QueueLag> getTaskQueueLags(List<String> taskTypes);
+
     /**
      * Get the details about each queue.
      *
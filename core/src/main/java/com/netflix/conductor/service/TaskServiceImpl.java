@@ -27,6 +27,7 @@ import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.TaskSummary;
 import com.netflix.conductor.common.utils.ExternalPayloadStorage;
 import com.netflix.conductor.common.utils.RetryUtil;
+import com.netflix.conductor.core.events.queue.QueueLag;
 import com.netflix.conductor.dao.QueueDAO;
 import com.netflix.conductor.metrics.Monitors;
 import org.apache.commons.lang3.StringUtils;
@@ -266,6 +267,17 @@ public class TaskServiceImpl implements TaskService {
         return executionService.getTaskQueueSizes(taskTypes);
     }
 
+    /**
+     * Get Task type queue lags.
+     *
+     * @param taskTypes List of task types.
+     * @return map of task type as Key and queue lag as value.
+     */
+    @Service
+    public Map<String, QueueLag> getTaskQueueLags(List<String> taskTypes) {
+        return executionService.getTaskQueueLags(taskTypes);
+    }
+
     /**
      * Get the details about each queue.
      *
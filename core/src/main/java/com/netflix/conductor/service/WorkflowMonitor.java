@@ -18,6 +18,7 @@ package com.netflix.conductor.service;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.events.queue.QueueLag;
 import com.netflix.conductor.core.execution.tasks.WorkflowSystemTask;
 import com.netflix.conductor.core.orchestration.ExecutionDAOFacade;
 import com.netflix.conductor.dao.MetadataDAO;
@@ -82,9 +83,8 @@ public class WorkflowMonitor {
 				});
 
 				taskDefs.forEach(taskDef -> {
-					long size = queueDAO.getSize(taskDef.getName());
 					long inProgressCount = executionDAOFacade.getInProgressTaskCount(taskDef.getName());
-					Monitors.recordQueueDepth(taskDef.getName(), size, taskDef.getOwnerApp());
+					recordQueueLag(taskDef.getName(), taskDef.getOwnerApp());
 					if(taskDef.concurrencyLimit() > 0) {
 						Monitors.recordTaskInProgress(taskDef.getName(), inProgressCount, taskDef.getOwnerApp());
 					}
@@ -94,9 +94,8 @@ public class WorkflowMonitor {
 						.stream()
 						.filter(WorkflowSystemTask::isAsync)
 						.forEach(workflowSystemTask -> {
-							long size = queueDAO.getSize(workflowSystemTask.getName());
 							long inProgressCount = executionDAOFacade.getInProgressTaskCount(workflowSystemTask.getName());
-							Monitors.recordQueueDepth(workflowSystemTask.getName(), size, "system");
+							recordQueueLag(workflowSystemTask.getName(), "system");
 							Monitors.recordTaskInProgress(workflowSystemTask.getName(), inProgressCount, "system");
 						});
 
@@ -106,4 +105,13 @@ public class WorkflowMonitor {
 			}
 		}, 120, statsFrequencyInSeconds, TimeUnit.SECONDS);
 	}
+
+	private void recordQueueLag(String queueName, String ownerApp) {
+		QueueLag lag = queueDAO.getQueueLag(queueName);
+		Monitors.recordQueueDepth(queueName, lag.getSize(), ownerApp);
+		Monitors.recordQueueOldestMessageAge(queueName, lag.getOldestMessageAgeMs(), ownerApp);
+		if (lag.getIntervalMs() > 0) {
+			Monitors.recordQueueThroughput(queueName, lag.getPushes(), lag.getPops(), ownerApp);
+		}
+	}
 }
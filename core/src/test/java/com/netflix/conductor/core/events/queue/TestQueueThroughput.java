@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.events.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestQueueThroughput {
+
+    @Test
+    public void testCountsOfLastInterval() {
+        AtomicLong now = new AtomicLong(1_000);
+        QueueThroughput throughput = new QueueThroughput(20, now::get);
+        throughput.recordPush("queue", 3);
+        throughput.recordPop("queue", 2);
+        throughput.recordPush("other", 5);
+
+        QueueLag lag = throughput.lag("queue", 1, 0);
+        assertEquals(0, lag.getPushes());
+        assertEquals(20, lag.getIntervalMs());
+
+        now.addAndGet(20);
+        lag = throughput.lag("queue", 1, 0);
+        assertEquals(3, lag.getPushes());
+        assertEquals(2, lag.getPops());
+
+        // nothing happened during the next interval
+        now.addAndGet(20);
+        lag = throughput.lag("queue", 1, 0);
+        assertEquals(0, lag.getPushes());
+        assertEquals(0, lag.getPops());
+    }
+
+    @Test
+    public void testLateReadIsScaledToOneInterval() {
+        AtomicLong now = new AtomicLong(1_000);
+        QueueThroughput throughput = new QueueThroughput(20, now::get);
+        throughput.recordPush("queue", 8);
+
+        now.addAndGet(40);
+        assertEquals(4, throughput.lag("queue", 1, 0).getPushes());
+    }
+
+    @Test
+    public void testOldestMessageAge() {
+        long oldest = System.currentTimeMillis() - 5_000;
+        QueueLag lag = new QueueThroughput().lag("queue", 10, oldest);
+        assertEquals(10, lag.getSize());
+        assertEquals(oldest, lag.getOldestDeliverableTime());
+        assertTrue(lag.getOldestMessageAgeMs() >= 5_000);
+        assertEquals(0, new QueueThroughput().lag("queue", 0, 0).getOldestMessageAgeMs());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution;
+
+import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.dao.QueueDAO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestTaskQueuePrefetcher {
+
+    private QueueDAO queueDAO;
+    private Configuration config;
+
+    @Before
+    public void setUp() {
+        queueDAO = mock(QueueDAO.class);
+        config = mock(Configuration.class);
+        when(config.getTaskPollPrefetchMaxSize()).thenReturn(10);
+        when(config.getTaskPollPrefetchStaleMs()).thenReturn(60_000);
+    }
+
+    @Test
+    public void testDisabled() {
+        when(config.isTaskPollPrefetchEnabled()).thenReturn(false);
+        when(queueDAO.pop("queue", 1, 100)).thenReturn(Collections.singletonList("t1"));
+
+        TaskQueuePrefetcher prefetcher = new TaskQueuePrefetcher(queueDAO, config);
+        assertEquals(Collections.singletonList("t1"), prefetcher.pop("queue", 1, 100));
+        verify(queueDAO, times(1)).pop("queue", 1, 100);
+    }
+
+    @Test
+    public void testServesFromBuffer() {
+        when(config.isTaskPollPrefetchEnabled()).thenReturn(true);
+        when(queueDAO.pop(eq("queue"), anyInt(), anyInt())).thenReturn(Arrays.asList("t1", "t2", "t3"));
+
+        TaskQueuePrefetcher prefetcher = new TaskQueuePrefetcher(queueDAO, config);
+        assertEquals(Collections.singletonList("t1"), prefetcher.pop("queue", 1, 100));
+        assertEquals(Arrays.asList("t2", "t3"), prefetcher.pop("queue", 2, 100));
+        verify(queueDAO, times(1)).pop(eq("queue"), anyInt(), anyInt());
+    }
+
+    @Test
+    public void testStaleIdsAreHandedBack() throws Exception {
+        when(config.isTaskPollPrefetchEnabled()).thenReturn(true);
+        when(config.getTaskPollPrefetchStaleMs()).thenReturn(1);
+        when(queueDAO.pop(eq("queue"), anyInt(), anyInt()))
+            .thenReturn(Arrays.asList("t1", "t2"))
+            .thenReturn(Collections.singletonList("t3"));
+
+        TaskQueuePrefetcher prefetcher = new TaskQueuePrefetcher(queueDAO, config);
+        assertEquals(Collections.singletonList("t1"), prefetcher.pop("queue", 1, 100));
+        Thread.sleep(10);
+        assertEquals(Collections.singletonList("t3"), prefetcher.pop("queue", 1, 100));
+        verify(queueDAO, atLeastOnce()).setUnackTimeout("queue", "t2", 0);
+    }
+}
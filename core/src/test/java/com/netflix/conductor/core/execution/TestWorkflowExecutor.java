@@ -28,6 +28,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -63,6 +64,7 @@ import com.netflix.conductor.core.execution.tasks.Terminate;
 import com.netflix.conductor.core.execution.tasks.Wait;
 import com.netflix.conductor.core.execution.tasks.WorkflowSystemTask;
 import com.netflix.conductor.core.metadata.MetadataMapperService;
+import com.netflix.conductor.core.metadata.WorkflowDefCache;
 import com.netflix.conductor.core.orchestration.ExecutionDAOFacade;
 import com.netflix.conductor.core.utils.ExternalPayloadStorageUtils;
 import com.netflix.conductor.core.utils.IDGenerator;
@@ -98,6 +100,8 @@ public class TestWorkflowExecutor {
     private QueueDAO queueDAO;
     private WorkflowStatusListener workflowStatusListener;
     private ExecutionLockService executionLockService;
+    private DeciderService deciderService;
+    private MetadataMapperService metadataMapperService;
 
     @Before
     public void init() {
@@ -124,11 +128,56 @@ public class TestWorkflowExecutor {
         taskMappers.put("HTTP", new HTTPTaskMapper(parametersUtils, metadataDAO));
         taskMappers.put("LAMBDA", new LambdaTaskMapper(parametersUtils));
 
-        DeciderService deciderService = new DeciderService(parametersUtils, metadataDAO, externalPayloadStorageUtils, taskMappers, config);
-        MetadataMapperService metadataMapperService = new MetadataMapperService(metadataDAO);
+        deciderService = new DeciderService(parametersUtils, metadataDAO, externalPayloadStorageUtils, taskMappers, config);
+        metadataMapperService = new MetadataMapperService(metadataDAO, new WorkflowDefCache(metadataDAO, objectMapper, config));
         workflowExecutor = new WorkflowExecutor(deciderService, metadataDAO, queueDAO, metadataMapperService, workflowStatusListener, executionDAOFacade, config, executionLockService);
     }
 
+    @Test
+    public void testOptimisticDecideRetriesOnConcurrentUpdate() {
+        TestConfiguration config = new TestConfiguration() {
+            @Override
+            public boolean isOptimisticConcurrencyEnabled() {
+                return true;
+            }
+
+            @Override
+            public int getOptimisticConcurrencyMaxRetries() {
+                return 2;
+            }
+        };
+        WorkflowExecutor optimisticExecutor = new WorkflowExecutor(deciderService, metadataDAO, queueDAO,
+                metadataMapperService, workflowStatusListener, executionDAOFacade, config, executionLockService);
+
+        WorkflowTask workflowTask = new WorkflowTask();
+        workflowTask.setName("simple_task");
+        workflowTask.setTaskReferenceName("simple");
+        workflowTask.setType(TaskType.SIMPLE.name());
+        workflowTask.setTaskDefinition(new TaskDef("simple_task"));
+        WorkflowDef def = new WorkflowDef();
+        def.setName("optimistic");
+        def.setVersion(1);
+        def.setSchemaVersion(2);
+        def.getTasks().add(workflowTask);
+
+        // every decide reads the workflow again
+        when(executionDAOFacade.getWorkflowById(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            Workflow workflow = new Workflow();
+            workflow.setWorkflowId("optimistic_workflow");
+            workflow.setWorkflowDefinition(def);
+            workflow.setStatus(WorkflowStatus.RUNNING);
+            return workflow;
+        });
+        doThrow(new ConcurrentUpdateException(executionDAOFacade.getWorkflowById("optimistic_workflow", true)))
+                .when(executionDAOFacade).compareAndSetWorkflow(any(), any());
+
+        assertFalse(optimisticExecutor.decide("optimistic_workflow"));
+        verify(executionDAOFacade, times(3)).compareAndSetWorkflow(any(), any());
+        verify(executionDAOFacade, never()).updateWorkflow(any());
+        verify(executionDAOFacade, never()).createTasks(any());
+        verify(executionLockService, never()).acquireLock(anyString());
+    }
+
     @Test
     public void testScheduleTask() {
 
@@ -841,6 +890,37 @@ public class TestWorkflowExecutor {
         assertEquals("test-domain", activeDomain);
     }
 
+    @Test
+    public void testActiveDomainCache() {
+        TestConfiguration config = new TestConfiguration() {
+            @Override
+            public boolean isActiveDomainCacheEnabled() {
+                return true;
+            }
+
+            @Override
+            public int getActiveDomainCacheTtlMs() {
+                return 60_000;
+            }
+        };
+        WorkflowExecutor cachingExecutor = new WorkflowExecutor(mock(DeciderService.class), metadataDAO, queueDAO,
+            mock(MetadataMapperService.class), workflowStatusListener, executionDAOFacade, config, executionLockService);
+        String taskType = "test-task";
+        String[] domains = new String[]{"domain1", "domain2"};
+
+        PollData pollData = new PollData("queue1", domains[0], "worker1", System.currentTimeMillis());
+        when(executionDAOFacade.getTaskPollDataByDomain(taskType, domains[0])).thenReturn(pollData);
+        assertEquals(domains[0], cachingExecutor.getActiveDomain(taskType, domains));
+        assertEquals(domains[0], cachingExecutor.getActiveDomain(taskType, domains));
+        verify(executionDAOFacade, times(1)).getTaskPollDataByDomain(taskType, domains[0]);
+
+        // the fallback to the last domain is cached as well, under its own domain list
+        when(executionDAOFacade.getTaskPollDataByDomain(taskType, "domain3")).thenReturn(null);
+        assertNull(cachingExecutor.getActiveDomain(taskType, new String[]{"domain3", "NO_DOMAIN"}));
+        assertNull(cachingExecutor.getActiveDomain(taskType, new String[]{"domain3", "NO_DOMAIN"}));
+        verify(executionDAOFacade, times(1)).getTaskPollDataByDomain(taskType, "domain3");
+    }
+
     @Test
     public void testInactiveDomains() {
         String taskType = "test-task";
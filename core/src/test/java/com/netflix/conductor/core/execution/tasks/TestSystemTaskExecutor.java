@@ -210,6 +210,28 @@ public class TestSystemTaskExecutor {
         }
     }
 
+    @Test
+    public void testRejectedTasksReleaseSlots() {
+        try {
+            System.setProperty("workflow.system.task.worker.thread.count", "2");
+            System.setProperty("workflow.system.task.queue.pollCount", "2");
+            System.setProperty("workflow.system.task.worker.fair.polling.enabled", "true");
+            Configuration configuration = new SystemPropertiesConfiguration();
+            when(queueDAO.pop(anyString(), anyInt(), anyInt())).thenReturn(Collections.nCopies(2, "taskId"));
+            systemTaskExecutor = new SystemTaskExecutor(queueDAO, workflowExecutor, configuration);
+            // tasks handed to a shut down executor are rejected
+            systemTaskExecutor.defaultExecutionConfig.getExecutorService().shutdown();
+
+            systemTaskExecutor.pollAndExecute(TEST_TASK);
+
+            assertEquals(2, systemTaskExecutor.defaultExecutionConfig.getSemaphoreUtil().availableSlots());
+            assertEquals(0, systemTaskExecutor.fairPollScheduler.inFlight(TEST_TASK));
+        } finally {
+            System.setProperty("workflow.system.task.queue.pollCount", "1");
+            System.setProperty("workflow.system.task.worker.fair.polling.enabled", "false");
+        }
+    }
+
     @Test
     public void testMultipleQueuesExecution() {
         System.setProperty("workflow.system.task.worker.thread.count", "1");
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.execution.tasks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TestWeightedFairPollScheduler {
+
+    @Test
+    public void testGetTenant() {
+        assertEquals("domainA", WeightedFairPollScheduler.getTenant("domainA:HTTP"));
+        assertEquals("domainA", WeightedFairPollScheduler.getTenant("domainA:HTTP-isolated"));
+        assertEquals(WeightedFairPollScheduler.DEFAULT_TENANT, WeightedFairPollScheduler.getTenant("HTTP"));
+    }
+
+    @Test
+    public void testWaterFill() {
+        double[] shares = WeightedFairPollScheduler.waterFill(10, new double[]{2, 100, 100}, new double[]{1, 1, 2});
+        assertArrayEquals(new double[]{2, 8.0 / 3, 16.0 / 3}, shares, 0.0001);
+
+        shares = WeightedFairPollScheduler.waterFill(10, new double[]{1, 2}, new double[]{1, 1});
+        assertArrayEquals(new double[]{1, 2}, shares, 0.0001);
+    }
+
+    @Test
+    public void testWeightedShares() throws Exception {
+        WeightedFairPollScheduler scheduler = new WeightedFairPollScheduler(10, 10, "a:3, b:1");
+        scheduler.polled("a:HTTP", 1, 1);
+        scheduler.polled("b:HTTP", 1, 1);
+        Thread.sleep(WeightedFairPollScheduler.RECOMPUTE_INTERVAL_MS + 10);
+
+        // 7.5 and 2.5 slots, less the one each already runs
+        assertEquals(7, scheduler.allowance("a:HTTP"));
+        assertEquals(2, scheduler.allowance("b:HTTP"));
+    }
+
+    @Test
+    public void testNoisyTenantDoesNotStarveOthers() throws Exception {
+        WeightedFairPollScheduler scheduler = new WeightedFairPollScheduler(10, 2, "");
+        scheduler.polled("noisy:HTTP", 8, 8);
+        scheduler.polled("quiet:HTTP", 2, 1);
+        Thread.sleep(WeightedFairPollScheduler.RECOMPUTE_INTERVAL_MS + 10);
+
+        // the quiet tenant keeps room for its next poll, the noisy one is held at the rest of the pool
+        assertEquals(2, scheduler.allowance("quiet:HTTP"));
+        assertEquals(0, scheduler.allowance("noisy:HTTP"));
+
+        for (int i = 0; i < 4; i++) {
+            scheduler.completed("noisy:HTTP");
+        }
+        assertEquals(3, scheduler.allowance("noisy:HTTP"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.netflix.conductor.core.metadata;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
@@ -11,9 +12,12 @@ import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
 import com.netflix.conductor.common.metadata.workflow.TaskType;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.config.ValidationModule;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.TerminateWorkflowException;
+import com.netflix.conductor.core.execution.TestConfiguration;
 import com.netflix.conductor.dao.MetadataDAO;
 import com.netflix.conductor.interceptors.ServiceInterceptor;
 import org.junit.Assert;
@@ -57,6 +61,8 @@ public class MetadataMapperServiceTest {
                             @Override
                             protected void configure() {
                                 bind(MetadataDAO.class).toInstance(metadataDAO);
+                                bind(Configuration.class).to(TestConfiguration.class);
+                                bind(ObjectMapper.class).toProvider(JsonMapperProvider.class);
                                 install(new ValidationModule());
                                 bindInterceptor(Matchers.any(), Matchers.annotatedWith(Service.class), new ServiceInterceptor(getProvider(Validator.class)));
                             }
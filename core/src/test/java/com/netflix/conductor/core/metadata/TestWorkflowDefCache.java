@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.core.execution.TestConfiguration;
+import com.netflix.conductor.dao.MetadataDAO;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestWorkflowDefCache {
+
+    private final ObjectMapper objectMapper = new JsonMapperProvider().get();
+    private final TestConfiguration config = new TestConfiguration() {
+        @Override
+        public boolean isWorkflowDefCacheEnabled() {
+            return true;
+        }
+
+        @Override
+        public int getWorkflowDefCacheRefreshMs() {
+            return 50;
+        }
+    };
+
+    private MetadataDAO metadataDAO;
+
+    @Before
+    public void setUp() {
+        metadataDAO = mock(MetadataDAO.class);
+        when(metadataDAO.getDefinitionsVersion()).thenReturn(0L);
+        when(metadataDAO.getLatestWorkflowDef("cached_workflow")).thenReturn(Optional.of(workflowDef()));
+        when(metadataDAO.getTaskDef("cached_task")).thenReturn(new TaskDef("cached_task"));
+    }
+
+    @Test
+    public void testDefinitionsAreReadOnce() {
+        MetadataMapperService metadataMapperService =
+            new MetadataMapperService(metadataDAO, new WorkflowDefCache(metadataDAO, objectMapper, config));
+
+        WorkflowDef first = metadataMapperService.lookupForWorkflowDefinition("cached_workflow", null);
+        WorkflowDef second = metadataMapperService.lookupForWorkflowDefinition("cached_workflow", null);
+        WorkflowDef byVersion = metadataMapperService.lookupForWorkflowDefinition("cached_workflow", 2);
+
+        assertNotSame(first, second);
+        assertEquals("cached_task", second.getTasks().get(0).getTaskDefinition().getName());
+        assertEquals(2, byVersion.getVersion());
+        metadataMapperService.populateTaskDefinitions(second);
+
+        verify(metadataDAO, times(1)).getLatestWorkflowDef("cached_workflow");
+        verify(metadataDAO, times(0)).getWorkflowDef("cached_workflow", 2);
+        verify(metadataDAO, times(1)).getTaskDef("cached_task");
+    }
+
+    @Test
+    public void testCopiesAreIndependent() {
+        WorkflowDefCache cache = new WorkflowDefCache(metadataDAO, objectMapper, config);
+        cache.put(workflowDef(), true, cache.getGeneration());
+
+        WorkflowDef copy = cache.get("cached_workflow", null).get();
+        copy.getTasks().get(0).setTaskDefinition(new TaskDef("changed"));
+        copy.setDescription("changed");
+
+        WorkflowDef cached = cache.get("cached_workflow", 2).get();
+        assertEquals(null, cached.getTasks().get(0).getTaskDefinition());
+        assertEquals(null, cached.getDescription());
+    }
+
+    @Test
+    public void testDefinitionsChangeInvalidatesCache() throws Exception {
+        WorkflowDefCache cache = new WorkflowDefCache(metadataDAO, objectMapper, config);
+        cache.put(workflowDef(), true, cache.getGeneration());
+        assertTrue(cache.get("cached_workflow", null).isPresent());
+
+        when(metadataDAO.getDefinitionsVersion()).thenReturn(1L);
+        Thread.sleep(300);
+        assertFalse(cache.get("cached_workflow", null).isPresent());
+        assertFalse(cache.get("cached_workflow", 2).isPresent());
+    }
+
+    @Test
+    public void testPutReadBeforeInvalidateIsSkipped() {
+        WorkflowDefCache cache = new WorkflowDefCache(metadataDAO, objectMapper, config);
+        long generation = cache.getGeneration();
+        cache.invalidate();
+        cache.put(workflowDef(), true, generation);
+        assertFalse(cache.get("cached_workflow", null).isPresent());
+
+        cache.put(workflowDef(), true, cache.getGeneration());
+        assertTrue(cache.get("cached_workflow", null).isPresent());
+    }
+
+    @Test
+    public void testDisabledWithoutDefinitionsVersion() {
+        when(metadataDAO.getDefinitionsVersion()).thenReturn(-1L);
+        WorkflowDefCache cache = new WorkflowDefCache(metadataDAO, objectMapper, config);
+        cache.put(workflowDef(), true, cache.getGeneration());
+        assertFalse(cache.isEnabled());
+        assertFalse(cache.get("cached_workflow", null).isPresent());
+    }
+
+    private static WorkflowDef workflowDef() {
+        WorkflowTask workflowTask = new WorkflowTask();
+        workflowTask.setName("cached_task");
+        workflowTask.setTaskReferenceName("cached_task_ref");
+        workflowTask.setType("SIMPLE");
+
+        WorkflowDef workflowDef = new WorkflowDef();
+        workflowDef.setName("cached_workflow");
+        workflowDef.setVersion(2);
+        workflowDef.getTasks().add(workflowTask);
+        return workflowDef;
+    }
+}
@@ -16,10 +16,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -34,8 +36,10 @@ import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.common.run.Workflow.WorkflowStatus;
 import com.netflix.conductor.common.utils.JsonMapperProvider;
 import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
 import com.netflix.conductor.core.execution.TestConfiguration;
 import com.netflix.conductor.core.execution.TestDeciderService;
+import com.netflix.conductor.core.tiering.WorkflowTiering;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.IndexDAO;
 import com.netflix.conductor.dao.PollDataDAO;
@@ -57,6 +61,7 @@ public class ExecutionDAOFacadeTest {
     private ExecutionDAOFacade executionDAOFacade;
     private RateLimitingDAO rateLimitingDao;
     private PollDataDAO pollDataDAO;
+    private WorkflowTiering workflowTiering;
 
     @Before
     public void setUp() {
@@ -65,10 +70,11 @@ public class ExecutionDAOFacadeTest {
         indexDAO = mock(IndexDAO.class);
         rateLimitingDao = mock(RateLimitingDAO.class);
         pollDataDAO = mock(PollDataDAO.class);
+        workflowTiering = mock(WorkflowTiering.class);
         objectMapper = new JsonMapperProvider().get();
         Configuration configuration = new TestConfiguration();
         executionDAOFacade = new ExecutionDAOFacade(executionDAO, queueDAO, indexDAO, rateLimitingDao, pollDataDAO,
-            objectMapper, configuration);
+            workflowTiering, objectMapper, configuration);
     }
 
     @Test
@@ -88,6 +94,15 @@ public class ExecutionDAOFacadeTest {
         verify(indexDAO, times(1)).get(any(), any());
     }
 
+    @Test
+    public void testGetWorkflowByIdFromColdStore() {
+        when(executionDAO.getWorkflow(any(), anyBoolean())).thenReturn(null);
+        when(workflowTiering.getWorkflow("workflowId", true)).thenReturn(new Workflow());
+        Workflow workflow = executionDAOFacade.getWorkflowById("workflowId", true);
+        assertNotNull(workflow);
+        verify(indexDAO, never()).get(any(), any());
+    }
+
     @Test
     public void testGetWorkflowsByCorrelationId() {
         when(executionDAO.canSearchAcrossWorkflows()).thenReturn(true);
@@ -116,6 +131,7 @@ public class ExecutionDAOFacadeTest {
         when(executionDAO.getWorkflow(anyString(), anyBoolean())).thenReturn(workflow);
         executionDAOFacade.removeWorkflow("workflowId", false);
         verify(indexDAO, never()).updateWorkflow(any(), any(), any());
+        verify(workflowTiering, times(1)).removeWorkflow("workflowId");
         verify(indexDAO, times(1)).asyncRemoveWorkflow(anyString());
     }
 
@@ -130,6 +146,31 @@ public class ExecutionDAOFacadeTest {
         verify(indexDAO, never()).removeWorkflow(any());
     }
 
+    @Test
+    public void testUpdateWorkflowWithOptimisticConcurrency() {
+        Configuration configuration = new TestConfiguration() {
+            @Override
+            public boolean isOptimisticConcurrencyEnabled() {
+                return true;
+            }
+        };
+        ExecutionDAOFacade optimisticFacade = new ExecutionDAOFacade(executionDAO, queueDAO, indexDAO,
+            rateLimitingDao, pollDataDAO, workflowTiering, objectMapper, configuration);
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId("workflowId");
+        workflow.setStatus(WorkflowStatus.PAUSED);
+        doThrow(new ConcurrentUpdateException(workflow)).when(executionDAO).compareAndSetWorkflow(any(), any());
+
+        try {
+            optimisticFacade.updateWorkflow(workflow);
+            fail("a concurrently updated workflow must not be written");
+        } catch (ConcurrentUpdateException e) {
+            // expected
+        }
+        verify(executionDAO, times(1)).compareAndSetWorkflow(workflow, Collections.emptyList());
+        verify(executionDAO, never()).updateWorkflow(any());
+    }
+
     @Test
     public void testAddEventExecution() {
         when(executionDAO.addEventExecution(any())).thenReturn(false);
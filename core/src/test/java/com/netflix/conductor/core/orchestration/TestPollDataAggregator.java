@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.core.orchestration;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.netflix.conductor.common.metadata.tasks.PollData;
+import com.netflix.conductor.dao.PollDataDAO;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class TestPollDataAggregator {
+
+    private PollDataDAO pollDataDAO;
+    private PollDataAggregator aggregator;
+
+    @Before
+    public void setUp() {
+        pollDataDAO = mock(PollDataDAO.class);
+        aggregator = new PollDataAggregator(pollDataDAO, 3_600_000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPollsAreCoalesced() {
+        for (int i = 0; i < 100; i++) {
+            aggregator.updateLastPollData("task", null, "worker" + i);
+        }
+        aggregator.updateLastPollData("task", "domain", "worker");
+        verify(pollDataDAO, never()).updateLastPollData(anyString(), any(), anyString());
+
+        aggregator.flush();
+        ArgumentCaptor<List<PollData>> batch = ArgumentCaptor.forClass(List.class);
+        verify(pollDataDAO).updateLastPollData(batch.capture());
+        assertEquals(2, batch.getValue().size());
+
+        // nothing polled since, nothing to write
+        aggregator.flush();
+        verify(pollDataDAO, times(1)).updateLastPollData(anyList());
+    }
+
+    @Test
+    public void testReadsMergeBufferedPolls() {
+        PollData stored = new PollData("task", "domain", "storedWorker", 1);
+        when(pollDataDAO.getPollData("task")).thenReturn(Collections.singletonList(stored));
+        when(pollDataDAO.getPollData("task", "domain")).thenReturn(stored);
+        assertEquals("storedWorker", aggregator.getPollData("task", "domain").getWorkerId());
+
+        aggregator.updateLastPollData("task", "domain", "localWorker");
+        aggregator.updateLastPollData("task", null, "defaultWorker");
+        assertEquals("localWorker", aggregator.getPollData("task", "domain").getWorkerId());
+        assertEquals(2, aggregator.getPollData("task").size());
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        aggregator.updateLastPollData("task", null, "worker");
+        doThrow(new RuntimeException("unavailable")).when(pollDataDAO).updateLastPollData(anyList());
+        aggregator.flush();
+        aggregator.flush();
+        verify(pollDataDAO, times(2)).updateLastPollData(anyList());
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.queue.embedded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.netflix.conductor.core.events.queue.Message;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EmbeddedQueueDAOTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File journalDir;
+    private EmbeddedQueueDAO queueDAO;
+
+    @Before
+    public void init() throws Exception {
+        journalDir = folder.newFolder("queues");
+        queueDAO = new EmbeddedQueueDAO(journalDir, SEGMENT_SIZE, 60_000, 0, 0);
+    }
+
+    @After
+    public void cleanup() {
+        queueDAO.close();
+    }
+
+    @Test
+    public void test() {
+        String queueName = "TestQueue";
+
+        for (int i = 0; i < 10; i++) {
+            queueDAO.push(queueName, "msg" + i, 0);
+        }
+        assertEquals(10, queueDAO.getSize(queueName));
+        assertEquals(10L, queueDAO.queuesDetail().get(queueName).longValue());
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(queueDAO.pushIfNotExists(queueName, "msg" + i, 0));
+        }
+
+        List<String> popped = queueDAO.pop(queueName, 10, 100);
+        assertEquals(10, popped.size());
+
+        Map<String, Map<String, Map<String, Long>>> verbose = queueDAO.queuesDetailVerbose();
+        assertEquals(0L, verbose.get(queueName).get("a").get("size").longValue());
+        assertEquals(10L, verbose.get(queueName).get("a").get("uacked").longValue());
+
+        popped.forEach(messageId -> assertTrue(queueDAO.ack(queueName, messageId)));
+        verbose = queueDAO.queuesDetailVerbose();
+        assertEquals(0L, verbose.get(queueName).get("a").get("uacked").longValue());
+        assertEquals(0, queueDAO.pop(queueName, 10, 100).size());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queueDAO.pushIfNotExists(queueName, "msg" + i, 0));
+        }
+        for (int i = 0; i < 10; i++) {
+            queueDAO.remove(queueName, "msg" + i);
+        }
+        assertEquals(0, queueDAO.getSize(queueName));
+
+        for (int i = 0; i < 10; i++) {
+            queueDAO.pushIfNotExists(queueName, "msg" + i, 0);
+        }
+        queueDAO.flush(queueName);
+        assertEquals(0, queueDAO.getSize(queueName));
+    }
+
+    @Test
+    public void testPriorityAndOffset() {
+        String queueName = "PriorityQueue";
+        queueDAO.push(queueName, "low", 1, 0);
+        queueDAO.push(queueName, "high", 90, 0);
+        queueDAO.push(queueName, "delayed", 99, 60);
+
+        assertEquals(Arrays.asList("high", "low"), queueDAO.pop(queueName, 3, 10));
+
+        assertTrue(queueDAO.resetOffsetTime(queueName, "delayed"));
+        assertEquals(Arrays.asList("delayed"), queueDAO.pop(queueName, 1, 10));
+    }
+
+    @Test
+    public void testUnacks() {
+        String queueName = "UnackQueue";
+        queueDAO.push(queueName, "msg", 0);
+        assertEquals(1, queueDAO.pop(queueName, 1, 10).size());
+
+        queueDAO.processUnacks(queueName);
+        assertEquals(0, queueDAO.getSize(queueName));
+
+        assertTrue(queueDAO.setUnackTimeout(queueName, "msg", 0));
+        queueDAO.processUnacks(queueName);
+        assertEquals(1, queueDAO.getSize(queueName));
+        assertEquals(1, queueDAO.pop(queueName, 1, 10).size());
+    }
+
+    @Test
+    public void testPostpone() {
+        String queueName = "PostponeQueue";
+        queueDAO.push(queueName, "msg", 0);
+        assertEquals(1, queueDAO.pop(queueName, 1, 10).size());
+
+        assertTrue(queueDAO.postpone(queueName, "msg", 0, 60));
+        assertEquals(1, queueDAO.getSize(queueName));
+        assertEquals(0, queueDAO.pop(queueName, 1, 10).size());
+    }
+
+    @Test
+    public void testRecovery() throws Exception {
+        String queueName = "DurableQueue";
+        for (int i = 0; i < 200; i++) {
+            queueDAO.push(queueName, "msg" + i, i % 10, 0);
+        }
+        queueDAO.snapshot();
+        queueDAO.pollMessages(queueName, 5, 10).forEach(message -> queueDAO.ack(queueName, message.getId()));
+        queueDAO.pop(queueName, 5, 10);
+        queueDAO.push(queueName, Arrays.asList(new Message("payload", "{\"key\":\"value\"}", null, 5)));
+        queueDAO.remove(queueName, "msg0");
+
+        // simulate a crash: the journal is not closed and no final snapshot is taken
+        EmbeddedQueueDAO recovered = new EmbeddedQueueDAO(journalDir, SEGMENT_SIZE, 60_000, 0, 0);
+        try {
+            assertEquals(queueDAO.getSize(queueName), recovered.getSize(queueName));
+            assertEquals(queueDAO.queuesDetailVerbose(), recovered.queuesDetailVerbose());
+
+            List<Message> messages = recovered.pollMessages(queueName, 200, 10);
+            assertEquals(queueDAO.getSize(queueName), messages.size());
+            assertTrue(messages.contains(new Message("payload", "{\"key\":\"value\"}", null, 5)));
+        } finally {
+            recovered.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.core.tiering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.common.run.Workflow.WorkflowStatus;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.core.execution.TestConfiguration;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.QueueDAO;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestWorkflowTiering {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ExecutionDAO executionDAO;
+    private QueueDAO queueDAO;
+    private FileColdExecutionDAO coldExecutionDAO;
+    private WorkflowTiering workflowTiering;
+
+    @Before
+    public void setUp() {
+        executionDAO = mock(ExecutionDAO.class);
+        queueDAO = mock(QueueDAO.class);
+        TestConfiguration config = new TestConfiguration() {
+            @Override
+            public boolean isWorkflowTieringEnabled() {
+                return true;
+            }
+
+            @Override
+            public int getWorkflowTieringIntervalSeconds() {
+                return 3600;
+            }
+
+            @Override
+            public String getProperty(String name, String defaultValue) {
+                return FileColdExecutionDAO.DIR_PROPERTY_NAME.equals(name)
+                    ? folder.getRoot().getAbsolutePath()
+                    : super.getProperty(name, defaultValue);
+            }
+        };
+        coldExecutionDAO = new FileColdExecutionDAO(new JsonMapperProvider().get(), config);
+        workflowTiering = new WorkflowTiering(executionDAO, coldExecutionDAO, queueDAO, config);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFileColdStoreWithoutDirectory() {
+        TestConfiguration config = new TestConfiguration() {
+            @Override
+            public String getProperty(String name, String defaultValue) {
+                return FileColdExecutionDAO.DIR_PROPERTY_NAME.equals(name)
+                    ? defaultValue
+                    : super.getProperty(name, defaultValue);
+            }
+        };
+        new FileColdExecutionDAO(new JsonMapperProvider().get(), config);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEnabledWithoutColdStore() {
+        TestConfiguration config = new TestConfiguration() {
+            @Override
+            public boolean isWorkflowTieringEnabled() {
+                return true;
+            }
+        };
+        new WorkflowTiering(executionDAO, new ColdExecutionDAOStub(), queueDAO, config);
+    }
+
+    @Test
+    public void testScheduleTerminalWorkflowsOnly() {
+        workflowTiering.schedule(workflow("running", WorkflowStatus.RUNNING));
+        verify(queueDAO, never()).push(anyString(), anyString(), anyLong());
+
+        workflowTiering.schedule(workflow("completed", WorkflowStatus.COMPLETED));
+        verify(queueDAO).push(WorkflowTiering.TIERING_QUEUE, "completed",
+            new TestConfiguration().getWorkflowTieringAgeSeconds());
+    }
+
+    @Test
+    public void testMove() {
+        Workflow completed = workflow("completed", WorkflowStatus.COMPLETED);
+        Task task = new Task();
+        task.setTaskId("task");
+        task.setWorkflowInstanceId("completed");
+        completed.setTasks(Collections.singletonList(task));
+        when(executionDAO.getWorkflow("completed", true)).thenReturn(completed);
+        when(executionDAO.getWorkflow("restarted", true)).thenReturn(workflow("restarted", WorkflowStatus.RUNNING));
+
+        workflowTiering.move(Arrays.asList("completed", "restarted", "removed"));
+
+        verify(executionDAO).removeWorkflow("completed");
+        verify(executionDAO, never()).removeWorkflow("restarted");
+        verify(queueDAO).ack(WorkflowTiering.TIERING_QUEUE, "completed");
+        verify(queueDAO).ack(WorkflowTiering.TIERING_QUEUE, "restarted");
+        verify(queueDAO).ack(WorkflowTiering.TIERING_QUEUE, "removed");
+
+        Workflow cold = workflowTiering.getWorkflow("completed", true);
+        assertNotNull(cold);
+        assertEquals(WorkflowStatus.COMPLETED, cold.getStatus());
+        assertEquals("task", cold.getTasks().get(0).getTaskId());
+        assertTrue(workflowTiering.getWorkflow("completed", false).getTasks().isEmpty());
+        assertNull(workflowTiering.getWorkflow("restarted", true));
+
+        workflowTiering.removeWorkflow("completed");
+        assertNull(workflowTiering.getWorkflow("completed", true));
+    }
+
+    private static Workflow workflow(String workflowId, WorkflowStatus status) {
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(workflowId);
+        workflow.setWorkflowType("tiering_workflow");
+        workflow.setStatus(status);
+        return workflow;
+    }
+}
@@ -16,6 +16,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
@@ -23,6 +25,7 @@ import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -41,6 +44,10 @@ public abstract class ExecutionDAOTest {
 
     abstract protected ExecutionDAO getExecutionDAO();
 
+    protected boolean supportsCompareAndSetWorkflow() {
+        return false;
+    }
+
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
@@ -318,6 +325,61 @@ public abstract class ExecutionDAOTest {
         assertEquals(1, bytime.size());
     }
 
+    @Test
+    public void testCompareAndSetWorkflow() {
+        assumeTrue(supportsCompareAndSetWorkflow());
+
+        Workflow workflow = createTestWorkflow();
+        workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+        getExecutionDAO().createWorkflow(workflow);
+        getExecutionDAO().createTasks(workflow.getTasks());
+
+        Workflow read = getExecutionDAO().getWorkflow(workflow.getWorkflowId(), true);
+        Task task = read.getTasks().get(0);
+        task.setStatus(Task.Status.COMPLETED);
+        read.getOutput().put("decided", 1);
+        getExecutionDAO().compareAndSetWorkflow(read, Collections.singletonList(task));
+        assertEquals(1, read.getRevision());
+        assertEquals(1, task.getRevision());
+
+        Workflow found = getExecutionDAO().getWorkflow(workflow.getWorkflowId(), true);
+        assertEquals(1, found.getRevision());
+        assertEquals(1, found.getOutput().get("decided"));
+        assertEquals(1, getExecutionDAO().getTask(task.getTaskId()).getRevision());
+        assertEquals(Task.Status.COMPLETED, getExecutionDAO().getTask(task.getTaskId()).getStatus());
+
+        // A worker updates a task of the workflow read by the next decide
+        Workflow stale = getExecutionDAO().getWorkflow(workflow.getWorkflowId(), true);
+        Task updatedByWorker = getExecutionDAO().getTask(stale.getTasks().get(1).getTaskId());
+        updatedByWorker.setStatus(Task.Status.IN_PROGRESS);
+        updatedByWorker.setRevision(updatedByWorker.getRevision() + 1);
+        getExecutionDAO().updateTask(updatedByWorker);
+
+        stale.getOutput().put("decided", 2);
+        Task staleTask = stale.getTasks().get(1);
+        staleTask.setStatus(Task.Status.CANCELED);
+        try {
+            getExecutionDAO().compareAndSetWorkflow(stale, Collections.singletonList(staleTask));
+            fail("Expected the update to conflict");
+        } catch (ConcurrentUpdateException e) {
+            assertEquals(workflow.getWorkflowName(), e.getWorkflowName());
+        }
+
+        // nothing was written
+        found = getExecutionDAO().getWorkflow(workflow.getWorkflowId(), true);
+        assertEquals(1, found.getRevision());
+        assertEquals(1, found.getOutput().get("decided"));
+        Task foundTask = getExecutionDAO().getTask(staleTask.getTaskId());
+        assertEquals(1, foundTask.getRevision());
+        assertEquals(Task.Status.IN_PROGRESS, foundTask.getStatus());
+
+        // deciding again on what was written applies
+        found.getOutput().put("decided", 2);
+        getExecutionDAO().compareAndSetWorkflow(found, Collections.singletonList(foundTask));
+        assertEquals(2, getExecutionDAO().getWorkflow(workflow.getWorkflowId(), false).getRevision());
+        assertEquals(2, getExecutionDAO().getTask(foundTask.getTaskId()).getRevision());
+    }
+
     protected Workflow createTestWorkflow() {
         WorkflowDef def = new WorkflowDef();
         def.setName("Junit Workflow");
@@ -18,6 +18,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import com.netflix.conductor.common.metadata.tasks.PollData;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.Test;
 
@@ -49,4 +50,18 @@ public abstract class PollDataDAOTest {
         pollData = getPollDataDAO().getPollData("taskDef", "domain2");
         assertNull(pollData);
     }
+
+    @Test
+    public void testBatchPollData() {
+        getPollDataDAO().updateLastPollData("batchTaskDef", "domain1", "workerId1");
+        getPollDataDAO().updateLastPollData(Arrays.asList(
+            new PollData("batchTaskDef", null, "workerId2", System.currentTimeMillis()),
+            new PollData("batchTaskDef", "domain1", "workerId3", System.currentTimeMillis()),
+            new PollData("otherBatchTaskDef", "domain1", "workerId4", System.currentTimeMillis())));
+
+        assertEquals("workerId2", getPollDataDAO().getPollData("batchTaskDef", null).getWorkerId());
+        assertEquals("workerId3", getPollDataDAO().getPollData("batchTaskDef", "domain1").getWorkerId());
+        assertEquals(2, getPollDataDAO().getPollData("batchTaskDef").size());
+        assertEquals("workerId4", getPollDataDAO().getPollData("otherBatchTaskDef", "domain1").getWorkerId());
+    }
 }
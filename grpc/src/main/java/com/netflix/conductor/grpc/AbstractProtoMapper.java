@@ -566,6 +566,7 @@ public abstract class AbstractProtoMapper {
         if (from.getSubWorkflowId() != null) {
             to.setSubWorkflowId( from.getSubWorkflowId() );
         }
+        to.setRevision( from.getRevision() );
         return to.build();
     }
 
@@ -624,6 +625,7 @@ public abstract class AbstractProtoMapper {
         to.setIsolationGroupId( from.getIsolationGroupId() );
         to.setIteration( from.getIteration() );
         to.setSubWorkflowId( from.getSubWorkflowId() );
+        to.setRevision( from.getRevision() );
         return to;
     }
 
@@ -976,6 +978,7 @@ public abstract class AbstractProtoMapper {
             to.setExternalOutputPayloadStoragePath( from.getExternalOutputPayloadStoragePath() );
         }
         to.setPriority( from.getPriority() );
+        to.setRevision( from.getRevision() );
         return to.build();
     }
 
@@ -1012,6 +1015,7 @@ public abstract class AbstractProtoMapper {
         to.setExternalInputPayloadStoragePath( from.getExternalInputPayloadStoragePath() );
         to.setExternalOutputPayloadStoragePath( from.getExternalOutputPayloadStoragePath() );
         to.setPriority( from.getPriority() );
+        to.setRevision( from.getRevision() );
         return to;
     }
 
@@ -22,6 +22,7 @@ import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.run.ExternalStorageLocation;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.TaskSummary;
+import com.netflix.conductor.core.events.queue.QueueLag;
 import com.netflix.conductor.service.TaskService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -155,6 +156,14 @@ public class TaskResource {
 		return taskService.getTaskQueueSizes(taskTypes);
 	}
 
+	@GET
+	@Path("/queue/lag")
+	@ApiOperation("Get Task type queue lags: age of the oldest deliverable message and pushes / pops per interval")
+	@Consumes({MediaType.WILDCARD})
+	public Map<String, QueueLag> lag(@QueryParam("taskType") List<String> taskTypes) {
+		return taskService.getTaskQueueLags(taskTypes);
+	}
+
 	@GET
 	@Path("/queue/all/verbose")
 	@ApiOperation("Get the details about each queue")
@@ -6,6 +6,7 @@ import com.netflix.conductor.common.metadata.tasks.TaskExecLog;
 import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.run.SearchResult;
 import com.netflix.conductor.common.run.TaskSummary;
+import com.netflix.conductor.core.events.queue.QueueLag;
 import com.netflix.conductor.service.TaskService;
 import org.junit.Before;
 import org.junit.Test;
@@ -149,6 +150,20 @@ public class TaskResourceTest {
         assertEquals(map, taskResource.size(list));
     }
 
+    @Test
+    public void testLag() {
+        Map<String, QueueLag> map = new HashMap<>();
+        map.put("test1", new QueueLag(1, 0, 0, 0, 0));
+        map.put("test2", new QueueLag(2, System.currentTimeMillis(), 10, 5, 60_000));
+
+        List<String> list = new ArrayList<String>();
+        list.add("test1");
+        list.add("test2");
+
+        when(mockTaskService.getTaskQueueLags(anyList())).thenReturn(map);
+        assertEquals(map, taskResource.lag(list));
+    }
+
     @Test
     public void testAllVerbose() {
         Map<String, Long> map = new HashMap<>();
@@ -13,8 +13,8 @@
 package com.netflix.conductor.dao.mysql;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
 import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.tasks.PollData;
@@ -22,33 +22,53 @@ import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.PollDataDAO;
 import com.netflix.conductor.dao.RateLimitingDAO;
 import com.netflix.conductor.metrics.Monitors;
+import com.netflix.conductor.mysql.MySQLReplicaDataSourceProvider;
+import com.netflix.conductor.sql.QueryFunction;
+import com.netflix.conductor.sql.ReadConsistency;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Singleton
 public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, RateLimitingDAO, PollDataDAO {
 
     private static final String ARCHIVED_FIELD = "archived";
     private static final String RAW_JSON_FIELD = "rawJSON";
+    private static final int CREATE_TASKS_BATCH_SIZE = 1000;
+    private static final int WORKFLOWS_BY_TYPE_PAGE_SIZE = 100;
 
-    @Inject
     public MySQLExecutionDAO(ObjectMapper objectMapper, DataSource dataSource) {
-        super(objectMapper, dataSource);
+        this(objectMapper, dataSource, dataSource);
+    }
+
+    @Inject
+    public MySQLExecutionDAO(ObjectMapper objectMapper, DataSource dataSource,
+                             @Named(MySQLReplicaDataSourceProvider.REPLICA_DATA_SOURCE_INJECTION_NAME) DataSource replicaDataSource) {
+        super(objectMapper, dataSource, replicaDataSource);
     }
 
     private static String dateStr(Long timeInMs) {
@@ -107,33 +127,109 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
         List<Task> created = Lists.newArrayListWithCapacity(tasks.size());
 
         withTransaction(connection -> {
-            for (Task task : tasks) {
-                validate(task);
-
-                task.setScheduledTime(System.currentTimeMillis());
-
-                final String taskKey = taskKey(task);
-
-                boolean scheduledTaskAdded = addScheduledTask(connection, task, taskKey);
+            for (List<Task> batch : Lists.partition(tasks, CREATE_TASKS_BATCH_SIZE)) {
+                for (Task task : batch) {
+                    validate(task);
+                    task.setScheduledTime(System.currentTimeMillis());
+                }
 
-                if (!scheduledTaskAdded) {
-                    logger.trace("Task already scheduled, skipping the run " + task.getTaskId() + ", ref="
-                            + task.getReferenceTaskName() + ", key=" + taskKey);
+                Set<String> scheduledTaskIds = addScheduledTasks(connection, batch);
+                List<Task> scheduled = new ArrayList<>(scheduledTaskIds.size());
+                for (Task task : batch) {
+                    if (scheduledTaskIds.contains(task.getTaskId())) {
+                        scheduled.add(task);
+                    } else {
+                        logger.trace("Task already scheduled, skipping the run " + task.getTaskId() + ", ref="
+                                + task.getReferenceTaskName() + ", key=" + taskKey(task));
+                    }
+                }
+                if (scheduled.isEmpty()) {
                     continue;
                 }
 
-                insertOrUpdateTaskData(connection, task);
-                addWorkflowToTaskMapping(connection, task);
-                addTaskInProgress(connection, task);
-                updateTask(connection, task);
+                insertTaskData(connection, scheduled);
+                addWorkflowToTaskMappings(connection, scheduled);
+                addTasksInProgress(connection, scheduled);
 
-                created.add(task);
+                created.addAll(scheduled);
             }
         });
 
         return created;
     }
 
+    /**
+     * Adds the scheduled task entries of the tasks with one multi-row insert. As MySQL does not report which rows an
+     * {@code INSERT IGNORE} skipped, the tasks holding the keys are read before and after the insert.
+     *
+     * @return the ids of the tasks that were added, tasks whose reference name and retry count are already scheduled
+     * in their workflow are left out
+     */
+    private Set<String> addScheduledTasks(Connection connection, List<Task> tasks) {
+        final String SCHEDULED_TASK_IDS = "SELECT task_id FROM task_scheduled WHERE (workflow_id, task_key) IN ("
+                + String.join(", ", Collections.nCopies(tasks.size(), "(?, ?)")) + ")";
+        final String INSERT_IGNORE_SCHEDULED_TASKS = "INSERT IGNORE INTO task_scheduled (workflow_id, task_key, task_id) VALUES "
+                + String.join(", ", Collections.nCopies(tasks.size(), "(?, ?, ?)"));
+
+        QueryFunction<List<String>> scheduledTaskIds = q -> {
+            tasks.forEach(task -> q.addParameter(task.getWorkflowInstanceId()).addParameter(taskKey(task)));
+            return q.executeScalarList(String.class);
+        };
+
+        List<String> existing = query(connection, SCHEDULED_TASK_IDS, scheduledTaskIds);
+        execute(connection, INSERT_IGNORE_SCHEDULED_TASKS, q -> {
+            tasks.forEach(task -> q.addParameter(task.getWorkflowInstanceId()).addParameter(taskKey(task))
+                    .addParameter(task.getTaskId()));
+            q.executeUpdate();
+        });
+        Set<String> added = new HashSet<>(query(connection, SCHEDULED_TASK_IDS, scheduledTaskIds));
+        added.removeAll(existing);
+        return added;
+    }
+
+    private void insertTaskData(Connection connection, List<Task> tasks) {
+        String INSERT_TASK = "INSERT INTO task (task_id, json_data, modified_on) VALUES (?, ?, CURRENT_TIMESTAMP) ON DUPLICATE KEY UPDATE json_data=VALUES(json_data), modified_on=VALUES(modified_on)";
+
+        execute(connection, INSERT_TASK, q -> {
+            tasks.forEach(task -> q.addParameter(task.getTaskId()).addJsonParameter(task).addBatch());
+            q.executeBatch();
+        });
+    }
+
+    private void addWorkflowToTaskMappings(Connection connection, List<Task> tasks) {
+        String INSERT_WORKFLOW_TO_TASK = "INSERT IGNORE INTO workflow_to_task (workflow_id, task_id) VALUES (?, ?)";
+
+        execute(connection, INSERT_WORKFLOW_TO_TASK, q -> {
+            tasks.forEach(task -> q.addParameter(task.getWorkflowInstanceId()).addParameter(task.getTaskId()).addBatch());
+            q.executeBatch();
+        });
+    }
+
+    /**
+     * Adds the in progress entries of the tasks that are not terminal yet, marking those of tasks with a concurrency
+     * limit that are already in progress.
+     */
+    private void addTasksInProgress(Connection connection, List<Task> tasks) {
+        List<Task> pending = tasks.stream()
+                .filter(task -> task.getStatus() == null || !task.getStatus().isTerminal())
+                .collect(Collectors.toList());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        String INSERT_IN_PROGRESS_TASK = "INSERT IGNORE INTO task_in_progress (task_def_name, task_id, workflow_id, in_progress_status) VALUES (?, ?, ?, ?)";
+
+        execute(connection, INSERT_IN_PROGRESS_TASK, q -> {
+            for (Task task : pending) {
+                boolean inProgress = task.getTaskDefinition().map(taskDef -> taskDef.concurrencyLimit() > 0).orElse(false)
+                        && task.getStatus() == Task.Status.IN_PROGRESS;
+                q.addParameter(task.getTaskDefName()).addParameter(task.getTaskId())
+                        .addParameter(task.getWorkflowInstanceId()).addParameter(inProgress).addBatch();
+            }
+            q.executeBatch();
+        });
+    }
+
     @Override
     public void updateTask(Task task) {
         withTransaction(connection -> updateTask(connection, task));
@@ -166,26 +262,35 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
             return false;
         }
 
-        long current = getInProgressTaskCount(task.getTaskDefName());
+        // @formatter:off
+        // the in progress count and whether the task is among the first to arrive, in one round trip
+        String GET_IN_PROGRESS_LIMIT_STATE = "SELECT "
+                + "(SELECT COUNT(*) FROM task_in_progress WHERE task_def_name = ? AND in_progress_status = true) AS current, "
+                + "(SELECT COUNT(*) FROM (SELECT task_id FROM task_in_progress WHERE task_def_name = ? ORDER BY id LIMIT ?) arrived "
+                + "WHERE task_id = ?) AS admitted";
+        // @formatter:on
+
+        long[] state = queryWithTransaction(GET_IN_PROGRESS_LIMIT_STATE, q -> q.addParameter(task.getTaskDefName())
+                .addParameter(task.getTaskDefName()).addParameter(limit).addParameter(task.getTaskId())
+                .executeAndFetch(rs -> {
+                    rs.next();
+                    return new long[]{rs.getLong("current"), rs.getLong("admitted")};
+                }));
+        long current = state[0];
 
         if (current >= limit) {
             Monitors.recordTaskConcurrentExecutionLimited(task.getTaskDefName(), limit);
             return true;
         }
 
-        logger.info("Task execution count for {}: limit={}, current={}", task.getTaskDefName(), limit,
-                getInProgressTaskCount(task.getTaskDefName()));
-
-        String taskId = task.getTaskId();
-
-        List<String> tasksInProgressInOrderOfArrival = findAllTasksInProgressInOrderOfArrival(task, limit);
-
-        boolean rateLimited = !tasksInProgressInOrderOfArrival.contains(taskId);
+        boolean rateLimited = state[1] == 0;
 
         if (rateLimited) {
             logger.info("Task execution count limited. {}, limit {}, current {}", task.getTaskDefName(), limit,
-                    getInProgressTaskCount(task.getTaskDefName()));
+                    current);
             Monitors.recordTaskConcurrentExecutionLimited(task.getTaskDefName(), limit);
+        } else {
+            logger.debug("Task execution count for {}: limit={}, current={}", task.getTaskDefName(), limit, current);
         }
 
         return rateLimited;
@@ -239,11 +344,15 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
 
     @Override
     public List<Task> getTasksForWorkflow(String workflowId) {
+        return getWithRetriedTransactions(tx -> getTasksForWorkflow(tx, workflowId));
+    }
+
+    private List<Task> getTasksForWorkflow(Connection connection, String workflowId) {
         String GET_TASKS_FOR_WORKFLOW = "SELECT task_id FROM workflow_to_task WHERE workflow_id = ?";
-        return getWithRetriedTransactions(tx -> query(tx, GET_TASKS_FOR_WORKFLOW, q -> {
+        return query(connection, GET_TASKS_FOR_WORKFLOW, q -> {
             List<String> taskIds = q.addParameter(workflowId).executeScalarList(String.class);
-            return getTasks(tx, taskIds);
-        }));
+            return getTasks(connection, taskIds);
+        });
     }
 
     @Override
@@ -256,6 +365,34 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
         return insertOrUpdateWorkflow(workflow, true);
     }
 
+    /**
+     * Updates the workflow first, so that concurrent updates of the same workflow wait for each other on its row
+     * instead of deadlocking on the rows of its tasks.
+     */
+    @Override
+    public void compareAndSetWorkflow(Workflow workflow, List<Task> tasks) {
+        Preconditions.checkNotNull(workflow, "workflow object cannot be null");
+        try {
+            withTransaction(connection -> {
+                if (!compareAndSetWorkflow(connection, workflow)) {
+                    throw new ConcurrentUpdateException(workflow);
+                }
+                for (Task task : tasks) {
+                    if (!compareAndSetTaskData(connection, task)) {
+                        throw new ConcurrentUpdateException(workflow);
+                    }
+                    updateTaskIndexes(connection, task);
+                }
+            });
+        } catch (ApplicationException e) {
+            if (e.getCause() instanceof ConcurrentUpdateException) {
+                // rolled back
+                throw (ConcurrentUpdateException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     @Override
     public boolean removeWorkflow(String workflowId) {
         boolean removed = false;
@@ -289,16 +426,7 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
 
     @Override
     public Workflow getWorkflow(String workflowId, boolean includeTasks) {
-        Workflow workflow = getWithRetriedTransactions(tx -> readWorkflow(tx, workflowId));
-
-        if (workflow != null) {
-            if (includeTasks) {
-                List<Task> tasks = getTasksForWorkflow(workflowId);
-                tasks.sort(Comparator.comparingLong(Task::getScheduledTime).thenComparingInt(Task::getSeq));
-                workflow.setTasks(tasks);
-            }
-        }
-        return workflow;
+        return getWithRetriedTransactions(tx -> readWorkflow(tx, workflowId, includeTasks));
     }
 
     /**
@@ -351,19 +479,18 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
         Preconditions.checkNotNull(startTime, "startTime cannot be null");
         Preconditions.checkNotNull(endTime, "endTime cannot be null");
 
-        List<Workflow> workflows = new LinkedList<>();
-
-        withTransaction(tx -> {
+        return getWithRetriedTransactions(ReadConsistency.EVENTUAL, tx -> {
             // @formatter:off
             String GET_ALL_WORKFLOWS_FOR_WORKFLOW_DEF = "SELECT workflow_id FROM workflow_def_to_workflow "
                     + "WHERE workflow_def = ? AND date_str BETWEEN ? AND ?";
             // @formatter:on
 
+            List<Workflow> workflows = new LinkedList<>();
             List<String> workflowIds = query(tx, GET_ALL_WORKFLOWS_FOR_WORKFLOW_DEF, q -> q.addParameter(workflowName)
                     .addParameter(dateStr(startTime)).addParameter(dateStr(endTime)).executeScalarList(String.class));
             workflowIds.forEach(workflowId -> {
                 try {
-                    Workflow wf = getWorkflow(workflowId);
+                    Workflow wf = readWorkflow(tx, workflowId, true);
                     if (wf.getCreateTime() >= startTime && wf.getCreateTime() <= endTime) {
                         workflows.add(wf);
                     }
@@ -371,9 +498,64 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
                     logger.error("Unable to load workflow id {} with name {}", workflowId, workflowName, e);
                 }
             });
+            return workflows;
         });
+    }
+
+    /**
+     * Reads the workflows, without their tasks, one page per query joining the workflows to the workflow definition
+     * mapping, with keyset pagination on the creation day and workflow id.
+     */
+    @Override
+    public Stream<Workflow> streamWorkflowsByType(String workflowName, Long startTime, Long endTime) {
+        Preconditions.checkNotNull(workflowName, "workflowName cannot be null");
+        Preconditions.checkNotNull(startTime, "startTime cannot be null");
+        Preconditions.checkNotNull(endTime, "endTime cannot be null");
 
-        return workflows;
+        // @formatter:off
+        String GET_WORKFLOWS_FOR_WORKFLOW_DEF_PAGE = "SELECT wd.date_str, wd.workflow_id, w.json_data "
+                + "FROM workflow_def_to_workflow wd INNER JOIN workflow w ON w.workflow_id = wd.workflow_id "
+                + "WHERE wd.workflow_def = ? AND (wd.date_str > ? OR (wd.date_str = ? AND wd.workflow_id > ?)) AND wd.date_str <= ? "
+                + "ORDER BY wd.date_str, wd.workflow_id LIMIT ?";
+        // @formatter:on
+        String endDate = dateStr(endTime);
+
+        Iterator<List<Workflow>> pages = new AbstractIterator<List<Workflow>>() {
+            private String lastDateStr = dateStr(startTime);
+            private String lastWorkflowId = "";
+            private boolean lastPage;
+
+            @Override
+            protected List<Workflow> computeNext() {
+                if (lastPage) {
+                    return endOfData();
+                }
+                String fromDateStr = lastDateStr;
+                String fromWorkflowId = lastWorkflowId;
+                List<Workflow> page = new ArrayList<>(WORKFLOWS_BY_TYPE_PAGE_SIZE);
+                int rows = queryWithTransaction(ReadConsistency.EVENTUAL, GET_WORKFLOWS_FOR_WORKFLOW_DEF_PAGE,
+                        q -> q.addParameter(workflowName).addParameter(fromDateStr).addParameter(fromDateStr).addParameter(fromWorkflowId)
+                                .addParameter(endDate).addParameter(WORKFLOWS_BY_TYPE_PAGE_SIZE).executeAndFetch(rs -> {
+                                    page.clear();
+                                    int count = 0;
+                                    while (rs.next()) {
+                                        count++;
+                                        lastDateStr = rs.getString("date_str");
+                                        lastWorkflowId = rs.getString("workflow_id");
+                                        Workflow workflow = readValue(rs.getString("json_data"), Workflow.class);
+                                        if (workflow.getCreateTime() >= startTime && workflow.getCreateTime() <= endTime) {
+                                            page.add(workflow);
+                                        }
+                                    }
+                                    return count;
+                                }));
+                lastPage = rows < WORKFLOWS_BY_TYPE_PAGE_SIZE;
+                return page;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+                .flatMap(List::stream);
     }
 
     @Override
@@ -381,9 +563,12 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
         Preconditions.checkNotNull(correlationId, "correlationId cannot be null");
         String GET_WORKFLOWS_BY_CORRELATION_ID = "SELECT workflow_id FROM workflow WHERE correlation_id = ?";
 
-        return queryWithTransaction(GET_WORKFLOWS_BY_CORRELATION_ID,
-                q -> q.addParameter(correlationId).executeScalarList(String.class).stream()
-                        .map(workflowId -> getWorkflow(workflowId, includeTasks)).collect(Collectors.toList()));
+        return getWithRetriedTransactions(ReadConsistency.EVENTUAL, tx -> {
+            List<String> workflowIds = query(tx, GET_WORKFLOWS_BY_CORRELATION_ID,
+                    q -> q.addParameter(correlationId).executeScalarList(String.class));
+            return workflowIds.stream().map(workflowId -> readWorkflow(tx, workflowId, includeTasks))
+                    .collect(Collectors.toList());
+        });
     }
 
     @Override
@@ -424,8 +609,8 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
     public List<EventExecution> getEventExecutions(String eventHandlerName, String eventName, String messageId,
                                                    int max) {
         try {
-            List<EventExecution> executions = Lists.newLinkedList();
-            withTransaction(tx -> {
+            return getWithRetriedTransactions(ReadConsistency.EVENTUAL, tx -> {
+                List<EventExecution> executions = Lists.newLinkedList();
                 for (int i = 0; i < max; i++) {
                     String executionId = messageId + "_" + i; // see SimpleEventProcessor.handle to understand how the
                     // execution id is set
@@ -435,8 +620,8 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
                     }
                     executions.add(ee);
                 }
+                return executions;
             });
-            return executions;
         } catch (Exception e) {
             String message = String.format(
                     "Unable to get event executions for eventHandlerName=%s, eventName=%s, messageId=%s",
@@ -453,11 +638,17 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
         withTransaction(tx -> insertOrUpdatePollData(tx, pollData, effectiveDomain));
     }
 
+    @Override
+    public void updateLastPollData(List<PollData> pollData) {
+        withTransaction(tx -> pollData.forEach(data -> insertOrUpdatePollData(tx, data,
+                (data.getDomain() == null) ? "DEFAULT" : data.getDomain())));
+    }
+
     @Override
     public PollData getPollData(String taskDefName, String domain) {
         Preconditions.checkNotNull(taskDefName, "taskDefName name cannot be null");
         String effectiveDomain = (domain == null) ? "DEFAULT" : domain;
-        return getWithRetriedTransactions(tx -> readPollData(tx, taskDefName, effectiveDomain));
+        return getWithRetriedTransactions(ReadConsistency.EVENTUAL, tx -> readPollData(tx, taskDefName, effectiveDomain));
     }
 
     @Override
@@ -516,7 +707,10 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
         }
 
         insertOrUpdateTaskData(connection, task);
+        updateTaskIndexes(connection, task);
+    }
 
+    private void updateTaskIndexes(Connection connection, Task task) {
         if (task.getStatus() != null && task.getStatus().isTerminal()) {
             removeTaskInProgress(connection, task);
         }
@@ -530,6 +724,17 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
         return query(connection, GET_WORKFLOW, q -> q.addParameter(workflowId).executeAndFetchFirst(Workflow.class));
     }
 
+    private Workflow readWorkflow(Connection connection, String workflowId, boolean includeTasks) {
+        Workflow workflow = readWorkflow(connection, workflowId);
+
+        if (workflow != null && includeTasks) {
+            List<Task> tasks = getTasksForWorkflow(connection, workflowId);
+            tasks.sort(Comparator.comparingLong(Task::getScheduledTime).thenComparingInt(Task::getSeq));
+            workflow.setTasks(tasks);
+        }
+        return workflow;
+    }
+
     private void addWorkflow(Connection connection, Workflow workflow) {
         String INSERT_WORKFLOW = "INSERT INTO workflow (workflow_id, correlation_id, json_data) VALUES (?, ?, ?)";
 
@@ -544,6 +749,35 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
                 q -> q.addJsonParameter(workflow).addParameter(workflow.getWorkflowId()).executeUpdate());
     }
 
+    /**
+     * Writes the workflow without its tasks if its stored revision is the one it was read with.
+     *
+     * @return false if the workflow was updated or removed since
+     */
+    private boolean compareAndSetWorkflow(Connection connection, Workflow workflow) {
+        String CAS_WORKFLOW = "UPDATE workflow SET json_data = ?, modified_on = CURRENT_TIMESTAMP "
+                + "WHERE workflow_id = ? AND COALESCE(CAST(JSON_EXTRACT(json_data, '$.revision') AS SIGNED), 0) = ?";
+
+        long revision = workflow.getRevision();
+        List<Task> tasks = workflow.getTasks();
+        workflow.setTasks(Lists.newLinkedList());
+        workflow.setRevision(revision + 1);
+        try {
+            boolean updated = query(connection, CAS_WORKFLOW, q -> q.addJsonParameter(workflow)
+                    .addParameter(workflow.getWorkflowId()).addParameter(revision).executeUpdate()) == 1;
+            if (updated) {
+                if (workflow.getStatus().isTerminal()) {
+                    removePendingWorkflow(connection, workflow.getWorkflowName(), workflow.getWorkflowId());
+                } else {
+                    addPendingWorkflow(connection, workflow.getWorkflowName(), workflow.getWorkflowId());
+                }
+            }
+            return updated;
+        } finally {
+            workflow.setTasks(tasks);
+        }
+    }
+
     private void removeWorkflow(Connection connection, String workflowId) {
         String REMOVE_WORKFLOW = "DELETE FROM workflow WHERE workflow_id = ?";
         execute(connection, REMOVE_WORKFLOW, q -> q.addParameter(workflowId).executeDelete());
@@ -572,6 +806,29 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
 
     }
 
+    /**
+     * Writes the task if its stored revision is the one it was read with, updating its concurrency limit status.
+     *
+     * @return false if the task was updated or removed since
+     */
+    private boolean compareAndSetTaskData(Connection connection, Task task) {
+        String CAS_TASK = "UPDATE task SET json_data = ?, modified_on = CURRENT_TIMESTAMP "
+                + "WHERE task_id = ? AND COALESCE(CAST(JSON_EXTRACT(json_data, '$.revision') AS SIGNED), 0) = ?";
+
+        long revision = task.getRevision();
+        task.setRevision(revision + 1);
+        if (query(connection, CAS_TASK, q -> q.addJsonParameter(task).addParameter(task.getTaskId())
+                .addParameter(revision).executeUpdate()) == 0) {
+            return false;
+        }
+
+        Optional<TaskDef> taskDefinition = task.getTaskDefinition();
+        if (taskDefinition.isPresent() && taskDefinition.get().concurrencyLimit() > 0) {
+            updateInProgressStatus(connection, task, task.getStatus() == Task.Status.IN_PROGRESS);
+        }
+        return true;
+    }
+
     private void removeTaskData(Connection connection, Task task) {
         String REMOVE_TASK = "DELETE FROM task WHERE task_id = ?";
         execute(connection, REMOVE_TASK, q -> q.addParameter(task.getTaskId()).executeDelete());
@@ -609,37 +866,12 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
                         .addParameter(workflow.getWorkflowId()).executeUpdate());
     }
 
-    @VisibleForTesting
-    boolean addScheduledTask(Connection connection, Task task, String taskKey) {
-
-        final String INSERT_IGNORE_SCHEDULED_TASK = "INSERT IGNORE INTO task_scheduled (workflow_id, task_key, task_id) VALUES (?, ?, ?)";
-
-        int count = query(connection, INSERT_IGNORE_SCHEDULED_TASK, q -> q.addParameter(task.getWorkflowInstanceId())
-                .addParameter(taskKey).addParameter(task.getTaskId()).executeUpdate());
-        return count > 0;
-
-    }
-
     private void removeScheduledTask(Connection connection, Task task, String taskKey) {
         String REMOVE_SCHEDULED_TASK = "DELETE FROM task_scheduled WHERE workflow_id = ? AND task_key = ?";
         execute(connection, REMOVE_SCHEDULED_TASK,
                 q -> q.addParameter(task.getWorkflowInstanceId()).addParameter(taskKey).executeDelete());
     }
 
-    private void addTaskInProgress(Connection connection, Task task) {
-        String EXISTS_IN_PROGRESS_TASK = "SELECT EXISTS(SELECT 1 FROM task_in_progress WHERE task_def_name = ? AND task_id = ?)";
-
-        boolean exist = query(connection, EXISTS_IN_PROGRESS_TASK,
-                q -> q.addParameter(task.getTaskDefName()).addParameter(task.getTaskId()).exists());
-
-        if (!exist) {
-            String INSERT_IN_PROGRESS_TASK = "INSERT INTO task_in_progress (task_def_name, task_id, workflow_id) VALUES (?, ?, ?)";
-
-            execute(connection, INSERT_IN_PROGRESS_TASK, q -> q.addParameter(task.getTaskDefName())
-                    .addParameter(task.getTaskId()).addParameter(task.getWorkflowInstanceId()).executeUpdate());
-        }
-    }
-
     private void removeTaskInProgress(Connection connection, Task task) {
         String REMOVE_IN_PROGRESS_TASK = "DELETE FROM task_in_progress WHERE task_def_name = ? AND task_id = ?";
 
@@ -714,14 +946,8 @@ public class MySQLExecutionDAO extends MySQLBaseDAO implements ExecutionDAO, Rat
 
     private List<PollData> readAllPollData(String queueName) {
         String GET_ALL_POLL_DATA = "SELECT json_data FROM poll_data WHERE queue_name = ?";
-        return queryWithTransaction(GET_ALL_POLL_DATA, q -> q.addParameter(queueName).executeAndFetch(PollData.class));
-    }
-
-    private List<String> findAllTasksInProgressInOrderOfArrival(Task task, int limit) {
-        String GET_IN_PROGRESS_TASKS_WITH_LIMIT = "SELECT task_id FROM task_in_progress WHERE task_def_name = ? ORDER BY id LIMIT ?";
-
-        return queryWithTransaction(GET_IN_PROGRESS_TASKS_WITH_LIMIT,
-                q -> q.addParameter(task.getTaskDefName()).addParameter(limit).executeScalarList(String.class));
+        return queryWithTransaction(ReadConsistency.EVENTUAL, GET_ALL_POLL_DATA,
+                q -> q.addParameter(queueName).executeAndFetch(PollData.class));
     }
 
     private void validate(Task task) {
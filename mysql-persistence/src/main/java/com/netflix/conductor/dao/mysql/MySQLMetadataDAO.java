@@ -88,10 +88,13 @@ public class MySQLMetadataDAO extends MySQLBaseDAO implements MetadataDAO, Event
     public void removeTaskDef(String name) {
         final String DELETE_TASKDEF_QUERY = "DELETE FROM meta_task_def WHERE name = ?";
 
-        executeWithTransaction(DELETE_TASKDEF_QUERY, q -> {
-            if (!q.addParameter(name).executeDelete()) {
-                throw new ApplicationException(ApplicationException.Code.NOT_FOUND, "No such task definition");
-            }
+        withTransaction(tx -> {
+            execute(tx, DELETE_TASKDEF_QUERY, q -> {
+                if (!q.addParameter(name).executeDelete()) {
+                    throw new ApplicationException(ApplicationException.Code.NOT_FOUND, "No such task definition");
+                }
+            });
+            incrementDefinitionsVersion(tx);
 
             taskDefCache.remove(name);
         });
@@ -143,14 +146,25 @@ public class MySQLMetadataDAO extends MySQLBaseDAO implements MetadataDAO, Event
     public void removeWorkflowDef(String name, Integer version) {
         final String DELETE_WORKFLOW_QUERY = "DELETE from meta_workflow_def WHERE name = ? AND version = ?";
 
-        executeWithTransaction(DELETE_WORKFLOW_QUERY, q -> {
-            if (!q.addParameter(name).addParameter(version).executeDelete()) {
-                throw new ApplicationException(ApplicationException.Code.NOT_FOUND,
-                        String.format("No such workflow definition: %s version: %d", name, version));
-            }
+        withTransaction(tx -> {
+            execute(tx, DELETE_WORKFLOW_QUERY, q -> {
+                if (!q.addParameter(name).addParameter(version).executeDelete()) {
+                    throw new ApplicationException(ApplicationException.Code.NOT_FOUND,
+                            String.format("No such workflow definition: %s version: %d", name, version));
+                }
+            });
+            incrementDefinitionsVersion(tx);
         });
     }
 
+    @Override
+    public long getDefinitionsVersion() {
+        final String GET_DEFINITIONS_VERSION_QUERY = "SELECT version FROM meta_definitions_version WHERE id = 1";
+
+        Long version = queryWithTransaction(GET_DEFINITIONS_VERSION_QUERY, q -> q.executeScalar(Long.class));
+        return version == null ? 0 : version;
+    }
+
     public List<String> findAll() {
         final String FIND_ALL_WORKFLOW_DEF_QUERY = "SELECT DISTINCT name FROM meta_workflow_def";
         return queryWithTransaction(FIND_ALL_WORKFLOW_DEF_QUERY, q -> q.executeAndFetch(String.class));
@@ -379,6 +393,15 @@ public class MySQLMetadataDAO extends MySQLBaseDAO implements MetadataDAO, Event
         }
 
         updateLatestVersion(tx, def);
+        incrementDefinitionsVersion(tx);
+    }
+
+    private void incrementDefinitionsVersion(Connection tx) {
+        final String INCREMENT_DEFINITIONS_VERSION_QUERY =
+                "INSERT INTO meta_definitions_version (id, version) VALUES (1, 1) " +
+                "ON DUPLICATE KEY UPDATE version = version + 1";
+
+        execute(tx, INCREMENT_DEFINITIONS_VERSION_QUERY, Query::executeUpdate);
     }
 
     /**
@@ -443,6 +466,7 @@ public class MySQLMetadataDAO extends MySQLBaseDAO implements MetadataDAO, Event
                             insert -> insert.addParameter(taskDef.getName()).addJsonParameter(taskDef).executeUpdate());
                 }
             });
+            incrementDefinitionsVersion(tx);
 
             taskDefCache.put(taskDef.getName(), taskDef);
             return taskDef.getName();
@@ -5,6 +5,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.events.queue.QueueLag;
+import com.netflix.conductor.core.events.queue.QueueThroughput;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.dao.QueueDAO;
 
@@ -12,6 +14,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -24,6 +27,8 @@ import java.util.stream.Collectors;
 public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
     private static final Long UNACK_SCHEDULE_MS = 60_000L;
 
+    private final QueueThroughput throughput = new QueueThroughput();
+
     @Inject
     public MySQLQueueDAO(ObjectMapper om, DataSource ds) {
         super(om, ds);
@@ -42,12 +47,14 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
     @Override
     public void push(String queueName, String messageId, int priority, long offsetTimeInSecond) {
         withTransaction(tx -> pushMessage(tx, queueName, messageId, null, priority, offsetTimeInSecond));
+        throughput.recordPush(queueName, 1);
     }
 
     @Override
     public void push(String queueName, List<Message> messages) {
         withTransaction(tx -> messages
                 .forEach(message -> pushMessage(tx, queueName, message.getId(), message.getPayload(), message.getPriority(), 0)));
+        throughput.recordPush(queueName, messages.size());
     }
 
     @Override
@@ -57,19 +64,24 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
 
     @Override
     public boolean pushIfNotExists(String queueName, String messageId, int priority, long offsetTimeInSecond) {
-        return getWithRetriedTransactions(tx -> {
+        boolean pushed = getWithRetriedTransactions(tx -> {
             if (!existsMessage(tx, queueName, messageId)) {
                 pushMessage(tx, queueName, messageId, null, priority, offsetTimeInSecond);
                 return true;
             }
             return false;
         });
+        if (pushed) {
+            throughput.recordPush(queueName, 1);
+        }
+        return pushed;
     }
 
     @Override
     public List<String> pop(String queueName, int count, int timeout) {
         List<Message> messages = getWithTransactionWithOutErrorPropagation(tx -> popMessages(tx, queueName, count, timeout));
         if(messages == null) return new ArrayList<>();
+        throughput.recordPop(queueName, messages.size());
         return messages.stream().map(Message::getId).collect(Collectors.toList());
     }
 
@@ -77,6 +89,7 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
     public List<Message> pollMessages(String queueName, int count, int timeout) {
         List<Message> messages = getWithTransactionWithOutErrorPropagation(tx -> popMessages(tx, queueName, count, timeout));
         if(messages == null) return new ArrayList<>();
+        throughput.recordPop(queueName, messages.size());
         return messages;
     }
 
@@ -180,6 +193,17 @@ public class MySQLQueueDAO extends MySQLBaseDAO implements QueueDAO {
                 .addParameter(offsetTimeInSecond).addParameter(queueName).addParameter(messageId).executeUpdate() == 1);
     }
 
+    @Override
+    public QueueLag getQueueLag(String queueName) {
+        final String GET_OLDEST_DELIVERABLE = "SELECT MIN(deliver_on) FROM queue_message WHERE queue_name = ? AND popped = false AND deliver_on <= CURRENT_TIMESTAMP";
+        long oldestDeliverableTime = queryWithTransaction(GET_OLDEST_DELIVERABLE, q -> q.addParameter(queueName)
+                .executeAndFetch(rs -> {
+                    Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+                    return oldest == null ? 0L : oldest.getTime();
+                }));
+        return throughput.lag(queueName, getSize(queueName), oldestDeliverableTime);
+    }
+
     private boolean existsMessage(Connection connection, String queueName, String messageId) {
         final String EXISTS_MESSAGE = "SELECT EXISTS(SELECT 1 FROM queue_message WHERE queue_name = ? AND message_id = ?)";
         return query(connection, EXISTS_MESSAGE, q -> q.addParameter(queueName).addParameter(messageId).exists());
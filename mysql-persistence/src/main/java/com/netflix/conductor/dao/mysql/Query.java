@@ -277,6 +277,47 @@ public class Query implements AutoCloseable {
         }
     }
 
+    /**
+     * Adds the parameters bound so far as one set of the batch and starts binding the next set from the first
+     * parameter.
+     *
+     * @see PreparedStatement#addBatch()
+     */
+    public Query addBatch() {
+        try {
+            this.statement.addBatch();
+            this.index.set(1);
+            return this;
+        } catch (SQLException ex) {
+            throw new ApplicationException(Code.BACKEND_ERROR, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return The result of {@link PreparedStatement#executeBatch()}, the update counts may be
+     * {@link java.sql.Statement#SUCCESS_NO_INFO} when the driver rewrites the batch into multi-row statements.
+     */
+    public int[] executeBatch() {
+        try {
+
+            Long start = null;
+            if (logger.isTraceEnabled()) {
+                start = System.currentTimeMillis();
+            }
+
+            final int[] val = this.statement.executeBatch();
+
+            if (null != start && logger.isTraceEnabled()) {
+                long end = System.currentTimeMillis();
+                logger.trace("[{}ms] batch of {}: {}", (end - start), val.length, rawQuery);
+            }
+
+            return val;
+        } catch (SQLException ex) {
+            throw new ApplicationException(Code.BACKEND_ERROR, ex.getMessage(), ex);
+        }
+    }
+
     /**
      * Execute a query from the PreparedStatement and return the ResultSet.
      * <p>
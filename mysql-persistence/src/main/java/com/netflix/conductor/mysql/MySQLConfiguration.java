@@ -44,6 +44,16 @@ public interface MySQLConfiguration extends Configuration {
     // This is consistent with the current default when building the Hikari Client.
     boolean AUTO_COMMIT_DEFAULT_VALUE = false;
 
+    // Without a replica url, every read is served by the primary
+    String REPLICA_JDBC_URL_PROPERTY_NAME = "jdbc.replica.url";
+
+    String REPLICA_JDBC_USER_NAME_PROPERTY_NAME = "jdbc.replica.username";
+
+    String REPLICA_JDBC_PASSWORD_PROPERTY_NAME = "jdbc.replica.password";
+
+    String REPLICA_CONNECTION_POOL_MAX_SIZE_PROPERTY_NAME = "conductor.mysql.replica.connection.pool.size.max";
+    int REPLICA_CONNECTION_POOL_MAX_SIZE_DEFAULT_VALUE = -1;
+
     default String getJdbcUrl() {
         return getProperty(JDBC_URL_PROPERTY_NAME, JDBC_URL_DEFAULT_VALUE);
     }
@@ -91,4 +101,23 @@ public interface MySQLConfiguration extends Configuration {
     default boolean isAutoCommit() {
         return getBoolProperty(AUTO_COMMIT_PROPERTY_NAME, AUTO_COMMIT_DEFAULT_VALUE);
     }
+
+    /**
+     * @return the url of the read replica serving the reads that tolerate replication lag, if any
+     */
+    default Optional<String> getReplicaJdbcUrl() {
+        return Optional.ofNullable(getProperty(REPLICA_JDBC_URL_PROPERTY_NAME, null));
+    }
+
+    default String getReplicaJdbcUserName() {
+        return getProperty(REPLICA_JDBC_USER_NAME_PROPERTY_NAME, getJdbcUserName());
+    }
+
+    default String getReplicaJdbcPassword() {
+        return getProperty(REPLICA_JDBC_PASSWORD_PROPERTY_NAME, getJdbcPassword());
+    }
+
+    default int getReplicaConnectionPoolMaxSize() {
+        return getIntProperty(REPLICA_CONNECTION_POOL_MAX_SIZE_PROPERTY_NAME, REPLICA_CONNECTION_POOL_MAX_SIZE_DEFAULT_VALUE);
+    }
 }
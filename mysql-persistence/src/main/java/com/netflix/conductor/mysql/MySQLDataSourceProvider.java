@@ -26,7 +26,9 @@ public class MySQLDataSourceProvider implements Provider<DataSource> {
     public DataSource get() {
         HikariDataSource dataSource = null;
         try {
-            dataSource = new HikariDataSource(createConfiguration());
+            dataSource = new HikariDataSource(createConfiguration(configuration, configuration.getJdbcUrl(),
+                    configuration.getJdbcUserName(), configuration.getJdbcPassword(),
+                    configuration.getConnectionPoolMaxSize(), "hikari-mysql-%d"));
             flywayMigrate(dataSource);
             return dataSource;
         } catch (final Throwable t) {
@@ -38,23 +40,26 @@ public class MySQLDataSourceProvider implements Provider<DataSource> {
         }
     }
 
-    private HikariConfig createConfiguration() {
+    static HikariConfig createConfiguration(MySQLConfiguration configuration, String jdbcUrl, String userName,
+                                            String password, int maxPoolSize, String threadNameFormat) {
         HikariConfig cfg = new HikariConfig();
-        cfg.setJdbcUrl(configuration.getJdbcUrl());
-        cfg.setUsername(configuration.getJdbcUserName());
-        cfg.setPassword(configuration.getJdbcPassword());
+        cfg.setJdbcUrl(jdbcUrl);
+        cfg.setUsername(userName);
+        cfg.setPassword(password);
         cfg.setAutoCommit(false);
-        cfg.setMaximumPoolSize(configuration.getConnectionPoolMaxSize());
+        cfg.setMaximumPoolSize(maxPoolSize);
         cfg.setMinimumIdle(configuration.getConnectionPoolMinIdle());
         cfg.setMaxLifetime(configuration.getConnectionMaxLifetime());
         cfg.setIdleTimeout(configuration.getConnectionIdleTimeout());
         cfg.setConnectionTimeout(configuration.getConnectionTimeout());
         cfg.setTransactionIsolation(configuration.getTransactionIsolationLevel());
         cfg.setAutoCommit(configuration.isAutoCommit());
+        // Lets batched inserts, such as those of createTasks, be sent as multi-row statements
+        cfg.addDataSourceProperty("rewriteBatchedStatements", "true");
 
         ThreadFactory tf = new ThreadFactoryBuilder()
                 .setDaemon(true)
-                .setNameFormat("hikari-mysql-%d")
+                .setNameFormat(threadNameFormat)
                 .build();
 
         cfg.setThreadFactory(tf);
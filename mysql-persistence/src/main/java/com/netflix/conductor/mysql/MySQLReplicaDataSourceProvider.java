@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.mysql;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.sql.DataSource;
+
+/**
+ * Provides the read-only pool of the replica serving the reads that tolerate replication lag, or the primary
+ * {@link DataSource} when no replica is configured. Migrations are only run on the primary.
+ */
+public class MySQLReplicaDataSourceProvider implements Provider<DataSource> {
+    private static final Logger logger = LoggerFactory.getLogger(MySQLReplicaDataSourceProvider.class);
+
+    public static final String REPLICA_DATA_SOURCE_INJECTION_NAME = "MySQLReplicaDataSource";
+
+    private final MySQLConfiguration configuration;
+    private final DataSource dataSource;
+
+    @Inject
+    public MySQLReplicaDataSourceProvider(MySQLConfiguration configuration, DataSource dataSource) {
+        this.configuration = configuration;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public DataSource get() {
+        return configuration.getReplicaJdbcUrl().<DataSource>map(jdbcUrl -> {
+            logger.info("Serving the reads that tolerate replication lag from the replica {}", jdbcUrl);
+            HikariConfig cfg = MySQLDataSourceProvider.createConfiguration(configuration, jdbcUrl,
+                    configuration.getReplicaJdbcUserName(), configuration.getReplicaJdbcPassword(),
+                    configuration.getReplicaConnectionPoolMaxSize(), "hikari-mysql-replica-%d");
+            cfg.setReadOnly(true);
+            return new HikariDataSource(cfg);
+        }).orElse(dataSource);
+    }
+}
@@ -14,6 +14,7 @@ package com.netflix.conductor.mysql;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
+import com.google.inject.name.Names;
 import com.netflix.conductor.dao.EventHandlerDAO;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.MetadataDAO;
@@ -34,6 +35,8 @@ public class MySQLWorkflowModule extends AbstractModule {
     protected void configure() {
         bind(MySQLConfiguration.class).to(SystemPropertiesMySQLConfiguration.class);
         bind(DataSource.class).toProvider(MySQLDataSourceProvider.class).in(Scopes.SINGLETON);
+        bind(DataSource.class).annotatedWith(Names.named(MySQLReplicaDataSourceProvider.REPLICA_DATA_SOURCE_INJECTION_NAME))
+                .toProvider(MySQLReplicaDataSourceProvider.class).in(Scopes.SINGLETON);
         bind(MetadataDAO.class).to(MySQLMetadataDAO.class);
         bind(EventHandlerDAO.class).to(MySQLMetadataDAO.class);
         bind(ExecutionDAO.class).to(MySQLExecutionDAO.class);
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.sql;
+
+/**
+ * Consistency required by a read, which decides whether it may be served by the replica.
+ */
+public enum ReadConsistency {
+	/**
+	 * Sees every committed write, read from the primary. Reads of the decider and of locks need it.
+	 */
+	STRONG,
+	/**
+	 * Tolerates the replication lag, read from the replica when one is configured. Searches and UI reads use it.
+	 */
+	EVENTUAL
+}
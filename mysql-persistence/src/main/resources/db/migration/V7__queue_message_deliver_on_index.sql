@@ -0,0 +1,2 @@
+# Lets the oldest deliverable message of a queue be read from the index, regardless of priorities.
+CREATE INDEX queue_message_deliver_on ON queue_message (queue_name,popped,deliver_on);
@@ -0,0 +1,7 @@
+# Changes with every task or workflow definition write, so that servers caching definitions know when to reload them.
+CREATE TABLE meta_definitions_version (
+  id INT NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id)
+);
+INSERT INTO meta_definitions_version (id, version) VALUES (1, 0);
@@ -61,6 +61,7 @@ public class MySQLDAOTestUtil {
         dataSource.setUsername(config.getProperty("jdbc.username", "conductor"));
         dataSource.setPassword(config.getProperty("jdbc.password", "password"));
         dataSource.setAutoCommit(false);
+        dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
 
         // Prevent DB from getting exhausted during rapid testing
         dataSource.setMaximumPoolSize(8);
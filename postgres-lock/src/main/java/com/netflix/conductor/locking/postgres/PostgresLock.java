@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.conductor.locking.postgres;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.utils.Lock;
+import com.netflix.conductor.locking.postgres.config.PostgresLockConfiguration;
+import com.netflix.conductor.metrics.Monitors;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Lock} on PostgreSQL session level advisory locks, keyed by a 64 bit hash of the lock id.
+ * <p>
+ * The connection an advisory lock is taken on is pinned to it until the lock is released, as closing the session is
+ * what releases its locks when a server dies. A lock held past its lease is released by a reaper, locks acquired
+ * without a lease are held until released.
+ */
+public class PostgresLock implements Lock {
+
+    public static final String DATA_SOURCE_INJECTION_NAME = "PostgresLockDataSource";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostgresLock.class);
+    private static final String LOCK_TYPE = "postgres";
+
+    private final PostgresLockConfiguration configuration;
+    private final DataSource dataSource;
+    private final String namespace;
+    private final long retryIntervalMs;
+    private final ConcurrentHashMap<String, LockHolder> heldLocks = new ConcurrentHashMap<>();
+
+    @Inject
+    public PostgresLock(@Named(DATA_SOURCE_INJECTION_NAME) DataSource dataSource,
+                        PostgresLockConfiguration configuration) {
+        this.configuration = configuration;
+        this.dataSource = dataSource;
+        this.namespace = configuration.getLockNamespace();
+        this.retryIntervalMs = Math.max(configuration.getRetryIntervalMs(), 1);
+
+        long reaperIntervalMs = Math.max(configuration.getLeaseReaperIntervalMs(), 1);
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("postgres-lock-reaper-%d").setDaemon(true).build())
+                .scheduleWithFixedDelay(this::releaseExpiredLeases, reaperIntervalMs, reaperIntervalMs,
+                        TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void acquireLock(String lockId) {
+        String key = parseLockId(lockId);
+        if (reenter(key, -1)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long lockKey = hash(key);
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_lock(?)")) {
+                statement.setLong(1, lockKey);
+                statement.execute();
+            }
+            heldLocks.put(key, new LockHolder(connection, lockKey, -1));
+            Monitors.recordAcquireLockTime(LOCK_TYPE, System.currentTimeMillis() - start, true);
+        } catch (SQLException e) {
+            close(connection);
+            Monitors.recordAcquireLockFailure(e.getClass().getName());
+            throw new ApplicationException(ApplicationException.Code.BACKEND_ERROR, "Failed to acquire lock " + lockId, e);
+        }
+    }
+
+    @Override
+    public boolean acquireLock(String lockId, long timeToTry, TimeUnit unit) {
+        return acquireLock(lockId, timeToTry, -1, unit);
+    }
+
+    /**
+     * @param lockId    resource to lock on
+     * @param timeToTry blocks up to timeToTry duration in attempt to acquire the lock
+     * @param leaseTime lock lease expiration duration, the lock is held until released when negative
+     * @param unit      time unit
+     * @return true if the lock was acquired
+     */
+    @Override
+    public boolean acquireLock(String lockId, long timeToTry, long leaseTime, TimeUnit unit) {
+        String key = parseLockId(lockId);
+        long leaseTimeMs = leaseTime < 0 ? -1 : unit.toMillis(leaseTime);
+        if (reenter(key, leaseTimeMs)) {
+            return true;
+        }
+
+        long start = System.currentTimeMillis();
+        long deadline = start + unit.toMillis(timeToTry);
+        long lockKey = hash(key);
+        Connection connection = null;
+        boolean acquired = false;
+        boolean contended = false;
+        try {
+            connection = dataSource.getConnection();
+            while (!(acquired = tryLock(connection, lockKey))) {
+                if (!contended) {
+                    contended = true;
+                    Monitors.recordAcquireLockContended(LOCK_TYPE);
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                Thread.sleep(Math.min(retryIntervalMs, remaining));
+            }
+        } catch (SQLException e) {
+            return handleAcquireLockFailure(lockId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return handleAcquireLockFailure(lockId, e);
+        } finally {
+            if (!acquired) {
+                close(connection);
+            }
+        }
+
+        Monitors.recordAcquireLockTime(LOCK_TYPE, System.currentTimeMillis() - start, acquired);
+        if (acquired) {
+            heldLocks.put(key, new LockHolder(connection, lockKey, leaseTimeMs));
+        }
+        return acquired;
+    }
+
+    @Override
+    public void releaseLock(String lockId) {
+        String key = parseLockId(lockId);
+        LockHolder holder = heldLocks.get(key);
+        if (holder == null || holder.owner != Thread.currentThread()) {
+            // Not held, or its lease expired and it was released by the reaper
+            return;
+        }
+        if (holder.holdCount > 1) {
+            holder.holdCount--;
+            return;
+        }
+        if (heldLocks.remove(key, holder)) {
+            unlock(holder);
+        }
+    }
+
+    @Override
+    public void deleteLock(String lockId) {
+        // Noop as releaseLock frees the advisory lock.
+    }
+
+    @VisibleForTesting
+    void releaseExpiredLeases() {
+        long now = System.currentTimeMillis();
+        heldLocks.forEach((key, holder) -> {
+            if (holder.isExpired(now) && heldLocks.remove(key, holder)) {
+                LOGGER.warn("Lease of lock {} held by {} expired, releasing it", key, holder.owner.getName());
+                Monitors.recordLockLeaseExpired(LOCK_TYPE);
+                unlock(holder);
+            }
+        });
+    }
+
+    @VisibleForTesting
+    int getHeldLockCount() {
+        return heldLocks.size();
+    }
+
+    private boolean reenter(String key, long leaseTimeMs) {
+        LockHolder holder = heldLocks.get(key);
+        if (holder == null || holder.owner != Thread.currentThread()) {
+            return false;
+        }
+        holder.holdCount++;
+        holder.extendLease(leaseTimeMs);
+        return true;
+    }
+
+    private boolean tryLock(Connection connection, long lockKey) throws SQLException {
+        return execute(connection, "SELECT pg_try_advisory_lock(?)", lockKey);
+    }
+
+    private void unlock(LockHolder holder) {
+        try {
+            if (!execute(holder.connection, "SELECT pg_advisory_unlock(?)", holder.lockKey)) {
+                LOGGER.warn("Advisory lock {} was not held by its connection", holder.lockKey);
+            }
+            holder.connection.close();
+        } catch (SQLException e) {
+            LOGGER.error("Failed to release advisory lock {}, evicting its connection", holder.lockKey, e);
+            // Closing the session is the only other way to release the lock
+            if (dataSource instanceof HikariDataSource) {
+                ((HikariDataSource) dataSource).evictConnection(holder.connection);
+            } else {
+                close(holder.connection);
+            }
+        }
+    }
+
+    private static boolean execute(Connection connection, String sql, long lockKey) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, lockKey);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.error("Failed to close lock connection", e);
+        }
+    }
+
+    private String parseLockId(String lockId) {
+        if (StringUtils.isEmpty(lockId)) {
+            throw new IllegalArgumentException("lockId cannot be NULL or empty: lockId=" + lockId);
+        }
+        return namespace + "." + lockId;
+    }
+
+    private static long hash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+
+    private boolean handleAcquireLockFailure(String lockId, Exception e) {
+        LOGGER.error("Failed to acquireLock for lockId: {}", lockId, e);
+        Monitors.recordAcquireLockFailure(e.getClass().getName());
+        // As with the other locks, optionally continue without a lock while the database is unavailable.
+        return configuration.ignoreLockingExceptions();
+    }
+
+    private static class LockHolder {
+        private final Connection connection;
+        private final long lockKey;
+        private final Thread owner = Thread.currentThread();
+        private volatile long expiresAt;
+        // only updated by the owner
+        private int holdCount = 1;
+
+        private LockHolder(Connection connection, long lockKey, long leaseTimeMs) {
+            this.connection = connection;
+            this.lockKey = lockKey;
+            this.expiresAt = leaseTimeMs < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + leaseTimeMs;
+        }
+
+        private void extendLease(long leaseTimeMs) {
+            long leaseEnd = leaseTimeMs < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + leaseTimeMs;
+            expiresAt = Math.max(expiresAt, leaseEnd);
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
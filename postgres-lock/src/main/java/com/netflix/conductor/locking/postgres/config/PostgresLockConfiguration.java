@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.conductor.locking.postgres.config;
+
+import com.netflix.conductor.core.config.Configuration;
+
+public interface PostgresLockConfiguration extends Configuration {
+
+    // The lock database defaults to the one of postgres-persistence
+    String JDBC_URL_PROPERTY_NAME = "workflow.postgres.locking.jdbc.url";
+    String JDBC_URL_DEFAULT_VALUE = "jdbc:postgresql://localhost:5432/conductor";
+    String JDBC_USER_NAME_PROPERTY_NAME = "workflow.postgres.locking.jdbc.username";
+    String JDBC_USER_NAME_DEFAULT_VALUE = "conductor";
+    String JDBC_PASSWORD_PROPERTY_NAME = "workflow.postgres.locking.jdbc.password";
+    String JDBC_PASSWORD_DEFAULT_VALUE = "password";
+
+    // Every held lock pins a connection, so this is also the maximum number of locks held at once by a server
+    String CONNECTION_POOL_MAX_SIZE_PROPERTY_NAME = "workflow.postgres.locking.connection.pool.size.max";
+    int CONNECTION_POOL_MAX_SIZE_DEFAULT_VALUE = 50;
+    String CONNECTION_TIMEOUT_MS_PROPERTY_NAME = "workflow.postgres.locking.connection.timeout.ms";
+    long CONNECTION_TIMEOUT_MS_DEFAULT_VALUE = 1000;
+
+    String RETRY_INTERVAL_MS_PROPERTY_NAME = "workflow.postgres.locking.retry.interval.ms";
+    long RETRY_INTERVAL_MS_DEFAULT_VALUE = 10;
+    String LEASE_REAPER_INTERVAL_MS_PROPERTY_NAME = "workflow.postgres.locking.lease.reaper.interval.ms";
+    long LEASE_REAPER_INTERVAL_MS_DEFAULT_VALUE = 1000;
+
+    default String getJdbcUrl() {
+        return getProperty(JDBC_URL_PROPERTY_NAME, getProperty("jdbc.url", JDBC_URL_DEFAULT_VALUE));
+    }
+
+    default String getJdbcUserName() {
+        return getProperty(JDBC_USER_NAME_PROPERTY_NAME, getProperty("jdbc.username", JDBC_USER_NAME_DEFAULT_VALUE));
+    }
+
+    default String getJdbcPassword() {
+        return getProperty(JDBC_PASSWORD_PROPERTY_NAME, getProperty("jdbc.password", JDBC_PASSWORD_DEFAULT_VALUE));
+    }
+
+    default int getConnectionPoolMaxSize() {
+        return getIntProperty(CONNECTION_POOL_MAX_SIZE_PROPERTY_NAME, CONNECTION_POOL_MAX_SIZE_DEFAULT_VALUE);
+    }
+
+    default long getConnectionTimeoutMs() {
+        return getLongProperty(CONNECTION_TIMEOUT_MS_PROPERTY_NAME, CONNECTION_TIMEOUT_MS_DEFAULT_VALUE);
+    }
+
+    default long getRetryIntervalMs() {
+        return getLongProperty(RETRY_INTERVAL_MS_PROPERTY_NAME, RETRY_INTERVAL_MS_DEFAULT_VALUE);
+    }
+
+    default long getLeaseReaperIntervalMs() {
+        return getLongProperty(LEASE_REAPER_INTERVAL_MS_PROPERTY_NAME, LEASE_REAPER_INTERVAL_MS_DEFAULT_VALUE);
+    }
+
+    default String getLockNamespace() {
+        return getProperty("workflow.decider.locking.namespace", "");
+    }
+}
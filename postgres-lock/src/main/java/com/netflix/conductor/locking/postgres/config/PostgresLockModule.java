@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.conductor.locking.postgres.config;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.netflix.conductor.core.utils.Lock;
+import com.netflix.conductor.locking.postgres.PostgresLock;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.inject.Named;
+import javax.sql.DataSource;
+
+public class PostgresLockModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bind(PostgresLockConfiguration.class).to(SystemPropertiesPostgresLockConfiguration.class);
+        bind(Lock.class).to(PostgresLock.class).in(Singleton.class);
+    }
+
+    /**
+     * A pool of its own, so that the connections pinned by held locks never starve the persistence of connections.
+     */
+    @Provides
+    @javax.inject.Singleton
+    @Named(PostgresLock.DATA_SOURCE_INJECTION_NAME)
+    public DataSource getLockDataSource(PostgresLockConfiguration configuration) {
+        return createDataSource(configuration);
+    }
+
+    public static HikariDataSource createDataSource(PostgresLockConfiguration configuration) {
+        HikariConfig cfg = new HikariConfig();
+        cfg.setJdbcUrl(configuration.getJdbcUrl());
+        cfg.setUsername(configuration.getJdbcUserName());
+        cfg.setPassword(configuration.getJdbcPassword());
+        // Advisory locks are taken at session level, outside of any transaction
+        cfg.setAutoCommit(true);
+        cfg.setMaximumPoolSize(configuration.getConnectionPoolMaxSize());
+        cfg.setConnectionTimeout(configuration.getConnectionTimeoutMs());
+        cfg.setPoolName("postgres-lock");
+        cfg.setThreadFactory(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("hikari-postgres-lock-%d")
+                .build());
+        return new HikariDataSource(cfg);
+    }
+}
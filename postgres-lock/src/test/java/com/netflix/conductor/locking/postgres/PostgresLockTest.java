@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.conductor.locking.postgres;
+
+import com.netflix.conductor.locking.postgres.config.PostgresLockConfiguration;
+import com.netflix.conductor.locking.postgres.config.PostgresLockModule;
+import com.netflix.conductor.locking.postgres.config.SystemPropertiesPostgresLockConfiguration;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs against the database started by the docker-compose file of this module.
+ */
+public class PostgresLockTest {
+
+    private final PostgresLockConfiguration configuration = new SystemPropertiesPostgresLockConfiguration() {
+        @Override
+        public String getJdbcUrl() {
+            return "jdbc:postgresql://localhost:54320/postgres";
+        }
+
+        @Override
+        public String getJdbcUserName() {
+            return "postgres";
+        }
+
+        @Override
+        public String getJdbcPassword() {
+            return "postgres";
+        }
+
+        @Override
+        public long getLeaseReaperIntervalMs() {
+            return 50;
+        }
+    };
+
+    // Two servers sharing the database
+    private HikariDataSource dataSource1;
+    private HikariDataSource dataSource2;
+    private PostgresLock lock1;
+    private PostgresLock lock2;
+
+    @Before
+    public void setUp() {
+        dataSource1 = PostgresLockModule.createDataSource(configuration);
+        dataSource2 = PostgresLockModule.createDataSource(configuration);
+        lock1 = new PostgresLock(dataSource1, configuration);
+        lock2 = new PostgresLock(dataSource2, configuration);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource1.close();
+        dataSource2.close();
+    }
+
+    @Test
+    public void testLockIsReentrantAndExclusive() throws Exception {
+        String lockId = "reentrant_workflow";
+        assertTrue(lock1.acquireLock(lockId, 100, TimeUnit.MILLISECONDS));
+        assertTrue(lock1.acquireLock(lockId, 100, TimeUnit.MILLISECONDS));
+        assertFalse(lock2.acquireLock(lockId, 100, TimeUnit.MILLISECONDS));
+        // another thread of the same server does not get it either
+        assertFalse(Executors.newSingleThreadExecutor()
+                .submit(() -> lock1.acquireLock(lockId, 100, TimeUnit.MILLISECONDS)).get());
+
+        lock1.releaseLock(lockId);
+        assertFalse(lock2.acquireLock(lockId, 100, TimeUnit.MILLISECONDS));
+        lock1.releaseLock(lockId);
+        assertEquals(0, lock1.getHeldLockCount());
+        assertTrue(lock2.acquireLock(lockId, 100, TimeUnit.MILLISECONDS));
+        lock2.releaseLock(lockId);
+    }
+
+    @Test
+    public void testExpiredLeaseIsReleased() throws Exception {
+        String lockId = "leased_workflow";
+        assertTrue(lock1.acquireLock(lockId, 100, 200, TimeUnit.MILLISECONDS));
+        assertFalse(lock2.acquireLock(lockId, 0, TimeUnit.MILLISECONDS));
+
+        assertTrue(lock2.acquireLock(lockId, 2000, 200, TimeUnit.MILLISECONDS));
+        assertEquals(0, lock1.getHeldLockCount());
+        // releasing after the lease expired leaves the lock of the other server alone
+        lock1.releaseLock(lockId);
+        assertFalse(lock1.acquireLock(lockId, 0, TimeUnit.MILLISECONDS));
+        lock2.releaseLock(lockId);
+    }
+
+    @Test
+    public void testConcurrentDeciders() throws Exception {
+        int workflows = 10;
+        int decidesPerThread = 50;
+        AtomicInteger[] inDecide = new AtomicInteger[workflows];
+        for (int i = 0; i < workflows; i++) {
+            inDecide[i] = new AtomicInteger();
+        }
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger decides = new AtomicInteger();
+
+        // 4 decider threads on each server
+        ExecutorService deciders = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            PostgresLock lock = t % 2 == 0 ? lock1 : lock2;
+            futures.add(deciders.submit(() -> {
+                for (int i = 0; i < decidesPerThread; i++) {
+                    int workflow = ThreadLocalRandom.current().nextInt(workflows);
+                    String workflowId = "concurrent_workflow_" + workflow;
+                    if (!lock.acquireLock(workflowId, 500, 60000, TimeUnit.MILLISECONDS)) {
+                        continue;
+                    }
+                    try {
+                        if (inDecide[workflow].incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        Thread.sleep(2);
+                        inDecide[workflow].decrementAndGet();
+                        decides.incrementAndGet();
+                    } finally {
+                        lock.releaseLock(workflowId);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        deciders.shutdown();
+
+        assertEquals(0, overlaps.get());
+        assertTrue(decides.get() > 0);
+        assertEquals(0, lock1.getHeldLockCount());
+        assertEquals(0, lock2.getHeldLockCount());
+        assertEquals(0, dataSource1.getHikariPoolMXBean().getActiveConnections());
+        assertEquals(0, dataSource2.getHikariPoolMXBean().getActiveConnections());
+    }
+}
@@ -20,6 +20,7 @@ import com.netflix.conductor.common.utils.RetryUtil;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.postgres.sql.ExecuteFunction;
 import com.netflix.conductor.postgres.sql.QueryFunction;
+import com.netflix.conductor.postgres.sql.ReadConsistency;
 import com.netflix.conductor.postgres.sql.TransactionalFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,10 +55,19 @@ public abstract class PostgresBaseDAO {
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     protected final ObjectMapper objectMapper;
     protected final DataSource dataSource;
+    /**
+     * Serves the {@link ReadConsistency#EVENTUAL} reads, the same as {@link #dataSource} without a replica.
+     */
+    protected final DataSource replicaDataSource;
 
     protected PostgresBaseDAO(ObjectMapper om, DataSource dataSource) {
+        this(om, dataSource, dataSource);
+    }
+
+    protected PostgresBaseDAO(ObjectMapper om, DataSource dataSource, DataSource replicaDataSource) {
         this.objectMapper = om;
         this.dataSource = dataSource;
+        this.replicaDataSource = replicaDataSource;
     }
 
     protected final LazyToString getCallingMethod() {
@@ -93,7 +103,7 @@ public abstract class PostgresBaseDAO {
     }
 
     /**
-     * Initialize a new transactional {@link Connection} from {@link #dataSource} and pass it to {@literal function}.
+     * Initialize a new transactional {@link Connection} from {@literal source} and pass it to {@literal function}.
      * <p>
      * Successful executions of {@literal function} will result in a commit and return of
      * {@link TransactionalFunction#apply(Connection)}.
@@ -105,17 +115,18 @@ public abstract class PostgresBaseDAO {
      * Generally this is used to wrap multiple {@link #execute(Connection, String, ExecuteFunction)} or
      * {@link #query(Connection, String, QueryFunction)} invocations that produce some expected return value.
      *
+     * @param source   The {@link DataSource} to get the {@link Connection} from
      * @param function The function to apply with a new transactional {@link Connection}
      * @param <R>      The return type.
      * @return The result of {@code TransactionalFunction#apply(Connection)}
      * @throws ApplicationException If any errors occur.
      */
-    private <R> R getWithTransaction(final TransactionalFunction<R> function){
+    private <R> R getWithTransaction(final DataSource source, final TransactionalFunction<R> function){
         final Instant start = Instant.now();
         LazyToString callingMethod = getCallingMethod();
         logger.trace("{} : starting transaction", callingMethod);
 
-        try(Connection tx = dataSource.getConnection()) {
+        try(Connection tx = source.getConnection()) {
             boolean previousAutoCommitMode = tx.getAutoCommit();
             tx.setAutoCommit(false);
             try {
@@ -136,9 +147,18 @@ public abstract class PostgresBaseDAO {
     }
 
     <R> R getWithRetriedTransactions(final TransactionalFunction<R> function) {
+        return getWithRetriedTransactions(ReadConsistency.STRONG, function);
+    }
+
+    /**
+     * Same as {@link #getWithRetriedTransactions(TransactionalFunction)}, on the replica when {@literal consistency}
+     * allows it, in which case {@literal function} must only read.
+     */
+    <R> R getWithRetriedTransactions(ReadConsistency consistency, final TransactionalFunction<R> function) {
+        DataSource source = consistency == ReadConsistency.EVENTUAL ? replicaDataSource : dataSource;
         try {
             return new RetryUtil<R>().retryOnException(
-                    () -> getWithTransaction(function),
+                    () -> getWithTransaction(source, function),
                     this::isDeadLockError,
                     null,
                     MAX_RETRY_ON_DEADLOCK,
@@ -207,6 +227,20 @@ public abstract class PostgresBaseDAO {
         return getWithRetriedTransactions(tx -> query(tx, query, function));
     }
 
+    /**
+     * Same as {@link #queryWithTransaction(String, QueryFunction)}, on the replica when {@literal consistency} allows
+     * it.
+     *
+     * @param consistency The consistency the query requires.
+     * @param query       The query string to prepare.
+     * @param function    The functional callback to pass a {@link Query} to.
+     * @param <R>         The expected return type of {@literal function}.
+     * @return The results of applying {@literal function}.
+     */
+    protected <R> R queryWithTransaction(ReadConsistency consistency, String query, QueryFunction<R> function) {
+        return getWithRetriedTransactions(consistency, tx -> query(tx, query, function));
+    }
+
     /**
      * Execute a {@link Query} within the context of a given transaction and return the results of {@literal function}.
      *
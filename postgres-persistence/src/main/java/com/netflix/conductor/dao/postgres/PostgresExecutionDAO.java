@@ -13,8 +13,10 @@
 package com.netflix.conductor.dao.postgres;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
 import com.netflix.conductor.common.metadata.events.EventExecution;
 import com.netflix.conductor.common.metadata.tasks.PollData;
@@ -22,20 +24,35 @@ import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.execution.ApplicationException;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.PollDataDAO;
 import com.netflix.conductor.dao.RateLimitingDAO;
 import com.netflix.conductor.metrics.Monitors;
+import com.netflix.conductor.postgres.PostgresConfiguration;
+import com.netflix.conductor.postgres.PostgresReplicaDataSourceProvider;
+import com.netflix.conductor.postgres.sql.ReadConsistency;
 import java.sql.Connection;
 import java.sql.Date;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.sql.DataSource;
 
@@ -44,10 +61,48 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
 
     private static final String ARCHIVED_FIELD = "archived";
     private static final String RAW_JSON_FIELD = "rawJSON";
+    private static final int CREATE_TASKS_BATCH_SIZE = 1000;
+    private static final int WORKFLOWS_BY_TYPE_PAGE_SIZE = 100;
+    private static final int WORKFLOW_CREATED_TIMES_CACHE_SIZE = 100_000;
+
+    private static final String INSERT_PARTITIONED_WORKFLOW_TO_TASK = "INSERT INTO workflow_to_task (workflow_id, task_id, created_time) "
+            + "VALUES (?, ?, ?) ON CONFLICT (workflow_id,task_id,created_time) DO NOTHING";
+
+    /**
+     * Inserts or updates a task in the partition recorded for it in task_created_time, recording the given one for a
+     * new task, so that concurrent writes of the same task end up in the same row.
+     */
+    private static final String UPSERT_PARTITIONED_TASK = "WITH created AS ("
+            + "INSERT INTO task_created_time (task_id, created_time) VALUES (?, ?) "
+            + "ON CONFLICT (task_id) DO UPDATE SET created_time = task_created_time.created_time RETURNING created_time) "
+            + "INSERT INTO task (task_id, json_data, modified_on, created_time) "
+            + "SELECT ?, ?::jsonb, CURRENT_TIMESTAMP, created_time FROM created "
+            + "ON CONFLICT (task_id,created_time) DO UPDATE SET json_data=excluded.json_data, modified_on=excluded.modified_on";
+
+    /**
+     * With partitioned tables, workflow, task, workflow_to_task and workflow_def_to_workflow are partitioned by the
+     * creation time of the workflow (created_time, in epoch milliseconds, 0 for tasks without a stored workflow) and
+     * store JSONB. The workflow_created_time and task_created_time tables map ids to it, so that every read and write
+     * by id is bound to a single partition.
+     */
+    private final boolean partitioned;
+
+    /**
+     * The creation times of workflows, which never change, read from or written to workflow_created_time.
+     */
+    private final Cache<String, Long> workflowCreatedTimes = CacheBuilder.newBuilder()
+            .maximumSize(WORKFLOW_CREATED_TIMES_CACHE_SIZE).build();
+
+    public PostgresExecutionDAO(ObjectMapper objectMapper, DataSource dataSource, PostgresConfiguration config) {
+        this(objectMapper, dataSource, dataSource, config);
+    }
 
     @Inject
-    public PostgresExecutionDAO(ObjectMapper objectMapper, DataSource dataSource) {
-        super(objectMapper, dataSource);
+    public PostgresExecutionDAO(ObjectMapper objectMapper, DataSource dataSource,
+                                @Named(PostgresReplicaDataSourceProvider.REPLICA_DATA_SOURCE_INJECTION_NAME) DataSource replicaDataSource,
+                                PostgresConfiguration config) {
+        super(objectMapper, dataSource, replicaDataSource);
+        this.partitioned = config.isPartitionedExecutionTablesEnabled();
     }
 
     private static String dateStr(Long timeInMs) {
@@ -64,7 +119,7 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
     public List<Task> getPendingTasksByWorkflow(String taskDefName, String workflowId) {
         // @formatter:off
         String GET_IN_PROGRESS_TASKS_FOR_WORKFLOW = "SELECT json_data FROM task_in_progress tip "
-                + "INNER JOIN task t ON t.task_id = tip.task_id " + "WHERE task_def_name = ? AND workflow_id = ?";
+                + joinTask("tip") + "WHERE task_def_name = ? AND workflow_id = ?";
         // @formatter:on
 
         return queryWithTransaction(GET_IN_PROGRESS_TASKS_FOR_WORKFLOW,
@@ -106,47 +161,162 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
         List<Task> created = Lists.newArrayListWithCapacity(tasks.size());
 
         withTransaction(connection -> {
-            for (Task task : tasks) {
-                validate(task);
-
-                task.setScheduledTime(System.currentTimeMillis());
-
-                final String taskKey = taskKey(task);
-
-                boolean scheduledTaskAdded = addScheduledTask(connection, task, taskKey);
+            for (List<Task> batch : Lists.partition(tasks, CREATE_TASKS_BATCH_SIZE)) {
+                for (Task task : batch) {
+                    validate(task);
+                    task.setScheduledTime(System.currentTimeMillis());
+                }
 
-                if (!scheduledTaskAdded) {
-                    logger.trace("Task already scheduled, skipping the run " + task.getTaskId() + ", ref="
-                            + task.getReferenceTaskName() + ", key=" + taskKey);
+                Set<String> scheduledTaskIds = addScheduledTasks(connection, batch);
+                List<Task> scheduled = new ArrayList<>(scheduledTaskIds.size());
+                for (Task task : batch) {
+                    if (scheduledTaskIds.contains(task.getTaskId())) {
+                        scheduled.add(task);
+                    } else {
+                        logger.trace("Task already scheduled, skipping the run " + task.getTaskId() + ", ref="
+                                + task.getReferenceTaskName() + ", key=" + taskKey(task));
+                    }
+                }
+                if (scheduled.isEmpty()) {
                     continue;
                 }
 
-                insertOrUpdateTaskData(connection, task);
-                addWorkflowToTaskMapping(connection, task);
-                addTaskInProgress(connection, task);
-                updateTask(connection, task);
+                insertTaskData(connection, scheduled);
+                addWorkflowToTaskMappings(connection, scheduled);
+                addTasksInProgress(connection, scheduled);
 
-                created.add(task);
+                created.addAll(scheduled);
             }
         });
 
         return created;
     }
 
+    /**
+     * Adds the scheduled task entries of the tasks in one statement.
+     *
+     * @return the ids of the tasks that were added, tasks whose reference name and retry count are already scheduled
+     * in their workflow are left out
+     */
+    private Set<String> addScheduledTasks(Connection connection, List<Task> tasks) {
+        final String INSERT_IGNORE_SCHEDULED_TASKS = "INSERT INTO task_scheduled (workflow_id, task_key, task_id) VALUES "
+                + String.join(", ", Collections.nCopies(tasks.size(), "(?, ?, ?)"))
+                + " ON CONFLICT (workflow_id,task_key) DO NOTHING RETURNING task_id";
+
+        return new HashSet<>(query(connection, INSERT_IGNORE_SCHEDULED_TASKS, q -> {
+            tasks.forEach(task -> q.addParameter(task.getWorkflowInstanceId()).addParameter(taskKey(task))
+                    .addParameter(task.getTaskId()));
+            return q.executeScalarList(String.class);
+        }));
+    }
+
+    private void insertTaskData(Connection connection, List<Task> tasks) {
+        if (partitioned) {
+            execute(connection, UPSERT_PARTITIONED_TASK, q -> {
+                tasks.forEach(task -> bindPartitionedTask(connection, q, task).addBatch());
+                q.executeBatch();
+            });
+            return;
+        }
+
+        String INSERT_TASK = "INSERT INTO task (task_id, json_data, modified_on) VALUES (?, ?, CURRENT_TIMESTAMP) ON CONFLICT (task_id) DO UPDATE SET json_data=excluded.json_data, modified_on=excluded.modified_on";
+
+        execute(connection, INSERT_TASK, q -> {
+            tasks.forEach(task -> q.addParameter(task.getTaskId()).addJsonParameter(task).addBatch());
+            q.executeBatch();
+        });
+    }
+
+    private void addWorkflowToTaskMappings(Connection connection, List<Task> tasks) {
+        if (partitioned) {
+            execute(connection, INSERT_PARTITIONED_WORKFLOW_TO_TASK, q -> {
+                tasks.forEach(task -> bindPartitionedWorkflowToTask(connection, q, task).addBatch());
+                q.executeBatch();
+            });
+            return;
+        }
+
+        String INSERT_WORKFLOW_TO_TASK = "INSERT INTO workflow_to_task (workflow_id, task_id) VALUES (?, ?) ON CONFLICT (workflow_id,task_id) DO NOTHING";
+
+        execute(connection, INSERT_WORKFLOW_TO_TASK, q -> {
+            tasks.forEach(task -> q.addParameter(task.getWorkflowInstanceId()).addParameter(task.getTaskId()).addBatch());
+            q.executeBatch();
+        });
+    }
+
+    /**
+     * Adds the in progress entries of the tasks that are not terminal yet, marking those of tasks with a concurrency
+     * limit that are already in progress.
+     */
+    private void addTasksInProgress(Connection connection, List<Task> tasks) {
+        List<Task> pending = tasks.stream()
+                .filter(task -> task.getStatus() == null || !task.getStatus().isTerminal())
+                .collect(Collectors.toList());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        String INSERT_IN_PROGRESS_TASK = "INSERT INTO task_in_progress (task_def_name, task_id, workflow_id, in_progress_status) VALUES (?, ?, ?, ?) ON CONFLICT (task_def_name,task_id) DO NOTHING";
+
+        execute(connection, INSERT_IN_PROGRESS_TASK, q -> {
+            for (Task task : pending) {
+                boolean inProgress = task.getTaskDefinition().map(taskDef -> taskDef.concurrencyLimit() > 0).orElse(false)
+                        && task.getStatus() == Task.Status.IN_PROGRESS;
+                q.addParameter(task.getTaskDefName()).addParameter(task.getTaskId())
+                        .addParameter(task.getWorkflowInstanceId()).addParameter(inProgress).addBatch();
+            }
+            q.executeBatch();
+        });
+    }
+
     @Override
     public void updateTask(Task task) {
         withTransaction(connection -> updateTask(connection, task));
     }
 
     /**
-     * This is a dummy implementation and this feature is not for Postgres backed
-     * Conductor
+     * Counts the task in the current window of <code>rateLimitFrequencyInSeconds</code> of its definition, unless
+     * <code>rateLimitPerFrequency</code> tasks were counted in it already, with a single upsert which returns no row
+     * when the limit is reached. Windows are aligned to the epoch, so up to twice the limit may start around the end
+     * of a window. The first task counted in a window removes the rows of the past windows of its definition.
      *
      * @param task: which needs to be evaluated whether it is rateLimited or not
-     * @return
+     * @return true if the limit of the task definition was reached in the current window
      */
     @Override
     public boolean exceedsRateLimitPerFrequency(Task task, TaskDef taskDef) {
+        int rateLimitPerFrequency = taskDef != null ? taskDef.getRateLimitPerFrequency() : task.getRateLimitPerFrequency();
+        int rateLimitFrequencyInSeconds = taskDef != null ? taskDef.getRateLimitFrequencyInSeconds()
+                : task.getRateLimitFrequencyInSeconds();
+        if (rateLimitPerFrequency <= 0 || rateLimitFrequencyInSeconds <= 0) {
+            return false;
+        }
+
+        long windowMillis = rateLimitFrequencyInSeconds * 1000L;
+        long now = System.currentTimeMillis();
+        long windowStart = now - now % windowMillis;
+
+        // @formatter:off
+        String INCREMENT_TASK_RATE_LIMIT = "INSERT INTO task_rate_limit (task_def_name, window_start, task_count) "
+                + "VALUES (?, ?, 1) ON CONFLICT (task_def_name, window_start) DO UPDATE "
+                + "SET task_count = task_rate_limit.task_count + 1 WHERE task_rate_limit.task_count < ? "
+                + "RETURNING task_count";
+        // @formatter:on
+
+        Integer count = queryWithTransaction(INCREMENT_TASK_RATE_LIMIT, q -> q.addParameter(task.getTaskDefName())
+                .addParameter(windowStart).addParameter(rateLimitPerFrequency).executeAndFetchFirst(Integer.class));
+        if (count == null) {
+            logger.debug("Task: {} of {} is out of bounds of the rate limit of {} per {} seconds", task.getTaskId(),
+                    task.getTaskDefName(), rateLimitPerFrequency, rateLimitFrequencyInSeconds);
+            return true;
+        }
+
+        if (count == 1) {
+            String REMOVE_PAST_TASK_RATE_LIMITS = "DELETE FROM task_rate_limit WHERE task_def_name = ? AND window_start < ?";
+            executeWithTransaction(REMOVE_PAST_TASK_RATE_LIMITS,
+                    q -> q.addParameter(task.getTaskDefName()).addParameter(windowStart).executeDelete());
+        }
+        Monitors.recordTaskRateLimited(task.getTaskDefName(), rateLimitPerFrequency);
         return false;
     }
 
@@ -165,26 +335,35 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
             return false;
         }
 
-        long current = getInProgressTaskCount(task.getTaskDefName());
+        // @formatter:off
+        // the in progress count and whether the task is among the first to arrive, in one round trip
+        String GET_IN_PROGRESS_LIMIT_STATE = "SELECT "
+                + "(SELECT COUNT(*) FROM task_in_progress WHERE task_def_name = ? AND in_progress_status = true) AS current, "
+                + "(SELECT COUNT(*) FROM (SELECT task_id FROM task_in_progress WHERE task_def_name = ? ORDER BY id LIMIT ?) arrived "
+                + "WHERE task_id = ?) AS admitted";
+        // @formatter:on
+
+        long[] state = queryWithTransaction(GET_IN_PROGRESS_LIMIT_STATE, q -> q.addParameter(task.getTaskDefName())
+                .addParameter(task.getTaskDefName()).addParameter(limit).addParameter(task.getTaskId())
+                .executeAndFetch(rs -> {
+                    rs.next();
+                    return new long[]{rs.getLong("current"), rs.getLong("admitted")};
+                }));
+        long current = state[0];
 
         if (current >= limit) {
             Monitors.recordTaskConcurrentExecutionLimited(task.getTaskDefName(), limit);
             return true;
         }
 
-        logger.info("Task execution count for {}: limit={}, current={}", task.getTaskDefName(), limit,
-                getInProgressTaskCount(task.getTaskDefName()));
-
-        String taskId = task.getTaskId();
-
-        List<String> tasksInProgressInOrderOfArrival = findAllTasksInProgressInOrderOfArrival(task, limit);
-
-        boolean rateLimited = !tasksInProgressInOrderOfArrival.contains(taskId);
+        boolean rateLimited = state[1] == 0;
 
         if (rateLimited) {
             logger.info("Task execution count limited. {}, limit {}, current {}", task.getTaskDefName(), limit,
-                    getInProgressTaskCount(task.getTaskDefName()));
+                    current);
             Monitors.recordTaskConcurrentExecutionLimited(task.getTaskDefName(), limit);
+        } else {
+            logger.debug("Task execution count for {}: limit={}, current={}", task.getTaskDefName(), limit, current);
         }
 
         return rateLimited;
@@ -212,6 +391,14 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
 
     @Override
     public Task getTask(String taskId) {
+        if (partitioned) {
+            // the sub-select is evaluated before the scan, so only the partition of the task is read
+            String GET_TASK = "SELECT json_data FROM task WHERE task_id = ? "
+                    + "AND created_time = (SELECT created_time FROM task_created_time WHERE task_id = ?)";
+            return queryWithTransaction(GET_TASK,
+                    q -> q.addParameter(taskId).addParameter(taskId).executeAndFetchFirst(Task.class));
+        }
+
         String GET_TASK = "SELECT json_data FROM task WHERE task_id = ?";
         return queryWithTransaction(GET_TASK, q -> q.addParameter(taskId).executeAndFetchFirst(Task.class));
     }
@@ -229,7 +416,7 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
         Preconditions.checkNotNull(taskName, "task name cannot be null");
         // @formatter:off
         String GET_IN_PROGRESS_TASKS_FOR_TYPE = "SELECT json_data FROM task_in_progress tip "
-                + "INNER JOIN task t ON t.task_id = tip.task_id " + "WHERE task_def_name = ?";
+                + joinTask("tip") + "WHERE task_def_name = ?";
         // @formatter:on
 
         return queryWithTransaction(GET_IN_PROGRESS_TASKS_FOR_TYPE,
@@ -238,11 +425,24 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
 
     @Override
     public List<Task> getTasksForWorkflow(String workflowId) {
+        return getWithRetriedTransactions(tx -> getTasksForWorkflow(tx, workflowId));
+    }
+
+    private List<Task> getTasksForWorkflow(Connection connection, String workflowId) {
+        if (partitioned) {
+            String GET_TASKS_FOR_WORKFLOW = "SELECT task_id FROM workflow_to_task WHERE workflow_id = ? AND created_time = ?";
+            return query(connection, GET_TASKS_FOR_WORKFLOW, q -> {
+                List<String> taskIds = q.addParameter(workflowId)
+                        .addParameter(partitionCreatedTime(connection, workflowId)).executeScalarList(String.class);
+                return getTasks(connection, taskIds);
+            });
+        }
+
         String GET_TASKS_FOR_WORKFLOW = "SELECT task_id FROM workflow_to_task WHERE workflow_id = ?";
-        return getWithRetriedTransactions(tx -> query(tx, GET_TASKS_FOR_WORKFLOW, q -> {
+        return query(connection, GET_TASKS_FOR_WORKFLOW, q -> {
             List<String> taskIds = q.addParameter(workflowId).executeScalarList(String.class);
-            return getTasks(tx, taskIds);
-        }));
+            return getTasks(connection, taskIds);
+        });
     }
 
     @Override
@@ -255,6 +455,34 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
         return insertOrUpdateWorkflow(workflow, true);
     }
 
+    /**
+     * Updates the workflow first, so that concurrent updates of the same workflow wait for each other on its row
+     * instead of deadlocking on the rows of its tasks.
+     */
+    @Override
+    public void compareAndSetWorkflow(Workflow workflow, List<Task> tasks) {
+        Preconditions.checkNotNull(workflow, "workflow object cannot be null");
+        try {
+            withTransaction(connection -> {
+                if (!compareAndSetWorkflow(connection, workflow)) {
+                    throw new ConcurrentUpdateException(workflow);
+                }
+                for (Task task : tasks) {
+                    if (!compareAndSetTaskData(connection, task)) {
+                        throw new ConcurrentUpdateException(workflow);
+                    }
+                    updateTaskIndexes(connection, task);
+                }
+            });
+        } catch (ApplicationException e) {
+            if (e.getCause() instanceof ConcurrentUpdateException) {
+                // rolled back
+                throw (ConcurrentUpdateException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     @Override
     public boolean removeWorkflow(String workflowId) {
         boolean removed = false;
@@ -265,6 +493,9 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
                 removeWorkflow(connection, workflowId);
                 removePendingWorkflow(connection, workflow.getWorkflowName(), workflowId);
             });
+            if (partitioned) {
+                workflowCreatedTimes.invalidate(workflowId);
+            }
             removed = true;
 
             for (Task task : workflow.getTasks()) {
@@ -288,16 +519,7 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
 
     @Override
     public Workflow getWorkflow(String workflowId, boolean includeTasks) {
-        Workflow workflow = getWithRetriedTransactions(tx -> readWorkflow(tx, workflowId));
-
-        if (workflow != null) {
-            if (includeTasks) {
-                List<Task> tasks = getTasksForWorkflow(workflowId);
-                tasks.sort(Comparator.comparingLong(Task::getScheduledTime).thenComparingInt(Task::getSeq));
-                workflow.setTasks(tasks);
-            }
-        }
-        return workflow;
+        return getWithRetriedTransactions(tx -> readWorkflow(tx, workflowId, includeTasks));
     }
 
     /**
@@ -350,19 +572,18 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
         Preconditions.checkNotNull(startTime, "startTime cannot be null");
         Preconditions.checkNotNull(endTime, "endTime cannot be null");
 
-        List<Workflow> workflows = new LinkedList<>();
-
-        withTransaction(tx -> {
+        return getWithRetriedTransactions(ReadConsistency.EVENTUAL, tx -> {
             // @formatter:off
             String GET_ALL_WORKFLOWS_FOR_WORKFLOW_DEF = "SELECT workflow_id FROM workflow_def_to_workflow "
                     + "WHERE workflow_def = ? AND date_str BETWEEN ? AND ?";
             // @formatter:on
 
+            List<Workflow> workflows = new LinkedList<>();
             List<String> workflowIds = query(tx, GET_ALL_WORKFLOWS_FOR_WORKFLOW_DEF, q -> q.addParameter(workflowName)
                     .addParameter(dateStr(startTime)).addParameter(dateStr(endTime)).executeScalarList(String.class));
             workflowIds.forEach(workflowId -> {
                 try {
-                    Workflow wf = getWorkflow(workflowId);
+                    Workflow wf = readWorkflow(tx, workflowId, true);
                     if (wf.getCreateTime() >= startTime && wf.getCreateTime() <= endTime) {
                         workflows.add(wf);
                     }
@@ -370,9 +591,65 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
                     logger.error("Unable to load workflow id {} with name {}", workflowId, workflowName, e);
                 }
             });
+            return workflows;
         });
+    }
 
-        return workflows;
+    /**
+     * Reads the workflows, without their tasks, one page per query joining the workflows to the workflow definition
+     * mapping, with keyset pagination on the creation day and workflow id.
+     */
+    @Override
+    public Stream<Workflow> streamWorkflowsByType(String workflowName, Long startTime, Long endTime) {
+        Preconditions.checkNotNull(workflowName, "workflowName cannot be null");
+        Preconditions.checkNotNull(startTime, "startTime cannot be null");
+        Preconditions.checkNotNull(endTime, "endTime cannot be null");
+
+        // @formatter:off
+        String GET_WORKFLOWS_FOR_WORKFLOW_DEF_PAGE = "SELECT wd.date_str, wd.workflow_id, w.json_data "
+                + "FROM workflow_def_to_workflow wd INNER JOIN workflow w ON w.workflow_id = wd.workflow_id "
+                + (partitioned ? "AND w.created_time = wd.created_time " : "")
+                + "WHERE wd.workflow_def = ? AND (wd.date_str, wd.workflow_id) > (?, ?) AND wd.date_str <= ? "
+                + "ORDER BY wd.date_str, wd.workflow_id LIMIT ?";
+        // @formatter:on
+        String endDate = dateStr(endTime);
+
+        Iterator<List<Workflow>> pages = new AbstractIterator<List<Workflow>>() {
+            private String lastDateStr = dateStr(startTime);
+            private String lastWorkflowId = "";
+            private boolean lastPage;
+
+            @Override
+            protected List<Workflow> computeNext() {
+                if (lastPage) {
+                    return endOfData();
+                }
+                String fromDateStr = lastDateStr;
+                String fromWorkflowId = lastWorkflowId;
+                List<Workflow> page = new ArrayList<>(WORKFLOWS_BY_TYPE_PAGE_SIZE);
+                int rows = queryWithTransaction(ReadConsistency.EVENTUAL, GET_WORKFLOWS_FOR_WORKFLOW_DEF_PAGE,
+                        q -> q.addParameter(workflowName).addParameter(fromDateStr).addParameter(fromWorkflowId)
+                                .addParameter(endDate).addParameter(WORKFLOWS_BY_TYPE_PAGE_SIZE).executeAndFetch(rs -> {
+                                    page.clear();
+                                    int count = 0;
+                                    while (rs.next()) {
+                                        count++;
+                                        lastDateStr = rs.getString("date_str");
+                                        lastWorkflowId = rs.getString("workflow_id");
+                                        Workflow workflow = readValue(rs.getString("json_data"), Workflow.class);
+                                        if (workflow.getCreateTime() >= startTime && workflow.getCreateTime() <= endTime) {
+                                            page.add(workflow);
+                                        }
+                                    }
+                                    return count;
+                                }));
+                lastPage = rows < WORKFLOWS_BY_TYPE_PAGE_SIZE;
+                return page;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+                .flatMap(List::stream);
     }
 
     @Override
@@ -380,9 +657,12 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
         Preconditions.checkNotNull(correlationId, "correlationId cannot be null");
         String GET_WORKFLOWS_BY_CORRELATION_ID = "SELECT workflow_id FROM workflow WHERE correlation_id = ?";
 
-        return queryWithTransaction(GET_WORKFLOWS_BY_CORRELATION_ID,
-                q -> q.addParameter(correlationId).executeScalarList(String.class).stream()
-                        .map(workflowId -> getWorkflow(workflowId, includeTasks)).collect(Collectors.toList()));
+        return getWithRetriedTransactions(ReadConsistency.EVENTUAL, tx -> {
+            List<String> workflowIds = query(tx, GET_WORKFLOWS_BY_CORRELATION_ID,
+                    q -> q.addParameter(correlationId).executeScalarList(String.class));
+            return workflowIds.stream().map(workflowId -> readWorkflow(tx, workflowId, includeTasks))
+                    .collect(Collectors.toList());
+        });
     }
 
     @Override
@@ -423,8 +703,8 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
     public List<EventExecution> getEventExecutions(String eventHandlerName, String eventName, String messageId,
                                                    int max) {
         try {
-            List<EventExecution> executions = Lists.newLinkedList();
-            withTransaction(tx -> {
+            return getWithRetriedTransactions(ReadConsistency.EVENTUAL, tx -> {
+                List<EventExecution> executions = Lists.newLinkedList();
                 for (int i = 0; i < max; i++) {
                     String executionId = messageId + "_" + i; // see SimpleEventProcessor.handle to understand how the
                     // execution id is set
@@ -434,8 +714,8 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
                     }
                     executions.add(ee);
                 }
+                return executions;
             });
-            return executions;
         } catch (Exception e) {
             String message = String.format(
                     "Unable to get event executions for eventHandlerName=%s, eventName=%s, messageId=%s",
@@ -452,11 +732,17 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
         withTransaction(tx -> insertOrUpdatePollData(tx, pollData, effectiveDomain));
     }
 
+    @Override
+    public void updateLastPollData(List<PollData> pollData) {
+        withTransaction(tx -> pollData.forEach(data -> insertOrUpdatePollData(tx, data,
+                (data.getDomain() == null) ? "DEFAULT" : data.getDomain())));
+    }
+
     @Override
     public PollData getPollData(String taskDefName, String domain) {
         Preconditions.checkNotNull(taskDefName, "taskDefName name cannot be null");
         String effectiveDomain = (domain == null) ? "DEFAULT" : domain;
-        return getWithRetriedTransactions(tx -> readPollData(tx, taskDefName, effectiveDomain));
+        return getWithRetriedTransactions(ReadConsistency.EVENTUAL, tx -> readPollData(tx, taskDefName, effectiveDomain));
     }
 
     @Override
@@ -470,6 +756,21 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
             return Lists.newArrayList();
         }
 
+        if (partitioned) {
+            // the tasks of a workflow share one created time, binding it limits the query to their partition
+            List<Long> createdTimes = taskCreatedTimes(connection, taskIds).values().stream().distinct()
+                    .collect(Collectors.toList());
+            if (createdTimes.isEmpty()) {
+                return Lists.newArrayList();
+            }
+            final String GET_TASKS_FOR_IDS = String.format(
+                    "SELECT json_data FROM task WHERE task_id IN (%s) AND created_time IN (%s) AND json_data IS NOT NULL",
+                    Query.generateInBindings(taskIds.size()), Query.generateInBindings(createdTimes.size()));
+
+            return query(connection, GET_TASKS_FOR_IDS,
+                    q -> q.addParameters(taskIds).addParameters(createdTimes).executeAndFetch(Task.class));
+        }
+
         // Generate a formatted query string with a variable number of bind params based
         // on taskIds.size()
         final String GET_TASKS_FOR_IDS = String.format(
@@ -515,7 +816,10 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
         }
 
         insertOrUpdateTaskData(connection, task);
+        updateTaskIndexes(connection, task);
+    }
 
+    private void updateTaskIndexes(Connection connection, Task task) {
         if (task.getStatus() != null && task.getStatus().isTerminal()) {
             removeTaskInProgress(connection, task);
         }
@@ -524,12 +828,45 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
     }
 
     private Workflow readWorkflow(Connection connection, String workflowId) {
+        if (partitioned) {
+            Long createdTime = workflowCreatedTime(connection, workflowId);
+            if (createdTime == null) {
+                return null;
+            }
+            String GET_WORKFLOW = "SELECT json_data FROM workflow WHERE workflow_id = ? AND created_time = ?";
+            return query(connection, GET_WORKFLOW, q -> q.addParameter(workflowId).addParameter(createdTime)
+                    .executeAndFetchFirst(Workflow.class));
+        }
+
         String GET_WORKFLOW = "SELECT json_data FROM workflow WHERE workflow_id = ?";
 
         return query(connection, GET_WORKFLOW, q -> q.addParameter(workflowId).executeAndFetchFirst(Workflow.class));
     }
 
+    private Workflow readWorkflow(Connection connection, String workflowId, boolean includeTasks) {
+        Workflow workflow = readWorkflow(connection, workflowId);
+
+        if (workflow != null && includeTasks) {
+            List<Task> tasks = getTasksForWorkflow(connection, workflowId);
+            tasks.sort(Comparator.comparingLong(Task::getScheduledTime).thenComparingInt(Task::getSeq));
+            workflow.setTasks(tasks);
+        }
+        return workflow;
+    }
+
     private void addWorkflow(Connection connection, Workflow workflow) {
+        if (partitioned) {
+            String INSERT_WORKFLOW = "WITH created AS (INSERT INTO workflow_created_time (workflow_id, created_time) VALUES (?, ?)) "
+                    + "INSERT INTO workflow (workflow_id, correlation_id, json_data, created_time) VALUES (?, ?, ?::jsonb, ?)";
+
+            execute(connection, INSERT_WORKFLOW, q -> q.addParameter(workflow.getWorkflowId())
+                    .addParameter(workflow.getCreateTime()).addParameter(workflow.getWorkflowId())
+                    .addParameter(workflow.getCorrelationId()).addJsonParameter(workflow)
+                    .addParameter(workflow.getCreateTime()).executeUpdate());
+            workflowCreatedTimes.put(workflow.getWorkflowId(), workflow.getCreateTime());
+            return;
+        }
+
         String INSERT_WORKFLOW = "INSERT INTO workflow (workflow_id, correlation_id, json_data) VALUES (?, ?, ?)";
 
         execute(connection, INSERT_WORKFLOW, q -> q.addParameter(workflow.getWorkflowId())
@@ -537,13 +874,71 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
     }
 
     private void updateWorkflow(Connection connection, Workflow workflow) {
-        String UPDATE_WORKFLOW = "UPDATE workflow SET json_data = ?, modified_on = CURRENT_TIMESTAMP WHERE workflow_id = ?";
+        if (partitioned) {
+            String UPDATE_WORKFLOW = "UPDATE workflow SET json_data = ?::jsonb, modified_on = CURRENT_TIMESTAMP WHERE workflow_id = ? AND created_time = ?";
+
+            execute(connection, UPDATE_WORKFLOW, q -> q.addJsonParameter(workflow).addParameter(workflow.getWorkflowId())
+                    .addParameter(partitionCreatedTime(connection, workflow.getWorkflowId())).executeUpdate());
+            return;
+        }
+
+        String UPDATE_WORKFLOW = "UPDATE workflow SET json_data = " + (partitioned ? "?::jsonb" : "?") + ", modified_on = CURRENT_TIMESTAMP WHERE workflow_id = ?";
 
         execute(connection, UPDATE_WORKFLOW,
                 q -> q.addJsonParameter(workflow).addParameter(workflow.getWorkflowId()).executeUpdate());
     }
 
+    /**
+     * Writes the workflow without its tasks if its stored revision is the one it was read with.
+     *
+     * @return false if the workflow was updated or removed since
+     */
+    private boolean compareAndSetWorkflow(Connection connection, Workflow workflow) {
+        String CAS_WORKFLOW = "UPDATE workflow SET json_data = " + (partitioned ? "?::jsonb" : "?") + ", modified_on = CURRENT_TIMESTAMP "
+                + "WHERE workflow_id = ? AND COALESCE((json_data::jsonb ->> 'revision')::bigint, 0) = ?"
+                + (partitioned ? " AND created_time = ?" : "");
+
+        long revision = workflow.getRevision();
+        List<Task> tasks = workflow.getTasks();
+        workflow.setTasks(Lists.newLinkedList());
+        workflow.setRevision(revision + 1);
+        try {
+            boolean updated = query(connection, CAS_WORKFLOW, q -> {
+                q.addJsonParameter(workflow).addParameter(workflow.getWorkflowId()).addParameter(revision);
+                if (partitioned) {
+                    q.addParameter(partitionCreatedTime(connection, workflow.getWorkflowId()));
+                }
+                return q.executeUpdate();
+            }) == 1;
+            if (updated) {
+                if (workflow.getStatus().isTerminal()) {
+                    removePendingWorkflow(connection, workflow.getWorkflowName(), workflow.getWorkflowId());
+                } else {
+                    addPendingWorkflow(connection, workflow.getWorkflowName(), workflow.getWorkflowId());
+                }
+            }
+            return updated;
+        } finally {
+            workflow.setTasks(tasks);
+        }
+    }
+
     private void removeWorkflow(Connection connection, String workflowId) {
+        if (partitioned) {
+            // the task mappings are removed with the workflow, whose created time they are partitioned by
+            String REMOVE_WORKFLOW_TO_TASKS = "DELETE FROM workflow_to_task WHERE workflow_id = ? AND created_time = ?";
+            String REMOVE_WORKFLOW = "DELETE FROM workflow WHERE workflow_id = ? AND created_time = ?";
+            String REMOVE_WORKFLOW_CREATED_TIME = "DELETE FROM workflow_created_time WHERE workflow_id = ?";
+
+            long createdTime = partitionCreatedTime(connection, workflowId);
+            execute(connection, REMOVE_WORKFLOW_TO_TASKS,
+                    q -> q.addParameter(workflowId).addParameter(createdTime).executeDelete());
+            execute(connection, REMOVE_WORKFLOW,
+                    q -> q.addParameter(workflowId).addParameter(createdTime).executeDelete());
+            execute(connection, REMOVE_WORKFLOW_CREATED_TIME, q -> q.addParameter(workflowId).executeDelete());
+            return;
+        }
+
         String REMOVE_WORKFLOW = "DELETE FROM workflow WHERE workflow_id = ?";
         execute(connection, REMOVE_WORKFLOW, q -> q.addParameter(workflowId).executeDelete());
     }
@@ -565,18 +960,80 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
     }
 
     private void insertOrUpdateTaskData(Connection connection, Task task) {
+        if (partitioned) {
+            execute(connection, UPSERT_PARTITIONED_TASK, q -> bindPartitionedTask(connection, q, task).executeUpdate());
+            return;
+        }
 
         String INSERT_TASK = "INSERT INTO task (task_id, json_data, modified_on) VALUES (?, ?, CURRENT_TIMESTAMP) ON CONFLICT (task_id) DO UPDATE SET json_data=excluded.json_data, modified_on=excluded.modified_on";
         execute(connection, INSERT_TASK, q -> q.addParameter(task.getTaskId()).addJsonParameter(task).executeUpdate());
 
     }
 
+    /**
+     * Writes the task if its stored revision is the one it was read with, updating its concurrency limit status.
+     *
+     * @return false if the task was updated or removed since
+     */
+    private boolean compareAndSetTaskData(Connection connection, Task task) {
+        String CAS_TASK = "UPDATE task SET json_data = " + (partitioned ? "?::jsonb" : "?") + ", modified_on = CURRENT_TIMESTAMP "
+                + "WHERE task_id = ? AND COALESCE((json_data::jsonb ->> 'revision')::bigint, 0) = ?"
+                + (partitioned ? " AND created_time = ?" : "");
+
+        Long createdTime = null;
+        if (partitioned) {
+            createdTime = taskCreatedTimes(connection, Collections.singletonList(task.getTaskId())).get(task.getTaskId());
+            if (createdTime == null) {
+                return false;
+            }
+        }
+        Long taskCreatedTime = createdTime;
+
+        long revision = task.getRevision();
+        task.setRevision(revision + 1);
+        if (query(connection, CAS_TASK, q -> {
+            q.addJsonParameter(task).addParameter(task.getTaskId()).addParameter(revision);
+            if (taskCreatedTime != null) {
+                q.addParameter(taskCreatedTime);
+            }
+            return q.executeUpdate();
+        }) == 0) {
+            return false;
+        }
+
+        Optional<TaskDef> taskDefinition = task.getTaskDefinition();
+        if (taskDefinition.isPresent() && taskDefinition.get().concurrencyLimit() > 0) {
+            updateInProgressStatus(connection, task, task.getStatus() == Task.Status.IN_PROGRESS);
+        }
+        return true;
+    }
+
     private void removeTaskData(Connection connection, Task task) {
+        if (partitioned) {
+            Long createdTime = taskCreatedTimes(connection, Collections.singletonList(task.getTaskId()))
+                    .get(task.getTaskId());
+            if (createdTime == null) {
+                return;
+            }
+            String REMOVE_TASK = "DELETE FROM task WHERE task_id = ? AND created_time = ?";
+            String REMOVE_TASK_CREATED_TIME = "DELETE FROM task_created_time WHERE task_id = ?";
+
+            execute(connection, REMOVE_TASK,
+                    q -> q.addParameter(task.getTaskId()).addParameter(createdTime).executeDelete());
+            execute(connection, REMOVE_TASK_CREATED_TIME, q -> q.addParameter(task.getTaskId()).executeDelete());
+            return;
+        }
+
         String REMOVE_TASK = "DELETE FROM task WHERE task_id = ?";
         execute(connection, REMOVE_TASK, q -> q.addParameter(task.getTaskId()).executeDelete());
     }
 
     private void addWorkflowToTaskMapping(Connection connection, Task task) {
+        if (partitioned) {
+            execute(connection, INSERT_PARTITIONED_WORKFLOW_TO_TASK,
+                    q -> bindPartitionedWorkflowToTask(connection, q, task).executeUpdate());
+            return;
+        }
 
         String INSERT_WORKFLOW_TO_TASK = "INSERT INTO workflow_to_task (workflow_id, task_id) VALUES (?, ?) ON CONFLICT (workflow_id,task_id) DO NOTHING";
 
@@ -585,7 +1042,27 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
 
     }
 
+    private Query bindPartitionedWorkflowToTask(Connection connection, Query q, Task task) {
+        return q.addParameter(task.getWorkflowInstanceId()).addParameter(task.getTaskId())
+                .addParameter(partitionCreatedTime(connection, task.getWorkflowInstanceId()));
+    }
+
+    private Query bindPartitionedTask(Connection connection, Query q, Task task) {
+        return q.addParameter(task.getTaskId())
+                .addParameter(partitionCreatedTime(connection, task.getWorkflowInstanceId()))
+                .addParameter(task.getTaskId()).addJsonParameter(task);
+    }
+
     private void removeWorkflowToTaskMapping(Connection connection, Task task) {
+        if (partitioned) {
+            String REMOVE_WORKFLOW_TO_TASK = "DELETE FROM workflow_to_task WHERE workflow_id = ? AND task_id = ? AND created_time = ?";
+
+            execute(connection, REMOVE_WORKFLOW_TO_TASK, q -> q.addParameter(task.getWorkflowInstanceId())
+                    .addParameter(task.getTaskId())
+                    .addParameter(partitionCreatedTime(connection, task.getWorkflowInstanceId())).executeDelete());
+            return;
+        }
+
         String REMOVE_WORKFLOW_TO_TASK = "DELETE FROM workflow_to_task WHERE workflow_id = ? AND task_id = ?";
 
         execute(connection, REMOVE_WORKFLOW_TO_TASK,
@@ -593,6 +1070,16 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
     }
 
     private void addWorkflowDefToWorkflowMapping(Connection connection, Workflow workflow) {
+        if (partitioned) {
+            String INSERT_WORKFLOW_DEF_TO_WORKFLOW = "INSERT INTO workflow_def_to_workflow (workflow_def, date_str, workflow_id, created_time) VALUES (?, ?, ?, ?)";
+
+            execute(connection, INSERT_WORKFLOW_DEF_TO_WORKFLOW,
+                    q -> q.addParameter(workflow.getWorkflowName()).addParameter(dateStr(workflow.getCreateTime()))
+                            .addParameter(workflow.getWorkflowId()).addParameter(workflow.getCreateTime())
+                            .executeUpdate());
+            return;
+        }
+
         String INSERT_WORKFLOW_DEF_TO_WORKFLOW = "INSERT INTO workflow_def_to_workflow (workflow_def, date_str, workflow_id) VALUES (?, ?, ?)";
 
         execute(connection, INSERT_WORKFLOW_DEF_TO_WORKFLOW,
@@ -608,15 +1095,59 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
                         .addParameter(workflow.getWorkflowId()).executeUpdate());
     }
 
-    @VisibleForTesting
-    boolean addScheduledTask(Connection connection, Task task, String taskKey) {
+    /**
+     * Joins the task rows to a table aliased as the given one by task id, through task_created_time when the tables are
+     * partitioned so that the join is bound to the partition of each task.
+     */
+    private String joinTask(String alias) {
+        if (partitioned) {
+            return "INNER JOIN task_created_time tc ON tc.task_id = " + alias + ".task_id "
+                    + "INNER JOIN task t ON t.task_id = tc.task_id AND t.created_time = tc.created_time ";
+        }
+        return "INNER JOIN task t ON t.task_id = " + alias + ".task_id ";
+    }
+
+    /**
+     * @return the creation time of the workflow, or null if it is not stored
+     */
+    private Long workflowCreatedTime(Connection connection, String workflowId) {
+        Long createdTime = workflowCreatedTimes.getIfPresent(workflowId);
+        if (createdTime != null) {
+            return createdTime;
+        }
 
-        final String INSERT_IGNORE_SCHEDULED_TASK = "INSERT INTO task_scheduled (workflow_id, task_key, task_id) VALUES (?, ?, ?) ON CONFLICT (workflow_id,task_key) DO NOTHING";
+        String GET_WORKFLOW_CREATED_TIME = "SELECT created_time FROM workflow_created_time WHERE workflow_id = ?";
+        createdTime = query(connection, GET_WORKFLOW_CREATED_TIME,
+                q -> q.addParameter(workflowId).executeAndFetch(rs -> rs.next() ? rs.getLong(1) : null));
+        if (createdTime != null) {
+            workflowCreatedTimes.put(workflowId, createdTime);
+        }
+        return createdTime;
+    }
 
-        int count = query(connection, INSERT_IGNORE_SCHEDULED_TASK, q -> q.addParameter(task.getWorkflowInstanceId())
-                .addParameter(taskKey).addParameter(task.getTaskId()).executeUpdate());
-        return count > 0;
+    /**
+     * @return the created time of the partitions of the workflow and its tasks, 0 if the workflow is not stored
+     */
+    private long partitionCreatedTime(Connection connection, String workflowId) {
+        Long createdTime = workflowCreatedTime(connection, workflowId);
+        return createdTime == null ? 0 : createdTime;
+    }
+
+    /**
+     * @return the created times of the stored tasks among the given ones, by task id
+     */
+    private Map<String, Long> taskCreatedTimes(Connection connection, List<String> taskIds) {
+        String GET_TASK_CREATED_TIMES = String.format(
+                "SELECT task_id, created_time FROM task_created_time WHERE task_id IN (%s)",
+                Query.generateInBindings(taskIds.size()));
 
+        return query(connection, GET_TASK_CREATED_TIMES, q -> q.addParameters(taskIds).executeAndFetch(rs -> {
+            Map<String, Long> createdTimes = new HashMap<>();
+            while (rs.next()) {
+                createdTimes.put(rs.getString("task_id"), rs.getLong("created_time"));
+            }
+            return createdTimes;
+        }));
     }
 
     private void removeScheduledTask(Connection connection, Task task, String taskKey) {
@@ -625,20 +1156,6 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
                 q -> q.addParameter(task.getWorkflowInstanceId()).addParameter(taskKey).executeDelete());
     }
 
-    private void addTaskInProgress(Connection connection, Task task) {
-        String EXISTS_IN_PROGRESS_TASK = "SELECT EXISTS(SELECT 1 FROM task_in_progress WHERE task_def_name = ? AND task_id = ?)";
-
-        boolean exist = query(connection, EXISTS_IN_PROGRESS_TASK,
-                q -> q.addParameter(task.getTaskDefName()).addParameter(task.getTaskId()).exists());
-
-        if (!exist) {
-            String INSERT_IN_PROGRESS_TASK = "INSERT INTO task_in_progress (task_def_name, task_id, workflow_id) VALUES (?, ?, ?)";
-
-            execute(connection, INSERT_IN_PROGRESS_TASK, q -> q.addParameter(task.getTaskDefName())
-                    .addParameter(task.getTaskId()).addParameter(task.getWorkflowInstanceId()).executeUpdate());
-        }
-    }
-
     private void removeTaskInProgress(Connection connection, Task task) {
         String REMOVE_IN_PROGRESS_TASK = "DELETE FROM task_in_progress WHERE task_def_name = ? AND task_id = ?";
 
@@ -713,14 +1230,8 @@ public class PostgresExecutionDAO extends PostgresBaseDAO implements ExecutionDA
 
     private List<PollData> readAllPollData(String queueName) {
         String GET_ALL_POLL_DATA = "SELECT json_data FROM poll_data WHERE queue_name = ?";
-        return queryWithTransaction(GET_ALL_POLL_DATA, q -> q.addParameter(queueName).executeAndFetch(PollData.class));
-    }
-
-    private List<String> findAllTasksInProgressInOrderOfArrival(Task task, int limit) {
-        String GET_IN_PROGRESS_TASKS_WITH_LIMIT = "SELECT task_id FROM task_in_progress WHERE task_def_name = ? ORDER BY id LIMIT ?";
-
-        return queryWithTransaction(GET_IN_PROGRESS_TASKS_WITH_LIMIT,
-                q -> q.addParameter(task.getTaskDefName()).addParameter(limit).executeScalarList(String.class));
+        return queryWithTransaction(ReadConsistency.EVENTUAL, GET_ALL_POLL_DATA,
+                q -> q.addParameter(queueName).executeAndFetch(PollData.class));
     }
 
     private void validate(Task task) {
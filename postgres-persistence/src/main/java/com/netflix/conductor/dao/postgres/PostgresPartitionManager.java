@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dao.postgres;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.conductor.metrics.Monitors;
+import com.netflix.conductor.postgres.PostgresConfiguration;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sql.DataSource;
+
+/**
+ * Maintains the daily partitions of the execution tables when they are partitioned by creation time.
+ * <p>
+ * Partitions are created ahead of time for {@link PostgresConfiguration#getPartitionPremakeDays()} days. With a
+ * retention set, the partitions of a day older than {@link PostgresConfiguration#getPartitionRetentionDays()} are
+ * dropped from all the partitioned tables at once, instead of deleting their rows, as soon as none of the workflows
+ * created that day are still pending. The tasks of a workflow are in the partitions of the day it was created, the
+ * created time lookup rows of the workflows and tasks of the day are deleted with them.
+ */
+@Singleton
+public class PostgresPartitionManager extends PostgresBaseDAO {
+
+    static final List<String> PARTITIONED_TABLES =
+            Arrays.asList("workflow", "task", "workflow_to_task", "workflow_def_to_workflow");
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyyMMdd");
+    private static final long MAINTENANCE_INTERVAL_MINUTES = 60;
+
+    private final int premakeDays;
+    private final int retentionDays;
+
+    @Inject
+    public PostgresPartitionManager(ObjectMapper om, DataSource dataSource, PostgresConfiguration config) {
+        super(om, dataSource);
+        this.premakeDays = Math.max(config.getPartitionPremakeDays(), 1);
+        this.retentionDays = config.getPartitionRetentionDays();
+
+        if (config.isPartitionedExecutionTablesEnabled()) {
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("postgres-partition-manager-%d").setDaemon(true).build())
+                    .scheduleWithFixedDelay(this::maintain, 0, MAINTENANCE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+            logger.info("Maintaining daily partitions {} days ahead, retention {} days", premakeDays, retentionDays);
+        }
+    }
+
+    private void maintain() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        try {
+            for (int i = 0; i <= premakeDays; i++) {
+                createPartitions(today.plusDays(i));
+            }
+            if (retentionDays > 0) {
+                dropPartitionsBefore(today.minusDays(retentionDays));
+            }
+        } catch (Exception e) {
+            logger.error("Error maintaining the partitions of the execution tables", e);
+            Monitors.error(PostgresPartitionManager.class.getSimpleName(), "maintain");
+        }
+    }
+
+    @VisibleForTesting
+    void createPartitions(LocalDate day) {
+        long from = day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        long to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        withTransaction(tx -> PARTITIONED_TABLES.forEach(table -> execute(tx,
+                String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM (%d) TO (%d)",
+                        partitionName(table, day), table, from, to),
+                Query::executeUpdate)));
+    }
+
+    /**
+     * @return the number of days whose partitions were dropped
+     */
+    @VisibleForTesting
+    int dropPartitionsBefore(LocalDate cutoff) {
+        final String PARTITIONS_QUERY = "SELECT c.relname FROM pg_inherits i "
+                + "INNER JOIN pg_class c ON c.oid = i.inhrelid "
+                + "INNER JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?";
+
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (String table : PARTITIONED_TABLES) {
+            queryWithTransaction(PARTITIONS_QUERY, q -> q.addParameter(table).executeScalarList(String.class))
+                    .forEach(partition -> parseDay(table, partition)
+                            .filter(day -> day.isBefore(cutoff))
+                            .ifPresent(days::add));
+        }
+
+        int dropped = 0;
+        for (LocalDate day : days) {
+            if (dropPartitions(day)) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private boolean dropPartitions(LocalDate day) {
+        return getWithRetriedTransactions(tx -> {
+            List<String> partitions = PARTITIONED_TABLES.stream()
+                    .map(table -> partitionName(table, day))
+                    .filter(partition -> exists(tx, partition))
+                    .collect(Collectors.toList());
+
+            String workflows = partitionName("workflow", day);
+            String mappings = partitionName("workflow_to_task", day);
+            List<String> workflowIds = partitions.stream()
+                    .filter(partition -> partition.equals(workflows) || partition.equals(mappings))
+                    .map(partition -> "SELECT workflow_id FROM " + partition)
+                    .collect(Collectors.toList());
+            if (!workflowIds.isEmpty()) {
+                String PENDING_WORKFLOWS_QUERY = "SELECT EXISTS(SELECT 1 FROM workflow_pending WHERE workflow_id IN ("
+                        + String.join(" UNION ALL ", workflowIds) + "))";
+                if (query(tx, PENDING_WORKFLOWS_QUERY, Query::exists)) {
+                    logger.info("Keeping the partitions of {}, some of their workflows are still pending", day);
+                    return false;
+                }
+            }
+
+            if (partitions.contains(workflows)) {
+                execute(tx, "DELETE FROM task_scheduled ts USING " + workflows + " w WHERE ts.workflow_id = w.workflow_id",
+                        Query::executeUpdate);
+                execute(tx, "DELETE FROM workflow_created_time c USING " + workflows + " w WHERE c.workflow_id = w.workflow_id",
+                        Query::executeUpdate);
+            }
+            String tasks = partitionName("task", day);
+            if (partitions.contains(tasks)) {
+                execute(tx, "DELETE FROM task_created_time c USING " + tasks + " t WHERE c.task_id = t.task_id",
+                        Query::executeUpdate);
+            }
+            for (String table : PARTITIONED_TABLES) {
+                String partition = partitionName(table, day);
+                if (partitions.contains(partition)) {
+                    execute(tx, String.format("ALTER TABLE %s DETACH PARTITION %s", table, partition), Query::executeUpdate);
+                    execute(tx, "DROP TABLE " + partition, Query::executeUpdate);
+                }
+            }
+            logger.info("Dropped the partitions of {}", day);
+            return true;
+        });
+    }
+
+    private boolean exists(Connection tx, String table) {
+        return query(tx, "SELECT to_regclass(?) IS NOT NULL", q -> q.addParameter(table).exists());
+    }
+
+    static String partitionName(String table, LocalDate day) {
+        return table + day.format(PARTITION_SUFFIX);
+    }
+
+    private static Optional<LocalDate> parseDay(String table, String partition) {
+        try {
+            return Optional.of(LocalDate.parse(partition.substring(table.length()), PARTITION_SUFFIX));
+        } catch (RuntimeException e) {
+            // the default partition, or one not created by this class
+            return Optional.empty();
+        }
+    }
+}
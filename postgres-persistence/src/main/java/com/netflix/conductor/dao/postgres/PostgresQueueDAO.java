@@ -17,6 +17,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.events.queue.QueueLag;
+import com.netflix.conductor.core.events.queue.QueueThroughput;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.dao.QueueDAO;
 
@@ -24,6 +26,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -36,6 +39,8 @@ import java.util.stream.Collectors;
 public class PostgresQueueDAO extends PostgresBaseDAO implements QueueDAO {
     private static final Long UNACK_SCHEDULE_MS = 60_000L;
 
+    private final QueueThroughput throughput = new QueueThroughput();
+
     @Inject
     public PostgresQueueDAO(ObjectMapper om, DataSource ds) {
         super(om, ds);
@@ -54,12 +59,14 @@ public class PostgresQueueDAO extends PostgresBaseDAO implements QueueDAO {
     @Override
     public void push(String queueName, String messageId, int priority, long offsetTimeInSecond) {
         withTransaction(tx -> pushMessage(tx, queueName, messageId, null, priority, offsetTimeInSecond));
+        throughput.recordPush(queueName, 1);
     }
 
     @Override
     public void push(String queueName, List<Message> messages) {
         withTransaction(tx -> messages
                 .forEach(message -> pushMessage(tx, queueName, message.getId(), message.getPayload(), message.getPriority(), 0)));
+        throughput.recordPush(queueName, messages.size());
     }
 
     @Override
@@ -69,19 +76,24 @@ public class PostgresQueueDAO extends PostgresBaseDAO implements QueueDAO {
 
     @Override
     public boolean pushIfNotExists(String queueName, String messageId, int priority, long offsetTimeInSecond) {
-        return getWithRetriedTransactions(tx -> {
+        boolean pushed = getWithRetriedTransactions(tx -> {
             if (!existsMessage(tx, queueName, messageId)) {
                 pushMessage(tx, queueName, messageId, null, priority, offsetTimeInSecond);
                 return true;
             }
             return false;
         });
+        if (pushed) {
+            throughput.recordPush(queueName, 1);
+        }
+        return pushed;
     }
 
     @Override
     public List<String> pop(String queueName, int count, int timeout) {
         List<Message> messages = getWithTransactionWithOutErrorPropagation(tx -> popMessages(tx, queueName, count, timeout));
         if(messages == null) return new ArrayList<>();
+        throughput.recordPop(queueName, messages.size());
         return messages.stream().map(Message::getId).collect(Collectors.toList());
     }
 
@@ -89,6 +101,7 @@ public class PostgresQueueDAO extends PostgresBaseDAO implements QueueDAO {
     public List<Message> pollMessages(String queueName, int count, int timeout) {
         List<Message> messages = getWithTransactionWithOutErrorPropagation(tx -> popMessages(tx, queueName, count, timeout));
         if(messages == null) return new ArrayList<>();
+        throughput.recordPop(queueName, messages.size());
         return messages;
     }
 
@@ -191,6 +204,17 @@ public class PostgresQueueDAO extends PostgresBaseDAO implements QueueDAO {
                 .addParameter(offsetTimeInSecond).addParameter(queueName).addParameter(messageId).executeUpdate() == 1);
     }
 
+    @Override
+    public QueueLag getQueueLag(String queueName) {
+        final String GET_OLDEST_DELIVERABLE = "SELECT MIN(deliver_on) FROM queue_message WHERE queue_name = ? AND popped = false AND deliver_on <= current_timestamp";
+        long oldestDeliverableTime = queryWithTransaction(GET_OLDEST_DELIVERABLE, q -> q.addParameter(queueName)
+                .executeAndFetch(rs -> {
+                    Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+                    return oldest == null ? 0L : oldest.getTime();
+                }));
+        return throughput.lag(queueName, getSize(queueName), oldestDeliverableTime);
+    }
+
     private boolean existsMessage(Connection connection, String queueName, String messageId) {
         final String EXISTS_MESSAGE = "SELECT EXISTS(SELECT 1 FROM queue_message WHERE queue_name = ? AND message_id = ?)";
         return query(connection, EXISTS_MESSAGE, q -> q.addParameter(queueName).addParameter(messageId).exists());
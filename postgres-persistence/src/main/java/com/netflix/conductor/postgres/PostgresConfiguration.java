@@ -57,6 +57,26 @@ public interface PostgresConfiguration extends Configuration {
     // This is consistent with the current default when building the Hikari Client.
     boolean AUTO_COMMIT_DEFAULT_VALUE = false;
 
+    // Without a replica url, every read is served by the primary
+    String REPLICA_JDBC_URL_PROPERTY_NAME = "jdbc.replica.url";
+
+    String REPLICA_JDBC_USER_NAME_PROPERTY_NAME = "jdbc.replica.username";
+
+    String REPLICA_JDBC_PASSWORD_PROPERTY_NAME = "jdbc.replica.password";
+
+    String REPLICA_CONNECTION_POOL_MAX_SIZE_PROPERTY_NAME = "conductor.postgres.replica.connection.pool.size.max";
+    int REPLICA_CONNECTION_POOL_MAX_SIZE_DEFAULT_VALUE = -1;
+
+    String PARTITIONED_EXECUTION_TABLES_PROPERTY_NAME = "conductor.postgres.partitioned.execution.tables.enabled";
+    boolean PARTITIONED_EXECUTION_TABLES_DEFAULT_VALUE = false;
+
+    String PARTITION_PREMAKE_DAYS_PROPERTY_NAME = "conductor.postgres.partition.premake.days";
+    int PARTITION_PREMAKE_DAYS_DEFAULT_VALUE = 7;
+
+    // 0 keeps all partitions
+    String PARTITION_RETENTION_DAYS_PROPERTY_NAME = "conductor.postgres.partition.retention.days";
+    int PARTITION_RETENTION_DAYS_DEFAULT_VALUE = 0;
+
     default String getJdbcUrl() {
         return getProperty(JDBC_URL_PROPERTY_NAME, JDBC_URL_DEFAULT_VALUE);
     }
@@ -104,4 +124,44 @@ public interface PostgresConfiguration extends Configuration {
     default boolean isAutoCommit() {
         return getBoolProperty(AUTO_COMMIT_PROPERTY_NAME, AUTO_COMMIT_DEFAULT_VALUE);
     }
+
+    /**
+     * @return the url of the read replica serving the reads that tolerate replication lag, if any
+     */
+    default Optional<String> getReplicaJdbcUrl() {
+        return Optional.ofNullable(getProperty(REPLICA_JDBC_URL_PROPERTY_NAME, null));
+    }
+
+    default String getReplicaJdbcUserName() {
+        return getProperty(REPLICA_JDBC_USER_NAME_PROPERTY_NAME, getJdbcUserName());
+    }
+
+    default String getReplicaJdbcPassword() {
+        return getProperty(REPLICA_JDBC_PASSWORD_PROPERTY_NAME, getJdbcPassword());
+    }
+
+    default int getReplicaConnectionPoolMaxSize() {
+        return getIntProperty(REPLICA_CONNECTION_POOL_MAX_SIZE_PROPERTY_NAME, REPLICA_CONNECTION_POOL_MAX_SIZE_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return true if the execution tables were converted with db/partitioning_postgres/partition_execution_tables.sql
+     */
+    default boolean isPartitionedExecutionTablesEnabled() {
+        return getBoolProperty(PARTITIONED_EXECUTION_TABLES_PROPERTY_NAME, PARTITIONED_EXECUTION_TABLES_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the number of days ahead for which daily partitions are created
+     */
+    default int getPartitionPremakeDays() {
+        return getIntProperty(PARTITION_PREMAKE_DAYS_PROPERTY_NAME, PARTITION_PREMAKE_DAYS_DEFAULT_VALUE);
+    }
+
+    /**
+     * @return the number of days after which the daily partitions of finished workflows are dropped, 0 to keep them
+     */
+    default int getPartitionRetentionDays() {
+        return getIntProperty(PARTITION_RETENTION_DAYS_PROPERTY_NAME, PARTITION_RETENTION_DAYS_DEFAULT_VALUE);
+    }
 }
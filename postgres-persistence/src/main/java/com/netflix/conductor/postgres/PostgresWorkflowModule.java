@@ -14,6 +14,7 @@ package com.netflix.conductor.postgres;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
+import com.google.inject.name.Names;
 import com.netflix.conductor.dao.EventHandlerDAO;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.MetadataDAO;
@@ -22,6 +23,7 @@ import com.netflix.conductor.dao.QueueDAO;
 import com.netflix.conductor.dao.RateLimitingDAO;
 import com.netflix.conductor.dao.postgres.PostgresExecutionDAO;
 import com.netflix.conductor.dao.postgres.PostgresMetadataDAO;
+import com.netflix.conductor.dao.postgres.PostgresPartitionManager;
 import com.netflix.conductor.dao.postgres.PostgresQueueDAO;
 
 import javax.sql.DataSource;
@@ -35,11 +37,14 @@ public class PostgresWorkflowModule extends AbstractModule {
     protected void configure() {
         bind(PostgresConfiguration.class).to(SystemPropertiesPostgresConfiguration.class);
         bind(DataSource.class).toProvider(PostgresDataSourceProvider.class).in(Scopes.SINGLETON);
+        bind(DataSource.class).annotatedWith(Names.named(PostgresReplicaDataSourceProvider.REPLICA_DATA_SOURCE_INJECTION_NAME))
+                .toProvider(PostgresReplicaDataSourceProvider.class).in(Scopes.SINGLETON);
         bind(MetadataDAO.class).to(PostgresMetadataDAO.class);
         bind(EventHandlerDAO.class).to(PostgresMetadataDAO.class);
         bind(ExecutionDAO.class).to(PostgresExecutionDAO.class);
         bind(RateLimitingDAO.class).to(PostgresExecutionDAO.class);
         bind(PollDataDAO.class).to(PostgresExecutionDAO.class);
         bind(QueueDAO.class).to(PostgresQueueDAO.class);
+        bind(PostgresPartitionManager.class).asEagerSingleton();
     }
 }
@@ -0,0 +1,2 @@
+-- Lets the first tasks of a task definition to arrive be read from the index when checking concurrency limits.
+CREATE INDEX IF NOT EXISTS task_in_progress_arrival ON task_in_progress (task_def_name,id);
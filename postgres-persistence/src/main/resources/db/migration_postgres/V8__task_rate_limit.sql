@@ -0,0 +1,8 @@
+-- Counts the tasks started by each task definition in the rate limit windows. Unlogged, as losing the counts of the
+-- current windows on a crash only lets the definitions start up to twice their limit in these windows.
+CREATE UNLOGGED TABLE task_rate_limit (
+  task_def_name varchar(255) NOT NULL,
+  window_start BIGINT NOT NULL,
+  task_count INT NOT NULL,
+  PRIMARY KEY (task_def_name, window_start)
+);
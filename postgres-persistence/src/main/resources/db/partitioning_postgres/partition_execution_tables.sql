@@ -0,0 +1,121 @@
+-- --------------------------------------------------------------------------------------------------------------
+-- Converts the workflow, task, workflow_to_task and workflow_def_to_workflow tables to tables storing JSONB and
+-- partitioned by day of creation, so that finished executions can be dropped a whole day at a time.
+--
+-- Requires PostgreSQL 11 or later and the migrations in db/migration_postgres to be applied. This script is not run
+-- by Flyway: stop the servers, run it in one transaction (psql --single-transaction -f partition_execution_tables.sql)
+-- and start the servers with conductor.postgres.partitioned.execution.tables.enabled=true.
+--
+-- created_time holds the creation time of the workflow, in epoch milliseconds, in the rows of the workflow and of its
+-- tasks alike (0 for tasks without a stored workflow). The unpartitioned workflow_created_time and task_created_time
+-- tables map ids to it, so that reads and writes by id can target a single partition.
+-- Daily partitions are named <table>_pYYYYMMDD (UTC); rows outside of them go to <table>_default.
+-- The previous tables are kept as <table>_unpartitioned, drop them once the conversion is verified.
+-- --------------------------------------------------------------------------------------------------------------
+
+ALTER TABLE workflow RENAME TO workflow_unpartitioned;
+ALTER TABLE task RENAME TO task_unpartitioned;
+ALTER TABLE workflow_to_task RENAME TO workflow_to_task_unpartitioned;
+ALTER TABLE workflow_def_to_workflow RENAME TO workflow_def_to_workflow_unpartitioned;
+
+CREATE TABLE workflow (
+  created_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  modified_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  created_time BIGINT NOT NULL,
+  workflow_id varchar(255) NOT NULL,
+  correlation_id varchar(255),
+  json_data JSONB NOT NULL,
+  PRIMARY KEY (workflow_id, created_time)
+) PARTITION BY RANGE (created_time);
+CREATE INDEX workflow_partitioned_corr_id_index ON workflow (correlation_id);
+CREATE TABLE workflow_default PARTITION OF workflow DEFAULT;
+
+CREATE TABLE task (
+  created_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  modified_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  created_time BIGINT NOT NULL,
+  task_id varchar(255) NOT NULL,
+  json_data JSONB NOT NULL,
+  PRIMARY KEY (task_id, created_time)
+) PARTITION BY RANGE (created_time);
+CREATE TABLE task_default PARTITION OF task DEFAULT;
+
+CREATE TABLE workflow_to_task (
+  created_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  modified_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  created_time BIGINT NOT NULL,
+  workflow_id varchar(255) NOT NULL,
+  task_id varchar(255) NOT NULL,
+  PRIMARY KEY (workflow_id, task_id, created_time)
+) PARTITION BY RANGE (created_time);
+CREATE TABLE workflow_to_task_default PARTITION OF workflow_to_task DEFAULT;
+
+CREATE TABLE workflow_def_to_workflow (
+  created_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  modified_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  created_time BIGINT NOT NULL,
+  workflow_def varchar(255) NOT NULL,
+  date_str varchar(60),
+  workflow_id varchar(255) NOT NULL,
+  PRIMARY KEY (workflow_def, date_str, workflow_id, created_time)
+) PARTITION BY RANGE (created_time);
+CREATE TABLE workflow_def_to_workflow_default PARTITION OF workflow_def_to_workflow DEFAULT;
+
+CREATE TABLE workflow_created_time (
+  workflow_id varchar(255) NOT NULL,
+  created_time BIGINT NOT NULL,
+  PRIMARY KEY (workflow_id)
+);
+
+CREATE TABLE task_created_time (
+  task_id varchar(255) NOT NULL,
+  created_time BIGINT NOT NULL,
+  PRIMARY KEY (task_id)
+);
+
+-- Daily partitions for the existing rows, the server creates the following ones
+DO $$
+DECLARE
+  day DATE;
+  partitioned_table TEXT;
+BEGIN
+  FOR day IN
+    SELECT DISTINCT (to_timestamp((json_data::jsonb->>'createTime')::bigint / 1000.0) AT TIME ZONE 'UTC')::date
+    FROM workflow_unpartitioned WHERE json_data::jsonb ? 'createTime'
+    UNION
+    SELECT (now() AT TIME ZONE 'UTC')::date
+  LOOP
+    FOREACH partitioned_table IN ARRAY ARRAY['workflow', 'task', 'workflow_to_task', 'workflow_def_to_workflow'] LOOP
+      EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%s) TO (%s)',
+          partitioned_table || '_p' || to_char(day, 'YYYYMMDD'), partitioned_table,
+          (extract(epoch FROM day::timestamp) * 1000)::bigint,
+          (extract(epoch FROM (day + 1)::timestamp) * 1000)::bigint);
+    END LOOP;
+  END LOOP;
+END $$;
+
+INSERT INTO workflow (created_on, modified_on, created_time, workflow_id, correlation_id, json_data)
+SELECT created_on, modified_on, COALESCE((json_data::jsonb->>'createTime')::bigint, 0), workflow_id, correlation_id,
+  json_data::jsonb
+FROM workflow_unpartitioned;
+
+INSERT INTO task (created_on, modified_on, created_time, task_id, json_data)
+SELECT DISTINCT ON (t.task_id) t.created_on, t.modified_on, COALESCE(w.created_time, 0), t.task_id, t.json_data::jsonb
+FROM task_unpartitioned t
+LEFT JOIN workflow_to_task_unpartitioned wt ON wt.task_id = t.task_id
+LEFT JOIN workflow w ON w.workflow_id = wt.workflow_id
+ORDER BY t.task_id, w.created_time;
+
+INSERT INTO workflow_to_task (created_on, modified_on, created_time, workflow_id, task_id)
+SELECT wt.created_on, wt.modified_on, COALESCE(w.created_time, 0), wt.workflow_id, wt.task_id
+FROM workflow_to_task_unpartitioned wt LEFT JOIN workflow w ON w.workflow_id = wt.workflow_id;
+
+INSERT INTO workflow_def_to_workflow (created_on, modified_on, created_time, workflow_def, date_str, workflow_id)
+SELECT wd.created_on, wd.modified_on, COALESCE(w.created_time, 0), wd.workflow_def, wd.date_str, wd.workflow_id
+FROM workflow_def_to_workflow_unpartitioned wd LEFT JOIN workflow w ON w.workflow_id = wd.workflow_id;
+
+INSERT INTO workflow_created_time (workflow_id, created_time)
+SELECT workflow_id, created_time FROM workflow;
+
+INSERT INTO task_created_time (task_id, created_time)
+SELECT task_id, created_time FROM task;
@@ -23,10 +23,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Scanner;
 
 
 @SuppressWarnings("Duplicates")
@@ -63,6 +68,7 @@ public class PostgresDAOTestUtil {
         dataSource.setUsername(config.getProperty("jdbc.username", "postgres"));
         dataSource.setPassword(config.getProperty("jdbc.password", "postgres"));
         dataSource.setAutoCommit(false);
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
 
         // Prevent DB from getting exhausted during rapid testing
         dataSource.setMaximumPoolSize(8);
@@ -119,4 +125,26 @@ public class PostgresDAOTestUtil {
         dropDb(initializationDataSource,"conductor");
         flywayMigrate(dataSource);
     }
+
+    /**
+     * Converts the execution tables with the partitioning script, once per database.
+     */
+    public void partitionExecutionTables() {
+        try (Connection connection = dataSource.getConnection();
+             InputStream script = getClass().getResourceAsStream("/db/partitioning_postgres/partition_execution_tables.sql");
+             Scanner scanner = new Scanner(script, StandardCharsets.UTF_8.name()).useDelimiter("\\A");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT to_regclass('workflow_unpartitioned') IS NULL")) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    return;
+                }
+            }
+            statement.execute(scanner.next());
+            connection.commit();
+        } catch (Exception ex) {
+            logger.error(ex.getMessage(), ex);
+            throw new RuntimeException(ex);
+        }
+    }
 }
@@ -12,6 +12,7 @@
  */
 package com.netflix.conductor.dao.postgres;
 
+import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.dao.ExecutionDAO;
@@ -21,15 +22,28 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("Duplicates")
 public class PostgresExecutionDAOTest extends ExecutionDAOTest {
 
+    private static final Logger logger = LoggerFactory.getLogger(PostgresExecutionDAOTest.class);
+
     private PostgresDAOTestUtil testPostgres;
     private PostgresExecutionDAO executionDAO;
 
@@ -41,7 +55,8 @@ public class PostgresExecutionDAOTest extends ExecutionDAOTest {
         testPostgres = new PostgresDAOTestUtil(name.getMethodName().toLowerCase());
         executionDAO = new PostgresExecutionDAO(
                 testPostgres.getObjectMapper(),
-                testPostgres.getDataSource()
+                testPostgres.getDataSource(),
+                testPostgres.getTestConfiguration()
         );
         testPostgres.resetAllData();
     }
@@ -68,6 +83,106 @@ public class PostgresExecutionDAOTest extends ExecutionDAOTest {
         assertEquals(10, bycorrelationId.size());
     }
 
+    @Test
+    public void testCreateTasksForLargeFork() {
+        long start = System.nanoTime();
+        List<Task> created = getExecutionDAO().createTasks(forkTasks("batched_fork", 1000));
+        long batchedNanos = System.nanoTime() - start;
+        assertEquals(1000, created.size());
+        assertEquals(1000, getExecutionDAO().getTasksForWorkflow("batched_fork").size());
+        assertEquals(1000, getExecutionDAO().getPendingTasksForTaskType("fork_task").size());
+
+        // tasks already scheduled in the workflow are skipped, new ones in the same call are still created
+        List<Task> retried = forkTasks("batched_fork", 1001);
+        retried.forEach(task -> task.setTaskId(task.getTaskId() + "_retry"));
+        created = getExecutionDAO().createTasks(retried);
+        assertEquals(1, created.size());
+        assertEquals("batched_fork_1000_retry", created.get(0).getTaskId());
+
+        start = System.nanoTime();
+        for (Task task : forkTasks("sequential_fork", 1000)) {
+            getExecutionDAO().createTasks(Collections.singletonList(task));
+        }
+        long sequentialNanos = System.nanoTime() - start;
+        assertEquals(1000, getExecutionDAO().getTasksForWorkflow("sequential_fork").size());
+
+        logger.info("Creating 1000 tasks: one call {} ms, one call per task {} ms",
+                TimeUnit.NANOSECONDS.toMillis(batchedNanos), TimeUnit.NANOSECONDS.toMillis(sequentialNanos));
+    }
+
+    @Test
+    public void testEventualReadsUseReplica() throws Exception {
+        PostgresDAOTestUtil replica = new PostgresDAOTestUtil(name.getMethodName().toLowerCase() + "_replica");
+        try {
+            PostgresExecutionDAO routingDAO = new PostgresExecutionDAO(testPostgres.getObjectMapper(), testPostgres.getDataSource(),
+                    replica.getDataSource(), testPostgres.getTestConfiguration());
+            PostgresExecutionDAO replicaDAO = new PostgresExecutionDAO(replica.getObjectMapper(), replica.getDataSource(), replica.getTestConfiguration());
+
+            Workflow workflow = createTestWorkflow();
+            workflow.setCorrelationId("replicated");
+            workflow.setCreateTime(System.currentTimeMillis());
+            routingDAO.createWorkflow(workflow);
+            routingDAO.updateLastPollData("replicated_task", null, "worker");
+
+            // strong reads see the writes on the primary, eventual reads only once they reach the replica
+            assertNotNull(routingDAO.getWorkflow(workflow.getWorkflowId(), false));
+            assertTrue(routingDAO.getWorkflowsByCorrelationId("replicated", false).isEmpty());
+            assertNull(routingDAO.getPollData("replicated_task", null));
+
+            // stands in for the replication
+            replicaDAO.createWorkflow(workflow);
+            assertEquals(1, routingDAO.getWorkflowsByCorrelationId("replicated", false).size());
+        } finally {
+            replica.getDataSource().close();
+        }
+    }
+
+    @Test
+    public void testStreamWorkflowsByTypeAcrossPages() {
+        WorkflowDef def = new WorkflowDef();
+        def.setName("streamed_workflow");
+        long createTime = System.currentTimeMillis();
+
+        Workflow workflow = createTestWorkflow();
+        workflow.setWorkflowDefinition(def);
+        workflow.setCreateTime(createTime);
+        Set<String> workflowIds = new HashSet<>();
+        for (int i = 0; i < 250; i++) {
+            workflow.setWorkflowId("streamed_" + i);
+            getExecutionDAO().createWorkflow(workflow);
+            workflowIds.add(workflow.getWorkflowId());
+        }
+        workflow.setWorkflowId("streamed_later");
+        workflow.setCreateTime(createTime + 1000);
+        getExecutionDAO().createWorkflow(workflow);
+
+        try (Stream<Workflow> workflows = getExecutionDAO().streamWorkflowsByType("streamed_workflow",
+                createTime - 10, createTime + 10)) {
+            assertEquals(workflowIds, workflows.map(Workflow::getWorkflowId).collect(Collectors.toSet()));
+        }
+        assertEquals(250, getExecutionDAO().getWorkflowsByType("streamed_workflow", createTime - 10, createTime + 10).size());
+    }
+
+    private static List<Task> forkTasks(String workflowId, int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setTaskId(workflowId + "_" + i);
+            task.setWorkflowInstanceId(workflowId);
+            task.setReferenceTaskName("fork_" + i);
+            task.setTaskDefName("fork_task");
+            task.setTaskType("fork_task");
+            task.setStatus(Task.Status.SCHEDULED);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Override
+    protected boolean supportsCompareAndSetWorkflow() {
+        return true;
+    }
+
     @Override
     public ExecutionDAO getExecutionDAO() {
         return executionDAO;
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dao.postgres;
+
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
+import com.netflix.conductor.locking.postgres.PostgresLock;
+import com.netflix.conductor.locking.postgres.config.PostgresLockConfiguration;
+import com.netflix.conductor.locking.postgres.config.PostgresLockModule;
+import com.netflix.conductor.locking.postgres.config.SystemPropertiesPostgresLockConfiguration;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares deciders serialized by the advisory lock with optimistic deciders retrying on conflicts, each decide
+ * incrementing a counter in the output of one of a few workflows. Neither may lose an update.
+ * <p>
+ * Set {@code conductor.postgres.contention.benchmark.decides} to run more decides per thread than the default 50.
+ */
+public class PostgresOptimisticConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresOptimisticConcurrencyTest.class);
+
+    private static final int THREADS = 8;
+    private static final int WORKFLOWS = 4;
+    private static final String COUNT = "count";
+
+    private PostgresDAOTestUtil testPostgres;
+    private PostgresExecutionDAO executionDAO;
+    private HikariDataSource lockDataSource;
+    private PostgresLock lock;
+    private final List<String> workflowIds = new ArrayList<>();
+
+    @Before
+    public void setup() throws Exception {
+        testPostgres = new PostgresDAOTestUtil("optimistic_concurrency");
+        testPostgres.resetAllData();
+        executionDAO = new PostgresExecutionDAO(testPostgres.getObjectMapper(), testPostgres.getDataSource(),
+                testPostgres.getTestConfiguration());
+        PostgresLockConfiguration lockConfiguration = new SystemPropertiesPostgresLockConfiguration() {
+            @Override
+            public String getJdbcUrl() {
+                return testPostgres.getTestConfiguration().getProperty("jdbc.url", null);
+            }
+
+            @Override
+            public String getJdbcUserName() {
+                return "postgres";
+            }
+
+            @Override
+            public String getJdbcPassword() {
+                return "postgres";
+            }
+        };
+        lockDataSource = PostgresLockModule.createDataSource(lockConfiguration);
+        lock = new PostgresLock(lockDataSource, lockConfiguration);
+
+        WorkflowDef def = new WorkflowDef();
+        def.setName("contended_workflow");
+        def.setVersion(1);
+        for (int i = 0; i < WORKFLOWS; i++) {
+            Workflow workflow = new Workflow();
+            workflow.setWorkflowId("contended_" + i);
+            workflow.setWorkflowDefinition(def);
+            workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+            workflow.setCreateTime(System.currentTimeMillis());
+            workflow.getOutput().put(COUNT, 0);
+            executionDAO.createWorkflow(workflow);
+            workflowIds.add(workflow.getWorkflowId());
+        }
+    }
+
+    @After
+    public void teardown() {
+        lockDataSource.close();
+        testPostgres.resetAllData();
+        testPostgres.getDataSource().close();
+    }
+
+    @Test
+    public void testLockedAndOptimisticDecidesDoNotLoseUpdates() throws Exception {
+        int decides = Integer.getInteger("conductor.postgres.contention.benchmark.decides", 50);
+
+        AtomicInteger lockedDecides = new AtomicInteger();
+        long lockedMillis = run(decides, workflowId -> {
+            if (!lock.acquireLock(workflowId, 500, 60000, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            try {
+                Workflow workflow = executionDAO.getWorkflow(workflowId, true);
+                increment(workflow);
+                workflow.setRevision(workflow.getRevision() + 1);
+                executionDAO.updateWorkflow(workflow);
+                lockedDecides.incrementAndGet();
+            } finally {
+                lock.releaseLock(workflowId);
+            }
+        });
+        assertEquals(lockedDecides.get(), totalCount());
+
+        AtomicInteger optimisticDecides = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        long optimisticMillis = run(decides, workflowId -> {
+            while (true) {
+                Workflow workflow = executionDAO.getWorkflow(workflowId, true);
+                increment(workflow);
+                try {
+                    executionDAO.compareAndSetWorkflow(workflow, Collections.emptyList());
+                    optimisticDecides.incrementAndGet();
+                    return;
+                } catch (ConcurrentUpdateException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(lockedDecides.get() + optimisticDecides.get(), totalCount());
+
+        logger.info("{} threads deciding {} workflows: locked {} decides in {} ms, optimistic {} decides in {} ms with {} conflicts",
+                THREADS, WORKFLOWS, lockedDecides.get(), lockedMillis, optimisticDecides.get(), optimisticMillis,
+                conflicts.get());
+    }
+
+    private long run(int decidesPerThread, Decide decide) throws Exception {
+        ExecutorService deciders = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(deciders.submit(() -> {
+                for (int i = 0; i < decidesPerThread; i++) {
+                    decide.decide(workflowIds.get(ThreadLocalRandom.current().nextInt(WORKFLOWS)));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        deciders.shutdown();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void increment(Workflow workflow) {
+        workflow.getOutput().put(COUNT, (Integer) workflow.getOutput().get(COUNT) + 1);
+    }
+
+    private int totalCount() {
+        return workflowIds.stream()
+                .mapToInt(workflowId -> (Integer) executionDAO.getWorkflow(workflowId, false).getOutput().get(COUNT))
+                .sum();
+    }
+
+    private interface Decide {
+        void decide(String workflowId);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dao.postgres;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.ExecutionDAOTest;
+import com.netflix.conductor.postgres.PostgresConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Runs the execution DAO tests against the execution tables converted by the partitioning script.
+ * <p>
+ * The throughput test creates, updates and reads {@code conductor.postgres.partition.benchmark.rows} tasks, 10000 by
+ * default; set it to 100000000 to compare with the unpartitioned tables at the size partitioning is meant for.
+ */
+@SuppressWarnings("Duplicates")
+public class PostgresPartitionedExecutionDAOTest extends ExecutionDAOTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresPartitionedExecutionDAOTest.class);
+
+    private PostgresDAOTestUtil testPostgres;
+    private PostgresExecutionDAO executionDAO;
+    private PostgresPartitionManager partitionManager;
+
+    @Rule
+    public TestName name = new TestName();
+
+    @Before
+    public void setup() throws Exception {
+        testPostgres = new PostgresDAOTestUtil(name.getMethodName().toLowerCase() + "_partitioned");
+        testPostgres.resetAllData();
+        testPostgres.partitionExecutionTables();
+        testPostgres.getTestConfiguration()
+                .setProperty(PostgresConfiguration.PARTITIONED_EXECUTION_TABLES_PROPERTY_NAME, "true");
+        executionDAO = new PostgresExecutionDAO(testPostgres.getObjectMapper(), testPostgres.getDataSource(),
+                testPostgres.getTestConfiguration());
+        partitionManager = new PostgresPartitionManager(testPostgres.getObjectMapper(), testPostgres.getDataSource(),
+                testPostgres.getTestConfiguration());
+    }
+
+    @After
+    public void teardown() {
+        testPostgres.getTestConfiguration()
+                .setProperty(PostgresConfiguration.PARTITIONED_EXECUTION_TABLES_PROPERTY_NAME, "false");
+        testPostgres.resetAllData();
+        testPostgres.getDataSource().close();
+    }
+
+    @Test
+    public void testDropPartitionsOfFinishedWorkflows() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate finishedDay = today.minusDays(10);
+        LocalDate pendingDay = today.minusDays(9);
+        partitionManager.createPartitions(finishedDay);
+        partitionManager.createPartitions(pendingDay);
+
+        Workflow finished = workflowCreatedOn(finishedDay, Workflow.WorkflowStatus.COMPLETED);
+        Workflow pending = workflowCreatedOn(pendingDay, Workflow.WorkflowStatus.RUNNING);
+        Task task = new Task();
+        task.setTaskId(finished.getWorkflowId() + "_task");
+        task.setWorkflowInstanceId(finished.getWorkflowId());
+        task.setReferenceTaskName("task");
+        task.setTaskDefName("task");
+        // scheduled on another day, the task is kept in the partitions of its workflow
+        task.setScheduledTime(System.currentTimeMillis());
+        task.setStatus(Task.Status.COMPLETED);
+        executionDAO.updateTask(task);
+
+        assertNotNull(executionDAO.getTask(task.getTaskId()));
+        assertEquals(1, executionDAO.getWorkflow(finished.getWorkflowId(), true).getTasks().size());
+
+        // only the day without pending workflows is dropped
+        assertEquals(1, partitionManager.dropPartitionsBefore(today));
+        assertNull(executionDAO.getWorkflow(finished.getWorkflowId(), false));
+        assertNull(executionDAO.getTask(task.getTaskId()));
+        assertNotNull(executionDAO.getWorkflow(pending.getWorkflowId(), false));
+
+        pending.setStatus(Workflow.WorkflowStatus.COMPLETED);
+        executionDAO.updateWorkflow(pending);
+        assertEquals(1, partitionManager.dropPartitionsBefore(today));
+        assertNull(executionDAO.getWorkflow(pending.getWorkflowId(), false));
+    }
+
+    @Test
+    public void testWriteSameTaskTwice() throws Exception {
+        Task task = new Task();
+        task.setTaskId("written_twice");
+        task.setWorkflowInstanceId("written_twice_workflow");
+        task.setReferenceTaskName("task");
+        task.setTaskDefName("task");
+        task.setTaskType("task");
+        task.setScheduledTime(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        task.setStatus(Task.Status.SCHEDULED);
+        executionDAO.updateTask(task);
+
+        // created again with the current time as scheduled time
+        task.setStatus(Task.Status.IN_PROGRESS);
+        assertEquals(1, executionDAO.createTasks(Collections.singletonList(task)).size());
+        assertEquals(1, countTaskRows(task.getTaskId()));
+        assertEquals(Task.Status.IN_PROGRESS, executionDAO.getTask(task.getTaskId()).getStatus());
+
+        task.setStatus(Task.Status.COMPLETED);
+        executionDAO.updateTask(task);
+        assertEquals(1, countTaskRows(task.getTaskId()));
+        assertEquals(Task.Status.COMPLETED, executionDAO.getTask(task.getTaskId()).getStatus());
+    }
+
+    @Test
+    public void testConcurrentWritesOfNewTask() throws Exception {
+        Workflow workflow = workflowCreatedOn(LocalDate.now(ZoneOffset.UTC), Workflow.WorkflowStatus.RUNNING);
+        int writers = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(writers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writes = new ArrayList<>(writers);
+            for (int i = 0; i < writers; i++) {
+                writes.add(executorService.submit(() -> {
+                    Task task = new Task();
+                    task.setTaskId("written_concurrently");
+                    task.setWorkflowInstanceId(workflow.getWorkflowId());
+                    task.setReferenceTaskName("task");
+                    task.setTaskDefName("task");
+                    task.setStatus(Task.Status.SCHEDULED);
+                    start.await();
+                    executionDAO.updateTask(task);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(1, countTaskRows("written_concurrently"));
+        assertEquals(1, executionDAO.getTasksForWorkflow(workflow.getWorkflowId()).size());
+    }
+
+    @Test
+    public void testCreateTasksThroughput() {
+        int rows = Integer.getInteger("conductor.postgres.partition.benchmark.rows", 10000);
+        int batchSize = 1000;
+
+        List<Task> written = new ArrayList<>(rows);
+        long start = System.nanoTime();
+        for (int created = 0; created < rows; created += batchSize) {
+            Workflow workflow = createTestWorkflow();
+            workflow.setWorkflowId("throughput_" + created);
+            workflow.setCreateTime(System.currentTimeMillis());
+            workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+            workflow.setTasks(new ArrayList<>());
+            executionDAO.createWorkflow(workflow);
+
+            String workflowId = workflow.getWorkflowId();
+            List<Task> tasks = new ArrayList<>(batchSize);
+            for (int i = 0; i < Math.min(batchSize, rows - created); i++) {
+                Task task = new Task();
+                task.setTaskId(workflowId + "_" + i);
+                task.setWorkflowInstanceId(workflowId);
+                task.setReferenceTaskName("task_" + i);
+                task.setTaskDefName("throughput_task");
+                task.setTaskType("throughput_task");
+                task.setStatus(Task.Status.SCHEDULED);
+                tasks.add(task);
+            }
+            assertEquals(tasks.size(), executionDAO.createTasks(tasks).size());
+            written.addAll(tasks);
+        }
+        long createMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+
+        start = System.nanoTime();
+        for (Task task : written) {
+            task.setStatus(Task.Status.IN_PROGRESS);
+            executionDAO.updateTask(task);
+        }
+        long updateMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+
+        start = System.nanoTime();
+        for (Task task : written) {
+            assertNotNull(executionDAO.getTask(task.getTaskId()));
+        }
+        long lookupMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+        assertEquals(1, countTaskRows("throughput_0_0"));
+
+        logger.info("Partitioned tables, {} tasks: created {} tasks/s, updated {} tasks/s, looked up {} tasks/s", rows,
+                rows * 1000L / createMillis, rows * 1000L / updateMillis, rows * 1000L / lookupMillis);
+    }
+
+    private int countTaskRows(String taskId) throws Exception {
+        try (Connection connection = testPostgres.getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM task WHERE task_id = ?")) {
+            statement.setString(1, taskId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private Workflow workflowCreatedOn(LocalDate day, Workflow.WorkflowStatus status) {
+        Workflow workflow = createTestWorkflow();
+        workflow.setWorkflowId(status.name().toLowerCase() + "_" + day);
+        workflow.setCreateTime(day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() + 1000);
+        workflow.setStatus(status);
+        workflow.setTasks(new ArrayList<>());
+        executionDAO.createWorkflow(workflow);
+        return workflow;
+    }
+
+    @Override
+    protected boolean supportsCompareAndSetWorkflow() {
+        return true;
+    }
+
+    @Override
+    public ExecutionDAO getExecutionDAO() {
+        return executionDAO;
+    }
+}
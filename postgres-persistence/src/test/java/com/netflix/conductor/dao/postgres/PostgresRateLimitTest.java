@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dao.postgres;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.core.utils.IDGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the rate limit of a task definition with three servers sharing the database, each with its own connection
+ * pool and a few threads starting tasks as fast as they can.
+ */
+public class PostgresRateLimitTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresRateLimitTest.class);
+
+    private static final int SERVERS = 3;
+    private static final int THREADS_PER_SERVER = 4;
+    private static final int LIMIT = 20;
+    private static final int WINDOWS = 3;
+
+    private PostgresDAOTestUtil testPostgres;
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<PostgresExecutionDAO> executionDAOs = new ArrayList<>();
+
+    @Before
+    public void setup() throws Exception {
+        testPostgres = new PostgresDAOTestUtil("rate_limit");
+        testPostgres.resetAllData();
+        for (int i = 0; i < SERVERS; i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(testPostgres.getTestConfiguration().getProperty("jdbc.url", null));
+            dataSource.setUsername("postgres");
+            dataSource.setPassword("postgres");
+            dataSource.setAutoCommit(false);
+            dataSource.setMaximumPoolSize(THREADS_PER_SERVER);
+            dataSources.add(dataSource);
+            executionDAOs.add(new PostgresExecutionDAO(testPostgres.getObjectMapper(), dataSource,
+                    testPostgres.getTestConfiguration()));
+        }
+    }
+
+    @After
+    public void teardown() {
+        dataSources.forEach(HikariDataSource::close);
+        testPostgres.resetAllData();
+        testPostgres.getDataSource().close();
+    }
+
+    @Test
+    public void testRateLimitAcrossServers() throws Exception {
+        TaskDef taskDef = new TaskDef("rate_limited_task");
+        taskDef.setRateLimitPerFrequency(LIMIT);
+        taskDef.setRateLimitFrequencyInSeconds(1);
+        assertFalse(executionDAOs.get(0).exceedsRateLimitPerFrequency(newTask(), new TaskDef("unlimited_task")));
+
+        // from just after a window starts to just before the last window ends
+        long windowMillis = TimeUnit.SECONDS.toMillis(taskDef.getRateLimitFrequencyInSeconds());
+        Thread.sleep(windowMillis - System.currentTimeMillis() % windowMillis + 50);
+        long end = System.currentTimeMillis() + WINDOWS * windowMillis - 100;
+
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger limited = new AtomicInteger();
+        ExecutorService servers = Executors.newFixedThreadPool(SERVERS * THREADS_PER_SERVER);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < SERVERS * THREADS_PER_SERVER; t++) {
+            PostgresExecutionDAO executionDAO = executionDAOs.get(t % SERVERS);
+            futures.add(servers.submit(() -> {
+                while (System.currentTimeMillis() < end) {
+                    if (executionDAO.exceedsRateLimitPerFrequency(newTask(), taskDef)) {
+                        limited.incrementAndGet();
+                    } else {
+                        started.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        servers.shutdown();
+
+        logger.info("{} servers checked the rate limit {} times per second, {} tasks started and {} limited",
+                SERVERS, (started.get() + limited.get()) / WINDOWS, started.get(), limited.get());
+        assertEquals(LIMIT * WINDOWS, started.get());
+        assertTrue(limited.get() > 0);
+    }
+
+    private static Task newTask() {
+        Task task = new Task();
+        task.setTaskId(IDGenerator.generate());
+        task.setTaskDefName("rate_limited_task");
+        return task;
+    }
+}
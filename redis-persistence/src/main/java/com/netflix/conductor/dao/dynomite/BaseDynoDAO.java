@@ -39,6 +39,8 @@ public class BaseDynoDAO {
 
     private Configuration config;
 
+    private final boolean hashTaggedKeys;
+
     protected Logger logger = LoggerFactory.getLogger(getClass());
 
     protected BaseDynoDAO(DynoProxy dynoClient, ObjectMapper objectMapper, Configuration config) {
@@ -46,6 +48,7 @@ public class BaseDynoDAO {
         this.objectMapper = objectMapper;
         this.config = config;
         this.domain = config.getProperty("workflow.dyno.keyspace.domain", null);
+        this.hashTaggedKeys = config.getBooleanProperty("workflow.redis.hashtag.keys.enabled", false);
     }
 
     String nsKey(String... nsValues) {
@@ -67,6 +70,18 @@ public class BaseDynoDAO {
         return StringUtils.removeEnd(namespacedKey.toString(), NAMESPACE_SEP);
     }
 
+    /**
+     * Wraps the value in a Redis Cluster hash tag when hash-tagged keys are enabled, so that all keys built with the
+     * same tag hash to the same slot.
+     */
+    String hashTag(String value) {
+        return hashTaggedKeys ? "{" + value + "}" : value;
+    }
+
+    boolean isHashTaggedKeys() {
+        return hashTaggedKeys;
+    }
+
     public DynoProxy getDyno() {
         return dynoClient;
     }
@@ -18,6 +18,7 @@ package com.netflix.conductor.dao.dynomite;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.inject.Singleton;
 import com.netflix.conductor.annotations.Trace;
 import com.netflix.conductor.common.metadata.events.EventExecution;
@@ -28,8 +29,10 @@ import com.netflix.conductor.common.run.Workflow;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.core.execution.ApplicationException;
 import com.netflix.conductor.core.execution.ApplicationException.Code;
+import com.netflix.conductor.core.execution.ConcurrentUpdateException;
 import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.dyno.RedisScript;
 import com.netflix.conductor.metrics.Monitors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,7 +40,9 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -46,6 +51,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -61,12 +67,22 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 	private final static String WORKFLOW_TO_TASKS = "WORKFLOW_TO_TASKS";
 	private final static String SCHEDULED_TASKS = "SCHEDULED_TASKS";
 	private final static String TASK = "TASK";
+	private final static String TASK_TO_WORKFLOW = "TASK_TO_WORKFLOW";
 	private final static String WORKFLOW = "WORKFLOW";
 	private final static String PENDING_WORKFLOWS = "PENDING_WORKFLOWS";
 	private final static String WORKFLOW_DEF_TO_WORKFLOWS = "WORKFLOW_DEF_TO_WORKFLOWS";
 	private final static String CORR_ID_TO_WORKFLOWS = "CORR_ID_TO_WORKFLOWS";
 
+	private static final RedisScript WRITE_TASKS_SCRIPT = RedisScript.fromResource("/scripts/execution/write_tasks.lua");
+	private static final int TASK_WRITE_BATCH_SIZE = 100;
+	private static final RedisScript CONCURRENCY_LIMIT_SCRIPT = RedisScript.fromResource("/scripts/execution/concurrency_limit.lua");
+	private static final RedisScript COMPARE_AND_SET_WORKFLOW_SCRIPT = RedisScript.fromResource("/scripts/execution/compare_and_set_workflow.lua");
+
 	private final int ttlEventExecutionSeconds;
+	private final boolean scriptedTaskWrites;
+	private final boolean migrateLegacyKeys;
+	private final boolean scriptedConcurrencyLimit;
+	private final long concurrencyLimitGraceMillis;
 
 	private final static String EVENT_EXECUTION = "EVENT_EXECUTION";
 
@@ -75,6 +91,27 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 		super(dynoClient, objectMapper, config);
 
 		ttlEventExecutionSeconds = config.getEventExecutionPersistenceTTL();
+		// scripts touch keys of many workflows and task types, which must all live on the same redis server
+		scriptedTaskWrites = config.getBooleanProperty("workflow.redis.task.scripted.writes.enabled", false);
+		migrateLegacyKeys = isHashTaggedKeys() && config.getBooleanProperty("workflow.redis.hashtag.keys.migrate", false);
+		// the slots and in progress tasks of a task definition must live on the same redis server
+		scriptedConcurrencyLimit = config.getBooleanProperty("workflow.redis.task.scripted.concurrency.limit.enabled", false);
+		concurrencyLimitGraceMillis = TimeUnit.SECONDS.toMillis(
+			config.getIntProperty("workflow.redis.task.concurrency.limit.grace.seconds", 30));
+
+		if (scriptedTaskWrites || scriptedConcurrencyLimit) {
+			// these scripts touch the keys of task definitions along with the keys of workflows, which no hash tag
+			// keeps in one Redis Cluster slot
+			Preconditions.checkState(dynoClient.supportsScripting() && !dynoClient.isCluster(),
+				"Scripted task writes and concurrency limits need a single redis server that runs Lua scripts");
+		}
+		if (config.isOptimisticConcurrencyEnabled()) {
+			// compareAndSetWorkflow writes a workflow and its tasks in one script
+			Preconditions.checkState(dynoClient.supportsScripting(),
+				"Optimistic concurrency control needs a redis server that runs Lua scripts");
+			Preconditions.checkState(!dynoClient.isCluster() || isHashTaggedKeys(),
+				"Optimistic concurrency control on Redis Cluster needs workflow.redis.hashtag.keys.enabled");
+		}
 	}
 
 	@Override
@@ -117,6 +154,9 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 
 	@Override
 	public List<Task> createTasks(List<Task> tasks) {
+		if (scriptedTaskWrites) {
+			return createTasksScripted(tasks);
+		}
 
 		List<Task> tasksCreated = new LinkedList<>();
 
@@ -126,7 +166,7 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 			recordRedisDaoRequests("createTask", task.getTaskType(), task.getWorkflowType());
 
 			String taskKey = task.getReferenceTaskName() + "" + task.getRetryCount();
-			Long added = dynoClient.hset(nsKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()), taskKey, task.getTaskId());
+			Long added = dynoClient.hset(workflowKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()), taskKey, task.getTaskId());
 			if (added < 1) {
 				logger.debug("Task already scheduled, skipping the run " + task.getTaskId() + ", ref=" + task.getReferenceTaskName() + ", key=" + taskKey);
 				continue;
@@ -136,10 +176,6 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 				task.setScheduledTime(System.currentTimeMillis());
 			}
 
-			correlateTaskToWorkflowInDS(task.getTaskId(), task.getWorkflowInstanceId());
-			logger.debug("Scheduled task added to WORKFLOW_TO_TASKS workflowId: {}, taskId: {}, taskType: {} during createTasks",
-                    task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType());
-
 			String inProgressTaskKey = nsKey(IN_PROGRESS_TASKS, task.getTaskDefName());
 			dynoClient.sadd(inProgressTaskKey, task.getTaskId());
 			logger.debug("Scheduled task added to IN_PROGRESS_TASKS with inProgressTaskKey: {}, workflowId: {}, taskId: {}, taskType: {} during createTasks",
@@ -153,10 +189,111 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 
 	}
 
+	/**
+	 * Creates the tasks with one script call per batch, skipping tasks that are already in SCHEDULED_TASKS like
+	 * {@link #createTasks(List)} does.
+	 */
+	private List<Task> createTasksScripted(List<Task> tasks) {
+		List<Task> tasksCreated = new LinkedList<>();
+		for (List<Task> batch : Lists.partition(tasks, TASK_WRITE_BATCH_SIZE)) {
+			boolean[] scheduledNow = new boolean[batch.size()];
+			for (int i = 0; i < batch.size(); i++) {
+				Task task = batch.get(i);
+				validate(task);
+				recordRedisDaoRequests("createTask", task.getTaskType(), task.getWorkflowType());
+				if (task.getStatus() != null && !task.getStatus().isTerminal() && task.getScheduledTime() == 0) {
+					task.setScheduledTime(System.currentTimeMillis());
+					scheduledNow[i] = true;
+				}
+			}
+			List<Boolean> written = writeTasks(batch, true);
+			for (int i = 0; i < batch.size(); i++) {
+				Task task = batch.get(i);
+				if (written.get(i)) {
+					tasksCreated.add(task);
+				} else {
+					logger.debug("Task already scheduled, skipping the run {}, ref={}", task.getTaskId(), task.getReferenceTaskName());
+					if (scheduledNow[i]) {
+						task.setScheduledTime(0);
+					}
+				}
+			}
+		}
+		return tasksCreated;
+	}
+
+	/**
+	 * Writes the tasks to all the keys that {@link #createTasks(List)} and {@link #updateTask(Task)} maintain, in a
+	 * single round trip.
+	 *
+	 * @param create when true, each task is first recorded in SCHEDULED_TASKS and skipped if it was already there
+	 * @return for each task, whether it was written
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Boolean> writeTasks(List<Task> tasks, boolean create) {
+		List<String> keys = new ArrayList<>(tasks.size() * 7);
+		List<String> args = new ArrayList<>(tasks.size() * 6 + 1);
+		args.add(create ? "1" : "0");
+		for (Task task : tasks) {
+			keys.add(workflowKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()));
+			keys.add(nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()));
+			keys.add(taskKey(task.getWorkflowInstanceId(), task.getTaskId()));
+			keys.add(workflowKey(WORKFLOW_TO_TASKS, task.getWorkflowInstanceId()));
+			keys.add(nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()));
+			keys.add(nsKey(TASK_LIMIT_BUCKET, task.getTaskDefName()));
+			keys.add(nsKey(TASK_TO_WORKFLOW, task.getTaskId()));
+
+			Optional<TaskDef> taskDefinition = task.getTaskDefinition();
+			String concurrency = "0";
+			if (taskDefinition.isPresent() && taskDefinition.get().concurrencyLimit() > 0) {
+				concurrency = Status.IN_PROGRESS.equals(task.getStatus()) ? "+" : "-";
+			}
+			String payload = toJson(task);
+			recordRedisDaoPayloadSize("updateTask", payload.length(), taskDefinition
+					.map(TaskDef::getName)
+					.orElse("n/a"), task.getWorkflowType());
+			recordRedisDaoRequests("updateTask", task.getTaskType(), task.getWorkflowType());
+
+			args.add(task.getReferenceTaskName() + "" + task.getRetryCount());
+			args.add(task.getTaskId());
+			args.add(payload);
+			args.add(concurrency);
+			args.add(task.getStatus() != null && task.getStatus().isTerminal() ? "1" : "0");
+			args.add(isHashTaggedKeys() ? task.getWorkflowInstanceId() : "");
+		}
+		List<Long> written = (List<Long>) dynoClient.eval(WRITE_TASKS_SCRIPT, keys, args);
+		return written.stream().map(result -> result == 1).collect(Collectors.toList());
+	}
+
 	@Override
 	public void updateTask(Task task) {
+		if (scriptedTaskWrites) {
+			writeTasks(Collections.singletonList(task), false);
+			return;
+		}
 		Optional<TaskDef> taskDefinition = task.getTaskDefinition();
+		String payload = toJson(task);
+		recordRedisDaoPayloadSize("updateTask", payload.length(), taskDefinition
+				.map(TaskDef::getName)
+				.orElse("n/a"), task.getWorkflowType());
 
+		recordRedisDaoRequests("updateTask", task.getTaskType(), task.getWorkflowType());
+		String taskKey = taskKey(task.getWorkflowInstanceId(), task.getTaskId());
+		dynoClient.set(taskKey, payload);
+		if (isHashTaggedKeys()) {
+			// written on every update, for tasks updated without being created through this DAO to be found by id
+			dynoClient.set(nsKey(TASK_TO_WORKFLOW, task.getTaskId()), task.getWorkflowInstanceId());
+		}
+		logger.debug("Workflow task payload saved to TASK with taskKey: {}, workflowId: {}, taskId: {}, taskType: {} during updateTask",
+				taskKey, task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType());
+		updateTaskIndexes(task);
+	}
+
+	/**
+	 * Updates the keys that index the task by its status, all of which are idempotent.
+	 */
+	private void updateTaskIndexes(Task task) {
+		Optional<TaskDef> taskDefinition = task.getTaskDefinition();
 		if(taskDefinition.isPresent() && taskDefinition.get().concurrencyLimit() > 0) {
 
 			if(task.getStatus() != null && task.getStatus().equals(Status.IN_PROGRESS)) {
@@ -174,25 +311,14 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 			}
 		}
 
-		String payload = toJson(task);
-		recordRedisDaoPayloadSize("updateTask", payload.length(), taskDefinition
-				.map(TaskDef::getName)
-				.orElse("n/a"), task.getWorkflowType());
-
-		recordRedisDaoRequests("updateTask", task.getTaskType(), task.getWorkflowType());
-		dynoClient.set(nsKey(TASK, task.getTaskId()), payload);
-		logger.debug("Workflow task payload saved to TASK with taskKey: {}, workflowId: {}, taskId: {}, taskType: {} during updateTask",
-				nsKey(TASK, task.getTaskId()), task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType());
 		if (task.getStatus() != null && task.getStatus().isTerminal()) {
 			dynoClient.srem(nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()), task.getTaskId());
 			logger.debug("Workflow Task removed from TASKS_IN_PROGRESS_STATUS with tasksInProgressKey: {}, workflowId: {}, taskId: {}, taskType: {}, taskStatus: {} during updateTask",
 					nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()), task.getWorkflowInstanceId(), task.getTaskId(), task.getTaskType(), task.getStatus().name());
 		}
 
-        Set<String> taskIds = dynoClient.smembers(nsKey(WORKFLOW_TO_TASKS, task.getWorkflowInstanceId()));
-		if (!taskIds.contains(task.getTaskId())) {
-		    correlateTaskToWorkflowInDS(task.getTaskId(), task.getWorkflowInstanceId());
-        }
+		// SADD is idempotent, so correlating unconditionally avoids reading the whole set of the workflow's tasks
+		correlateTaskToWorkflowInDS(task.getTaskId(), task.getWorkflowInstanceId());
 	}
 
 
@@ -206,6 +332,9 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 		if(limit <= 0) {
 			return false;
 		}
+		if (scriptedConcurrencyLimit) {
+			return exceedsInProgressLimitScripted(task, limit);
+		}
 
 		long current = getInProgressTaskCount(task.getTaskDefName());
 		if(current >= limit) {
@@ -234,6 +363,27 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 		return rateLimited;
 	}
 
+	/**
+	 * Checks and takes a concurrency slot in one script call. A task keeps its slot until it reaches a terminal
+	 * status, or until it is found not in progress once the grace period after it was admitted is over.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean exceedsInProgressLimitScripted(Task task, int limit) {
+		List<String> keys = Arrays.asList(nsKey(TASK_LIMIT_BUCKET, task.getTaskDefName()),
+			nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()));
+		List<String> args = Arrays.asList(task.getTaskId(), String.valueOf(limit),
+			String.valueOf(System.currentTimeMillis()), String.valueOf(concurrencyLimitGraceMillis));
+		List<Long> result = (List<Long>) dynoClient.eval(CONCURRENCY_LIMIT_SCRIPT, keys, args);
+		recordRedisDaoRequests("checkTaskRateLimiting", task.getTaskType(), task.getWorkflowType());
+
+		boolean limited = result.get(0) == 1;
+		if (limited) {
+			logger.info("Task execution count limited. task - {}:{}, limit: {}, current: {}", task.getTaskId(), task.getTaskDefName(), limit, result.get(1));
+			Monitors.recordTaskConcurrentExecutionLimited(task.getTaskDefName(), limit);
+		}
+		return limited;
+	}
+
 	@Override
 	public boolean removeTask(String taskId) {
 		Task task = getTask(taskId);
@@ -241,36 +391,50 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 			logger.warn("No such task found by id {}", taskId);
 			return false;
 		}
+		removeTask(task);
+		return true;
+	}
+
+	private void removeTask(Task task) {
 		String taskKey = task.getReferenceTaskName() + "" + task.getRetryCount();
 
-		dynoClient.hdel(nsKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()), taskKey);
+		dynoClient.hdel(workflowKey(SCHEDULED_TASKS, task.getWorkflowInstanceId()), taskKey);
 		dynoClient.srem(nsKey(IN_PROGRESS_TASKS, task.getTaskDefName()), task.getTaskId());
-		dynoClient.srem(nsKey(WORKFLOW_TO_TASKS, task.getWorkflowInstanceId()), task.getTaskId());
+		dynoClient.srem(workflowKey(WORKFLOW_TO_TASKS, task.getWorkflowInstanceId()), task.getTaskId());
 		dynoClient.srem(nsKey(TASKS_IN_PROGRESS_STATUS, task.getTaskDefName()), task.getTaskId());
-		dynoClient.del(nsKey(TASK, task.getTaskId()));
+		dynoClient.del(taskKey(task.getWorkflowInstanceId(), task.getTaskId()));
+		if (isHashTaggedKeys()) {
+			dynoClient.del(nsKey(TASK_TO_WORKFLOW, task.getTaskId()));
+		}
 		dynoClient.zrem(nsKey(TASK_LIMIT_BUCKET, task.getTaskDefName()), task.getTaskId());
 		recordRedisDaoRequests("removeTask", task.getTaskType(), task.getWorkflowType());
-		return true;
 	}
 
     @Override
     public Task getTask(String taskId) {
         Preconditions.checkNotNull(taskId, "taskId cannot be null");
-        return Optional.ofNullable(dynoClient.get(nsKey(TASK, taskId)))
+        List<String> taskKeys = resolveTaskKeys(Collections.singletonList(taskId));
+        Task task = taskKeys.isEmpty() ? null : Optional.ofNullable(dynoClient.get(taskKeys.get(0)))
                 .map(json -> {
-                    Task task = readValue(json, Task.class);
-                    recordRedisDaoRequests("getTask", task.getTaskType(), task.getWorkflowType());
-                    recordRedisDaoPayloadSize("getTask", toJson(task).length(), task.getTaskType(), task.getWorkflowType());
-                    return task;
+                    Task t = readValue(json, Task.class);
+                    recordRedisDaoRequests("getTask", t.getTaskType(), t.getWorkflowType());
+                    recordRedisDaoPayloadSize("getTask", toJson(t).length(), t.getTaskType(), t.getWorkflowType());
+                    return t;
                 })
                 .orElse(null);
+        if (task != null && migrateLegacyKeys && taskKeys.get(0).equals(nsKey(TASK, taskId))) {
+            migrateLegacyWorkflow(task.getWorkflowInstanceId());
+        }
+        return task;
     }
 
 	@Override
 	public List<Task> getTasks(List<String> taskIds) {
-		return taskIds.stream()
-				.map(taskId -> nsKey(TASK, taskId))
-				.map(dynoClient::get)
+		return readTasks(resolveTaskKeys(taskIds));
+	}
+
+	private List<Task> readTasks(List<String> taskKeys) {
+		return dynoClient.mget(taskKeys).stream()
 				.filter(Objects::nonNull)
 				.map(jsonString -> {
 					Task task = readValue(jsonString, Task.class);
@@ -284,9 +448,15 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 	@Override
 	public List<Task> getTasksForWorkflow(String workflowId) {
 		Preconditions.checkNotNull(workflowId, "workflowId cannot be null");
-		Set<String> taskIds = dynoClient.smembers(nsKey(WORKFLOW_TO_TASKS, workflowId));
+		Set<String> taskIds = dynoClient.smembers(workflowKey(WORKFLOW_TO_TASKS, workflowId));
+		if (taskIds.isEmpty() && migrateLegacyWorkflow(workflowId)) {
+			taskIds = dynoClient.smembers(workflowKey(WORKFLOW_TO_TASKS, workflowId));
+		}
 		recordRedisDaoRequests("getTasksForWorkflow");
-		return getTasks(new ArrayList<>(taskIds));
+		// the workflow id is known, so the task keys can be built without looking them up
+		return readTasks(taskIds.stream()
+				.map(taskId -> taskKey(workflowId, taskId))
+				.collect(Collectors.toList()));
 	}
 
 	@Override
@@ -307,6 +477,46 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 		return insertOrUpdateWorkflow(workflow, true);
 	}
 
+	/**
+	 * Compares the revisions and writes the payloads of the workflow and the tasks in one script, then updates the
+	 * keys that index them. Like the other scripts, this needs the keys of a workflow and its tasks to live on the
+	 * same redis server, which hash-tagged keys provide.
+	 */
+	@Override
+	public void compareAndSetWorkflow(Workflow workflow, List<Task> tasks) {
+		Preconditions.checkNotNull(workflow, "workflow object cannot be null");
+
+		List<String> keys = new ArrayList<>(tasks.size() + 1);
+		List<String> args = new ArrayList<>(tasks.size() * 2 + 2);
+		List<Task> workflowTasks = workflow.getTasks();
+		workflow.setTasks(new LinkedList<>());
+		long workflowRevision = workflow.getRevision();
+		workflow.setRevision(workflowRevision + 1);
+		keys.add(workflowKey(WORKFLOW, workflow.getWorkflowId()));
+		args.add(String.valueOf(workflowRevision));
+		args.add(toJson(workflow));
+		workflow.setTasks(workflowTasks);
+		for (Task task : tasks) {
+			long revision = task.getRevision();
+			task.setRevision(revision + 1);
+			keys.add(taskKey(task.getWorkflowInstanceId(), task.getTaskId()));
+			args.add(String.valueOf(revision));
+			args.add(toJson(task));
+		}
+		recordRedisDaoRequests("compareAndSetWorkflow", "n/a", workflow.getWorkflowName());
+
+		if ((Long) dynoClient.eval(COMPARE_AND_SET_WORKFLOW_SCRIPT, keys, args) == 0) {
+			throw new ConcurrentUpdateException(workflow);
+		}
+
+		tasks.forEach(this::updateTaskIndexes);
+		if (workflow.getStatus().isTerminal()) {
+			dynoClient.srem(nsKey(PENDING_WORKFLOWS, workflow.getWorkflowName()), workflow.getWorkflowId());
+		} else {
+			dynoClient.sadd(nsKey(PENDING_WORKFLOWS, workflow.getWorkflowName()), workflow.getWorkflowId());
+		}
+	}
+
 	@Override
 	public boolean removeWorkflow(String workflowId) {
 		Workflow workflow = getWorkflow(workflowId, true);
@@ -320,9 +530,10 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 			dynoClient.srem(nsKey(PENDING_WORKFLOWS, workflow.getWorkflowName()), workflowId);
 
 			// Remove the object
-			dynoClient.del(nsKey(WORKFLOW, workflowId));
+			dynoClient.del(workflowKey(WORKFLOW, workflowId));
+			// the tasks were just read with the workflow, no need to fetch each one again
 			for (Task task : workflow.getTasks()) {
-				removeTask(task.getTaskId());
+				removeTask(task);
 			}
 			return true;
 		}
@@ -332,7 +543,7 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 	@Override
 	public void removeFromPendingWorkflow(String workflowType, String workflowId) {
 		recordRedisDaoRequests("removePendingWorkflow");
-		dynoClient.del(nsKey(SCHEDULED_TASKS, workflowId));
+		dynoClient.del(workflowKey(SCHEDULED_TASKS, workflowId));
 		dynoClient.srem(nsKey(PENDING_WORKFLOWS, workflowType), workflowId);
 	}
 
@@ -343,7 +554,10 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 
 	@Override
 	public Workflow getWorkflow(String workflowId, boolean includeTasks) {
-		String json = dynoClient.get(nsKey(WORKFLOW, workflowId));
+		String json = dynoClient.get(workflowKey(WORKFLOW, workflowId));
+		if (json == null && migrateLegacyWorkflow(workflowId)) {
+			json = dynoClient.get(workflowKey(WORKFLOW, workflowId));
+		}
 		Workflow workflow = null;
 
 		if(json != null) {
@@ -444,7 +658,7 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 
 		String payload = toJson(workflow);
 		// Store the workflow object
-		dynoClient.set(nsKey(WORKFLOW, workflow.getWorkflowId()), payload);
+		dynoClient.set(workflowKey(WORKFLOW, workflow.getWorkflowId()), payload);
 		recordRedisDaoRequests("storeWorkflow", "n/a", workflow.getWorkflowName());
 		recordRedisDaoPayloadSize("storeWorkflow", payload.length(), "n/a", workflow.getWorkflowName());
 		if (!update) {
@@ -475,12 +689,93 @@ public class RedisExecutionDAO extends BaseDynoDAO implements ExecutionDAO {
 	 */
 	@VisibleForTesting
     void correlateTaskToWorkflowInDS(String taskId, String workflowInstanceId) {
-        String workflowToTaskKey = nsKey(WORKFLOW_TO_TASKS, workflowInstanceId);
+        String workflowToTaskKey = workflowKey(WORKFLOW_TO_TASKS, workflowInstanceId);
         dynoClient.sadd(workflowToTaskKey, taskId);
         logger.debug("Task mapped in WORKFLOW_TO_TASKS with workflowToTaskKey: {}, workflowId: {}, taskId: {}",
                 workflowToTaskKey, workflowInstanceId, taskId);
     }
 
+	/**
+	 * @return the key of a value owned by the workflow instance, hash-tagged by the workflow id when enabled
+	 */
+	private String workflowKey(String keyFamily, String workflowId) {
+		return nsKey(keyFamily, hashTag(workflowId));
+	}
+
+	/**
+	 * Hash-tagged task keys embed the id of their workflow, so that tasks live in the same slot as the workflow.
+	 */
+	private String taskKey(String workflowId, String taskId) {
+		return isHashTaggedKeys() ? nsKey(TASK, hashTag(workflowId), taskId) : nsKey(TASK, taskId);
+	}
+
+	/**
+	 * Resolves the keys of tasks known only by id. With hash-tagged keys, the workflow of each task is looked up in
+	 * TASK_TO_WORKFLOW; tasks without an entry are read from their legacy key while migrating, and skipped otherwise.
+	 */
+	private List<String> resolveTaskKeys(List<String> taskIds) {
+		if (!isHashTaggedKeys()) {
+			return taskIds.stream()
+					.map(taskId -> nsKey(TASK, taskId))
+					.collect(Collectors.toList());
+		}
+		List<String> workflowIds = dynoClient.mget(taskIds.stream()
+				.map(taskId -> nsKey(TASK_TO_WORKFLOW, taskId))
+				.collect(Collectors.toList()));
+		List<String> taskKeys = new ArrayList<>(taskIds.size());
+		for (int i = 0; i < taskIds.size(); i++) {
+			if (workflowIds.get(i) != null) {
+				taskKeys.add(taskKey(workflowIds.get(i), taskIds.get(i)));
+			} else if (migrateLegacyKeys) {
+				taskKeys.add(nsKey(TASK, taskIds.get(i)));
+			}
+		}
+		return taskKeys;
+	}
+
+	/**
+	 * Moves a workflow and its tasks from the legacy key layout to hash-tagged keys. Values already present under the
+	 * new keys were written after the switch and are kept; legacy keys are deleted last, so concurrent readers always
+	 * find the workflow under one of the layouts.
+	 *
+	 * @return true if the workflow was found under the legacy layout
+	 */
+	private boolean migrateLegacyWorkflow(String workflowId) {
+		if (!migrateLegacyKeys) {
+			return false;
+		}
+		String legacyWorkflowKey = nsKey(WORKFLOW, workflowId);
+		String workflowJson = dynoClient.get(legacyWorkflowKey);
+		if (workflowJson == null) {
+			return false;
+		}
+		String legacyWorkflowToTasksKey = nsKey(WORKFLOW_TO_TASKS, workflowId);
+		String legacyScheduledTasksKey = nsKey(SCHEDULED_TASKS, workflowId);
+		List<String> taskIds = new ArrayList<>(dynoClient.smembers(legacyWorkflowToTasksKey));
+		List<String> legacyTaskKeys = taskIds.stream()
+				.map(taskId -> nsKey(TASK, taskId))
+				.collect(Collectors.toList());
+		List<String> taskJsons = dynoClient.mget(legacyTaskKeys);
+		for (int i = 0; i < taskIds.size(); i++) {
+			if (taskJsons.get(i) != null) {
+				dynoClient.setnx(taskKey(workflowId, taskIds.get(i)), taskJsons.get(i));
+				dynoClient.set(nsKey(TASK_TO_WORKFLOW, taskIds.get(i)), workflowId);
+			}
+			dynoClient.sadd(workflowKey(WORKFLOW_TO_TASKS, workflowId), taskIds.get(i));
+		}
+		dynoClient.hgetAll(legacyScheduledTasksKey)
+				.forEach((field, taskId) -> dynoClient.hsetnx(workflowKey(SCHEDULED_TASKS, workflowId), field, taskId));
+		dynoClient.setnx(workflowKey(WORKFLOW, workflowId), workflowJson);
+
+		legacyTaskKeys.forEach(dynoClient::del);
+		dynoClient.del(legacyScheduledTasksKey);
+		dynoClient.del(legacyWorkflowToTasksKey);
+		dynoClient.del(legacyWorkflowKey);
+		recordRedisDaoRequests("migrateWorkflowKeys");
+		logger.debug("Workflow {} with {} tasks moved to hash-tagged keys", workflowId, taskIds.size());
+		return true;
+	}
+
 	private static String dateStr(Long timeInMs) {
 		Date date = new Date(timeInMs);
 		return dateStr(date);
@@ -53,6 +53,7 @@ public class RedisMetadataDAO extends BaseDynoDAO implements MetadataDAO {
     private final static String WORKFLOW_DEF_NAMES = "WORKFLOW_DEF_NAMES";
     private final static String WORKFLOW_DEF = "WORKFLOW_DEF";
     private final static String LATEST = "latest";
+    private final static String DEFINITIONS_VERSION = "DEFINITIONS_VERSION";
 
     private Map<String, TaskDef> taskDefCache = new HashMap<>();
     private static final String className = RedisMetadataDAO.class.getSimpleName();
@@ -80,6 +81,7 @@ public class RedisMetadataDAO extends BaseDynoDAO implements MetadataDAO {
         dynoClient.hset(nsKey(ALL_TASK_DEFS), taskDef.getName(), payload);
         recordRedisDaoRequests("storeTaskDef");
         recordRedisDaoPayloadSize("storeTaskDef", payload.length(), taskDef.getName(), "n/a");
+        dynoClient.incr(nsKey(DEFINITIONS_VERSION));
         refreshTaskDefs();
         return taskDef.getName();
     }
@@ -143,6 +145,7 @@ public class RedisMetadataDAO extends BaseDynoDAO implements MetadataDAO {
 			throw new ApplicationException(Code.NOT_FOUND, "Cannot remove the task - no such task definition");
 		}
 		recordRedisDaoRequests("removeTaskDef");
+		dynoClient.incr(nsKey(DEFINITIONS_VERSION));
 		refreshTaskDefs();
 	}
 
@@ -242,6 +245,13 @@ public class RedisMetadataDAO extends BaseDynoDAO implements MetadataDAO {
 		}
 
 		recordRedisDaoRequests("removeWorkflowDef");
+		dynoClient.incr(nsKey(DEFINITIONS_VERSION));
+	}
+
+	@Override
+	public long getDefinitionsVersion() {
+		String version = dynoClient.get(nsKey(DEFINITIONS_VERSION));
+		return version == null ? 0 : Long.parseLong(version);
 	}
 
 	public List<String> findAll() {
@@ -279,5 +289,6 @@ public class RedisMetadataDAO extends BaseDynoDAO implements MetadataDAO {
 
         dynoClient.sadd(nsKey(WORKFLOW_DEF_NAMES), workflowDef.getName());
         recordRedisDaoRequests("storeWorkflowDef", "n/a", workflowDef.getName());
+        dynoClient.incr(nsKey(DEFINITIONS_VERSION));
     }
 }
@@ -22,6 +22,7 @@ import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.dao.PollDataDAO;
 import com.netflix.conductor.dyno.DynoProxy;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.inject.Inject;
@@ -50,6 +51,21 @@ public class RedisPollDataDAO extends BaseDynoDAO implements PollDataDAO {
         dynoClient.hset(key, field, payload);
     }
 
+    @Override
+    public void updateLastPollData(List<PollData> pollData) {
+        Map<String, Map<String, String>> fieldsByKey = new HashMap<>();
+        for (PollData data : pollData) {
+            String field = (data.getDomain() == null) ? "DEFAULT" : data.getDomain();
+            String payload = toJson(data);
+            recordRedisDaoPayloadSize("updatePollData", payload.length(), "n/a", "n/a");
+            fieldsByKey.computeIfAbsent(nsKey(POLL_DATA, data.getQueueName()), key -> new HashMap<>()).put(field, payload);
+        }
+        fieldsByKey.forEach((key, fields) -> {
+            recordRedisDaoRequests("updatePollData");
+            dynoClient.hmset(key, fields);
+        });
+    }
+
     @Override
     public PollData getPollData(String taskDefName, String domain) {
         Preconditions.checkNotNull(taskDefName, "taskDefName name cannot be null");
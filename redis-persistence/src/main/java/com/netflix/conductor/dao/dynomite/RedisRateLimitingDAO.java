@@ -16,13 +16,18 @@
 package com.netflix.conductor.dao.dynomite;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.netflix.conductor.annotations.Trace;
 import com.netflix.conductor.common.metadata.tasks.Task;
 import com.netflix.conductor.common.metadata.tasks.TaskDef;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.conductor.dao.RateLimitingDAO;
 import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.dyno.RedisScript;
 import com.netflix.conductor.metrics.Monitors;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -37,10 +42,16 @@ public class RedisRateLimitingDAO extends BaseDynoDAO implements RateLimitingDAO
     private static final Logger logger = LoggerFactory.getLogger(RedisRateLimitingDAO.class);
 
     private static final String TASK_RATE_LIMIT_BUCKET = "TASK_RATE_LIMIT_BUCKET";
+    private static final String TASK_RATE_LIMIT_TOKENS = "TASK_RATE_LIMIT_TOKENS";
+
+    private static final RedisScript TOKEN_BUCKET_SCRIPT = RedisScript.fromResource("/scripts/ratelimit/token_bucket.lua");
+
+    private final boolean scriptedRateLimit;
 
     @Inject
     protected RedisRateLimitingDAO(DynoProxy dynoClient, ObjectMapper objectMapper, Configuration config) {
         super(dynoClient, objectMapper, config);
+        scriptedRateLimit = config.getBooleanProperty("workflow.redis.ratelimit.scripted.enabled", false);
     }
 
     /**
@@ -56,6 +67,9 @@ public class RedisRateLimitingDAO extends BaseDynoDAO implements RateLimitingDAO
      *     this is achieved by using {@link DynoProxy#zcount(String, double, double)} </li>
      *     <li>Once the count is calculated then a evaluation is made to determine if it is within the bounds of {@link Task#getRateLimitPerFrequency()}, if so the count is increased and an expiry TTL is added to the entry</li>
      * </ul>
+     * <p>
+     * When <code>workflow.redis.ratelimit.scripted.enabled</code> is set, a token bucket is evaluated and reserved
+     * instead in one atomic script call, see {@link #takeToken(String, int, int)}.
      *
      * @param task: which needs to be evaluated whether it is rateLimited or not
      * @return true: If the {@link Task} is rateLimited
@@ -77,7 +91,19 @@ public class RedisRateLimitingDAO extends BaseDynoDAO implements RateLimitingDAO
         } else {
             logger.debug("Evaluating rate limiting for TaskId: {} with TaskDefinition of: {} with rateLimitPerFrequency: {} and rateLimitFrequencyInSeconds: {}",
                     task.getTaskId(), task.getTaskDefName(),rateLimitPerFrequency, rateLimitFrequencyInSeconds);
-            long currentTimeEpochMillis = System.currentTimeMillis();
+            if (scriptedRateLimit) {
+                long tokensLeft = takeToken(task.getTaskDefName(), rateLimitPerFrequency, rateLimitFrequencyInSeconds);
+                if (tokensLeft >= 0) {
+                    logger.debug("TaskId: {} with TaskDefinition of: {} within the rate limit with {} tokens left",
+                            task.getTaskId(), task.getTaskDefName(), tokensLeft);
+                    Monitors.recordTaskRateLimited(task.getTaskDefName(), rateLimitPerFrequency);
+                    return false;
+                }
+                logger.debug("TaskId: {} with TaskDefinition of: {} is out of bounds of rate limit", task.getTaskId(),
+                        task.getTaskDefName());
+                return true;
+            }
+            long currentTimeEpochMillis = currentTimeMillis();
             long currentTimeEpochMinusRateLimitBucket = currentTimeEpochMillis - (rateLimitFrequencyInSeconds * 1000);
             String key = nsKey(TASK_RATE_LIMIT_BUCKET, task.getTaskDefName());
             dynoClient.zremrangeByScore(key, "-inf", String.valueOf(currentTimeEpochMinusRateLimitBucket));
@@ -99,4 +125,30 @@ public class RedisRateLimitingDAO extends BaseDynoDAO implements RateLimitingDAO
             }
         }
     }
+
+    /**
+     * Takes a token from the bucket of the task definition, which holds up to <code>rateLimitPerFrequency</code>
+     * tokens and is refilled continuously at <code>rateLimitPerFrequency</code> tokens per
+     * <code>rateLimitFrequencyInSeconds</code>. A task definition that was idle may thus start a full window's worth
+     * of tasks in a burst, after which tasks are admitted at the refill rate.
+     *
+     * @return the number of tokens left, or -1 if the bucket is empty
+     */
+    @SuppressWarnings("unchecked")
+    private long takeToken(String taskDefName, int rateLimitPerFrequency, int rateLimitFrequencyInSeconds) {
+        List<String> keys = Collections.singletonList(nsKey(TASK_RATE_LIMIT_TOKENS, taskDefName));
+        List<String> args = Arrays.asList(String.valueOf(rateLimitPerFrequency),
+                String.valueOf(rateLimitFrequencyInSeconds * 1000L), String.valueOf(currentTimeMillis()),
+                String.valueOf(rateLimitFrequencyInSeconds));
+        List<Long> result = (List<Long>) dynoClient.eval(TOKEN_BUCKET_SCRIPT, keys, args);
+        return result.get(0) == 1 ? result.get(1) : -1;
+    }
+
+    /**
+     * @return the time the rate limits are evaluated at
+     */
+    @VisibleForTesting
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
 }
@@ -13,7 +13,11 @@
 package com.netflix.conductor.dao.dynomite.queue;
 
 import com.netflix.conductor.core.config.Configuration;
+import com.netflix.conductor.core.events.queue.QueueLag;
+import com.netflix.conductor.core.events.queue.QueueThroughput;
 import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.dyno.DynomiteConfiguration;
+import com.netflix.conductor.dyno.RedisQueuesProvider;
 import com.netflix.discovery.DiscoveryClient;
 import com.netflix.dyno.connectionpool.Host;
 import com.netflix.dyno.connectionpool.HostBuilder;
@@ -33,9 +37,11 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Tuple;
 import redis.clients.jedis.commands.JedisCommands;
 
 @Singleton
@@ -55,11 +61,24 @@ public class DynoQueueDAO implements QueueDAO {
 
     private Configuration config;
 
-    @Inject
+    private String prefix;
+
+    private final QueueThroughput throughput = new QueueThroughput();
+
     public DynoQueueDAO(RedisQueues queues) {
         this.queues = queues;
     }
 
+    @Inject
+    public DynoQueueDAO(RedisQueues queues,
+                        @Named(RedisQueuesProvider.READ_CLIENT_INJECTION_NAME) JedisCommands dynoClientRead,
+                        ShardSupplier ss, DynomiteConfiguration config) {
+        this.queues = queues;
+        this.dynoClientRead = dynoClientRead;
+        this.ss = ss;
+        this.prefix = config.getQueuePrefix();
+    }
+
     @Deprecated
     public DynoQueueDAO(DiscoveryClient dc, Configuration config) {
 
@@ -135,6 +154,7 @@ public class DynoQueueDAO implements QueueDAO {
             prefix = prefix + "." + domain;
         }
         queues = new RedisQueues(dynoClient, dynoClientRead, prefix, ss, 60_000, 60_000);
+        this.prefix = prefix;
         logger.info("DynoQueueDAO initialized with prefix " + prefix + "!");
     }
 
@@ -151,6 +171,7 @@ public class DynoQueueDAO implements QueueDAO {
             msg.setPriority(priority);
         }
         queues.get(queueName).push(Collections.singletonList(msg));
+        throughput.recordPush(queueName, 1);
     }
 
     @Override
@@ -165,6 +186,7 @@ public class DynoQueueDAO implements QueueDAO {
 				})
 				.collect(Collectors.toList());
         queues.get(queueName).push(msgs);
+        throughput.recordPush(queueName, msgs.size());
     }
 
     @Override
@@ -184,12 +206,14 @@ public class DynoQueueDAO implements QueueDAO {
         }
         msg.setTimeout(offsetTimeInSecond, TimeUnit.SECONDS);
         queue.push(Collections.singletonList(msg));
+        throughput.recordPush(queueName, 1);
         return true;
     }
 
     @Override
     public List<String> pop(String queueName, int count, int timeout) {
         List<Message> msg = queues.get(queueName).pop(count, timeout, TimeUnit.MILLISECONDS);
+        throughput.recordPop(queueName, msg.size());
         return msg.stream()
 				.map(Message::getId)
 				.collect(Collectors.toList());
@@ -198,6 +222,7 @@ public class DynoQueueDAO implements QueueDAO {
     @Override
     public List<com.netflix.conductor.core.events.queue.Message> pollMessages(String queueName, int count, int timeout) {
         List<Message> msgs = queues.get(queueName).pop(count, timeout, TimeUnit.MILLISECONDS);
+        throughput.recordPop(queueName, msgs.size());
         return msgs.stream()
 				.map(msg -> new com.netflix.conductor.core.events.queue.Message(msg.getId(), msg.getPayload(), null, msg.getPriority()))
 				.collect(Collectors.toList());
@@ -254,4 +279,31 @@ public class DynoQueueDAO implements QueueDAO {
         return queue.setTimeout(id, 0);
 
     }
+
+    @Override
+    public QueueLag getQueueLag(String queueName) {
+        return throughput.lag(queueName, getSize(queueName), oldestDeliverableTime(queueName));
+    }
+
+    /**
+     * Reads the head of each shard of the queue. dyno-queues keeps a shard in the sorted set
+     * <code>prefix.QUEUE.queueName.shard</code>, scored by the delivery time in millis plus a fraction for the priority.
+     */
+    private long oldestDeliverableTime(String queueName) {
+        if (dynoClientRead == null || ss == null || prefix == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long oldest = 0;
+        for (String shard : ss.getQueueShards()) {
+            String shardKey = prefix + ".QUEUE." + queueName + "." + shard;
+            for (Tuple head : dynoClientRead.zrangeByScoreWithScores(shardKey, 0, now, 0, 1)) {
+                long deliverOn = (long) head.getScore();
+                if (oldest == 0 || deliverOn < oldest) {
+                    oldest = deliverOn;
+                }
+            }
+        }
+        return oldest;
+    }
 }
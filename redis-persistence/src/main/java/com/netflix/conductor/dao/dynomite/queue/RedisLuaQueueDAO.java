@@ -0,0 +1,318 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite.queue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.events.queue.QueueLag;
+import com.netflix.conductor.core.events.queue.QueueThroughput;
+import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.dyno.DynomiteConfiguration;
+import com.netflix.conductor.dyno.RedisScript;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link QueueDAO} on plain Redis where every queue operation is a single Lua script, so a push, pop, postpone or
+ * ack costs one round trip and is atomic on the server.
+ * <p>
+ * A queue is stored in five keys sharing the hash tag <code>{queueName}</code>, which keeps them in one slot on
+ * Redis Cluster (and on one shard for Dynomite with a <code>{}</code> hash_tag configured):
+ * <ul>
+ * <li>DELAYED: sorted set of id by delivery time, for messages pushed with an offset</li>
+ * <li>READY: sorted set of id by priority, then delivery time</li>
+ * <li>UNACK: sorted set of id by lease expiry</li>
+ * <li>PRIORITY / PAYLOAD: hashes of id to priority and to payload; PRIORITY doubles as the index of all messages</li>
+ * </ul>
+ * Unlike {@link DynoQueueDAO} queues are not sharded across availability zones.
+ */
+@Singleton
+public class RedisLuaQueueDAO implements QueueDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisLuaQueueDAO.class);
+
+    private static final long UNACK_TIMEOUT_MS = 60_000;
+    private static final long UNACK_PROCESS_INTERVAL_MS = 60_000;
+    private static final int UNACK_PROCESS_BATCH = 1000;
+    private static final int POLL_INTERVAL_MS = 50;
+    private static final int PROMOTE_LIMIT_MULTIPLIER = 10;
+    private static final String SHARD = "a";
+
+    private static final RedisScript PUSH = RedisScript.fromResource("/scripts/queue/push.lua");
+    private static final RedisScript POP = RedisScript.fromResource("/scripts/queue/pop.lua");
+    private static final RedisScript ACK = RedisScript.fromResource("/scripts/queue/ack.lua");
+    private static final RedisScript REMOVE = RedisScript.fromResource("/scripts/queue/remove.lua");
+    private static final RedisScript SET_UNACK_TIMEOUT = RedisScript.fromResource("/scripts/queue/set_unack_timeout.lua");
+    private static final RedisScript RESET_OFFSET_TIME = RedisScript.fromResource("/scripts/queue/reset_offset_time.lua");
+    private static final RedisScript PROCESS_UNACKS = RedisScript.fromResource("/scripts/queue/process_unacks.lua");
+    private static final RedisScript SIZE = RedisScript.fromResource("/scripts/queue/size.lua");
+    private static final RedisScript FLUSH = RedisScript.fromResource("/scripts/queue/flush.lua");
+    private static final RedisScript LAG = RedisScript.fromResource("/scripts/queue/lag.lua");
+
+    private final DynoProxy dynoClient;
+    private final String prefix;
+    private final String queuesKey;
+    private final Set<String> registeredQueues = ConcurrentHashMap.newKeySet();
+    private final QueueThroughput throughput = new QueueThroughput();
+
+    @Inject
+    public RedisLuaQueueDAO(DynoProxy dynoClient, DynomiteConfiguration config) {
+        this(dynoClient, config.getQueuePrefix(), UNACK_PROCESS_INTERVAL_MS);
+    }
+
+    /**
+     * @param prefix namespace of all queue keys
+     * @param unackProcessIntervalMs interval of the background unack processing, disabled when not positive
+     */
+    public RedisLuaQueueDAO(DynoProxy dynoClient, String prefix, long unackProcessIntervalMs) {
+        if (!dynoClient.supportsScripting()) {
+            throw new IllegalArgumentException("RedisLuaQueueDAO requires a redis client that supports Lua scripts");
+        }
+        this.dynoClient = dynoClient;
+        this.prefix = prefix;
+        this.queuesKey = prefix + ".QUEUES";
+        if (unackProcessIntervalMs > 0) {
+            Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("redis-lua-queue-unacks-%d").setDaemon(true).build())
+                .scheduleWithFixedDelay(this::processAllUnacks, unackProcessIntervalMs, unackProcessIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+        logger.info("RedisLuaQueueDAO initialized with prefix {}", prefix);
+    }
+
+    @Override
+    public void push(String queueName, String id, long offsetTimeInSecond) {
+        push(queueName, id, 0, offsetTimeInSecond);
+    }
+
+    @Override
+    public void push(String queueName, String id, int priority, long offsetTimeInSecond) {
+        push(queueName, false, Collections.singletonList(new Message(id, null, null, priority)), offsetTimeInSecond);
+    }
+
+    @Override
+    public void push(String queueName, List<Message> messages) {
+        if (!messages.isEmpty()) {
+            push(queueName, false, messages, 0);
+        }
+    }
+
+    @Override
+    public boolean pushIfNotExists(String queueName, String id, long offsetTimeInSecond) {
+        return pushIfNotExists(queueName, id, 0, offsetTimeInSecond);
+    }
+
+    @Override
+    public boolean pushIfNotExists(String queueName, String id, int priority, long offsetTimeInSecond) {
+        return push(queueName, true, Collections.singletonList(new Message(id, null, null, priority)), offsetTimeInSecond) > 0;
+    }
+
+    @Override
+    public List<String> pop(String queueName, int count, int timeout) {
+        return pop(queueName, count, timeout, 0);
+    }
+
+    @Override
+    public List<String> pop(String queueName, int count, int timeout, long leaseDurationSeconds) {
+        return pollMessages(queueName, count, timeout, leaseDurationSeconds).stream()
+            .map(Message::getId)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Message> pollMessages(String queueName, int count, int timeout) {
+        return pollMessages(queueName, count, timeout, 0);
+    }
+
+    @Override
+    public List<Message> pollMessages(String queueName, int count, int timeout, long leaseDurationSeconds) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        long leaseMs = leaseDurationSeconds > 0 ? TimeUnit.SECONDS.toMillis(leaseDurationSeconds) : UNACK_TIMEOUT_MS;
+        long deadline = System.currentTimeMillis() + timeout;
+        List<Message> messages = new ArrayList<>(count);
+        while (true) {
+            long now = System.currentTimeMillis();
+            List<?> leased = (List<?>) dynoClient.eval(POP, allKeys(queueName), Arrays.asList(
+                String.valueOf(now),
+                String.valueOf(count - messages.size()),
+                String.valueOf(now + leaseMs),
+                String.valueOf(count * PROMOTE_LIMIT_MULTIPLIER)));
+            for (int i = 0; i + 2 < leased.size(); i += 3) {
+                messages.add(new Message((String) leased.get(i), (String) leased.get(i + 2), null,
+                    Integer.parseInt((String) leased.get(i + 1))));
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (messages.size() >= count || remaining <= 0) {
+                throughput.recordPop(queueName, messages.size());
+                return messages;
+            }
+            Uninterruptibles.sleepUninterruptibly(Math.min(remaining, POLL_INTERVAL_MS), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void remove(String queueName, String messageId) {
+        dynoClient.eval(REMOVE, allKeys(queueName), Collections.singletonList(messageId));
+    }
+
+    @Override
+    public int getSize(String queueName) {
+        return sizes(queueName).get(0).intValue();
+    }
+
+    @Override
+    public boolean ack(String queueName, String messageId) {
+        return isTrue(dynoClient.eval(ACK,
+            Arrays.asList(key(queueName, "UNACK"), key(queueName, "PRIORITY"), key(queueName, "PAYLOAD")),
+            Collections.singletonList(messageId)));
+    }
+
+    @Override
+    public boolean setUnackTimeout(String queueName, String messageId, long unackTimeout) {
+        return isTrue(dynoClient.eval(SET_UNACK_TIMEOUT, Collections.singletonList(key(queueName, "UNACK")),
+            Arrays.asList(messageId, String.valueOf(System.currentTimeMillis() + unackTimeout))));
+    }
+
+    @Override
+    public void flush(String queueName) {
+        dynoClient.eval(FLUSH, allKeys(queueName), Collections.emptyList());
+    }
+
+    @Override
+    public Map<String, Long> queuesDetail() {
+        return dynoClient.smembers(queuesKey).stream()
+            .collect(Collectors.toMap(queueName -> queueName, queueName -> sizes(queueName).get(0)));
+    }
+
+    @Override
+    public Map<String, Map<String, Map<String, Long>>> queuesDetailVerbose() {
+        Map<String, Map<String, Map<String, Long>>> result = new HashMap<>();
+        // queues are not sharded, the single shard is reported as "a" to match the other implementations
+        dynoClient.smembers(queuesKey).forEach(queueName -> {
+            List<Long> sizes = sizes(queueName);
+            result.put(queueName, ImmutableMap.of(SHARD, ImmutableMap.of("size", sizes.get(0), "uacked", sizes.get(1))));
+        });
+        return result;
+    }
+
+    @Override
+    public void processUnacks(String queueName) {
+        long now = System.currentTimeMillis();
+        List<String> keys = Arrays.asList(key(queueName, "READY"), key(queueName, "UNACK"), key(queueName, "PRIORITY"));
+        long processed;
+        do {
+            processed = (Long) dynoClient.eval(PROCESS_UNACKS, keys,
+                Arrays.asList(String.valueOf(now), String.valueOf(UNACK_PROCESS_BATCH)));
+        } while (processed >= UNACK_PROCESS_BATCH);
+    }
+
+    @Override
+    public boolean resetOffsetTime(String queueName, String id) {
+        return isTrue(dynoClient.eval(RESET_OFFSET_TIME,
+            Arrays.asList(key(queueName, "DELAYED"), key(queueName, "READY"), key(queueName, "PRIORITY")),
+            Arrays.asList(id, String.valueOf(System.currentTimeMillis()))));
+    }
+
+    @Override
+    public boolean postpone(String queueName, String messageId, int priority, long postponeDurationInSeconds) {
+        // a single push replaces the leased entry, keeping the payload
+        push(queueName, false, Collections.singletonList(new Message(messageId, null, null, priority)),
+            postponeDurationInSeconds);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public QueueLag getQueueLag(String queueName) {
+        List<Long> lag = (List<Long>) dynoClient.eval(LAG,
+            Arrays.asList(key(queueName, "DELAYED"), key(queueName, "READY")),
+            Collections.singletonList(String.valueOf(System.currentTimeMillis())));
+        return throughput.lag(queueName, lag.get(0), lag.get(1));
+    }
+
+    private long push(String queueName, boolean onlyIfAbsent, List<Message> messages, long offsetTimeInSecond) {
+        register(queueName);
+        long now = System.currentTimeMillis();
+        String deliverOn = String.valueOf(now + TimeUnit.SECONDS.toMillis(offsetTimeInSecond));
+        List<String> args = new ArrayList<>(2 + messages.size() * 5);
+        args.add(String.valueOf(now));
+        args.add(onlyIfAbsent ? "1" : "0");
+        for (Message message : messages) {
+            args.add(message.getId());
+            args.add(String.valueOf(normalize(message.getPriority())));
+            args.add(deliverOn);
+            args.add(message.getPayload() == null ? "0" : "1");
+            args.add(message.getPayload() == null ? "" : message.getPayload());
+        }
+        long pushed = (Long) dynoClient.eval(PUSH, allKeys(queueName), args);
+        throughput.recordPush(queueName, (int) pushed);
+        return pushed;
+    }
+
+    private void processAllUnacks() {
+        try {
+            dynoClient.smembers(queuesKey).forEach(this::processUnacks);
+        } catch (Exception e) {
+            logger.error("Error processing unacks of redis queues", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> sizes(String queueName) {
+        return (List<Long>) dynoClient.eval(SIZE,
+            Arrays.asList(key(queueName, "DELAYED"), key(queueName, "READY"), key(queueName, "UNACK")),
+            Collections.emptyList());
+    }
+
+    private void register(String queueName) {
+        if (!registeredQueues.contains(queueName)) {
+            dynoClient.sadd(queuesKey, queueName);
+            registeredQueues.add(queueName);
+        }
+    }
+
+    private List<String> allKeys(String queueName) {
+        return Arrays.asList(key(queueName, "DELAYED"), key(queueName, "READY"), key(queueName, "UNACK"),
+            key(queueName, "PRIORITY"), key(queueName, "PAYLOAD"));
+    }
+
+    private String key(String queueName, String type) {
+        return prefix + "." + type + ".{" + queueName + "}";
+    }
+
+    private static boolean isTrue(Object result) {
+        return result instanceof Long && (Long) result > 0;
+    }
+
+    private static int normalize(int priority) {
+        return priority >= 0 && priority <= 99 ? priority : 0;
+    }
+}
@@ -12,11 +12,18 @@
  */
 package com.netflix.conductor.dyno;
 
+import com.google.common.collect.Lists;
 import com.google.inject.Singleton;
 import com.netflix.conductor.core.config.Configuration;
 import com.netflix.discovery.DiscoveryClient;
 import com.netflix.dyno.connectionpool.exception.DynoException;
+import com.netflix.conductor.jedis.JedisCluster;
+import com.netflix.conductor.jedis.JedisMock;
+import com.netflix.conductor.jedis.JedisSentinel;
 import com.netflix.dyno.jedis.DynoJedisClient;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -25,6 +32,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +40,8 @@ import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
 import redis.clients.jedis.commands.JedisCommands;
+import redis.clients.jedis.commands.MultiKeyCommands;
+import redis.clients.jedis.commands.ScriptingCommands;
 import redis.clients.jedis.params.ZAddParams;
 
 /**
@@ -43,10 +53,14 @@ public class DynoProxy {
 
     private static Logger logger = LoggerFactory.getLogger(DynoProxy.class);
 
+    private static final int MGET_BATCH_SIZE = 500;
+
     protected DiscoveryClient discoveryClient;
 
     protected JedisCommands dynoClient;
 
+    private volatile Boolean scripting;
+
     @Inject
     public DynoProxy(JedisCommands dynoClient) {
         this.dynoClient = dynoClient;
@@ -91,6 +105,31 @@ public class DynoProxy {
         return dynoClient.get(key);
     }
 
+    /**
+     * Gets the values of many keys in as few round trips as the client allows: a single MGET for redis and dynomite
+     * (which splits it across shards), one MGET per slot for redis cluster. Large key lists are sent in batches.
+     *
+     * @return the values in the order of the keys, null for missing keys
+     */
+    public List<String> mget(List<String> keys) {
+        List<String> values = new ArrayList<>(keys.size());
+        for (List<String> batch : Lists.partition(keys, MGET_BATCH_SIZE)) {
+            values.addAll(mget(batch.toArray(new String[0])));
+        }
+        return values;
+    }
+
+    private List<String> mget(String[] keys) {
+        if (dynoClient instanceof MultiKeyCommands) {
+            return ((MultiKeyCommands) dynoClient).mget(keys);
+        } else if (dynoClient instanceof JedisCluster) {
+            return ((JedisCluster) dynoClient).mget(keys);
+        } else if (dynoClient instanceof JedisSentinel) {
+            return ((JedisSentinel) dynoClient).mget(keys);
+        }
+        return Arrays.stream(keys).map(dynoClient::get).collect(Collectors.toList());
+    }
+
     public Long zcard(String key) {
         return dynoClient.zcard(key);
     }
@@ -112,6 +151,10 @@ public class DynoProxy {
         return retVal;
     }
 
+    public Long incr(String key) {
+        return dynoClient.incr(key);
+    }
+
     public Long setnx(String key, String value) {
         Long added = dynoClient.setnx(key, value);
         return added;
@@ -133,6 +176,10 @@ public class DynoProxy {
         return retVal;
     }
 
+    public String hmset(String key, Map<String, String> hash) {
+        return dynoClient.hmset(key, hash);
+    }
+
     public Long hsetnx(String key, String field, String value) {
         Long retVal = dynoClient.hsetnx(key, field, value);
         return retVal;
@@ -257,4 +304,65 @@ public class DynoProxy {
         return dynoClient.scard(key);
     }
 
+    /**
+     * @return true if the underlying client can run Lua scripts, which is checked once by running a trivial script
+     */
+    public boolean supportsScripting() {
+        Boolean supported = scripting;
+        if (supported == null) {
+            supported = probeScripting();
+            scripting = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * @return true if the underlying client is a Redis Cluster client, on which a script can only touch keys of one slot
+     */
+    public boolean isCluster() {
+        return dynoClient instanceof JedisCluster;
+    }
+
+    private boolean probeScripting() {
+        // the in-memory client implements the scripting commands but would send them to a redis server on localhost
+        if (dynoClient instanceof JedisMock || !(dynoClient instanceof ScriptingCommands)) {
+            return false;
+        }
+        try {
+            Object result = ((ScriptingCommands) dynoClient).eval("return 1", Collections.emptyList(),
+                Collections.emptyList());
+            return Long.valueOf(1).equals(result);
+        } catch (RuntimeException e) {
+            logger.warn("{} does not support Lua scripts", dynoClient.getClass().getName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Runs the script by its digest, sending the full source only when the server does not have it cached yet.
+     */
+    public Object eval(RedisScript script, List<String> keys, List<String> args) {
+        if (!supportsScripting()) {
+            throw new UnsupportedOperationException(dynoClient.getClass().getName() + " does not support Lua scripts");
+        }
+        ScriptingCommands client = (ScriptingCommands) dynoClient;
+        try {
+            return client.evalsha(script.getSha1(), keys, args);
+        } catch (RuntimeException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            logger.debug("Loading script {} into redis", script.getName());
+            return client.eval(script.getSource(), keys, args);
+        }
+    }
+
+    private static boolean isNoScript(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -22,18 +22,23 @@ import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.SortingParams;
 import redis.clients.jedis.Tuple;
 import redis.clients.jedis.commands.JedisCommands;
+import redis.clients.jedis.commands.ScriptingCommands;
 import redis.clients.jedis.params.GeoRadiusParam;
 import redis.clients.jedis.params.SetParams;
 import redis.clients.jedis.params.ZAddParams;
 import redis.clients.jedis.params.ZIncrByParams;
+import redis.clients.jedis.util.JedisClusterCRC16;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-public class JedisCluster implements JedisCommands {
+public class JedisCluster implements JedisCommands, ScriptingCommands {
 
     private final redis.clients.jedis.JedisCluster jedisCluster;
 
@@ -792,4 +797,70 @@ public class JedisCluster implements JedisCommands {
     public Long hstrlen(String key, String field) {
         return jedisCluster.hstrlen(key, field);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Object eval(String script, int keyCount, String... params) {
+        return jedisCluster.eval(script, keyCount, params);
+    }
+
+    @Override
+    public Object eval(String script, List<String> keys, List<String> args) {
+        return jedisCluster.eval(script, keys, args);
+    }
+
+    @Override
+    public Object eval(String script) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object evalsha(String sha1) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object evalsha(String sha1, List<String> keys, List<String> args) {
+        return jedisCluster.evalsha(sha1, keys, args);
+    }
+
+    @Override
+    public Object evalsha(String sha1, int keyCount, String... params) {
+        return jedisCluster.evalsha(sha1, keyCount, params);
+    }
+
+    @Override
+    public Boolean scriptExists(String sha1) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Boolean> scriptExists(String... sha1) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String scriptLoad(String script) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the values of keys that may hash to different slots, with one MGET per slot.
+     *
+     * @return the values in the order of the keys, null for missing keys
+     */
+    public List<String> mget(String... keys) {
+        Map<Integer, List<Integer>> positionsBySlot = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            positionsBySlot.computeIfAbsent(JedisClusterCRC16.getSlot(keys[i]), slot -> new ArrayList<>()).add(i);
+        }
+        String[] values = new String[keys.length];
+        for (List<Integer> positions : positionsBySlot.values()) {
+            String[] slotKeys = positions.stream().map(i -> keys[i]).toArray(String[]::new);
+            List<String> slotValues = jedisCluster.mget(slotKeys);
+            for (int i = 0; i < positions.size(); i++) {
+                values[positions.get(i)] = slotValues.get(i);
+            }
+        }
+        return Arrays.asList(values);
+    }
+}
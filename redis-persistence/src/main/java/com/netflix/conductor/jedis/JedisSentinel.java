@@ -28,12 +28,13 @@ import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.SortingParams;
 import redis.clients.jedis.Tuple;
 import redis.clients.jedis.commands.JedisCommands;
+import redis.clients.jedis.commands.ScriptingCommands;
 import redis.clients.jedis.params.GeoRadiusParam;
 import redis.clients.jedis.params.SetParams;
 import redis.clients.jedis.params.ZAddParams;
 import redis.clients.jedis.params.ZIncrByParams;
 
-public class JedisSentinel implements JedisCommands {
+public class JedisSentinel implements JedisCommands, ScriptingCommands {
 
     private final JedisPoolAbstract jedisPool;
 
@@ -1075,4 +1076,76 @@ public class JedisSentinel implements JedisCommands {
             return jedis.hstrlen(key, field);
         }
     }
+
+    @Override
+    public Object eval(String script, int keyCount, String... params) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.eval(script, keyCount, params);
+        }
+    }
+
+    @Override
+    public Object eval(String script, List<String> keys, List<String> args) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.eval(script, keys, args);
+        }
+    }
+
+    @Override
+    public Object eval(String script) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.eval(script);
+        }
+    }
+
+    @Override
+    public Object evalsha(String sha1) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.evalsha(sha1);
+        }
+    }
+
+    @Override
+    public Object evalsha(String sha1, List<String> keys, List<String> args) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.evalsha(sha1, keys, args);
+        }
+    }
+
+    @Override
+    public Object evalsha(String sha1, int keyCount, String... params) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.evalsha(sha1, keyCount, params);
+        }
+    }
+
+    @Override
+    public Boolean scriptExists(String sha1) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.scriptExists(sha1);
+        }
+    }
+
+    @Override
+    public List<Boolean> scriptExists(String... sha1) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.scriptExists(sha1);
+        }
+    }
+
+    @Override
+    public String scriptLoad(String script) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.scriptLoad(script);
+        }
+    }
+
+    /**
+     * @return the values of the keys in one round trip, null for missing keys
+     */
+    public List<String> mget(String... keys) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.mget(keys);
+        }
+    }
 }
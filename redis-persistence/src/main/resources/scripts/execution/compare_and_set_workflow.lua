@@ -0,0 +1,19 @@
+-- Writes the payloads of a workflow and of its tasks only if each stored payload still has the revision it was read
+-- with, a missing revision counting as 0.
+-- KEYS: workflow, followed by the tasks
+-- ARGV: groups of: expected revision, payload, in the order of KEYS
+-- Returns 1 if the payloads were written and 0 if any of them was updated or removed since.
+for i = 1, #KEYS do
+    local stored = redis.call('GET', KEYS[i])
+    if not stored then
+        return 0
+    end
+    local revision = cjson.decode(stored)['revision'] or 0
+    if revision ~= tonumber(ARGV[2 * i - 1]) then
+        return 0
+    end
+end
+for i = 1, #KEYS do
+    redis.call('SET', KEYS[i], ARGV[2 * i])
+end
+return 1
@@ -0,0 +1,34 @@
+-- Admits a task if its task definition holds fewer than limit slots, taking a slot for it.
+-- Slots are leases in a sorted set scored by the end of their grace period. Once the grace period is over, a slot is
+-- only kept while its task is in progress, so a task that was admitted but never started frees its slot.
+-- KEYS: slots, in progress tasks
+-- ARGV: task id, limit, now in epoch millis, grace period in millis
+-- Returns {1 if the task is limited and 0 otherwise, slots taken or tasks in progress}.
+local limit = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+
+local inProgress = redis.call('SCARD', KEYS[2])
+if inProgress >= limit then
+    return {1, inProgress}
+end
+
+if redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+    return {0, redis.call('ZCARD', KEYS[1])}
+end
+
+local taken = redis.call('ZCARD', KEYS[1])
+if taken >= limit then
+    local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now)
+    for _, id in ipairs(expired) do
+        if redis.call('SISMEMBER', KEYS[2], id) == 0 then
+            redis.call('ZREM', KEYS[1], id)
+        end
+    end
+    taken = redis.call('ZCARD', KEYS[1])
+end
+
+if taken < limit then
+    redis.call('ZADD', KEYS[1], now + tonumber(ARGV[4]), ARGV[1])
+    return {0, taken + 1}
+end
+return {1, taken}
@@ -0,0 +1,41 @@
+-- Creates or updates tasks, writing the same keys as RedisExecutionDAO.createTasks and updateTask.
+-- KEYS: groups of: scheduledTasks, inProgressTasks, task, workflowToTasks, tasksInProgressStatus, taskLimitBucket,
+--       taskToWorkflow
+-- ARGV: create ('1' records each task in scheduledTasks first and skips it when it is already there),
+--       followed by groups of: scheduledTaskKey, taskId, payload,
+--       concurrency ('+' in progress, '-' not in progress, '0' no concurrency limit), terminal ('1' / '0'),
+--       workflowId (recorded in taskToWorkflow on every write when not empty)
+-- Returns, for each task, 1 if it was written and 0 if it was already scheduled.
+local create = ARGV[1] == '1'
+local written = {}
+local k = 1
+for i = 2, #ARGV, 6 do
+    local taskId = ARGV[i + 1]
+    local write = true
+    if create then
+        write = redis.call('HSET', KEYS[k], ARGV[i], taskId) == 1
+        if write then
+            redis.call('SADD', KEYS[k + 1], taskId)
+        end
+    end
+    if write then
+        local concurrency = ARGV[i + 3]
+        if concurrency == '+' then
+            redis.call('SADD', KEYS[k + 4], taskId)
+        elseif concurrency == '-' then
+            redis.call('SREM', KEYS[k + 4], taskId)
+            redis.call('ZREM', KEYS[k + 5], taskId)
+        end
+        redis.call('SET', KEYS[k + 2], ARGV[i + 2])
+        if ARGV[i + 5] ~= '' then
+            redis.call('SET', KEYS[k + 6], ARGV[i + 5])
+        end
+        if ARGV[i + 4] == '1' then
+            redis.call('SREM', KEYS[k + 1], taskId)
+        end
+        redis.call('SADD', KEYS[k + 3], taskId)
+    end
+    written[#written + 1] = write and 1 or 0
+    k = k + 7
+end
+return written
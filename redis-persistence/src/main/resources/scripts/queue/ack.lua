@@ -0,0 +1,10 @@
+-- Acknowledges a leased message, deleting it from the queue.
+-- KEYS: unacked, priorities, payloads
+-- ARGV: id
+-- Returns 1 if the message was leased, 0 otherwise.
+if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then
+    return 0
+end
+redis.call('HDEL', KEYS[2], ARGV[1])
+redis.call('HDEL', KEYS[3], ARGV[1])
+return 1
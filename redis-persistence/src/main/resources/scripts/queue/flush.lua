@@ -0,0 +1,3 @@
+-- Deletes all keys of a queue.
+-- KEYS: delayed, ready, unacked, priorities, payloads
+return redis.call('DEL', unpack(KEYS))
@@ -0,0 +1,20 @@
+-- KEYS: delayed, ready
+-- ARGV: now
+-- Returns the number of messages waiting for delivery and the delivery time of the oldest deliverable one (0 if none).
+-- The ready set is ordered by priority first, so the head of every priority band present is inspected.
+local oldest = false
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, 1)
+if #due > 0 then
+    oldest = tonumber(due[2])
+end
+local head = redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES')
+while #head > 0 do
+    local score = tonumber(head[2])
+    local band = math.floor(score / 1e13)
+    local deliverOn = score - band * 1e13
+    if not oldest or deliverOn < oldest then
+        oldest = deliverOn
+    end
+    head = redis.call('ZRANGEBYSCORE', KEYS[2], string.format('%.0f', (band + 1) * 1e13), '+inf', 'WITHSCORES', 'LIMIT', 0, 1)
+end
+return { redis.call('ZCARD', KEYS[1]) + redis.call('ZCARD', KEYS[2]), oldest or 0 }
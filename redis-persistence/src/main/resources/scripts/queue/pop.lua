@@ -0,0 +1,21 @@
+-- Promotes due delayed messages and leases the first ready ones.
+-- KEYS: delayed, ready, unacked, priorities, payloads
+-- ARGV: now, count, leaseExpiry, promoteLimit
+-- Returns a flat list of id, priority, payload (false when absent) for each leased message.
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, ARGV[4])
+for i = 1, #due, 2 do
+    local id = due[i]
+    local priority = tonumber(redis.call('HGET', KEYS[4], id) or '0')
+    redis.call('ZREM', KEYS[1], id)
+    redis.call('ZADD', KEYS[2], string.format('%.0f', (99 - priority) * 1e13 + tonumber(due[i + 1])), id)
+end
+local ids = redis.call('ZRANGE', KEYS[2], 0, tonumber(ARGV[2]) - 1)
+local leased = {}
+for _, id in ipairs(ids) do
+    redis.call('ZREM', KEYS[2], id)
+    redis.call('ZADD', KEYS[3], ARGV[3], id)
+    leased[#leased + 1] = id
+    leased[#leased + 1] = redis.call('HGET', KEYS[4], id) or '0'
+    leased[#leased + 1] = redis.call('HGET', KEYS[5], id)
+end
+return leased
@@ -0,0 +1,13 @@
+-- Returns messages whose lease has expired to the ready set.
+-- KEYS: ready, unacked, priorities
+-- ARGV: now, limit
+-- Returns the number of messages made ready again.
+local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+for _, id in ipairs(expired) do
+    redis.call('ZREM', KEYS[2], id)
+    local priority = redis.call('HGET', KEYS[3], id)
+    if priority then
+        redis.call('ZADD', KEYS[1], string.format('%.0f', (99 - tonumber(priority)) * 1e13 + tonumber(ARGV[1])), id)
+    end
+end
+return #expired
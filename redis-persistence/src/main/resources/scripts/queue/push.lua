@@ -0,0 +1,29 @@
+-- Pushes messages, replacing any existing entry of the same id.
+-- KEYS: delayed, ready, unacked, priorities, payloads
+-- ARGV: now, onlyIfAbsent ('1' skips ids that are already queued),
+--       followed by groups of: id, priority, deliverOn, hasPayload ('1' / '0'), payload
+-- Returns the number of messages pushed.
+local now = tonumber(ARGV[1])
+local onlyIfAbsent = ARGV[2] == '1'
+local pushed = 0
+for i = 3, #ARGV, 5 do
+    local id = ARGV[i]
+    if not (onlyIfAbsent and redis.call('HEXISTS', KEYS[4], id) == 1) then
+        local priority = tonumber(ARGV[i + 1])
+        local deliverOn = tonumber(ARGV[i + 2])
+        redis.call('ZREM', KEYS[1], id)
+        redis.call('ZREM', KEYS[2], id)
+        redis.call('ZREM', KEYS[3], id)
+        redis.call('HSET', KEYS[4], id, ARGV[i + 1])
+        if ARGV[i + 3] == '1' then
+            redis.call('HSET', KEYS[5], id, ARGV[i + 4])
+        end
+        if deliverOn > now then
+            redis.call('ZADD', KEYS[1], ARGV[i + 2], id)
+        else
+            redis.call('ZADD', KEYS[2], string.format('%.0f', (99 - priority) * 1e13 + deliverOn), id)
+        end
+        pushed = pushed + 1
+    end
+end
+return pushed
@@ -0,0 +1,8 @@
+-- Removes a message regardless of its state.
+-- KEYS: delayed, ready, unacked, priorities, payloads
+-- ARGV: id
+redis.call('ZREM', KEYS[1], ARGV[1])
+redis.call('ZREM', KEYS[2], ARGV[1])
+redis.call('ZREM', KEYS[3], ARGV[1])
+redis.call('HDEL', KEYS[5], ARGV[1])
+return redis.call('HDEL', KEYS[4], ARGV[1])
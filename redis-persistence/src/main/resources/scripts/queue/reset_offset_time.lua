@@ -0,0 +1,10 @@
+-- Makes a delayed or ready message deliverable now.
+-- KEYS: delayed, ready, priorities
+-- ARGV: id, now
+-- Returns 1 if the message was waiting for delivery, 0 otherwise.
+if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 and not redis.call('ZSCORE', KEYS[2], ARGV[1]) then
+    return 0
+end
+local priority = tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0')
+redis.call('ZADD', KEYS[2], string.format('%.0f', (99 - priority) * 1e13 + tonumber(ARGV[2])), ARGV[1])
+return 1
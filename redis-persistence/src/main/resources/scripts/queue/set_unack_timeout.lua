@@ -0,0 +1,9 @@
+-- Moves the lease expiry of a leased message.
+-- KEYS: unacked
+-- ARGV: id, leaseExpiry
+-- Returns 1 if the message was leased, 0 otherwise.
+if not redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+    return 0
+end
+redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+return 1
@@ -0,0 +1,3 @@
+-- KEYS: delayed, ready, unacked
+-- Returns the number of messages waiting for delivery and the number of leased messages.
+return { redis.call('ZCARD', KEYS[1]) + redis.call('ZCARD', KEYS[2]), redis.call('ZCARD', KEYS[3]) }
@@ -0,0 +1,32 @@
+-- Takes one token from a token bucket, refilling it for the time elapsed since the last call.
+-- The bucket holds up to capacity tokens, so a full window's worth may be taken in a burst, and is refilled
+-- continuously at capacity tokens per period.
+-- KEYS: bucket
+-- ARGV: capacity, period in millis, now in epoch millis, ttl in seconds
+-- Returns {1 if a token was taken and 0 otherwise, tokens left rounded down}.
+local capacity = tonumber(ARGV[1])
+local period = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(state[1])
+local ts = tonumber(state[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+elseif now > ts then
+    -- clocks of the calling nodes may differ, time never moves backwards for the bucket
+    tokens = math.min(capacity, tokens + (now - ts) * capacity / period)
+    ts = now
+else
+    tokens = math.min(capacity, tokens)
+end
+
+local taken = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+    taken = 1
+end
+redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))
+redis.call('EXPIRE', KEYS[1], ARGV[4])
+return {taken, math.floor(tokens)}
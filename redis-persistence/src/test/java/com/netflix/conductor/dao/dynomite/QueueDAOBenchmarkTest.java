@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.netflix.conductor.config.TestConfiguration;
+import com.netflix.conductor.core.queue.embedded.EmbeddedQueueDAO;
+import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.dao.dynomite.queue.DynoQueueDAO;
+import com.netflix.dyno.connectionpool.Host;
+import com.netflix.dyno.queues.ShardSupplier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.embedded.RedisServer;
+
+/**
+ * Compares the embedded queues, with and without a journal, with the dyno queues on a redis server, for push, pop and
+ * ack of {@code conductor.redis.queue.benchmark.messages} messages (10000 by default) and for a poll loop like the
+ * one of a worker. Only runs with {@code -Dconductor.redis.benchmarks=true}.
+ */
+public class QueueDAOBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueDAOBenchmarkTest.class);
+
+    private static final int POLL_BATCH_SIZE = 10;
+
+    private static RedisServer redisServer;
+    private static Jedis jedis;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final int messages = Integer.getInteger("conductor.redis.queue.benchmark.messages", 10000);
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        assumeTrue(Boolean.getBoolean("conductor.redis.benchmarks"));
+        redisServer = new RedisServer(6376);
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+        redisServer.start();
+        jedis = new Jedis("localhost", 6376);
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        if (redisServer != null) {
+            jedis.close();
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    public void testEmbeddedQueue() {
+        EmbeddedQueueDAO queueDAO = new EmbeddedQueueDAO(null, 0, 60_000, 0, 0);
+        try {
+            benchmark("embedded", queueDAO);
+        } finally {
+            queueDAO.close();
+        }
+    }
+
+    @Test
+    public void testEmbeddedQueueWithJournal() throws Exception {
+        EmbeddedQueueDAO queueDAO = new EmbeddedQueueDAO(folder.newFolder("queues"), 64 * 1024 * 1024, 60_000, 0, 0);
+        try {
+            benchmark("embedded with journal", queueDAO);
+        } finally {
+            queueDAO.close();
+        }
+    }
+
+    @Test
+    public void testDynoQueue() {
+        jedis.flushAll();
+        benchmark("dyno on redis", new DynoQueueDAO(jedis, jedis, new ShardSupplier() {
+
+            @Override
+            public Set<String> getQueueShards() {
+                return new HashSet<>(Collections.singletonList("a"));
+            }
+
+            @Override
+            public String getCurrentShard() {
+                return "a";
+            }
+
+            @Override
+            public String getShardForHost(Host host) {
+                return "a";
+            }
+        }, new TestConfiguration()));
+    }
+
+    private void benchmark(String name, QueueDAO queueDAO) {
+        String queueName = "benchmark_queue";
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            queueDAO.push(queueName, "message_" + i, 0);
+        }
+        long pushNanos = System.nanoTime() - start;
+
+        // a pop may return fewer messages than asked for
+        List<String> popped = new ArrayList<>(messages);
+        start = System.nanoTime();
+        while (popped.size() < messages) {
+            popped.addAll(queueDAO.pop(queueName, messages - popped.size(), 1000));
+        }
+        long popNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        popped.forEach(messageId -> assertTrue(queueDAO.ack(queueName, messageId)));
+        long ackNanos = System.nanoTime() - start;
+
+        // a worker polls small batches and acks each message before polling again
+        for (int i = 0; i < messages; i++) {
+            queueDAO.push(queueName, "polled_" + i, 0);
+        }
+        int polled = 0;
+        start = System.nanoTime();
+        while (polled < messages) {
+            List<String> batch = queueDAO.pop(queueName, POLL_BATCH_SIZE, 100);
+            batch.forEach(messageId -> queueDAO.ack(queueName, messageId));
+            polled += batch.size();
+        }
+        long pollNanos = System.nanoTime() - start;
+        assertEquals(0, queueDAO.getSize(queueName));
+
+        logger.info("{} queue, {} messages: push {} msg/s, pop {} msg/s, ack {} msg/s, poll loop {} msg/s", name,
+            messages, rate(pushNanos), rate(popNanos), rate(ackNanos), rate(pollNanos));
+    }
+
+    private long rate(long nanos) {
+        return messages * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite;
+
+import static org.junit.Assert.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.Task.Status;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.config.TestConfiguration;
+import com.netflix.conductor.dyno.DynoProxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.embedded.RedisServer;
+
+/**
+ * Compares reading the tasks of a large workflow with one GET per task against the bulk read, over a real redis
+ * connection so that round trips are accounted for.
+ */
+public class RedisExecutionDAOBulkReadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisExecutionDAOBulkReadTest.class);
+
+    private static final String WORKFLOW_ID = "bulk_read_workflow";
+    private static final int TASK_COUNT = 1000;
+    private static final int ITERATIONS = 5;
+
+    private static RedisServer redisServer;
+    private static Jedis jedis;
+    private static RedisExecutionDAO executionDAO;
+    private static DynoProxy dynoClient;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        redisServer = new RedisServer(6373);
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+        redisServer.start();
+        jedis = new Jedis("localhost", 6373);
+        jedis.flushAll();
+
+        ObjectMapper objectMapper = new JsonMapperProvider().get();
+        dynoClient = new DynoProxy(jedis);
+        executionDAO = new RedisExecutionDAO(dynoClient, objectMapper, new TestConfiguration());
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            Task task = new Task();
+            task.setTaskId("task_" + i);
+            task.setWorkflowInstanceId(WORKFLOW_ID);
+            task.setReferenceTaskName("ref_" + i);
+            task.setTaskDefName("bulk_read_task");
+            task.setTaskType("bulk_read_task");
+            task.setStatus(Status.SCHEDULED);
+            tasks.add(task);
+        }
+        executionDAO.createTasks(tasks);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        jedis.close();
+        redisServer.stop();
+    }
+
+    @Test
+    public void testBulkReadMatchesSequentialReads() {
+        List<String> taskIds = executionDAO.getTasksForWorkflow(WORKFLOW_ID).stream()
+            .map(Task::getTaskId)
+            .collect(Collectors.toList());
+        assertEquals(TASK_COUNT, taskIds.size());
+
+        long sequentialNanos = 0;
+        long bulkNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            List<String> sequential = taskIds.stream()
+                .map(taskId -> dynoClient.get(executionDAO.nsKey("TASK", taskId)))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+            sequentialNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Task> bulk = executionDAO.getTasks(taskIds);
+            bulkNanos += System.nanoTime() - start;
+
+            assertEquals(sequential.size(), bulk.size());
+            assertEquals(taskIds, bulk.stream().map(Task::getTaskId).collect(Collectors.toList()));
+        }
+        LOGGER.info("Reading {} tasks: sequential GETs {} ms, bulk read {} ms (average of {} runs)", TASK_COUNT,
+            TimeUnit.NANOSECONDS.toMillis(sequentialNanos / ITERATIONS),
+            TimeUnit.NANOSECONDS.toMillis(bulkNanos / ITERATIONS), ITERATIONS);
+    }
+
+    @Test
+    public void testMissingKeys() {
+        List<String> taskIds = new ArrayList<>();
+        taskIds.add("task_1");
+        taskIds.add("no_such_task");
+        taskIds.add("task_2");
+        List<Task> tasks = executionDAO.getTasks(taskIds);
+        assertEquals(2, tasks.size());
+        assertEquals("task_1", tasks.get(0).getTaskId());
+        assertEquals("task_2", tasks.get(1).getTaskId());
+    }
+}
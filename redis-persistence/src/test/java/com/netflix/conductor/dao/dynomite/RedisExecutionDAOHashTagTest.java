@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.Task.Status;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.common.run.Workflow.WorkflowStatus;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.config.TestConfiguration;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.ExecutionDAOTest;
+import com.netflix.conductor.dao.redis.JedisMock;
+import com.netflix.conductor.dyno.DynoProxy;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RedisExecutionDAOHashTagTest extends ExecutionDAOTest {
+
+    private static final ObjectMapper objectMapper = new JsonMapperProvider().get();
+
+    private JedisMock jedisMock;
+    private DynoProxy dynoClient;
+    private RedisExecutionDAO executionDAO;
+
+    @Before
+    public void init() {
+        jedisMock = new JedisMock();
+        dynoClient = new DynoProxy(jedisMock);
+        executionDAO = new RedisExecutionDAO(dynoClient, objectMapper, configuration(true));
+    }
+
+    @Test
+    public void testWorkflowKeysShareSlot() {
+        Workflow workflow = workflow("tagged_workflow");
+        executionDAO.createWorkflow(workflow);
+        executionDAO.createTasks(Collections.singletonList(task("tagged_workflow", "tagged_task")));
+
+        assertTrue(jedisMock.exists(executionDAO.nsKey("WORKFLOW", "{tagged_workflow}")));
+        assertTrue(jedisMock.exists(executionDAO.nsKey("TASK", "{tagged_workflow}", "tagged_task")));
+        assertTrue(jedisMock.exists(executionDAO.nsKey("WORKFLOW_TO_TASKS", "{tagged_workflow}")));
+        assertTrue(jedisMock.exists(executionDAO.nsKey("SCHEDULED_TASKS", "{tagged_workflow}")));
+
+        assertNotNull(executionDAO.getTask("tagged_task"));
+        assertEquals(1, executionDAO.getWorkflow("tagged_workflow", true).getTasks().size());
+
+        assertTrue(executionDAO.removeWorkflow("tagged_workflow"));
+        assertFalse(jedisMock.exists(executionDAO.nsKey("TASK", "{tagged_workflow}", "tagged_task")));
+        assertFalse(jedisMock.exists(executionDAO.nsKey("TASK_TO_WORKFLOW", "tagged_task")));
+    }
+
+    @Test
+    public void testUpdatedTaskIsFoundById() {
+        executionDAO.createWorkflow(workflow("tagged_workflow"));
+        Task task = task("tagged_workflow", "updated_task");
+        task.setStatus(Status.IN_PROGRESS);
+        executionDAO.updateTask(task);
+
+        assertEquals("tagged_workflow", jedisMock.get(executionDAO.nsKey("TASK_TO_WORKFLOW", "updated_task")));
+        assertEquals(Status.IN_PROGRESS, executionDAO.getTask("updated_task").getStatus());
+    }
+
+    @Test
+    public void testLegacyWorkflowIsMigratedOnRead() {
+        RedisExecutionDAO legacyDAO = new RedisExecutionDAO(dynoClient, objectMapper, configuration(false));
+        legacyDAO.createWorkflow(workflow("legacy_workflow"));
+        legacyDAO.createTasks(Collections.singletonList(task("legacy_workflow", "legacy_task")));
+
+        Workflow workflow = executionDAO.getWorkflow("legacy_workflow", true);
+        assertNotNull(workflow);
+        assertEquals(1, workflow.getTasks().size());
+        assertFalse(jedisMock.exists(legacyDAO.nsKey("WORKFLOW", "legacy_workflow")));
+        assertFalse(jedisMock.exists(legacyDAO.nsKey("TASK", "legacy_task")));
+        assertTrue(jedisMock.exists(executionDAO.nsKey("TASK", "{legacy_workflow}", "legacy_task")));
+
+        // the task is still deduplicated against the migrated SCHEDULED_TASKS
+        assertTrue(executionDAO.createTasks(Collections.singletonList(task("legacy_workflow", "legacy_task_2"))).isEmpty());
+        assertEquals("legacy_task", executionDAO.getTask("legacy_task").getTaskId());
+    }
+
+    @Test
+    public void testLegacyTaskIsMigratedOnRead() {
+        RedisExecutionDAO legacyDAO = new RedisExecutionDAO(dynoClient, objectMapper, configuration(false));
+        legacyDAO.createWorkflow(workflow("legacy_workflow"));
+        legacyDAO.createTasks(Collections.singletonList(task("legacy_workflow", "legacy_task")));
+
+        assertNotNull(executionDAO.getTask("legacy_task"));
+        assertTrue(jedisMock.exists(executionDAO.nsKey("WORKFLOW", "{legacy_workflow}")));
+        assertEquals(1, executionDAO.getTasks(Collections.singletonList("legacy_task")).size());
+    }
+
+    private static TestConfiguration configuration(boolean hashTagged) {
+        return new TestConfiguration() {
+            @Override
+            public boolean getBooleanProperty(String name, boolean defaultValue) {
+                if (name.startsWith("workflow.redis.hashtag.keys.")) {
+                    return hashTagged;
+                }
+                return super.getBooleanProperty(name, defaultValue);
+            }
+        };
+    }
+
+    private static Workflow workflow(String workflowId) {
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(workflowId);
+        workflow.setWorkflowType("hash_tag_workflow");
+        workflow.setCreateTime(System.currentTimeMillis());
+        workflow.setStatus(WorkflowStatus.RUNNING);
+        return workflow;
+    }
+
+    private static Task task(String workflowId, String taskId) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setWorkflowInstanceId(workflowId);
+        task.setReferenceTaskName("ref_name");
+        task.setTaskDefName("hash_tag_task");
+        task.setTaskType("hash_tag_task");
+        task.setStatus(Status.SCHEDULED);
+        return task;
+    }
+
+    @Override
+    protected ExecutionDAO getExecutionDAO() {
+        return executionDAO;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.Task.Status;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.config.TestConfiguration;
+import com.netflix.conductor.dao.ExecutionDAO;
+import com.netflix.conductor.dao.ExecutionDAOTest;
+import com.netflix.conductor.dyno.DynoProxy;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.embedded.RedisServer;
+
+/**
+ * Runs the execution DAO tests with task writes and concurrency limits done by script, which needs a real redis server.
+ */
+public class RedisExecutionDAOScriptedWritesTest extends ExecutionDAOTest {
+
+    private static RedisServer redisServer;
+    private static Jedis jedis;
+
+    private RedisExecutionDAO executionDAO;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        redisServer = new RedisServer(6374);
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+        redisServer.start();
+        jedis = new Jedis("localhost", 6374);
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        jedis.close();
+        redisServer.stop();
+    }
+
+    @Before
+    public void init() {
+        jedis.flushAll();
+        ObjectMapper objectMapper = new JsonMapperProvider().get();
+        TestConfiguration config = new TestConfiguration() {
+            @Override
+            public boolean getBooleanProperty(String name, boolean defaultValue) {
+                return "workflow.redis.task.scripted.writes.enabled".equals(name)
+                    || "workflow.redis.task.scripted.concurrency.limit.enabled".equals(name)
+                    || super.getBooleanProperty(name, defaultValue);
+            }
+
+            @Override
+            public int getIntProperty(String name, int defaultValue) {
+                return "workflow.redis.task.concurrency.limit.grace.seconds".equals(name) ? 1 : super.getIntProperty(name, defaultValue);
+            }
+        };
+        executionDAO = new RedisExecutionDAO(new DynoProxy(jedis), objectMapper, config);
+    }
+
+    @Test
+    public void testCreateTasksInOneRoundTrip() {
+        String workflowId = "scripted_workflow";
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            Task task = new Task();
+            task.setTaskId("scripted_" + i);
+            task.setWorkflowInstanceId(workflowId);
+            task.setReferenceTaskName("fork_" + i);
+            task.setTaskDefName("scripted_task");
+            task.setTaskType("scripted_task");
+            task.setStatus(Status.SCHEDULED);
+            tasks.add(task);
+        }
+        assertEquals(250, executionDAO.createTasks(tasks).size());
+        assertTrue(tasks.get(0).getScheduledTime() > 0);
+        assertEquals(250, executionDAO.getTasksForWorkflow(workflowId).size());
+        assertEquals(250, executionDAO.getPendingTasksForTaskType("scripted_task").size());
+
+        Task duplicate = new Task();
+        duplicate.setTaskId("scripted_duplicate");
+        duplicate.setWorkflowInstanceId(workflowId);
+        duplicate.setReferenceTaskName("fork_0");
+        duplicate.setTaskDefName("scripted_task");
+        duplicate.setTaskType("scripted_task");
+        duplicate.setStatus(Status.SCHEDULED);
+        tasks.add(duplicate);
+        assertEquals(0, executionDAO.createTasks(tasks.subList(249, 251)).size());
+        assertEquals(0, duplicate.getScheduledTime());
+
+        Task task = tasks.get(0);
+        task.setStatus(Status.COMPLETED);
+        executionDAO.updateTask(task);
+        assertEquals(Status.COMPLETED, executionDAO.getTask(task.getTaskId()).getStatus());
+        assertEquals(249, executionDAO.getPendingTasksForTaskType("scripted_task").size());
+        assertFalse(executionDAO.getPendingTasksForTaskType("scripted_task").contains(task));
+    }
+
+    @Test
+    public void testConcurrencySlotOfTaskNotStartedIsFreed() throws Exception {
+        TaskDef taskDef = new TaskDef("limited_task");
+        taskDef.setConcurrentExecLimit(1);
+        WorkflowTask workflowTask = new WorkflowTask();
+        workflowTask.setName("limited_task");
+        workflowTask.setTaskDefinition(taskDef);
+
+        Task first = new Task();
+        first.setTaskId("limited_1");
+        first.setTaskDefName("limited_task");
+        first.setWorkflowTask(workflowTask);
+        Task second = new Task();
+        second.setTaskId("limited_2");
+        second.setTaskDefName("limited_task");
+        second.setWorkflowTask(workflowTask);
+
+        assertFalse(executionDAO.exceedsInProgressLimit(first));
+        assertFalse(executionDAO.exceedsInProgressLimit(first));
+        assertTrue(executionDAO.exceedsInProgressLimit(second));
+
+        // the first task never moved to IN_PROGRESS, its slot is freed after the grace period
+        Thread.sleep(1100);
+        assertFalse(executionDAO.exceedsInProgressLimit(second));
+        assertTrue(executionDAO.exceedsInProgressLimit(first));
+    }
+
+    @Override
+    protected boolean supportsCompareAndSetWorkflow() {
+        return true;
+    }
+
+    @Override
+    protected ExecutionDAO getExecutionDAO() {
+        return executionDAO;
+    }
+}
@@ -23,12 +23,14 @@ import com.netflix.conductor.dao.ExecutionDAO;
 import com.netflix.conductor.dao.ExecutionDAOTest;
 import com.netflix.conductor.dao.redis.JedisMock;
 import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.jedis.JedisCluster;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 import redis.clients.jedis.commands.JedisCommands;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -36,6 +38,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Viren
@@ -56,6 +61,64 @@ public class RedisExecutionDAOTest extends ExecutionDAOTest {
         executionDAO = new RedisExecutionDAO(dynoClient, objectMapper, config);
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void testOptimisticConcurrencyNeedsScripting() {
+        new RedisExecutionDAO(new DynoProxy(new JedisMock()), objectMapper, optimisticConcurrencyConfig(false));
+    }
+
+    @Test
+    public void testOptimisticConcurrencyOnClusterNeedsHashTaggedKeys() {
+        redis.clients.jedis.JedisCluster jedisCluster = mock(redis.clients.jedis.JedisCluster.class);
+        when(jedisCluster.eval("return 1", Collections.emptyList(), Collections.emptyList())).thenReturn(1L);
+        DynoProxy dynoClient = new DynoProxy(new JedisCluster(jedisCluster));
+
+        try {
+            new RedisExecutionDAO(dynoClient, objectMapper, optimisticConcurrencyConfig(false));
+            fail("Optimistic concurrency control was enabled on Redis Cluster without hash-tagged keys");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("workflow.redis.hashtag.keys.enabled"));
+        }
+        new RedisExecutionDAO(dynoClient, objectMapper, optimisticConcurrencyConfig(true));
+    }
+
+    @Test
+    public void testScriptedWritesNeedSingleScriptingServer() {
+        redis.clients.jedis.JedisCluster jedisCluster = mock(redis.clients.jedis.JedisCluster.class);
+        when(jedisCluster.eval("return 1", Collections.emptyList(), Collections.emptyList())).thenReturn(1L);
+        List<DynoProxy> clients = Arrays.asList(new DynoProxy(new JedisMock()),
+            new DynoProxy(new JedisCluster(jedisCluster)));
+
+        for (String property : Arrays.asList("workflow.redis.task.scripted.writes.enabled",
+            "workflow.redis.task.scripted.concurrency.limit.enabled")) {
+            Configuration config = new TestConfiguration() {
+                @Override
+                public boolean getBooleanProperty(String name, boolean defaultValue) {
+                    return property.equals(name) || "workflow.redis.hashtag.keys.enabled".equals(name)
+                        || super.getBooleanProperty(name, defaultValue);
+                }
+            };
+            for (DynoProxy dynoClient : clients) {
+                try {
+                    new RedisExecutionDAO(dynoClient, objectMapper, config);
+                    fail(property + " was enabled without a single redis server that runs Lua scripts");
+                } catch (IllegalStateException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    private static Configuration optimisticConcurrencyConfig(boolean hashTaggedKeys) {
+        return new TestConfiguration() {
+            @Override
+            public boolean getBooleanProperty(String name, boolean defaultValue) {
+                return OPTIMISTIC_CONCURRENCY_ENABLED_PROPERTY_NAME.equals(name)
+                    || (hashTaggedKeys && "workflow.redis.hashtag.keys.enabled".equals(name))
+                    || super.getBooleanProperty(name, defaultValue);
+            }
+        };
+    }
+
     @Test
     public void testCorrelateTaskToWorkflowInDS() {
         String workflowId = "workflowId";
@@ -84,6 +147,26 @@ public class RedisExecutionDAOTest extends ExecutionDAOTest {
         assertEquals(taskId, tasks.get(0).getTaskId());
     }
 
+    @Test
+    public void testUpdateTaskCorrelatesOnce() {
+        String workflowId = "workflowId2";
+        Task task = new Task();
+        task.setTaskId("taskId2");
+        task.setWorkflowInstanceId(workflowId);
+        task.setReferenceTaskName("ref_name");
+        task.setTaskDefName("task2");
+        task.setTaskType("task2");
+        task.setStatus(Status.IN_PROGRESS);
+
+        executionDAO.updateTask(task);
+        task.setStatus(Status.COMPLETED);
+        executionDAO.updateTask(task);
+
+        List<Task> tasks = executionDAO.getTasksForWorkflow(workflowId);
+        assertEquals(1, tasks.size());
+        assertEquals(Status.COMPLETED, tasks.get(0).getStatus());
+    }
+
     @Override
     protected ExecutionDAO getExecutionDAO() {
         return executionDAO;
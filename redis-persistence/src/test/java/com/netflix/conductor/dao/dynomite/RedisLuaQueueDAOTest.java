@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.netflix.conductor.core.events.queue.Message;
+import com.netflix.conductor.core.events.queue.QueueLag;
+import com.netflix.conductor.dao.QueueDAO;
+import com.netflix.conductor.dao.dynomite.queue.RedisLuaQueueDAO;
+import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.jedis.JedisMock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.embedded.RedisServer;
+
+public class RedisLuaQueueDAOTest {
+
+    private static RedisServer redisServer;
+    private static Jedis jedis;
+
+    private QueueDAO queueDAO;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        redisServer = new RedisServer(6372);
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+        redisServer.start();
+        jedis = new Jedis("localhost", 6372);
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        jedis.close();
+        redisServer.stop();
+    }
+
+    @Before
+    public void init() {
+        jedis.flushAll();
+        queueDAO = new RedisLuaQueueDAO(new DynoProxy(jedis), "conductor.test", 0);
+    }
+
+    @Test
+    public void testScriptingSupport() {
+        assertTrue(new DynoProxy(jedis).supportsScripting());
+        assertFalse(new DynoProxy(new JedisMock()).supportsScripting());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInMemoryClient() {
+        new RedisLuaQueueDAO(new DynoProxy(new JedisMock()), "conductor.test", 0);
+    }
+
+    @Test
+    public void test() {
+        String queueName = "TestQueue";
+
+        for (int i = 0; i < 10; i++) {
+            queueDAO.push(queueName, "msg" + i, 0);
+        }
+        assertEquals(10, queueDAO.getSize(queueName));
+        assertEquals(10L, queueDAO.queuesDetail().get(queueName).longValue());
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(queueDAO.pushIfNotExists(queueName, "msg" + i, 0));
+        }
+
+        List<String> popped = queueDAO.pop(queueName, 10, 100);
+        assertEquals(10, popped.size());
+
+        Map<String, Map<String, Map<String, Long>>> verbose = queueDAO.queuesDetailVerbose();
+        assertEquals(0L, verbose.get(queueName).get("a").get("size").longValue());
+        assertEquals(10L, verbose.get(queueName).get("a").get("uacked").longValue());
+
+        popped.forEach(messageId -> assertTrue(queueDAO.ack(queueName, messageId)));
+        verbose = queueDAO.queuesDetailVerbose();
+        assertEquals(0L, verbose.get(queueName).get("a").get("uacked").longValue());
+        assertEquals(0, queueDAO.pop(queueName, 10, 100).size());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queueDAO.pushIfNotExists(queueName, "msg" + i, 0));
+        }
+        for (int i = 0; i < 10; i++) {
+            queueDAO.remove(queueName, "msg" + i);
+        }
+        assertEquals(0, queueDAO.getSize(queueName));
+
+        for (int i = 0; i < 10; i++) {
+            queueDAO.pushIfNotExists(queueName, "msg" + i, 0);
+        }
+        queueDAO.flush(queueName);
+        assertEquals(0, queueDAO.getSize(queueName));
+    }
+
+    @Test
+    public void testPriorityAndOffset() {
+        String queueName = "PriorityQueue";
+        queueDAO.push(queueName, "low", 1, 0);
+        queueDAO.push(queueName, "high", 90, 0);
+        queueDAO.push(queueName, "delayed", 99, 60);
+
+        assertEquals(Arrays.asList("high", "low"), queueDAO.pop(queueName, 3, 10));
+
+        assertTrue(queueDAO.resetOffsetTime(queueName, "delayed"));
+        assertEquals(Collections.singletonList("delayed"), queueDAO.pop(queueName, 1, 10));
+    }
+
+    @Test
+    public void testUnacksAndPostpone() {
+        String queueName = "UnackQueue";
+        queueDAO.push(queueName, Collections.singletonList(new Message("msg", "payload", null, 5)));
+        assertEquals(1, queueDAO.pop(queueName, 1, 10).size());
+
+        queueDAO.processUnacks(queueName);
+        assertEquals(0, queueDAO.getSize(queueName));
+
+        assertTrue(queueDAO.setUnackTimeout(queueName, "msg", 0));
+        queueDAO.processUnacks(queueName);
+        assertEquals(1, queueDAO.getSize(queueName));
+
+        List<Message> messages = queueDAO.pollMessages(queueName, 1, 10);
+        assertEquals(Collections.singletonList(new Message("msg", "payload", null, 5)), messages);
+
+        assertTrue(queueDAO.postpone(queueName, "msg", 5, 60));
+        assertEquals(1, queueDAO.getSize(queueName));
+        assertEquals(0, queueDAO.pop(queueName, 1, 10).size());
+        assertTrue(queueDAO.resetOffsetTime(queueName, "msg"));
+        assertEquals("payload", queueDAO.pollMessages(queueName, 1, 10).get(0).getPayload());
+    }
+
+    @Test
+    public void testQueueLag() {
+        String queueName = "LagQueue";
+        long start = System.currentTimeMillis();
+        queueDAO.push(queueName, "low", 0, 0);
+        queueDAO.push(queueName, "high", 50, 0);
+        queueDAO.push(queueName, "delayed", 0, 60);
+
+        QueueLag lag = queueDAO.getQueueLag(queueName);
+        assertEquals(3, lag.getSize());
+        assertTrue(lag.getOldestDeliverableTime() >= start);
+        assertTrue(lag.getOldestDeliverableTime() <= System.currentTimeMillis());
+
+        queueDAO.pop(queueName, 2, 10);
+        assertEquals(0, queueDAO.getQueueLag(queueName).getOldestDeliverableTime());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.conductor.dao.dynomite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.utils.JsonMapperProvider;
+import com.netflix.conductor.config.TestConfiguration;
+import com.netflix.conductor.dyno.DynoProxy;
+import com.netflix.conductor.jedis.JedisSentinel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.embedded.RedisServer;
+
+/**
+ * Runs the token bucket rate limiter against a real redis server, which is needed for Lua scripts, and compares its
+ * throughput on one hot task definition with the sorted set implementation.
+ */
+public class RedisRateLimitingDAOScriptedTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisRateLimitingDAOScriptedTest.class);
+
+    private static final int THREADS = 8;
+    private static final int CALLS_PER_THREAD = 2000;
+
+    private static final ObjectMapper objectMapper = new JsonMapperProvider().get();
+
+    private static RedisServer redisServer;
+    private static JedisPool jedisPool;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        redisServer = new RedisServer(6375);
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+        redisServer.start();
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(THREADS + 1);
+        jedisPool = new JedisPool(poolConfig, "localhost", 6375);
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        jedisPool.close();
+        redisServer.stop();
+    }
+
+    @Before
+    public void init() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.flushAll();
+        }
+    }
+
+    @Test
+    public void testBurstThenRefill() {
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        RedisRateLimitingDAO rateLimitingDAO = new RedisRateLimitingDAO(new DynoProxy(new JedisSentinel(jedisPool)),
+            objectMapper, configuration(true)) {
+            @Override
+            long currentTimeMillis() {
+                return now.get();
+            }
+        };
+        TaskDef taskDef = taskDef("burst_task", 5, 1);
+        Task task = task(taskDef);
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(rateLimitingDAO.exceedsRateLimitPerFrequency(task, taskDef));
+        }
+        assertTrue(rateLimitingDAO.exceedsRateLimitPerFrequency(task, taskDef));
+
+        // one token is refilled every 200ms
+        now.addAndGet(450);
+        assertFalse(rateLimitingDAO.exceedsRateLimitPerFrequency(task, taskDef));
+        assertFalse(rateLimitingDAO.exceedsRateLimitPerFrequency(task, taskDef));
+        assertTrue(rateLimitingDAO.exceedsRateLimitPerFrequency(task, taskDef));
+    }
+
+    @Test
+    public void testConcurrentCallersNeverExceedLimit() throws Exception {
+        RedisRateLimitingDAO rateLimitingDAO = rateLimitingDAO(true);
+        TaskDef taskDef = taskDef("contended_task", 100, 3600);
+        assertEquals(100, admitted(rateLimitingDAO, taskDef, 50));
+    }
+
+    @Test
+    public void testThroughputOfHotTaskDef() throws Exception {
+        for (boolean scripted : new boolean[]{false, true}) {
+            RedisRateLimitingDAO rateLimitingDAO = rateLimitingDAO(scripted);
+            TaskDef taskDef = taskDef("hot_task_" + scripted, Integer.MAX_VALUE / 2, 60);
+            long start = System.nanoTime();
+            admitted(rateLimitingDAO, taskDef, CALLS_PER_THREAD);
+            long elapsedMs = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+            LOGGER.info("{}: {} rate limit checks on one task def from {} threads in {} ms, {} checks/s",
+                scripted ? "token bucket script" : "sorted set commands", THREADS * CALLS_PER_THREAD, THREADS,
+                elapsedMs, THREADS * CALLS_PER_THREAD * 1000L / elapsedMs);
+        }
+    }
+
+    private static int admitted(RedisRateLimitingDAO rateLimitingDAO, TaskDef taskDef, int callsPerThread)
+        throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    Task task = task(taskDef);
+                    int admitted = 0;
+                    for (int j = 0; j < callsPerThread; j++) {
+                        if (!rateLimitingDAO.exceedsRateLimitPerFrequency(task, taskDef)) {
+                            admitted++;
+                        }
+                    }
+                    return admitted;
+                }));
+            }
+            int admitted = 0;
+            for (Future<Integer> future : futures) {
+                admitted += future.get();
+            }
+            return admitted;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static RedisRateLimitingDAO rateLimitingDAO(boolean scripted) {
+        return new RedisRateLimitingDAO(new DynoProxy(new JedisSentinel(jedisPool)), objectMapper,
+            configuration(scripted));
+    }
+
+    private static TestConfiguration configuration(boolean scripted) {
+        return new TestConfiguration() {
+            @Override
+            public boolean getBooleanProperty(String name, boolean defaultValue) {
+                if ("workflow.redis.ratelimit.scripted.enabled".equals(name)) {
+                    return scripted;
+                }
+                return super.getBooleanProperty(name, defaultValue);
+            }
+        };
+    }
+
+    private static TaskDef taskDef(String name, int rateLimitPerFrequency, int rateLimitFrequencyInSeconds) {
+        TaskDef taskDef = new TaskDef(name);
+        taskDef.setRateLimitPerFrequency(rateLimitPerFrequency);
+        taskDef.setRateLimitFrequencyInSeconds(rateLimitFrequencyInSeconds);
+        return taskDef;
+    }
+
+    private static Task task(TaskDef taskDef) {
+        Task task = new Task();
+        task.setTaskId(taskDef.getName() + "_" + Thread.currentThread().getId());
+        task.setTaskDefName(taskDef.getName());
+        return task;
+    }
+}
@@ -22,6 +22,7 @@ import redis.clients.jedis.params.ZIncrByParams;
 
 import java.util.AbstractMap;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -594,4 +595,17 @@ public class JedisClusterlTest {
     public void testBitfield() {
         jedisCluster.bitfield("key", "arguments");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEval() {
+        jedisCluster.eval("script", Collections.singletonList("key"), Collections.singletonList("arg"));
+        jedisCluster.evalsha("sha1", Collections.singletonList("key"), Collections.singletonList("arg"));
+    }
+
+    @Test
+    public void testMget() {
+        when(mockCluster.mget("a")).thenReturn(Collections.singletonList("1"));
+        when(mockCluster.mget("b")).thenReturn(Collections.singletonList(null));
+        assertEquals(Arrays.asList("1", null), jedisCluster.mget("a", "b"));
+    }
+}
@@ -15,6 +15,7 @@ package com.netflix.conductor.jedis;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.HashMap;
 import org.junit.Before;
 import org.junit.Test;
@@ -583,4 +584,11 @@ public class JedisSentinelTest {
     public void testBitfield() {
         jedisSentinel.bitfield("key", "arguments");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEval() {
+        jedisSentinel.eval("script", Collections.singletonList("key"), Collections.singletonList("arg"));
+        jedisSentinel.evalsha("sha1", Collections.singletonList("key"), Collections.singletonList("arg"));
+        jedisSentinel.scriptLoad("script");
+    }
+}
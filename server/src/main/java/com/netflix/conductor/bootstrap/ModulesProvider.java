@@ -32,6 +32,7 @@ import com.netflix.conductor.core.utils.S3PayloadStorage;
 import com.netflix.conductor.noopindex.NoopIndexModule;
 import com.netflix.conductor.dao.RedisWorkflowModule;
 import com.netflix.conductor.elasticsearch.ElasticSearchModule;
+import com.netflix.conductor.locking.postgres.config.PostgresLockModule;
 import com.netflix.conductor.locking.redis.config.RedisLockModule;
 import com.netflix.conductor.mysql.MySQLWorkflowModule;
 import com.netflix.conductor.server.DynomiteClusterModule;
@@ -160,6 +161,10 @@ public class ModulesProvider implements Provider<List<AbstractModule>> {
                     modules.add(new ZookeeperModule());
                     logger.info("Starting locking module using Zookeeper cluster.");
                     break;
+                case POSTGRES:
+                    modules.add(new PostgresLockModule());
+                    logger.info("Starting locking module using Postgres advisory locks.");
+                    break;
                 default:
                     break;
             }